@@ -8,7 +8,18 @@ CREATE TABLE IF NOT EXISTS gold_alert_history (
     change_percent DECIMAL(10, 4) NOT NULL COMMENT '变化值（百分比）',
     baseline_price DECIMAL(18, 4) NOT NULL COMMENT '报警前金价',
     latest_price DECIMAL(18, 4) NOT NULL COMMENT '报警当前金价',
+    symbol VARCHAR(16) NULL COMMENT '品种代码（主品种为空）',
+    price_suspect TINYINT(1) NOT NULL DEFAULT 0 COMMENT '触发行情在多来源交叉校验中偏差超限',
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '记录创建时间（UTC）',
     INDEX idx_gold_alert_history_time (alert_time_utc),
-    INDEX idx_gold_alert_history_level_time (alert_level, alert_time_utc)
+    INDEX idx_gold_alert_history_level_time (alert_level, alert_time_utc),
+    INDEX idx_gold_alert_history_symbol_time (symbol, alert_time_utc)
 ) COMMENT='金价波动告警历史';
+
+-- 旧表升级
+-- ALTER TABLE gold_alert_history
+--     ADD COLUMN symbol VARCHAR(16) NULL COMMENT '品种代码（主品种为空）' AFTER latest_price;
+-- ALTER TABLE gold_alert_history
+--     ADD COLUMN price_suspect TINYINT(1) NOT NULL DEFAULT 0 COMMENT '触发行情在多来源交叉校验中偏差超限' AFTER symbol;
+-- ALTER TABLE gold_alert_history
+--     ADD INDEX idx_gold_alert_history_symbol_time (symbol, alert_time_utc);
@@ -0,0 +1,22 @@
+-- 金价 K 线（OHLC）汇总表，由实时快照增量更新，并可通过回填任务从历史快照重建
+CREATE TABLE IF NOT EXISTS gold_price_candle (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主键',
+    symbol VARCHAR(16) NOT NULL COMMENT '品种代码',
+    resolution VARCHAR(8) NOT NULL COMMENT '周期：1m/5m/1h/1d',
+    bucket_start DATETIME(6) NOT NULL COMMENT '周期起始时间（UTC 对齐）',
+    open_price DECIMAL(19, 6) NOT NULL COMMENT '开盘价',
+    high_price DECIMAL(19, 6) NOT NULL COMMENT '最高价',
+    low_price DECIMAL(19, 6) NOT NULL COMMENT '最低价',
+    close_price DECIMAL(19, 6) NOT NULL COMMENT '收盘价',
+    open_at DATETIME(6) NOT NULL COMMENT '周期内首个快照时间',
+    close_at DATETIME(6) NOT NULL COMMENT '周期内最后一个快照时间',
+    tick_count BIGINT NOT NULL COMMENT '周期内快照数量',
+    UNIQUE KEY uk_gold_price_candle_symbol_resolution_bucket (symbol, resolution, bucket_start)
+) COMMENT='金价 K 线汇总';
+
+-- 旧表升级：已有 K 线均属主品种（默认 XAU，以 gold.symbol 为准）
+-- ALTER TABLE gold_price_candle
+--     ADD COLUMN symbol VARCHAR(16) NOT NULL DEFAULT 'XAU' COMMENT '品种代码' AFTER id,
+--     DROP INDEX uk_gold_price_candle_resolution_bucket,
+--     ADD UNIQUE KEY uk_gold_price_candle_symbol_resolution_bucket (symbol, resolution, bucket_start);
+-- ALTER TABLE gold_price_candle ALTER COLUMN symbol DROP DEFAULT;
@@ -7,5 +7,12 @@ CREATE TABLE `gold_price_snapshot` (
   `updated_at` datetime(6) DEFAULT NULL,
   `updated_at_readable` varchar(64) DEFAULT NULL,
   PRIMARY KEY (`id`),
-  KEY `idx_gold_price_snapshot_fetched_at` (`fetched_at`)
-) ENGINE=InnoDB AUTO_INCREMENT=10666 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci
\ No newline at end of file
+  KEY `idx_gold_price_snapshot_symbol_fetched_at` (`symbol`,`fetched_at`)
+) ENGINE=InnoDB AUTO_INCREMENT=10666 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- 旧表升级：按品种查询走 (symbol, fetched_at)，原 fetched_at 单列索引被其覆盖后删除；
+-- 查询按 symbol 过滤，缺失品种的旧行需先补上主品种（默认 XAU，以 gold.symbol 为准）
+-- UPDATE gold_price_snapshot SET symbol = 'XAU' WHERE symbol IS NULL;
+-- ALTER TABLE gold_price_snapshot
+--     ADD INDEX idx_gold_price_snapshot_symbol_fetched_at (symbol, fetched_at),
+--     DROP INDEX idx_gold_price_snapshot_fetched_at;
@@ -1,10 +1,25 @@
--- 金价阈值触发历史记录表
+-- 金价阈值触发历史记录表（每个用户可登记多条待触发阈值）
 CREATE TABLE IF NOT EXISTS gold_threshold_history (
     id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主键',
+    username VARCHAR(64) NULL COMMENT '登记用户（旧版全局阈值为空）',
+    symbol VARCHAR(16) NULL COMMENT '品种代码（主品种为空）',
     threshold DECIMAL(18, 4) NOT NULL COMMENT '阈值',
+    direction VARCHAR(8) NULL COMMENT '触发方向：UP/ DOWN，为空表示双向',
     set_at TIMESTAMP NOT NULL COMMENT '阈值设置时间',
     triggered_at TIMESTAMP NULL COMMENT '触发时间',
     triggered_price DECIMAL(18, 4) NULL COMMENT '触发时金价',
     status VARCHAR(32) NOT NULL COMMENT '状态：PENDING/ TRIGGERED/ CLEARED',
-    INDEX idx_gold_threshold_history_status_set_at (status, set_at)
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '最后变更时间，多副本据此增量同步内存索引',
+    INDEX idx_gold_threshold_history_status_set_at (status, set_at),
+    INDEX idx_gold_threshold_history_username_status (username, status),
+    INDEX idx_gold_threshold_history_updated_at (updated_at)
 ) COMMENT='金价阈值触发历史';
+
+-- 旧表升级
+-- ALTER TABLE gold_threshold_history
+--     ADD COLUMN username VARCHAR(64) NULL COMMENT '登记用户（旧版全局阈值为空）' AFTER id,
+--     ADD COLUMN symbol VARCHAR(16) NULL COMMENT '品种代码（主品种为空）' AFTER username,
+--     ADD COLUMN direction VARCHAR(8) NULL COMMENT '触发方向：UP/ DOWN，为空表示双向' AFTER threshold,
+--     ADD COLUMN updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '最后变更时间，多副本据此增量同步内存索引',
+--     ADD INDEX idx_gold_threshold_history_username_status (username, status),
+--     ADD INDEX idx_gold_threshold_history_updated_at (updated_at);
@@ -2,16 +2,33 @@ package com.xbleey.goldpricealert.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.xbleey.goldpricealert.service.FetchRetrySleeper;
+import com.xbleey.goldpricealert.repository.GoldAlertHistoryStore;
+import com.xbleey.goldpricealert.repository.GoldPriceCandleStore;
+import com.xbleey.goldpricealert.repository.GoldPriceSnapshotStores;
+import com.xbleey.goldpricealert.service.FetchRetryScheduler;
+import com.xbleey.goldpricealert.service.GoldAlertBacktester;
+import com.xbleey.goldpricealert.service.GoldAlertEmailService;
+import com.xbleey.goldpricealert.service.GoldAlertLevelConfigStore;
+import com.xbleey.goldpricealert.service.GoldAlertNotifier;
+import com.xbleey.goldpricealert.service.GoldInstrumentPipelines;
+import com.xbleey.goldpricealert.service.GoldPipelineStages;
+import com.xbleey.goldpricealert.service.GoldPriceCandleAggregator;
+import com.xbleey.goldpricealert.service.GoldPriceHistory;
+import com.xbleey.goldpricealert.service.GoldThresholdAlertScheduler;
+import com.xbleey.goldpricealert.service.GoldThresholdStore;
 import okhttp3.OkHttpClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.time.Clock;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 @Configuration
 public class GoldAppConfig {
@@ -33,9 +50,79 @@ public class GoldAppConfig {
         return Clock.systemUTC();
     }
 
+    // 重试只是在调度线程上登记一次延迟任务，HTTP 请求本身在 goldFetchExecutor 的虚拟线程上执行，不占用调度线程
     @Bean
-    public FetchRetrySleeper fetchRetrySleeper() {
-        return Thread::sleep;
+    public FetchRetryScheduler fetchRetryScheduler(TaskScheduler taskScheduler, Clock clock) {
+        return (task, delay) -> taskScheduler.schedule(task, clock.instant().plus(delay));
+    }
+
+    @Bean
+    public GoldPipelineStages goldPipelineStages(GoldProperties properties) {
+        return GoldPipelineStages.create(properties.getPipeline());
+    }
+
+    // 主品种的 K 线聚合；其余品种由 GoldInstrumentPipelines 经 forSymbol 取得
+    @Bean
+    public GoldPriceCandleAggregator goldPriceCandleAggregator(GoldPriceCandleStore candleStore, GoldProperties properties) {
+        return new GoldPriceCandleAggregator(candleStore, properties.getSymbol());
+    }
+
+    @Bean
+    public GoldInstrumentPipelines goldInstrumentPipelines(
+            GoldProperties properties,
+            OkHttpClient okHttpClient,
+            ObjectMapper objectMapper,
+            GoldPriceSnapshotStores stores,
+            GoldPriceHistory history,
+            GoldAlertLevelConfigStore configStore,
+            GoldAlertEmailService emailService,
+            GoldPipelineStages stages,
+            GoldAlertNotifier alertNotifier,
+            GoldAlertHistoryStore alertHistoryStore,
+            GoldThresholdStore thresholdStore,
+            GoldThresholdAlertScheduler thresholdScheduler,
+            GoldPriceCandleAggregator candleAggregator,
+            Clock clock
+    ) {
+        return GoldInstrumentPipelines.build(
+                properties,
+                okHttpClient,
+                objectMapper,
+                stores,
+                history,
+                configStore,
+                emailService,
+                stages,
+                alertNotifier,
+                alertHistoryStore,
+                thresholdStore,
+                thresholdScheduler,
+                candleAggregator,
+                clock
+        );
+    }
+
+    // 回测按时间分区在公共 ForkJoinPool 上并行回放
+    @Bean
+    public GoldAlertBacktester goldAlertBacktester(
+            GoldPriceHistory history,
+            GoldAlertMailProperties mailProperties,
+            Clock clock
+    ) {
+        return new GoldAlertBacktester(
+                history,
+                mailProperties,
+                ForkJoinPool.commonPool(),
+                GoldAlertBacktester.DEFAULT_PARTITION_TICKS,
+                clock
+        );
+    }
+
+    // 波动告警邮件经通知阶段异步发送，评估阶段不等待 SMTP
+    @Bean
+    @Primary
+    public GoldAlertNotifier stagedAlertNotifier(GoldPipelineStages stages, GoldAlertEmailService emailService) {
+        return stages.notifier(emailService);
     }
 
     @Bean
@@ -47,6 +134,12 @@ public class GoldAppConfig {
         return scheduler;
     }
 
+    // 每个品种的每次拉取一个虚拟线程，阻塞在网络 IO 上不占平台线程，品种数增加不需要调线程池
+    @Bean(destroyMethod = "close")
+    public ExecutorService goldFetchExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("gold-fetch-", 0).factory());
+    }
+
     @Bean
     public Executor aiChatStreamExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -57,4 +150,15 @@ public class GoldAppConfig {
         executor.initialize();
         return executor;
     }
+
+    @Bean
+    public Executor candleBackfillExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(10_000);
+        executor.setThreadNamePrefix("gold-candle-backfill-");
+        executor.initialize();
+        return executor;
+    }
 }
@@ -1,12 +1,21 @@
 package com.xbleey.goldpricealert.config;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
+import java.math.BigDecimal;
 import java.net.URI;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Data
 @Component
@@ -14,12 +23,333 @@ import java.time.Duration;
 public class GoldProperties {
 
     private URI apiUrl;
+    // 主品种的备用来源，按优先级排列
+    private List<URI> fallbackApiUrls = new ArrayList<>();
+    // apiUrl 对应的主品种，快照、告警、阈值、K 线均以它为准；沿用历史快照中的 symbol
+    private String symbol = "XAU";
+    // 额外拉取的品种（如 XAG、XPT 或其他计价货币），与主品种在同一轮内并发拉取
+    private List<Instrument> instruments = new ArrayList<>();
+    // 关闭自适应轮询时的固定拉取间隔
     private Duration fetchInterval;
+    private Polling polling = new Polling();
+    private Stream stream = new Stream();
+    private Hedge hedge = new Hedge();
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private Cluster cluster = new Cluster();
+    private Calendar calendar = new Calendar();
+    private Threshold threshold = new Threshold();
+    private Pipeline pipeline = new Pipeline();
 
     @PostConstruct
     public void validate() {
         if (apiUrl == null) {
             throw new IllegalStateException("gold.apiUrl must be configured");
         }
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalStateException("gold.symbol must not be blank");
+        }
+        if (instruments == null) {
+            instruments = new ArrayList<>();
+        }
+        if (fallbackApiUrls == null) {
+            fallbackApiUrls = new ArrayList<>();
+        }
+        if (hedge == null) {
+            hedge = new Hedge();
+        }
+        hedge.validate();
+        if (circuitBreaker == null) {
+            circuitBreaker = new CircuitBreaker();
+        }
+        circuitBreaker.validate();
+        if (polling == null) {
+            polling = new Polling();
+        }
+        polling.validate(fetchInterval);
+        if (stream == null) {
+            stream = new Stream();
+        }
+        stream.validate();
+        if (cluster == null) {
+            cluster = new Cluster();
+        }
+        cluster.validate();
+        if (calendar == null) {
+            calendar = new Calendar();
+        }
+        calendar.validate();
+        if (threshold == null) {
+            threshold = new Threshold();
+        }
+        threshold.validate();
+        if (pipeline == null) {
+            pipeline = new Pipeline();
+        }
+        pipeline.validate();
+        Set<String> symbols = new HashSet<>();
+        for (Instrument instrument : allInstruments()) {
+            if (instrument.getSymbol() == null || instrument.getSymbol().isBlank()) {
+                throw new IllegalStateException("gold.instruments[].symbol must not be blank");
+            }
+            if (instrument.getApiUrl() == null) {
+                throw new IllegalStateException("gold.instruments[].api-url must be configured for " + instrument.getSymbol());
+            }
+            if (!symbols.add(instrument.getSymbol())) {
+                throw new IllegalStateException("duplicate gold instrument symbol: " + instrument.getSymbol());
+            }
+        }
+        // 一轮至少每个品种请求一次，额度小于品种数时一轮也拉不完
+        if (polling.getHourlyBudget() > 0 && polling.getHourlyBudget() < symbols.size()) {
+            throw new IllegalStateException("gold.polling.hourly-budget must be 0 or at least the number of instruments ("
+                    + symbols.size() + ")");
+        }
+        if (stream.isEnabled()) {
+            for (String target : stream.getSymbols().values()) {
+                if (!symbols.contains(target)) {
+                    throw new IllegalStateException("gold.stream.symbols maps to unconfigured instrument: " + target);
+                }
+            }
+        }
+    }
+
+    // 主品种在前
+    public List<Instrument> allInstruments() {
+        List<Instrument> all = new ArrayList<>();
+        all.add(new Instrument(symbol, apiUrl, fallbackApiUrls));
+        if (instruments != null) {
+            all.addAll(instruments);
+        }
+        return all;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Instrument {
+
+        private String symbol;
+        private URI apiUrl;
+        private List<URI> fallbackApiUrls = new ArrayList<>();
+
+        // 主来源在前
+        public List<URI> providerUrls() {
+            List<URI> urls = new ArrayList<>();
+            urls.add(apiUrl);
+            if (fallbackApiUrls != null) {
+                urls.addAll(fallbackApiUrls);
+            }
+            return urls;
+        }
+    }
+
+    // 自适应轮询：近期已实现波动率越高、价格离阈值越近，间隔越接近 min-interval；行情平静时退到 max-interval。
+    // 滑动一小时内实际发给上游的请求数（各品种、重试、对冲、交叉校验与 GET /price 都计入）不超过 hourly-budget
+    @Data
+    public static class Polling {
+
+        private boolean adaptive = true;
+        private Duration minInterval = Duration.ofSeconds(15);
+        private Duration maxInterval = Duration.ofMinutes(3);
+        // 默认与原先固定 60s 拉取单一品种的上游用量相同；0 表示不限制
+        private int hourlyBudget = 60;
+        private Duration volatilityWindow = Duration.ofMinutes(15);
+        // volatility-window 内已实现波动率（对数收益平方和开根号，%）达到该值时按 min-interval 拉取
+        private double hotVolatilityPercent = 0.15;
+        // 价格与阈值的距离（%）在该范围内时开始加速，距离为 0 时按 min-interval 拉取
+        private double thresholdProximityPercent = 0.2;
+
+        void validate(Duration fetchInterval) {
+            if (!adaptive && fetchInterval == null) {
+                throw new IllegalStateException("gold.fetch-interval must be configured when gold.polling.adaptive is false");
+            }
+            if (minInterval == null || maxInterval == null || !minInterval.isPositive() || maxInterval.compareTo(minInterval) < 0) {
+                throw new IllegalStateException("gold.polling.min-interval/max-interval must satisfy 0 < min-interval <= max-interval");
+            }
+            if (hourlyBudget < 0) {
+                throw new IllegalStateException("gold.polling.hourly-budget must be >= 0");
+            }
+            if (volatilityWindow == null || !volatilityWindow.isPositive()) {
+                throw new IllegalStateException("gold.polling.volatility-window must be > 0");
+            }
+            if (hotVolatilityPercent <= 0 || thresholdProximityPercent <= 0) {
+                throw new IllegalStateException("gold.polling.hot-volatility-percent/threshold-proximity-percent must be > 0");
+            }
+        }
+    }
+
+    // 推送行情：ws/wss 地址按 WebSocket 订阅，http/https 地址按 SSE 订阅；消息为 gold-api.com 响应格式，按 symbols 映射到品种
+    @Data
+    public static class Stream {
+
+        private boolean enabled = false;
+        private URI url;
+        // 推送消息中的 symbol -> 已配置品种。上游 symbol 不含计价货币，必须显式映射；缺少 symbol 或未映射的消息直接丢弃
+        private Map<String, String> symbols = new LinkedHashMap<>();
+        private Duration reconnectMinDelay = Duration.ofSeconds(1);
+        private Duration reconnectMaxDelay = Duration.ofSeconds(60);
+        // 超过该时长没有收到任何数据（含心跳）视为连接失效并重连
+        private Duration idleTimeout = Duration.ofSeconds(60);
+
+        public boolean isWebSocket() {
+            String scheme = url == null ? null : url.getScheme();
+            return "ws".equalsIgnoreCase(scheme) || "wss".equalsIgnoreCase(scheme);
+        }
+
+        void validate() {
+            if (!enabled) {
+                return;
+            }
+            if (url == null || url.getScheme() == null) {
+                throw new IllegalStateException("gold.stream.url must be configured when gold.stream.enabled is true");
+            }
+            String scheme = url.getScheme().toLowerCase();
+            if (!scheme.equals("ws") && !scheme.equals("wss") && !scheme.equals("http") && !scheme.equals("https")) {
+                throw new IllegalStateException("gold.stream.url must use ws, wss, http or https");
+            }
+            if (symbols == null || symbols.isEmpty()) {
+                throw new IllegalStateException("gold.stream.symbols must map stream symbols to configured instruments");
+            }
+            if (reconnectMinDelay == null || reconnectMaxDelay == null || !reconnectMinDelay.isPositive()
+                    || reconnectMaxDelay.compareTo(reconnectMinDelay) < 0) {
+                throw new IllegalStateException("gold.stream.reconnect-min-delay/reconnect-max-delay must satisfy 0 < min <= max");
+            }
+            if (idleTimeout == null || !idleTimeout.isPositive()) {
+                throw new IllegalStateException("gold.stream.idle-timeout must be > 0");
+            }
+        }
+    }
+
+    // 定时拉取只在所选交易日历的交易时段内进行，休市期间调度直接等到下一次开市
+    @Data
+    public static class Calendar {
+
+        private String name = "LBMA";
+        private String location = "classpath:trading-calendars.yml";
+
+        void validate() {
+            if (name == null || name.isBlank() || location == null || location.isBlank()) {
+                throw new IllegalStateException("gold.calendar.name and gold.calendar.location must not be blank");
+            }
+        }
+    }
+
+    // 用户价格阈值：每个用户可登记的待触发阈值上限；多副本部署时各实例按 sync-interval 从库中增量同步其他实例的登记与清除
+    @Data
+    public static class Threshold {
+
+        private int maxPerUser = 100;
+        private Duration syncInterval = Duration.ofSeconds(10);
+
+        void validate() {
+            if (maxPerUser <= 0) {
+                throw new IllegalStateException("gold.threshold.max-per-user must be > 0");
+            }
+            if (syncInterval == null || !syncInterval.isPositive()) {
+                throw new IllegalStateException("gold.threshold.sync-interval must be > 0");
+            }
+        }
+    }
+
+    // 分阶段处理：拉取结果依次经过入库、评估、通知三个阶段，各阶段的有界队列容量；队列满时丢弃新元素，不阻塞上一阶段
+    @Data
+    public static class Pipeline {
+
+        private int ingestCapacity = 1024;
+        private int evaluateCapacity = 1024;
+        private int notifyCapacity = 256;
+
+        void validate() {
+            if (ingestCapacity <= 0 || evaluateCapacity <= 0 || notifyCapacity <= 0) {
+                throw new IllegalStateException("gold.pipeline.*-capacity must be > 0");
+            }
+        }
+    }
+
+    // 多副本部署：实例之间通过 Redis 租约选出一个 leader 负责拉取、评估与归档，其余实例经 pub/sub 同步行情到本地缓冲
+    @Data
+    public static class Cluster {
+
+        private boolean enabled = false;
+        // 未配置时取主机名加随机后缀，同一主机上的多个实例互不冲突
+        private String instanceId;
+        private String leaseKey = "gold:cluster:leader";
+        private String tickChannel = "gold:cluster:ticks";
+        // leader 失联后最长经过 lease-ttl + renew-interval 由其他实例接管
+        private Duration leaseTtl = Duration.ofSeconds(15);
+        private Duration renewInterval = Duration.ofSeconds(5);
+
+        void validate() {
+            if (!enabled) {
+                return;
+            }
+            if (leaseKey == null || leaseKey.isBlank() || tickChannel == null || tickChannel.isBlank()) {
+                throw new IllegalStateException("gold.cluster.lease-key and gold.cluster.tick-channel must not be blank");
+            }
+            if (leaseTtl == null || renewInterval == null || !renewInterval.isPositive()
+                    || leaseTtl.compareTo(renewInterval.multipliedBy(2)) < 0) {
+                throw new IllegalStateException("gold.cluster.lease-ttl must be at least twice gold.cluster.renew-interval (> 0)");
+            }
+        }
+    }
+
+    // 每个报价来源一个熔断器：最近 window 次调用中失败与慢调用占比达到 failure-rate-threshold（%）后打开，
+    // open-duration 后只放行一个探测请求决定是否关闭
+    @Data
+    public static class CircuitBreaker {
+
+        private int window = 20;
+        private int minimumCalls = 10;
+        private double failureRateThreshold = 50;
+        private Duration slowCallDuration = Duration.ofSeconds(5);
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        void validate() {
+            if (minimumCalls <= 0 || window < minimumCalls) {
+                throw new IllegalStateException("gold.circuit-breaker.window must be >= minimum-calls > 0");
+            }
+            if (failureRateThreshold <= 0 || failureRateThreshold > 100) {
+                throw new IllegalStateException("gold.circuit-breaker.failure-rate-threshold must be in (0, 100]");
+            }
+            if (slowCallDuration == null || !slowCallDuration.isPositive()) {
+                throw new IllegalStateException("gold.circuit-breaker.slow-call-duration must be > 0");
+            }
+            if (openDuration == null || !openDuration.isPositive()) {
+                throw new IllegalStateException("gold.circuit-breaker.open-duration must be > 0");
+            }
+        }
+    }
+
+    // 多来源对冲：当前来源超过其近期延迟的 percentile 分位仍未返回时，向下一个来源发起对冲请求
+    @Data
+    public static class Hedge {
+
+        private double percentile = 0.95;
+        // 延迟样本不足 min-samples 时按 max-delay 等待
+        private Duration minDelay = Duration.ofMillis(200);
+        private Duration maxDelay = Duration.ofSeconds(2);
+        private int minSamples = 20;
+        private int window = 200;
+        // 各来源报价偏差超过该百分比时把被校验的行情标记为可疑（见 GoldPriceCrossCheckMonitor）
+        private BigDecimal maxDeviationPercent = new BigDecimal("0.5");
+        // 每隔该时长同时请求全部来源一次做交叉校验，0 表示只在对冲或故障转移时校验
+        private Duration crossCheckInterval = Duration.ofMinutes(10);
+
+        void validate() {
+            if (percentile <= 0 || percentile > 1) {
+                throw new IllegalStateException("gold.hedge.percentile must be in (0, 1]");
+            }
+            if (minDelay == null || maxDelay == null || minDelay.isNegative() || maxDelay.compareTo(minDelay) < 0) {
+                throw new IllegalStateException("gold.hedge.min-delay/max-delay must satisfy 0 <= min-delay <= max-delay");
+            }
+            if (minSamples <= 0 || window < minSamples) {
+                throw new IllegalStateException("gold.hedge.window must be >= min-samples > 0");
+            }
+            if (maxDeviationPercent == null || maxDeviationPercent.signum() <= 0) {
+                throw new IllegalStateException("gold.hedge.max-deviation-percent must be > 0");
+            }
+            if (crossCheckInterval == null || crossCheckInterval.isNegative()) {
+                throw new IllegalStateException("gold.hedge.cross-check-interval must be >= 0");
+            }
+        }
     }
 }
@@ -0,0 +1,109 @@
+package com.xbleey.goldpricealert.config;
+
+import com.xbleey.goldpricealert.enums.GoldSnapshotStoreType;
+import com.xbleey.goldpricealert.mapper.GoldPriceSnapshotMapper;
+import com.xbleey.goldpricealert.repository.GoldPriceSnapshotStore;
+import com.xbleey.goldpricealert.repository.GoldPriceSnapshotStores;
+import com.xbleey.goldpricealert.repository.GoldSnapshotArchive;
+import com.xbleey.goldpricealert.repository.JournalGoldPriceSnapshotStore;
+import com.xbleey.goldpricealert.repository.MyBatisPlusGoldPriceSnapshotStore;
+import com.xbleey.goldpricealert.repository.TieredGoldPriceSnapshotStore;
+import com.xbleey.goldpricealert.repository.WriteBehindGoldPriceSnapshotStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.nio.file.Path;
+
+// 快照存储按配置逐层装配：MySQL（或单机日志文件）-> 冷热分层（可选，仅 MySQL）-> write-behind（可选），业务侧只注入最外层；
+// 每个品种各装配一条，主品种之外的链路收在 GoldPriceSnapshotStores 中
+@Configuration
+public class GoldSnapshotStoreConfig {
+
+    @Bean
+    public MyBatisPlusGoldPriceSnapshotStore myBatisPlusGoldPriceSnapshotStore(
+            GoldPriceSnapshotMapper mapper,
+            GoldProperties goldProperties
+    ) {
+        return new MyBatisPlusGoldPriceSnapshotStore(mapper, goldProperties.getSymbol());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "gold.snapshot-store.archive", name = "enabled", havingValue = "true")
+    public GoldSnapshotArchive goldSnapshotArchive(GoldSnapshotStoreProperties properties) {
+        return new GoldSnapshotArchive(Path.of(properties.getArchive().getDirectory()));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "gold.snapshot-store", name = "type", havingValue = "journal")
+    public JournalGoldPriceSnapshotStore journalGoldPriceSnapshotStore(GoldSnapshotStoreProperties properties) {
+        GoldSnapshotStoreProperties.Journal journal = properties.getJournal();
+        return new JournalGoldPriceSnapshotStore(Path.of(journal.getPath()), journal.isSyncOnWrite());
+    }
+
+    // write-behind 实例的 @PostConstruct/@PreDestroy 按实际类型生效，负责启动刷写线程与关闭前刷写
+    @Bean
+    @Primary
+    public GoldPriceSnapshotStore goldPriceSnapshotStore(
+            MyBatisPlusGoldPriceSnapshotStore persistentStore,
+            ObjectProvider<JournalGoldPriceSnapshotStore> journal,
+            ObjectProvider<GoldSnapshotArchive> archive,
+            GoldSnapshotStoreProperties properties
+    ) {
+        JournalGoldPriceSnapshotStore journalStore = journal.getIfAvailable();
+        GoldPriceSnapshotStore store = journalStore != null ? journalStore : tiered(persistentStore, archive);
+        if (properties.getWriteBehind().isEnabled()) {
+            return new WriteBehindGoldPriceSnapshotStore(store, properties);
+        }
+        return store;
+    }
+
+    @Bean
+    public GoldPriceSnapshotStores goldPriceSnapshotStores(
+            GoldPriceSnapshotStore goldPriceSnapshotStore,
+            MyBatisPlusGoldPriceSnapshotStore persistentStore,
+            ObjectProvider<GoldSnapshotArchive> archive,
+            GoldPriceSnapshotMapper mapper,
+            GoldProperties goldProperties,
+            GoldSnapshotStoreProperties properties
+    ) {
+        GoldPriceSnapshotStores stores = new GoldPriceSnapshotStores(goldProperties.getSymbol(), goldPriceSnapshotStore);
+        GoldSnapshotArchive primaryArchive = archive.getIfAvailable();
+        if (primaryArchive != null) {
+            stores.addArchiveTier(goldProperties.getSymbol(), persistentStore, primaryArchive);
+        }
+        for (GoldProperties.Instrument instrument : goldProperties.getInstruments()) {
+            String symbol = instrument.getSymbol();
+            GoldPriceSnapshotStore store;
+            if (properties.getType() == GoldSnapshotStoreType.JOURNAL) {
+                GoldSnapshotStoreProperties.Journal journal = properties.getJournal();
+                Path path = GoldPriceSnapshotStores.perSymbolFile(Path.of(journal.getPath()), symbol);
+                store = stores.manage(new JournalGoldPriceSnapshotStore(path, journal.isSyncOnWrite()));
+            } else {
+                MyBatisPlusGoldPriceSnapshotStore hot = new MyBatisPlusGoldPriceSnapshotStore(mapper, symbol);
+                store = hot;
+                if (primaryArchive != null) {
+                    Path directory = Path.of(properties.getArchive().getDirectory()).resolve(GoldPriceSnapshotStores.fileSafe(symbol));
+                    GoldSnapshotArchive symbolArchive = new GoldSnapshotArchive(directory);
+                    stores.addArchiveTier(symbol, hot, symbolArchive);
+                    store = new TieredGoldPriceSnapshotStore(hot, symbolArchive);
+                }
+            }
+            if (properties.getWriteBehind().isEnabled()) {
+                store = stores.manage(new WriteBehindGoldPriceSnapshotStore(store, properties));
+            }
+            stores.register(symbol, store);
+        }
+        return stores;
+    }
+
+    private static GoldPriceSnapshotStore tiered(
+            MyBatisPlusGoldPriceSnapshotStore persistentStore,
+            ObjectProvider<GoldSnapshotArchive> archive
+    ) {
+        GoldSnapshotArchive available = archive.getIfAvailable();
+        return available == null ? persistentStore : new TieredGoldPriceSnapshotStore(persistentStore, available);
+    }
+}
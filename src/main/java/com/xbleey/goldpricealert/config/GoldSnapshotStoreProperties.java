@@ -0,0 +1,90 @@
+package com.xbleey.goldpricealert.config;
+
+import com.xbleey.goldpricealert.enums.GoldSnapshotStoreType;
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "gold.snapshot-store")
+public class GoldSnapshotStoreProperties {
+
+    private GoldSnapshotStoreType type = GoldSnapshotStoreType.MYSQL;
+    private WriteBehind writeBehind = new WriteBehind();
+    private Archive archive = new Archive();
+    private Journal journal = new Journal();
+
+    @PostConstruct
+    public void validate() {
+        if (writeBehind == null) {
+            writeBehind = new WriteBehind();
+        }
+        if (writeBehind.getBatchSize() <= 0) {
+            throw new IllegalStateException("gold.snapshot-store.write-behind.batch-size must be > 0");
+        }
+        if (writeBehind.getQueueCapacity() < writeBehind.getBatchSize()) {
+            throw new IllegalStateException("gold.snapshot-store.write-behind.queue-capacity must be >= batch-size");
+        }
+        Duration flushInterval = writeBehind.getFlushInterval();
+        if (flushInterval == null || flushInterval.isZero() || flushInterval.isNegative()) {
+            throw new IllegalStateException("gold.snapshot-store.write-behind.flush-interval must be > 0");
+        }
+        if (archive == null) {
+            archive = new Archive();
+        }
+        if (archive.getDirectory() == null || archive.getDirectory().isBlank()) {
+            throw new IllegalStateException("gold.snapshot-store.archive.directory must not be blank");
+        }
+        Duration minAge = archive.getMinAge();
+        if (minAge == null || minAge.compareTo(Duration.ofDays(1)) < 0) {
+            throw new IllegalStateException("gold.snapshot-store.archive.min-age must be >= 1d");
+        }
+        Duration interval = archive.getInterval();
+        if (interval == null || interval.isZero() || interval.isNegative()) {
+            throw new IllegalStateException("gold.snapshot-store.archive.interval must be > 0");
+        }
+        if (type == null) {
+            type = GoldSnapshotStoreType.MYSQL;
+        }
+        if (journal == null) {
+            journal = new Journal();
+        }
+        if (type == GoldSnapshotStoreType.JOURNAL) {
+            if (journal.getPath() == null || journal.getPath().isBlank()) {
+                throw new IllegalStateException("gold.snapshot-store.journal.path must not be blank");
+            }
+            if (archive.isEnabled()) {
+                throw new IllegalStateException("gold.snapshot-store.archive requires gold.snapshot-store.type=mysql");
+            }
+        }
+    }
+
+    @Data
+    public static class WriteBehind {
+
+        private boolean enabled = false;
+        private int batchSize = 100;
+        private Duration flushInterval = Duration.ofSeconds(5);
+        private int queueCapacity = 10_000;
+    }
+
+    @Data
+    public static class Archive {
+
+        private boolean enabled = false;
+        private String directory = "data/snapshot-archive";
+        private Duration minAge = Duration.ofDays(30);
+        private Duration interval = Duration.ofHours(6);
+    }
+
+    @Data
+    public static class Journal {
+
+        private String path = "data/snapshot-journal.dat";
+        private boolean syncOnWrite = false;
+    }
+}
@@ -37,6 +37,8 @@ public class SecurityConfig {
                         .requestMatchers("/auth/logout").permitAll()
                         .requestMatchers("/health/**").permitAll()
                         .requestMatchers("/users/**").hasRole("ADMIN")
+                        .requestMatchers("/candles/backfill").hasRole("ADMIN")
+                        .requestMatchers("/alert/levels/backtest").hasRole("ADMIN")
                         .anyRequest().authenticated())
                 .addFilterBefore(bearerTokenAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
         return http.build();
@@ -0,0 +1,54 @@
+package com.xbleey.goldpricealert.config;
+
+import com.xbleey.goldpricealert.service.BitmapTradingCalendar;
+import com.xbleey.goldpricealert.service.TradingCalendar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.util.Map;
+
+// 交易日历定义放在独立的 YAML 文件里（默认 classpath:trading-calendars.yml），按 gold.calendar.name 选用其中一个
+@Configuration
+public class TradingCalendarConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(TradingCalendarConfig.class);
+
+    @Bean
+    public TradingCalendar tradingCalendar(GoldProperties properties, ResourceLoader resourceLoader, Clock clock) {
+        GoldProperties.Calendar settings = properties.getCalendar();
+        Map<String, TradingCalendarDefinition> definitions = loadDefinitions(resourceLoader.getResource(settings.getLocation()));
+        TradingCalendarDefinition definition = definitions.get(settings.getName());
+        if (definition == null) {
+            throw new IllegalStateException("trading calendar " + settings.getName() + " not found in "
+                    + settings.getLocation() + ", available: " + definitions.keySet());
+        }
+        log.info("Using trading calendar {} ({})", settings.getName(), definition.getZone());
+        return new BitmapTradingCalendar(settings.getName(), definition).precompute(clock.instant());
+    }
+
+    public static Map<String, TradingCalendarDefinition> loadDefinitions(Resource resource) {
+        if (!resource.exists()) {
+            throw new IllegalStateException("trading calendar file not found: " + resource.getDescription());
+        }
+        try {
+            Binder binder = new Binder(ConfigurationPropertySources.from(
+                    new YamlPropertySourceLoader().load(resource.getDescription(), resource)
+            ));
+            return binder.bind("calendars", Bindable.mapOf(String.class, TradingCalendarDefinition.class))
+                    .orElseThrow(() -> new IllegalStateException("no calendars defined in " + resource.getDescription()));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read trading calendar file " + resource.getDescription(), ex);
+        }
+    }
+}
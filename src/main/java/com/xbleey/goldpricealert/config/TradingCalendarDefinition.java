@@ -0,0 +1,124 @@
+package com.xbleey.goldpricealert.config;
+
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+// trading-calendars.yml 中的一个交易日历：时区、按星期划分的交易时段（当地时间）与休市规则。
+// 休市日整天不交易；时段 close 可写 24:00 表示到当天结束
+@Data
+public class TradingCalendarDefinition {
+
+    private ZoneId zone = ZoneId.of("UTC");
+    private List<Session> sessions = new ArrayList<>();
+    private List<Holiday> holidays = new ArrayList<>();
+
+    public void validate(String name) {
+        if (zone == null) {
+            throw new IllegalStateException("trading calendar " + name + ": zone must be configured");
+        }
+        if (sessions == null || sessions.isEmpty()) {
+            throw new IllegalStateException("trading calendar " + name + ": at least one session is required");
+        }
+        for (Session session : sessions) {
+            session.validate(name);
+        }
+        if (holidays == null) {
+            holidays = new ArrayList<>();
+        }
+        for (Holiday holiday : holidays) {
+            holiday.validate(name);
+        }
+    }
+
+    @Data
+    public static class Session {
+
+        private List<DayOfWeek> days = new ArrayList<>();
+        private String open = "00:00";
+        private String close = "24:00";
+
+        public int openMinute() {
+            return minuteOfDay(open);
+        }
+
+        public int closeMinute() {
+            return minuteOfDay(close);
+        }
+
+        void validate(String name) {
+            if (days == null || days.isEmpty()) {
+                throw new IllegalStateException("trading calendar " + name + ": session days must not be empty");
+            }
+            int openMinute;
+            int closeMinute;
+            try {
+                openMinute = openMinute();
+                closeMinute = closeMinute();
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalStateException("trading calendar " + name + ": " + ex.getMessage(), ex);
+            }
+            if (openMinute >= closeMinute) {
+                throw new IllegalStateException("trading calendar " + name + ": session open must be before close, got "
+                        + open + "-" + close + "; split sessions that cross midnight");
+            }
+        }
+
+        // HH:mm，允许 24:00
+        private static int minuteOfDay(String text) {
+            if (text == null || !text.matches("\\d{2}:\\d{2}")) {
+                throw new IllegalArgumentException("invalid session time: " + text);
+            }
+            int hour = Integer.parseInt(text.substring(0, 2));
+            int minute = Integer.parseInt(text.substring(3));
+            int total = hour * 60 + minute;
+            if (minute > 59 || total > 24 * 60) {
+                throw new IllegalArgumentException("invalid session time: " + text);
+            }
+            return total;
+        }
+    }
+
+    // 四选一：fixed（MM-dd，可配 observed）、easter（相对复活节的天数）、month + weekday + nth（第 n 个，负数从月末倒数）、date（单独一天）
+    @Data
+    public static class Holiday {
+
+        private String name;
+        private String fixed;
+        private Observed observed = Observed.NONE;
+        private Integer easter;
+        private Month month;
+        private DayOfWeek weekday;
+        private Integer nth;
+        private LocalDate date;
+
+        void validate(String calendar) {
+            int kinds = (fixed != null ? 1 : 0) + (easter != null ? 1 : 0) + (nth != null ? 1 : 0) + (date != null ? 1 : 0);
+            if (kinds != 1) {
+                throw new IllegalStateException("trading calendar " + calendar + ": holiday " + name
+                        + " must set exactly one of fixed, easter, nth or date");
+            }
+            if (fixed != null && !fixed.matches("\\d{2}-\\d{2}")) {
+                throw new IllegalStateException("trading calendar " + calendar + ": holiday " + name + " fixed must be MM-dd");
+            }
+            if (nth != null && (month == null || weekday == null || nth == 0 || Math.abs(nth) > 5)) {
+                throw new IllegalStateException("trading calendar " + calendar + ": holiday " + name
+                        + " needs month, weekday and nth in [-5, -1] or [1, 5]");
+            }
+            if (observed == null) {
+                observed = Observed.NONE;
+            }
+        }
+    }
+
+    public enum Observed {
+        NONE,
+        // 落在周六提前到周五、落在周日顺延到周一，原日期与调休日都休市
+        NEAREST_WEEKDAY
+    }
+}
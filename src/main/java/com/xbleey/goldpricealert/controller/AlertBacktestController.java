@@ -0,0 +1,116 @@
+package com.xbleey.goldpricealert.controller;
+
+import com.xbleey.goldpricealert.service.GoldAlertBacktester;
+import com.xbleey.goldpricealert.service.GoldAlertLevelConfig;
+import com.xbleey.goldpricealert.service.GoldAlertLevelConfigStore;
+import com.xbleey.goldpricealert.service.GoldAlertLevelName;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/alert/levels/backtest")
+public class AlertBacktestController {
+
+    private static final String CURRENT = "current";
+
+    private final GoldAlertBacktester backtester;
+    private final GoldAlertLevelConfigStore configStore;
+
+    public AlertBacktestController(GoldAlertBacktester backtester, GoldAlertLevelConfigStore configStore) {
+        this.backtester = backtester;
+        this.configStore = configStore;
+    }
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> backtest(@RequestBody(required = false) BacktestRequest request) {
+        if (request == null) {
+            return response(HttpStatus.BAD_REQUEST, "bad_request", "request body must not be null");
+        }
+        try {
+            GoldAlertBacktester.BacktestResult result = backtester.backtest(
+                    request.from(),
+                    request.to(),
+                    candidates(request.configurations())
+            );
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("status", "ok");
+            body.put("from", result.from());
+            body.put("to", result.to());
+            body.put("ticks", result.ticks());
+            body.put("partitions", result.partitions());
+            body.put("elapsedMillis", result.elapsedMillis());
+            body.put("configurations", result.candidates());
+            return ResponseEntity.ok(body);
+        } catch (IllegalArgumentException ex) {
+            return response(HttpStatus.BAD_REQUEST, "bad_request", ex.getMessage());
+        } catch (IllegalStateException ex) {
+            return response(HttpStatus.CONFLICT, "conflict", ex.getMessage());
+        }
+    }
+
+    // 未给出候选配置时回测当前生效的等级配置；单个候选未给出 levels 时同样取当前配置，便于与调整后的方案对比
+    private List<GoldAlertBacktester.Candidate> candidates(List<BacktestConfiguration> configurations) {
+        if (configurations == null || configurations.isEmpty()) {
+            return List.of(new GoldAlertBacktester.Candidate(CURRENT, configStore.listLevels()));
+        }
+        List<GoldAlertBacktester.Candidate> candidates = new ArrayList<>(configurations.size());
+        for (BacktestConfiguration configuration : configurations) {
+            if (configuration == null) {
+                throw new IllegalArgumentException("configuration must not be null");
+            }
+            String name = configuration.name() == null || configuration.name().isBlank() ? CURRENT : configuration.name().trim();
+            if (configuration.levels() == null || configuration.levels().isEmpty()) {
+                candidates.add(new GoldAlertBacktester.Candidate(name, configStore.listLevels()));
+                continue;
+            }
+            List<GoldAlertLevelConfig> levels = new ArrayList<>(configuration.levels().size());
+            for (AlertLevelConfigController.AlertLevelUpsertRequest level : configuration.levels()) {
+                levels.add(toLevel(level));
+            }
+            candidates.add(new GoldAlertBacktester.Candidate(name, List.copyOf(levels)));
+        }
+        return candidates;
+    }
+
+    private static GoldAlertLevelConfig toLevel(AlertLevelConfigController.AlertLevelUpsertRequest level) {
+        if (level == null) {
+            throw new IllegalArgumentException("level must not be null");
+        }
+        String levelName = GoldAlertLevelName.normalize(level.levelName());
+        int rank = GoldAlertLevelName.rankOf(levelName);
+        if (level.thresholdPercent() == null) {
+            throw new IllegalArgumentException("thresholdPercent of " + levelName + " must not be null");
+        }
+        if (level.window() == null) {
+            throw new IllegalArgumentException("window of " + levelName + " must not be null");
+        }
+        int cooldown = level.cooldown() == null ? 0 : level.cooldown();
+        if (cooldown < 0) {
+            throw new IllegalArgumentException("cooldown of " + levelName + " must be >= 0");
+        }
+        return new GoldAlertLevelConfig(levelName, rank, level.thresholdPercent(), level.window(), cooldown, rank <= 5);
+    }
+
+    private ResponseEntity<Map<String, Object>> response(HttpStatus status, String code, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", code);
+        body.put("message", message);
+        return ResponseEntity.status(status).body(body);
+    }
+
+    public record BacktestRequest(Instant from, Instant to, List<BacktestConfiguration> configurations) {
+    }
+
+    public record BacktestConfiguration(String name, List<AlertLevelConfigController.AlertLevelUpsertRequest> levels) {
+    }
+}
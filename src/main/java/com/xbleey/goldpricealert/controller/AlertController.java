@@ -7,16 +7,22 @@ import com.xbleey.goldpricealert.enums.GoldThresholdDirection;
 import com.xbleey.goldpricealert.mapper.GoldAlertHistoryMapper;
 import com.xbleey.goldpricealert.model.GoldAlertHistory;
 import com.xbleey.goldpricealert.service.GoldAlertLevelName;
+import com.xbleey.goldpricealert.service.GoldInstrumentPipeline;
+import com.xbleey.goldpricealert.service.GoldInstrumentPipelines;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 @RestController
@@ -24,23 +30,115 @@ import java.util.Set;
 public class AlertController {
 
     private final GoldAlertHistoryMapper alertHistoryMapper;
+    private final GoldInstrumentPipelines pipelines;
 
-    public AlertController(GoldAlertHistoryMapper alertHistoryMapper) {
+    public AlertController(GoldAlertHistoryMapper alertHistoryMapper, GoldInstrumentPipelines pipelines) {
         this.alertHistoryMapper = alertHistoryMapper;
+        this.pipelines = pipelines;
     }
 
+    // symbol 缺省为主品种
     @GetMapping("/list")
-    public Map<String, Object> list(
+    public ResponseEntity<Map<String, Object>> list(
             @RequestParam(name = "pageNum", defaultValue = "1") long pageNum,
             @RequestParam(name = "pageSize", defaultValue = "20") long pageSize,
             @RequestParam(name = "alertLevel", required = false) List<String> alertLevels,
-            @RequestParam(name = "direction", required = false) List<String> directions
+            @RequestParam(name = "direction", required = false) List<String> directions,
+            @RequestParam(name = "symbol", required = false) String symbol
     ) {
+        Optional<GoldInstrumentPipeline> pipeline = pipelines.find(symbol);
+        if (pipeline.isEmpty()) {
+            return badRequest("unknown symbol: " + symbol);
+        }
         long safePageNum = Math.max(1L, pageNum);
         long safePageSize = Math.clamp(pageSize, 1L, 200L);
         Page<GoldAlertHistory> page = Page.of(safePageNum, safePageSize);
 
+        LambdaQueryWrapper<GoldAlertHistory> wrapper = filterWrapper(pipeline.get(), alertLevels, directions);
+        wrapper.orderByDesc(GoldAlertHistory::getAlertTimeUtc)
+                .orderByDesc(GoldAlertHistory::getId);
+
+        Page<GoldAlertHistory> result = alertHistoryMapper.selectPage(page, wrapper);
+        return ResponseEntity.ok(Map.of(
+                "current", result.getCurrent(),
+                "pageSize", result.getSize(),
+                "total", result.getTotal(),
+                "pages", result.getPages(),
+                "records", result.getRecords()
+        ));
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<Map<String, Object>> scroll(
+            @RequestParam(name = "pageSize", defaultValue = "20") long pageSize,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "withTotal", defaultValue = "false") boolean withTotal,
+            @RequestParam(name = "alertLevel", required = false) List<String> alertLevels,
+            @RequestParam(name = "direction", required = false) List<String> directions,
+            @RequestParam(name = "symbol", required = false) String symbol
+    ) {
+        Optional<GoldInstrumentPipeline> pipeline = pipelines.find(symbol);
+        if (pipeline.isEmpty()) {
+            return badRequest("unknown symbol: " + symbol);
+        }
+        KeysetCursor after;
+        try {
+            after = KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException ex) {
+            return badRequest(ex.getMessage());
+        }
+        int safePageSize = (int) Math.clamp(pageSize, 1L, 200L);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        if (withTotal) {
+            response.put("total", alertHistoryMapper.selectCount(filterWrapper(pipeline.get(), alertLevels, directions)));
+        }
+
+        // 按 (alert_time_utc, id) 倒序定位，走 idx_gold_alert_history_level_time / idx_gold_alert_history_symbol_time，不做 COUNT 与 OFFSET 扫描
+        LambdaQueryWrapper<GoldAlertHistory> wrapper = filterWrapper(pipeline.get(), alertLevels, directions);
+        if (after != null) {
+            wrapper.and(seek -> seek.lt(GoldAlertHistory::getAlertTimeUtc, after.time())
+                    .or(tie -> tie.eq(GoldAlertHistory::getAlertTimeUtc, after.time())
+                            .lt(GoldAlertHistory::getId, after.id())));
+        }
+        wrapper.orderByDesc(GoldAlertHistory::getAlertTimeUtc)
+                .orderByDesc(GoldAlertHistory::getId)
+                .last("limit " + (safePageSize + 1));
+        List<GoldAlertHistory> rows = alertHistoryMapper.selectList(wrapper);
+
+        boolean hasMore = rows.size() > safePageSize;
+        List<GoldAlertHistory> records = hasMore ? rows.subList(0, safePageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            GoldAlertHistory last = records.getLast();
+            nextCursor = new KeysetCursor(last.getAlertTimeUtc(), last.getId()).encode();
+        }
+        response.put("pageSize", safePageSize);
+        response.put("hasMore", hasMore);
+        response.put("nextCursor", nextCursor);
+        response.put("records", List.copyOf(records));
+        return ResponseEntity.ok(response);
+    }
+
+    private ResponseEntity<Map<String, Object>> badRequest(String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", "bad_request");
+        body.put("message", message);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+    }
+
+    // 库中主品种的 symbol 为空
+    private LambdaQueryWrapper<GoldAlertHistory> filterWrapper(
+            GoldInstrumentPipeline pipeline,
+            List<String> alertLevels,
+            List<String> directions
+    ) {
         LambdaQueryWrapper<GoldAlertHistory> wrapper = new LambdaQueryWrapper<>();
+        if (pipeline == pipelines.primary()) {
+            wrapper.isNull(GoldAlertHistory::getSymbol);
+        } else {
+            wrapper.eq(GoldAlertHistory::getSymbol, pipeline.symbol());
+        }
         List<String> normalizedAlertLevels = normalizeAlertLevels(alertLevels);
         if (!normalizedAlertLevels.isEmpty()) {
             wrapper.in(GoldAlertHistory::getAlertLevel, normalizedAlertLevels);
@@ -53,17 +151,7 @@ public class AlertController {
                 wrapper.lt(GoldAlertHistory::getChangePercent, BigDecimal.ZERO);
             }
         }
-        wrapper.orderByDesc(GoldAlertHistory::getAlertTimeUtc)
-                .orderByDesc(GoldAlertHistory::getId);
-
-        Page<GoldAlertHistory> result = alertHistoryMapper.selectPage(page, wrapper);
-        return Map.of(
-                "current", result.getCurrent(),
-                "pageSize", result.getSize(),
-                "total", result.getTotal(),
-                "pages", result.getPages(),
-                "records", result.getRecords()
-        );
+        return wrapper;
     }
 
     private List<String> normalizeAlertLevels(List<String> alertLevels) {
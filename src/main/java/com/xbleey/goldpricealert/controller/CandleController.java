@@ -0,0 +1,103 @@
+package com.xbleey.goldpricealert.controller;
+
+import com.xbleey.goldpricealert.enums.GoldCandleResolution;
+import com.xbleey.goldpricealert.model.GoldPriceCandle;
+import com.xbleey.goldpricealert.repository.GoldPriceCandleStore;
+import com.xbleey.goldpricealert.service.GoldInstrumentPipeline;
+import com.xbleey.goldpricealert.service.GoldInstrumentPipelines;
+import com.xbleey.goldpricealert.service.GoldPriceCandleBackfillService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/candles")
+public class CandleController {
+
+    private final GoldPriceCandleStore candleStore;
+    private final GoldPriceCandleBackfillService backfillService;
+    private final GoldInstrumentPipelines pipelines;
+
+    public CandleController(
+            GoldPriceCandleStore candleStore,
+            GoldPriceCandleBackfillService backfillService,
+            GoldInstrumentPipelines pipelines
+    ) {
+        this.candleStore = candleStore;
+        this.backfillService = backfillService;
+        this.pipelines = pipelines;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> list(
+            @RequestParam(name = "resolution", defaultValue = "1m") String resolution,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(name = "symbol", required = false) String symbol
+    ) {
+        Optional<GoldInstrumentPipeline> pipeline = pipelines.find(symbol);
+        if (pipeline.isEmpty()) {
+            return response(HttpStatus.BAD_REQUEST, "bad_request", "unknown symbol: " + symbol);
+        }
+        GoldCandleResolution parsed;
+        try {
+            parsed = GoldCandleResolution.fromCode(resolution);
+        } catch (IllegalArgumentException ex) {
+            return response(HttpStatus.BAD_REQUEST, "bad_request", ex.getMessage());
+        }
+        List<GoldPriceCandle> records = candleStore.findRangeAsc(pipeline.get().symbol(), parsed, from, to);
+        return ResponseEntity.ok(Map.of(
+                "symbol", pipeline.get().symbol(),
+                "resolution", parsed.getCode(),
+                "total", records.size(),
+                "records", records
+        ));
+    }
+
+    @PostMapping("/backfill")
+    public ResponseEntity<Map<String, Object>> backfill(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(name = "symbol", required = false) String symbol
+    ) {
+        Optional<GoldInstrumentPipeline> pipeline = pipelines.find(symbol);
+        if (pipeline.isEmpty()) {
+            return response(HttpStatus.BAD_REQUEST, "bad_request", "unknown symbol: " + symbol);
+        }
+        try {
+            GoldPriceCandleBackfillService.BackfillResult result =
+                    backfillService.backfill(pipeline.get().symbol(), pipeline.get().history(), from, to);
+            return ResponseEntity.ok(Map.of(
+                    "status", "ok",
+                    "symbol", pipeline.get().symbol(),
+                    "from", result.from(),
+                    "to", result.to(),
+                    "chunks", result.chunks(),
+                    "candles", result.candles(),
+                    "skippedOpen", result.skippedOpen()
+            ));
+        } catch (IllegalArgumentException ex) {
+            return response(HttpStatus.BAD_REQUEST, "bad_request", ex.getMessage());
+        } catch (IllegalStateException ex) {
+            return response(HttpStatus.CONFLICT, "conflict", ex.getMessage());
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> response(HttpStatus status, String code, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", code);
+        body.put("message", message);
+        return ResponseEntity.status(status).body(body);
+    }
+}
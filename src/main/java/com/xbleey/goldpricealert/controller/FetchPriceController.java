@@ -1,30 +1,151 @@
 package com.xbleey.goldpricealert.controller;
 
 import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import com.xbleey.goldpricealert.service.GoldInstrumentPipeline;
+import com.xbleey.goldpricealert.service.GoldInstrumentPipelines;
+import com.xbleey.goldpricealert.service.GoldPriceDownsampler;
 import com.xbleey.goldpricealert.service.GoldPriceFetcher;
 import com.xbleey.goldpricealert.service.GoldPriceHistory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public class FetchPriceController {
 
+    private static final int MAX_POINTS_LIMIT = 5000;
+
     private final GoldPriceFetcher fetcher;
-    private final GoldPriceHistory history;
+    private final GoldInstrumentPipelines pipelines;
+    private final Clock clock;
 
-    public FetchPriceController(GoldPriceFetcher fetcher, GoldPriceHistory history) {
+    public FetchPriceController(GoldPriceFetcher fetcher, GoldInstrumentPipelines pipelines, Clock clock) {
         this.fetcher = fetcher;
-        this.history = history;
+        this.pipelines = pipelines;
+        this.clock = clock;
     }
 
     @GetMapping("/price")
-    public Map<String, Object> triggerFetch() {
-        Optional<GoldPriceSnapshot> snapshot = fetcher.fetchOnce();
+    public ResponseEntity<Map<String, Object>> triggerFetch(@RequestParam(name = "symbol", required = false) String symbol) {
+        Optional<GoldInstrumentPipeline> pipeline = pipelines.find(symbol);
+        if (pipeline.isEmpty()) {
+            return unknownSymbol(symbol);
+        }
+        return ResponseEntity.ok(toPriceResponse(fetcher.fetchAsync(pipeline.get()).join()));
+    }
+
+    // 不占用请求线程等待重试退避，拉取（含重试）结束后异步写回响应
+    @GetMapping("/price/async")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> triggerFetchAsync(
+            @RequestParam(name = "symbol", required = false) String symbol
+    ) {
+        Optional<GoldInstrumentPipeline> pipeline = pipelines.find(symbol);
+        if (pipeline.isEmpty()) {
+            return CompletableFuture.completedFuture(unknownSymbol(symbol));
+        }
+        return fetcher.fetchAsync(pipeline.get()).thenApply(snapshot -> ResponseEntity.ok(toPriceResponse(snapshot)));
+    }
+
+    @GetMapping("/history")
+    public ResponseEntity<?> history(
+            @RequestParam(name = "length", defaultValue = "100") int length,
+            @RequestParam(name = "symbol", required = false) String symbol
+    ) {
+        Optional<GoldInstrumentPipeline> pipeline = pipelines.find(symbol);
+        if (pipeline.isEmpty()) {
+            return unknownSymbol(symbol);
+        }
+        return ResponseEntity.ok(pipeline.get().history().getRecent(length));
+    }
+
+    @GetMapping(value = "/history", params = "from")
+    public ResponseEntity<Map<String, Object>> historyRange(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(name = "maxPoints", defaultValue = "500") int maxPoints,
+            @RequestParam(name = "symbol", required = false) String symbol
+    ) {
+        Optional<GoldInstrumentPipeline> pipeline = pipelines.find(symbol);
+        if (pipeline.isEmpty()) {
+            return unknownSymbol(symbol);
+        }
+        Instant safeTo = to == null ? clock.instant() : to;
+        int safeMaxPoints = Math.clamp(maxPoints, GoldPriceDownsampler.POINTS_PER_BUCKET, MAX_POINTS_LIMIT);
+        GoldPriceDownsampler downsampler;
+        try {
+            downsampler = new GoldPriceDownsampler(from, safeTo, safeMaxPoints);
+        } catch (IllegalArgumentException ex) {
+            return badRequest(ex.getMessage());
+        }
+        pipeline.get().history().forEachInRange(from, safeTo, downsampler::accept);
+        List<HistoryPoint> points = downsampler.result().stream()
+                .map(snapshot -> new HistoryPoint(snapshot.getFetchedAt().toEpochMilli(), snapshot.getPrice()))
+                .toList();
+        return ResponseEntity.ok(Map.of(
+                "symbol", pipeline.get().symbol(),
+                "from", from.toString(),
+                "to", safeTo.toString(),
+                "maxPoints", safeMaxPoints,
+                "rawCount", downsampler.rawCount(),
+                "points", points
+        ));
+    }
+
+    @GetMapping("/history/scroll")
+    public ResponseEntity<Map<String, Object>> historyScroll(
+            @RequestParam(name = "pageSize", defaultValue = "100") int pageSize,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "withTotal", defaultValue = "false") boolean withTotal,
+            @RequestParam(name = "symbol", required = false) String symbol
+    ) {
+        Optional<GoldInstrumentPipeline> pipeline = pipelines.find(symbol);
+        if (pipeline.isEmpty()) {
+            return unknownSymbol(symbol);
+        }
+        GoldPriceHistory history = pipeline.get().history();
+        KeysetCursor after;
+        try {
+            after = KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException ex) {
+            return badRequest(ex.getMessage());
+        }
+        int safePageSize = Math.clamp(pageSize, 1, 1000);
+        List<GoldPriceSnapshot> rows = history.findPageDesc(
+                after == null ? null : after.time(),
+                after == null ? null : after.id(),
+                safePageSize + 1
+        );
+        boolean hasMore = rows.size() > safePageSize;
+        List<GoldPriceSnapshot> records = hasMore ? rows.subList(0, safePageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            GoldPriceSnapshot last = records.getLast();
+            nextCursor = new KeysetCursor(last.getFetchedAt(), last.getId()).encode();
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        if (withTotal) {
+            response.put("total", history.count());
+        }
+        response.put("pageSize", safePageSize);
+        response.put("hasMore", hasMore);
+        response.put("nextCursor", nextCursor);
+        response.put("records", List.copyOf(records));
+        return ResponseEntity.ok(response);
+    }
+
+    private static Map<String, Object> toPriceResponse(Optional<GoldPriceSnapshot> snapshot) {
         if (snapshot.isEmpty()) {
             return Map.of("status", "failed");
         }
@@ -33,12 +154,22 @@ public class FetchPriceController {
                 "status", "ok",
                 "fetchedAt", value.fetchedAt().toString(),
                 "price", value.price(),
-                "symbol", value.response().symbol()
+                "symbol", value.getSymbol()
         );
     }
 
-    @GetMapping("/history")
-    public List<GoldPriceSnapshot> history(@RequestParam(name = "length", defaultValue = "100") int length) {
-        return history.getRecent(length);
+    private ResponseEntity<Map<String, Object>> unknownSymbol(String symbol) {
+        return badRequest("unknown symbol: " + symbol);
+    }
+
+    private ResponseEntity<Map<String, Object>> badRequest(String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", "bad_request");
+        body.put("message", message);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+    }
+
+    // 紧凑格式：t 为 fetchedAt 的 epoch 毫秒，p 为价格
+    public record HistoryPoint(long t, BigDecimal p) {
     }
 }
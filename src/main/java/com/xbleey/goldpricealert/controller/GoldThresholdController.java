@@ -1,18 +1,28 @@
 package com.xbleey.goldpricealert.controller;
 
+import com.xbleey.goldpricealert.enums.GoldThresholdDirection;
+import com.xbleey.goldpricealert.model.GoldThresholdHistory;
 import com.xbleey.goldpricealert.service.GoldThresholdStore;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
+import java.util.NoSuchElementException;
 
+// 当前登录用户自己的价格阈值
 @RestController
 @RequestMapping("/threshold")
 public class GoldThresholdController {
@@ -24,26 +34,109 @@ public class GoldThresholdController {
     }
 
     @GetMapping
-    public Map<String, Object> getThreshold() {
-        Optional<BigDecimal> threshold = thresholdStore.getThreshold();
-        Map<String, Object> response = new HashMap<>();
-        response.put("threshold", threshold.map(BigDecimal::toPlainString).orElse(null));
-        response.put("status", threshold.isPresent() ? "ok" : "not_set");
-        return response;
+    public ResponseEntity<Map<String, Object>> listThresholds(Authentication authentication) {
+        try {
+            List<ThresholdResponse> records = thresholdStore.listThresholds(authenticatedUsername(authentication)).stream()
+                    .map(GoldThresholdController::toResponse)
+                    .toList();
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("status", records.isEmpty() ? "not_set" : "ok");
+            body.put("total", records.size());
+            body.put("records", records);
+            return ResponseEntity.ok(body);
+        } catch (IllegalArgumentException ex) {
+            return response(HttpStatus.BAD_REQUEST, "bad_request", ex.getMessage());
+        }
     }
 
     @PostMapping
-    public Map<String, Object> setThreshold(@RequestParam("value") BigDecimal value) {
-        BigDecimal saved = thresholdStore.setThreshold(value);
-        return Map.of(
-                "threshold", saved.toPlainString(),
-                "status", "ok"
-        );
+    public ResponseEntity<Map<String, Object>> addThreshold(
+            @RequestParam("value") BigDecimal value,
+            @RequestParam(value = "direction", required = false) String direction,
+            @RequestParam(value = "symbol", required = false) String symbol,
+            Authentication authentication
+    ) {
+        try {
+            GoldThresholdHistory saved = thresholdStore.addThreshold(
+                    authenticatedUsername(authentication),
+                    symbol,
+                    value,
+                    parseDirection(direction)
+            );
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
+                    "status", "ok",
+                    "record", toResponse(saved)
+            ));
+        } catch (IllegalArgumentException ex) {
+            return response(HttpStatus.BAD_REQUEST, "bad_request", ex.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> clearThreshold(@PathVariable("id") Long id, Authentication authentication) {
+        try {
+            thresholdStore.clearThreshold(authenticatedUsername(authentication), id);
+            return ResponseEntity.ok(Map.of(
+                    "status", "cleared",
+                    "id", id
+            ));
+        } catch (IllegalArgumentException ex) {
+            return response(HttpStatus.BAD_REQUEST, "bad_request", ex.getMessage());
+        } catch (NoSuchElementException ex) {
+            return response(HttpStatus.NOT_FOUND, "not_found", ex.getMessage());
+        }
     }
 
     @DeleteMapping
-    public Map<String, Object> clearThreshold() {
-        thresholdStore.clearThreshold();
-        return Map.of("status", "cleared");
+    public ResponseEntity<Map<String, Object>> clearThresholds(Authentication authentication) {
+        try {
+            int cleared = thresholdStore.clearThresholds(authenticatedUsername(authentication));
+            return ResponseEntity.ok(Map.of(
+                    "status", "cleared",
+                    "cleared", cleared
+            ));
+        } catch (IllegalArgumentException ex) {
+            return response(HttpStatus.BAD_REQUEST, "bad_request", ex.getMessage());
+        }
+    }
+
+    private static String authenticatedUsername(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated() || authentication.getName() == null) {
+            throw new IllegalArgumentException("authenticated user is required");
+        }
+        return authentication.getName();
+    }
+
+    // 省略时双向触发
+    private static GoldThresholdDirection parseDirection(String direction) {
+        if (direction == null || direction.isBlank()) {
+            return null;
+        }
+        try {
+            return GoldThresholdDirection.valueOf(direction.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("direction must be UP or DOWN: " + direction);
+        }
+    }
+
+    private static ThresholdResponse toResponse(GoldThresholdHistory record) {
+        return new ThresholdResponse(
+                record.getId(),
+                record.getSymbol(),
+                record.getThreshold() == null ? null : record.getThreshold().toPlainString(),
+                record.getDirection(),
+                record.getSetAt()
+        );
+    }
+
+    private ResponseEntity<Map<String, Object>> response(HttpStatus status, String code, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", code);
+        body.put("message", message);
+        return ResponseEntity.status(status).body(body);
+    }
+
+    // symbol 为空表示主品种
+    public record ThresholdResponse(Long id, String symbol, String threshold, String direction, Instant setAt) {
     }
 }
@@ -1,5 +1,10 @@
 package com.xbleey.goldpricealert.controller;
 
+import com.xbleey.goldpricealert.service.GoldPriceCircuitBreaker;
+import com.xbleey.goldpricealert.service.GoldPriceCrossCheckMonitor;
+import com.xbleey.goldpricealert.service.GoldPipelineStage;
+import com.xbleey.goldpricealert.service.GoldPipelineStages;
+import com.xbleey.goldpricealert.service.GoldPriceHedger;
 import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.http.HttpStatus;
@@ -10,6 +15,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.sql.DataSource;
+import java.math.RoundingMode;
 import java.sql.Connection;
 import java.time.Clock;
 import java.time.Instant;
@@ -27,15 +33,27 @@ public class HealthController {
     private final DataSource dataSource;
     @Nullable
     private final RedisConnectionFactory redisConnectionFactory;
+    @Nullable
+    private final GoldPriceHedger hedger;
+    @Nullable
+    private final GoldPipelineStages stages;
+    @Nullable
+    private final GoldPriceCrossCheckMonitor crossCheckMonitor;
 
     public HealthController(
             Clock clock,
             @Nullable DataSource dataSource,
-            @Nullable RedisConnectionFactory redisConnectionFactory
+            @Nullable RedisConnectionFactory redisConnectionFactory,
+            @Nullable GoldPriceHedger hedger,
+            @Nullable GoldPipelineStages stages,
+            @Nullable GoldPriceCrossCheckMonitor crossCheckMonitor
     ) {
         this.clock = clock;
         this.dataSource = dataSource;
         this.redisConnectionFactory = redisConnectionFactory;
+        this.hedger = hedger;
+        this.stages = stages;
+        this.crossCheckMonitor = crossCheckMonitor;
     }
 
     @GetMapping("/live")
@@ -58,6 +76,9 @@ public class HealthController {
 
         ready &= checkDatabase(checks);
         ready &= checkRedis(checks);
+        checkGoldApi(checks);
+        checkPriceConsistency(checks);
+        checkPipeline(checks);
 
         Map<String, Object> body = new LinkedHashMap<>();
         body.put("status", ready ? "UP" : "DOWN");
@@ -119,6 +140,102 @@ public class HealthController {
         }
     }
 
+    // 上游熔断只影响取价，不影响已有数据与接口的可用性，因此只展示状态、不计入就绪结果
+    private void checkGoldApi(Map<String, Map<String, Object>> checks) {
+        if (hedger == null) {
+            checks.put("goldApi", Map.of("status", "SKIPPED"));
+            return;
+        }
+        Map<String, GoldPriceCircuitBreaker.Status> circuits = hedger.circuitStatus();
+        Map<String, Object> providers = new LinkedHashMap<>();
+        int open = 0;
+        for (Map.Entry<String, GoldPriceCircuitBreaker.Status> entry : circuits.entrySet()) {
+            GoldPriceCircuitBreaker.Status status = entry.getValue();
+            if (status.state() != GoldPriceCircuitBreaker.State.CLOSED) {
+                open++;
+            }
+            Map<String, Object> provider = new LinkedHashMap<>();
+            provider.put("state", status.state().name());
+            provider.put("calls", status.calls());
+            provider.put("failureRatePercent", Math.round(status.failureRatePercent() * 10) / 10.0);
+            if (status.retryAt() != null) {
+                provider.put("retryAt", status.retryAt().toString());
+            }
+            providers.put(entry.getKey(), provider);
+        }
+        Map<String, Object> check = new LinkedHashMap<>();
+        if (open == 0) {
+            check.put("status", "UP");
+        } else {
+            check.put("status", open == circuits.size() ? "DOWN" : "DEGRADED");
+        }
+        check.put("providers", providers);
+        checks.put("goldApi", check);
+    }
+
+    // 最近一次交叉校验中各来源报价偏差超限时为 DEGRADED；报价分歧不影响接口可用性，不计入就绪结果
+    private void checkPriceConsistency(Map<String, Map<String, Object>> checks) {
+        if (crossCheckMonitor == null || crossCheckMonitor.status().isEmpty()) {
+            checks.put("priceConsistency", Map.of("status", "SKIPPED"));
+            return;
+        }
+        Map<String, Object> symbols = new LinkedHashMap<>();
+        boolean mismatch = false;
+        for (Map.Entry<String, GoldPriceCrossCheckMonitor.Status> entry : crossCheckMonitor.status().entrySet()) {
+            GoldPriceCrossCheckMonitor.Status status = entry.getValue();
+            mismatch |= status.mismatch();
+            Map<String, Object> symbol = new LinkedHashMap<>();
+            symbol.put("mismatch", status.mismatch());
+            symbol.put("checkedTickAt", status.fetchedAt().toString());
+            symbol.put("provider", status.provider());
+            symbol.put("price", status.price().toPlainString());
+            symbol.put("maxDeviationPercent", status.maxDeviationPercent().setScale(4, RoundingMode.HALF_UP).toPlainString());
+            Map<String, Object> others = new LinkedHashMap<>();
+            for (GoldPriceHedger.CrossCheck check : status.checks()) {
+                others.put(check.provider(), check.price().toPlainString());
+            }
+            symbol.put("otherProviders", others);
+            symbol.put("suspectTicks", status.suspectTicks());
+            if (status.lastSuspectAt() != null) {
+                symbol.put("lastSuspectTickAt", status.lastSuspectAt().toString());
+            }
+            symbols.put(entry.getKey(), symbol);
+        }
+        Map<String, Object> check = new LinkedHashMap<>();
+        check.put("status", mismatch ? "DEGRADED" : "UP");
+        check.put("symbols", symbols);
+        checks.put("priceConsistency", check);
+    }
+
+    // 分阶段处理的队列深度与延迟；队列满只会丢弃行情或邮件，不影响接口，因此同样不计入就绪结果
+    private void checkPipeline(Map<String, Map<String, Object>> checks) {
+        if (stages == null || stages.stats().isEmpty()) {
+            checks.put("pipeline", Map.of("status", "SKIPPED"));
+            return;
+        }
+        Map<String, Object> stageChecks = new LinkedHashMap<>();
+        boolean saturated = false;
+        for (GoldPipelineStage.Stats stats : stages.stats()) {
+            saturated |= stats.depth() >= stats.capacity();
+            Map<String, Object> stage = new LinkedHashMap<>();
+            stage.put("depth", stats.depth());
+            stage.put("peakDepth", stats.peakDepth());
+            stage.put("capacity", stats.capacity());
+            stage.put("accepted", stats.accepted());
+            stage.put("completed", stats.completed());
+            stage.put("failed", stats.failed());
+            stage.put("dropped", stats.dropped());
+            stage.put("lastLatencyMillis", stats.lastLatency().toMillis());
+            stage.put("averageLatencyMillis", stats.averageLatency().toMillis());
+            stage.put("maxLatencyMillis", stats.maxLatency().toMillis());
+            stageChecks.put(stats.name(), stage);
+        }
+        Map<String, Object> check = new LinkedHashMap<>();
+        check.put("status", saturated ? "DEGRADED" : "UP");
+        check.put("stages", stageChecks);
+        checks.put("pipeline", check);
+    }
+
     private String messageOrDefault(String message) {
         if (message == null || message.isBlank()) {
             return "-";
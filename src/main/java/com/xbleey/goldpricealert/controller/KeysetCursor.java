@@ -0,0 +1,32 @@
+package com.xbleey.goldpricealert.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+// 键集分页游标：记录上一页最后一行的 (时间, id)，对客户端不透明（base64url 编码）
+record KeysetCursor(Instant time, long id) {
+
+    private static final char SEPARATOR = '|';
+
+    String encode() {
+        String raw = time.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator <= 0) {
+                throw new IllegalArgumentException("invalid cursor");
+            }
+            return new KeysetCursor(Instant.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("invalid cursor", ex);
+        }
+    }
+}
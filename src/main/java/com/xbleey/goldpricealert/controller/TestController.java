@@ -6,6 +6,7 @@ import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
 import com.xbleey.goldpricealert.service.GoldAlertEmailService;
 import com.xbleey.goldpricealert.service.GoldAlertMessage;
 import com.xbleey.goldpricealert.service.GoldMailRecipientService;
+import com.xbleey.goldpricealert.service.GoldPriceChangeMath;
 import com.xbleey.goldpricealert.service.GoldPriceHistory;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -14,7 +15,6 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
-import java.math.MathContext;
 import java.math.RoundingMode;
 import java.time.Clock;
 import java.time.Duration;
@@ -26,8 +26,6 @@ import java.util.List;
 @RequestMapping("/test")
 public class TestController {
 
-    private static final MathContext MATH_CONTEXT = new MathContext(12, RoundingMode.HALF_UP);
-    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
     private static final DateTimeFormatter ALERT_TIME_FORMATTER =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
@@ -83,7 +81,9 @@ public class TestController {
                 changePercent,
                 baselinePrice,
                 latestPrice,
-                snapshots
+                snapshots,
+                null,
+                false
         );
         emailService.notifyAlert(message);
         return "Triggered test email send with " + snapshots.size() + " snapshots.";
@@ -102,10 +102,7 @@ public class TestController {
         if (baselinePrice.compareTo(BigDecimal.ZERO) == 0) {
             return BigDecimal.ZERO;
         }
-        return latestPrice
-                .subtract(baselinePrice, MATH_CONTEXT)
-                .divide(baselinePrice, MATH_CONTEXT)
-                .multiply(ONE_HUNDRED, MATH_CONTEXT);
+        return GoldPriceChangeMath.changePercent(baselinePrice, latestPrice);
     }
 
     private Duration resolveWindow(Instant baselineTime, Instant latestTime) {
@@ -0,0 +1,39 @@
+package com.xbleey.goldpricealert.enums;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+
+@Getter
+public enum GoldCandleResolution {
+    ONE_MINUTE("1m", Duration.ofMinutes(1)),
+    FIVE_MINUTES("5m", Duration.ofMinutes(5)),
+    ONE_HOUR("1h", Duration.ofHours(1)),
+    ONE_DAY("1d", Duration.ofDays(1));
+
+    private final String code;
+    private final Duration duration;
+
+    GoldCandleResolution(String code, Duration duration) {
+        this.code = code;
+        this.duration = duration;
+    }
+
+    // 所有周期均按 UTC epoch 对齐，1d 周期即 UTC 自然日
+    public Instant bucketStart(Instant time) {
+        long millis = duration.toMillis();
+        return Instant.ofEpochMilli(Math.floorDiv(time.toEpochMilli(), millis) * millis);
+    }
+
+    public static GoldCandleResolution fromCode(String code) {
+        String normalized = code == null ? "" : code.trim().toLowerCase(Locale.ROOT);
+        for (GoldCandleResolution resolution : values()) {
+            if (resolution.code.equals(normalized) || resolution.name().equalsIgnoreCase(normalized)) {
+                return resolution;
+            }
+        }
+        throw new IllegalArgumentException("invalid candle resolution: " + code);
+    }
+}
@@ -0,0 +1,6 @@
+package com.xbleey.goldpricealert.enums;
+
+public enum GoldSnapshotStoreType {
+    MYSQL,
+    JOURNAL
+}
@@ -0,0 +1,57 @@
+package com.xbleey.goldpricealert.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.xbleey.goldpricealert.model.GoldPriceCandle;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface GoldPriceCandleMapper extends BaseMapper<GoldPriceCandle> {
+
+    // 唯一键 (symbol, resolution, bucket_start)。合并写入：开收盘按 open_at/close_at 取较早/较晚者，最高/最低取极值，tick_count 累加
+    @Insert("""
+            <script>
+            insert into gold_price_candle
+                (symbol, resolution, bucket_start, open_price, high_price, low_price, close_price, open_at, close_at, tick_count)
+            values
+            <foreach collection="candles" item="c" separator=",">
+                (#{c.symbol}, #{c.resolution}, #{c.bucketStart}, #{c.openPrice}, #{c.highPrice}, #{c.lowPrice}, #{c.closePrice},
+                 #{c.openAt}, #{c.closeAt}, #{c.tickCount})
+            </foreach>
+            on duplicate key update
+                open_price = if(values(open_at) &lt; open_at, values(open_price), open_price),
+                open_at = least(open_at, values(open_at)),
+                close_price = if(values(close_at) &gt;= close_at, values(close_price), close_price),
+                close_at = greatest(close_at, values(close_at)),
+                high_price = greatest(high_price, values(high_price)),
+                low_price = least(low_price, values(low_price)),
+                tick_count = tick_count + values(tick_count)
+            </script>
+            """)
+    int mergeBatch(@Param("candles") List<GoldPriceCandle> candles);
+
+    // 覆盖写入：用于回填，周期内数据已完整重算
+    @Insert("""
+            <script>
+            insert into gold_price_candle
+                (symbol, resolution, bucket_start, open_price, high_price, low_price, close_price, open_at, close_at, tick_count)
+            values
+            <foreach collection="candles" item="c" separator=",">
+                (#{c.symbol}, #{c.resolution}, #{c.bucketStart}, #{c.openPrice}, #{c.highPrice}, #{c.lowPrice}, #{c.closePrice},
+                 #{c.openAt}, #{c.closeAt}, #{c.tickCount})
+            </foreach>
+            on duplicate key update
+                open_price = values(open_price),
+                high_price = values(high_price),
+                low_price = values(low_price),
+                close_price = values(close_price),
+                open_at = values(open_at),
+                close_at = values(close_at),
+                tick_count = values(tick_count)
+            </script>
+            """)
+    int replaceBatch(@Param("candles") List<GoldPriceCandle> candles);
+}
@@ -1,9 +1,44 @@
 package com.xbleey.goldpricealert.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
 import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.List;
 
 @Mapper
 public interface GoldPriceSnapshotMapper extends BaseMapper<GoldPriceSnapshot> {
+
+    @Insert("""
+            <script>
+            insert into gold_price_snapshot (fetched_at, name, price, symbol, updated_at, updated_at_readable)
+            values
+            <foreach collection="snapshots" item="s" separator=",">
+                (#{s.fetchedAt}, #{s.name}, #{s.price}, #{s.symbol}, #{s.updatedAt}, #{s.updatedAtReadable})
+            </foreach>
+            </script>
+            """)
+    @Options(useGeneratedKeys = true, keyProperty = "id", keyColumn = "id")
+    int insertBatch(@Param("snapshots") List<GoldPriceSnapshot> snapshots);
+
+    // 需配合 JDBC URL 中的 useCursorFetch=true，MySQL 才会按 fetchSize 分批拉取而不是一次性读入内存
+    @Select("""
+            select id, fetched_at, name, price, symbol, updated_at, updated_at_readable
+            from gold_price_snapshot ${ew.customSqlSegment}
+            """)
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = 500)
+    @ResultType(GoldPriceSnapshot.class)
+    void streamByWrapper(
+            @Param(Constants.WRAPPER) Wrapper<GoldPriceSnapshot> wrapper,
+            ResultHandler<GoldPriceSnapshot> handler
+    );
 }
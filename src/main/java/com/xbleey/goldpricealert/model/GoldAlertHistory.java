@@ -42,6 +42,14 @@ public class GoldAlertHistory {
     @TableField("latest_price")
     private BigDecimal latestPrice;
 
+    // 主品种为空
+    @TableField("symbol")
+    private String symbol;
+
+    // 触发告警的行情在交叉校验中与其他来源偏差超限
+    @TableField("price_suspect")
+    private boolean priceSuspect;
+
     @TableField("created_at")
     private Instant createdAt;
 }
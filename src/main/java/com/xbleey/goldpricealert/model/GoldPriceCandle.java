@@ -0,0 +1,97 @@
+package com.xbleey.goldpricealert.model;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@TableName("gold_price_candle")
+public class GoldPriceCandle {
+
+    @JsonIgnore
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    @TableField("symbol")
+    private String symbol;
+
+    @TableField("resolution")
+    private String resolution;
+
+    @TableField("bucket_start")
+    private Instant bucketStart;
+
+    @TableField("open_price")
+    private BigDecimal openPrice;
+
+    @TableField("high_price")
+    private BigDecimal highPrice;
+
+    @TableField("low_price")
+    private BigDecimal lowPrice;
+
+    @TableField("close_price")
+    private BigDecimal closePrice;
+
+    @TableField("open_at")
+    private Instant openAt;
+
+    @TableField("close_at")
+    private Instant closeAt;
+
+    @TableField("tick_count")
+    private Long tickCount;
+
+    public static GoldPriceCandle ofTick(
+            String symbol,
+            String resolution,
+            Instant bucketStart,
+            Instant fetchedAt,
+            BigDecimal price
+    ) {
+        GoldPriceCandle candle = new GoldPriceCandle();
+        candle.setSymbol(symbol);
+        candle.setResolution(resolution);
+        candle.setBucketStart(bucketStart);
+        candle.setOpenPrice(price);
+        candle.setHighPrice(price);
+        candle.setLowPrice(price);
+        candle.setClosePrice(price);
+        candle.setOpenAt(fetchedAt);
+        candle.setCloseAt(fetchedAt);
+        candle.setTickCount(1L);
+        return candle;
+    }
+
+    // 合并同一周期的两段部分 K 线；开收盘按时间取，与合并顺序无关
+    public void merge(GoldPriceCandle other) {
+        if (other == null) {
+            return;
+        }
+        if (other.getOpenAt().isBefore(openAt)) {
+            openAt = other.getOpenAt();
+            openPrice = other.getOpenPrice();
+        }
+        if (!other.getCloseAt().isBefore(closeAt)) {
+            closeAt = other.getCloseAt();
+            closePrice = other.getClosePrice();
+        }
+        if (other.getHighPrice().compareTo(highPrice) > 0) {
+            highPrice = other.getHighPrice();
+        }
+        if (other.getLowPrice().compareTo(lowPrice) < 0) {
+            lowPrice = other.getLowPrice();
+        }
+        tickCount = tickCount + other.getTickCount();
+    }
+}
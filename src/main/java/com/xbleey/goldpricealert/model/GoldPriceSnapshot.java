@@ -40,8 +40,9 @@ public class GoldPriceSnapshot {
     @TableField("updated_at_readable")
     private String updatedAtReadable;
 
+    // 定时交叉校验中各来源报价偏差超限，只在内存中标记、不入库；基于它触发的波动告警会带上该标记
     @TableField(exist = false)
-    private GoldApiResponse response;
+    private boolean priceSuspect;
 
     public GoldPriceSnapshot(Instant fetchedAt, GoldApiResponse response) {
         this.fetchedAt = fetchedAt;
@@ -52,6 +53,8 @@ public class GoldPriceSnapshot {
         return fetchedAt;
     }
 
+    // 只保存展开后的字段（历史缓冲中常驻大量快照，不再额外持有响应对象）。以下 response 相关方法只是兼容旧调用方的适配，
+    // 每次调用都会组装新对象；应用内部直接读取字段，解码由 GoldApiResponseDecoder.decodeInto 直接写入字段
     public GoldApiResponse response() {
         return new GoldApiResponse(
                 name,
@@ -67,7 +70,6 @@ public class GoldPriceSnapshot {
     }
 
     public void setResponse(GoldApiResponse response) {
-        this.response = response;
         if (response == null) {
             this.name = null;
             this.price = null;
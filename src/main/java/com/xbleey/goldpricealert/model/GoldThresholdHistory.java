@@ -24,6 +24,13 @@ public class GoldThresholdHistory {
     @TableId(type = IdType.AUTO)
     private Long id;
 
+    @TableField("username")
+    private String username;
+
+    // 主品种为空
+    @TableField("symbol")
+    private String symbol;
+
     @TableField("threshold")
     private BigDecimal threshold;
 
@@ -36,9 +43,16 @@ public class GoldThresholdHistory {
     @TableField("triggered_price")
     private BigDecimal triggeredPrice;
 
+    // UP / DOWN 只在对应方向穿越时触发，为空时两个方向都触发
+    @TableField("direction")
+    private String direction;
+
     @TableField("status")
     private String status;
 
+    @TableField("updated_at")
+    private Instant updatedAt;
+
     public boolean isPending() {
         return STATUS_PENDING.equals(status);
     }
@@ -0,0 +1,21 @@
+package com.xbleey.goldpricealert.repository;
+
+import com.xbleey.goldpricealert.enums.GoldCandleResolution;
+import com.xbleey.goldpricealert.model.GoldPriceCandle;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface GoldPriceCandleStore {
+
+    int mergeAll(List<GoldPriceCandle> candles);
+
+    int replaceAll(List<GoldPriceCandle> candles);
+
+    List<GoldPriceCandle> findRangeAsc(
+            String symbol,
+            GoldCandleResolution resolution,
+            Instant fromInclusive,
+            Instant toExclusive
+    );
+}
@@ -3,20 +3,75 @@ package com.xbleey.goldpricealert.repository;
 import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface GoldPriceSnapshotStore {
 
     GoldPriceSnapshot save(GoldPriceSnapshot snapshot);
 
+    default int saveAll(List<GoldPriceSnapshot> snapshots) {
+        if (snapshots == null) {
+            return 0;
+        }
+        snapshots.forEach(this::save);
+        return snapshots.size();
+    }
+
     int update(GoldPriceSnapshot snapshot);
 
     int deleteById(Long id);
 
     Optional<GoldPriceSnapshot> findSnapshotAtOrBefore(Instant target);
 
+    default Map<Instant, GoldPriceSnapshot> findSnapshotsAtOrBefore(Collection<Instant> targets) {
+        Map<Instant, GoldPriceSnapshot> resolved = new HashMap<>();
+        if (targets == null) {
+            return resolved;
+        }
+        for (Instant target : targets) {
+            if (target != null && !resolved.containsKey(target)) {
+                findSnapshotAtOrBefore(target).ifPresent(snapshot -> resolved.put(target, snapshot));
+            }
+        }
+        return resolved;
+    }
+
     List<GoldPriceSnapshot> findAllAsc();
 
     List<GoldPriceSnapshot> findRecentDesc(int limit);
+
+    // 键集分页：按 (fetchedAt, id) 倒序返回严格位于游标之后的至多 limit 条，游标为 null 表示第一页
+    List<GoldPriceSnapshot> findPageDesc(Instant beforeTime, Long beforeId, int limit);
+
+    long count();
+
+    // 按 fetchedAt 升序逐条回调 [fromInclusive, toExclusive) 内的快照，边界为 null 表示不限；实现需保证内存占用与表大小无关，
+    // 因此不提供基于 findAllAsc 的默认实现
+    void streamAsc(Instant fromInclusive, Instant toExclusive, Consumer<GoldPriceSnapshot> action);
+
+    static boolean isBeforeKey(GoldPriceSnapshot snapshot, Instant beforeTime, Long beforeId) {
+        if (beforeTime == null) {
+            return true;
+        }
+        int compared = snapshot.getFetchedAt().compareTo(beforeTime);
+        if (compared != 0) {
+            return compared < 0;
+        }
+        return beforeId != null && snapshot.getId() != null && snapshot.getId() < beforeId;
+    }
+
+    static boolean isInRange(Instant time, Instant fromInclusive, Instant toExclusive) {
+        if (time == null) {
+            return false;
+        }
+        if (fromInclusive != null && time.isBefore(fromInclusive)) {
+            return false;
+        }
+        return toExclusive == null || time.isBefore(toExclusive);
+    }
 }
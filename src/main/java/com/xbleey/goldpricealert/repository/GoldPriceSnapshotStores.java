@@ -0,0 +1,111 @@
+package com.xbleey.goldpricealert.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// 按品种划分的快照存储。主品种就是 @Primary 的 GoldPriceSnapshotStore，生命周期归容器；
+// 其余品种各有一条独立装配链（MySQL 按 symbol 过滤 / 独立日志文件 / 独立归档目录），启动与关闭由本类负责
+public class GoldPriceSnapshotStores {
+
+    private static final Logger log = LoggerFactory.getLogger(GoldPriceSnapshotStores.class);
+
+    private final String primarySymbol;
+    private final Map<String, GoldPriceSnapshotStore> stores = new LinkedHashMap<>();
+    private final List<ArchiveTier> archiveTiers = new ArrayList<>();
+    private final List<Object> managed = new ArrayList<>();
+
+    public GoldPriceSnapshotStores(String primarySymbol, GoldPriceSnapshotStore primary) {
+        this.primarySymbol = primarySymbol;
+        stores.put(primarySymbol, primary);
+    }
+
+    public String primarySymbol() {
+        return primarySymbol;
+    }
+
+    public GoldPriceSnapshotStore primary() {
+        return stores.get(primarySymbol);
+    }
+
+    public Set<String> symbols() {
+        return stores.keySet();
+    }
+
+    public Optional<GoldPriceSnapshotStore> find(String symbol) {
+        return Optional.ofNullable(stores.get(symbol));
+    }
+
+    public List<ArchiveTier> archiveTiers() {
+        return List.copyOf(archiveTiers);
+    }
+
+    public void register(String symbol, GoldPriceSnapshotStore store) {
+        if (stores.putIfAbsent(symbol, store) != null) {
+            throw new IllegalStateException("duplicate snapshot store for symbol " + symbol);
+        }
+    }
+
+    public void addArchiveTier(String symbol, MyBatisPlusGoldPriceSnapshotStore hot, GoldSnapshotArchive archive) {
+        archiveTiers.add(new ArchiveTier(symbol, hot, archive));
+    }
+
+    // 登记需要由本类启动/关闭的存储层，按登记的逆序关闭（外层 write-behind 先刷写，内层日志文件后关闭）
+    public <T> T manage(T resource) {
+        managed.add(resource);
+        return resource;
+    }
+
+    @PostConstruct
+    public void start() {
+        for (Object resource : managed) {
+            if (resource instanceof WriteBehindGoldPriceSnapshotStore writeBehind) {
+                writeBehind.start();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Object resource : managed.reversed()) {
+            try {
+                if (resource instanceof WriteBehindGoldPriceSnapshotStore writeBehind) {
+                    writeBehind.shutdown();
+                } else if (resource instanceof Closeable closeable) {
+                    closeable.close();
+                }
+            } catch (IOException | RuntimeException ex) {
+                log.warn("Failed to close snapshot store {}", resource, ex);
+            }
+        }
+    }
+
+    // 非主品种的文件名后缀，如 XAU/EUR -> XAU-EUR
+    public static String fileSafe(String symbol) {
+        return symbol.replaceAll("[^A-Za-z0-9_-]", "-");
+    }
+
+    // data/snapshot-journal.dat + XAG -> data/snapshot-journal-XAG.dat
+    public static Path perSymbolFile(Path path, String symbol) {
+        String fileName = path.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String suffixed = dot <= 0
+                ? fileName + "-" + fileSafe(symbol)
+                : fileName.substring(0, dot) + "-" + fileSafe(symbol) + fileName.substring(dot);
+        return path.resolveSibling(suffixed);
+    }
+
+    public record ArchiveTier(String symbol, MyBatisPlusGoldPriceSnapshotStore hot, GoldSnapshotArchive archive) {
+    }
+}
@@ -0,0 +1,204 @@
+package com.xbleey.goldpricealert.repository;
+
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+// 冷数据层：每个 UTC 自然日一个压缩块文件（yyyy-MM-dd.gpa），MANIFEST 记录水位线，
+// 水位线之前的快照全部且只在归档中；内存索引按块首条时间排序，只保存块头信息
+public class GoldSnapshotArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(GoldSnapshotArchive.class);
+    private static final String BLOCK_SUFFIX = ".gpa";
+    private static final String MANIFEST = "MANIFEST";
+
+    private final Path directory;
+    private final NavigableMap<Instant, Block> index = new ConcurrentSkipListMap<>();
+    private volatile Instant watermark;
+
+    public GoldSnapshotArchive(Path directory) {
+        this.directory = directory;
+        load();
+    }
+
+    public Instant watermark() {
+        return watermark;
+    }
+
+    public boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    public long count() {
+        return index.values().stream().mapToLong(Block::count).sum();
+    }
+
+    public long sizeInBytes() {
+        return index.values().stream().mapToLong(Block::bytes).sum();
+    }
+
+    // 覆盖写入某天的块；先写临时文件再原子替换，崩溃后重跑归档任务即可恢复
+    public void writeDay(LocalDate day, List<GoldPriceSnapshot> ascending) {
+        if (ascending == null || ascending.isEmpty()) {
+            return;
+        }
+        byte[] encoded = GoldSnapshotBlockCodec.encode(ascending);
+        Path target = directory.resolve(day + BLOCK_SUFFIX);
+        writeAtomically(target, encoded);
+        GoldSnapshotBlockCodec.Header header = GoldSnapshotBlockCodec.readHeader(ByteBuffer.wrap(encoded));
+        index.values().removeIf(block -> block.path().equals(target));
+        index.put(header.firstAt(), new Block(target, header.count(), header.firstAt(), header.lastAt(), encoded.length));
+    }
+
+    public void advanceWatermark(Instant newWatermark) {
+        if (newWatermark == null || (watermark != null && !newWatermark.isAfter(watermark))) {
+            return;
+        }
+        writeAtomically(directory.resolve(MANIFEST), newWatermark.toString().getBytes(StandardCharsets.UTF_8));
+        watermark = newWatermark;
+    }
+
+    public void streamAsc(Instant fromInclusive, Instant toExclusive, Consumer<GoldPriceSnapshot> action) {
+        for (Block block : blocksOverlapping(fromInclusive, toExclusive)) {
+            for (GoldPriceSnapshot snapshot : read(block)) {
+                if (GoldPriceSnapshotStore.isInRange(snapshot.getFetchedAt(), fromInclusive, toExclusive)) {
+                    action.accept(snapshot);
+                }
+            }
+        }
+    }
+
+    // 按 (fetchedAt, id) 倒序返回严格位于键之前的至多 limit 条，从最新的块向前逐块解码
+    public List<GoldPriceSnapshot> findPageDesc(Instant beforeTime, Long beforeId, int limit) {
+        List<GoldPriceSnapshot> page = new ArrayList<>();
+        if (limit <= 0) {
+            return page;
+        }
+        NavigableMap<Instant, Block> candidates = beforeTime == null ? index : index.headMap(beforeTime, true);
+        for (Block block : candidates.descendingMap().values()) {
+            List<GoldPriceSnapshot> snapshots = read(block);
+            for (int i = snapshots.size() - 1; i >= 0; i--) {
+                GoldPriceSnapshot snapshot = snapshots.get(i);
+                if (!GoldPriceSnapshotStore.isBeforeKey(snapshot, beforeTime, beforeId)) {
+                    continue;
+                }
+                page.add(snapshot);
+                if (page.size() >= limit) {
+                    return page;
+                }
+            }
+        }
+        return page;
+    }
+
+    public Optional<GoldPriceSnapshot> findSnapshotAtOrBefore(Instant target) {
+        if (target == null) {
+            return Optional.empty();
+        }
+        Map.Entry<Instant, Block> entry = index.floorEntry(target);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        GoldPriceSnapshot found = null;
+        for (GoldPriceSnapshot snapshot : read(entry.getValue())) {
+            if (snapshot.getFetchedAt().isAfter(target)) {
+                break;
+            }
+            found = snapshot;
+        }
+        return Optional.ofNullable(found);
+    }
+
+    private List<Block> blocksOverlapping(Instant fromInclusive, Instant toExclusive) {
+        NavigableMap<Instant, Block> candidates = toExclusive == null ? index : index.headMap(toExclusive, false);
+        return candidates.values().stream()
+                .filter(block -> fromInclusive == null || !block.lastAt().isBefore(fromInclusive))
+                .toList();
+    }
+
+    private List<GoldPriceSnapshot> read(Block block) {
+        try {
+            return GoldSnapshotBlockCodec.decode(Files.readAllBytes(block.path()));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("failed to read snapshot block " + block.path(), ex);
+        }
+    }
+
+    private void load() {
+        try {
+            Files.createDirectories(directory);
+            Path manifest = directory.resolve(MANIFEST);
+            if (Files.exists(manifest)) {
+                watermark = Instant.parse(Files.readString(manifest, StandardCharsets.UTF_8).trim());
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + BLOCK_SUFFIX)) {
+                for (Path file : files) {
+                    loadHeader(file);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("failed to open snapshot archive " + directory, ex);
+        }
+        log.info("Gold snapshot archive loaded: directory={}, blocks={}, watermark={}", directory, index.size(), watermark);
+    }
+
+    private void loadHeader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(GoldSnapshotBlockCodec.HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // 读满块头
+            }
+            header.flip();
+            GoldSnapshotBlockCodec.Header parsed = GoldSnapshotBlockCodec.readHeader(header);
+            index.put(parsed.firstAt(), new Block(file, parsed.count(), parsed.firstAt(), parsed.lastAt(), channel.size()));
+        } catch (IllegalStateException ex) {
+            log.warn("Skip unreadable snapshot block {}", file, ex);
+        }
+    }
+
+    private void writeAtomically(Path target, byte[] content) {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            Files.write(temp, content);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("failed to write " + target, ex);
+        }
+    }
+
+    static LocalDate dayOf(Instant time) {
+        return LocalDate.ofInstant(time, ZoneOffset.UTC);
+    }
+
+    private record Block(Path path, int count, Instant firstAt, Instant lastAt, long bytes) {
+    }
+}
@@ -0,0 +1,363 @@
+package com.xbleey.goldpricealert.repository;
+
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+// 快照块编码（Gorilla 风格）：fetchedAt 以微秒做二阶差分，价格按 DECIMAL(19,6) 缩放为整数后做一阶差分，
+// id 通常连续只占 1 bit，name/symbol/updatedAtReadable 仅在变化时写出。
+// 块头固定 28 字节：magic、version、count、首末 fetchedAt（微秒），读取索引时无需解码位流
+final class GoldSnapshotBlockCodec {
+
+    static final int MAGIC = 0x47504131; // "GPA1"
+    static final int HEADER_BYTES = 28;
+    private static final int VERSION = 1;
+    private static final int PRICE_SCALE = 6;
+    private static final int NULL_STRING = 0xFFFF;
+
+    private GoldSnapshotBlockCodec() {
+    }
+
+    record Header(int count, Instant firstAt, Instant lastAt) {
+    }
+
+    static byte[] encode(List<GoldPriceSnapshot> ascending) {
+        if (ascending == null || ascending.isEmpty()) {
+            throw new IllegalArgumentException("block must not be empty");
+        }
+        BitWriter bits = new BitWriter();
+        long previousMicros = 0;
+        long previousDelta = 0;
+        long previousPrice = 0;
+        long previousId = 0;
+        long previousUpdatedLag = 0;
+        String previousName = null;
+        String previousSymbol = null;
+        String previousReadable = null;
+        for (int i = 0; i < ascending.size(); i++) {
+            GoldPriceSnapshot snapshot = ascending.get(i);
+            long micros = toMicros(snapshot.getFetchedAt());
+            if (i == 0) {
+                bits.write(micros, 64);
+            } else {
+                long delta = micros - previousMicros;
+                if (delta < 0) {
+                    throw new IllegalArgumentException("block must be sorted by fetchedAt");
+                }
+                writeTimestampDod(bits, delta - previousDelta);
+                previousDelta = delta;
+            }
+            previousMicros = micros;
+
+            Long id = snapshot.getId();
+            if (id == null) {
+                throw new IllegalArgumentException("archived snapshot must have an id");
+            }
+            if (i > 0 && id == previousId + 1) {
+                bits.write(0, 1);
+            } else {
+                bits.write(1, 1);
+                bits.write(id, 64);
+            }
+            previousId = id;
+
+            if (snapshot.getPrice() == null) {
+                bits.write(0b1111, 4);
+            } else {
+                long scaled = snapshot.getPrice().setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+                writePriceDelta(bits, scaled - previousPrice);
+                previousPrice = scaled;
+            }
+
+            if (snapshot.getUpdatedAt() == null) {
+                bits.write(0b111, 3);
+            } else {
+                long lag = micros - toMicros(snapshot.getUpdatedAt());
+                writeLag(bits, lag - previousUpdatedLag);
+                previousUpdatedLag = lag;
+            }
+
+            boolean metaChanged = i == 0
+                    || !Objects.equals(previousName, snapshot.getName())
+                    || !Objects.equals(previousSymbol, snapshot.getSymbol());
+            bits.write(metaChanged ? 1 : 0, 1);
+            if (metaChanged) {
+                writeString(bits, snapshot.getName());
+                writeString(bits, snapshot.getSymbol());
+                previousName = snapshot.getName();
+                previousSymbol = snapshot.getSymbol();
+            }
+            boolean readableChanged = i == 0 || !Objects.equals(previousReadable, snapshot.getUpdatedAtReadable());
+            bits.write(readableChanged ? 1 : 0, 1);
+            if (readableChanged) {
+                writeString(bits, snapshot.getUpdatedAtReadable());
+                previousReadable = snapshot.getUpdatedAtReadable();
+            }
+        }
+        byte[] payload = bits.toByteArray();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        buffer.putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(ascending.size())
+                .putLong(toMicros(ascending.getFirst().getFetchedAt()))
+                .putLong(toMicros(ascending.getLast().getFetchedAt()))
+                .put(payload);
+        return buffer.array();
+    }
+
+    static Header readHeader(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IllegalStateException("not a gold snapshot block");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IllegalStateException("unsupported gold snapshot block version: " + version);
+        }
+        int count = buffer.getInt();
+        return new Header(count, fromMicros(buffer.getLong()), fromMicros(buffer.getLong()));
+    }
+
+    static List<GoldPriceSnapshot> decode(byte[] block) {
+        ByteBuffer buffer = ByteBuffer.wrap(block);
+        Header header = readHeader(buffer);
+        BitReader bits = new BitReader(block, HEADER_BYTES);
+        List<GoldPriceSnapshot> snapshots = new ArrayList<>(header.count());
+        long micros = 0;
+        long delta = 0;
+        long price = 0;
+        long id = 0;
+        long updatedLag = 0;
+        String name = null;
+        String symbol = null;
+        String readable = null;
+        for (int i = 0; i < header.count(); i++) {
+            if (i == 0) {
+                micros = bits.read(64);
+            } else {
+                delta += readTimestampDod(bits);
+                micros += delta;
+            }
+            id = bits.read(1) == 0 ? id + 1 : bits.read(64);
+
+            BigDecimal decodedPrice = null;
+            Long priceDelta = readPriceDelta(bits);
+            if (priceDelta != null) {
+                price += priceDelta;
+                decodedPrice = BigDecimal.valueOf(price, PRICE_SCALE);
+            }
+
+            Instant updatedAt = null;
+            Long lagDelta = readLag(bits);
+            if (lagDelta != null) {
+                updatedLag += lagDelta;
+                updatedAt = fromMicros(micros - updatedLag);
+            }
+
+            if (bits.read(1) == 1) {
+                name = readString(bits);
+                symbol = readString(bits);
+            }
+            if (bits.read(1) == 1) {
+                readable = readString(bits);
+            }
+
+            GoldPriceSnapshot snapshot = new GoldPriceSnapshot();
+            snapshot.setId(id);
+            snapshot.setFetchedAt(fromMicros(micros));
+            snapshot.setName(name);
+            snapshot.setPrice(decodedPrice);
+            snapshot.setSymbol(symbol);
+            snapshot.setUpdatedAt(updatedAt);
+            snapshot.setUpdatedAtReadable(readable);
+            snapshots.add(snapshot);
+        }
+        return snapshots;
+    }
+
+    static long toMicros(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+    }
+
+    static Instant fromMicros(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+    }
+
+    // 拉取间隔基本固定，二阶差分多数落在毫秒级抖动内
+    private static void writeTimestampDod(BitWriter bits, long dod) {
+        if (dod == 0) {
+            bits.write(0, 1);
+        } else if (fits(dod, 14)) {
+            bits.write(0b10, 2);
+            bits.write(dod, 14);
+        } else if (fits(dod, 24)) {
+            bits.write(0b110, 3);
+            bits.write(dod, 24);
+        } else if (fits(dod, 36)) {
+            bits.write(0b1110, 4);
+            bits.write(dod, 36);
+        } else {
+            bits.write(0b1111, 4);
+            bits.write(dod, 64);
+        }
+    }
+
+    private static long readTimestampDod(BitReader bits) {
+        if (bits.read(1) == 0) {
+            return 0;
+        }
+        if (bits.read(1) == 0) {
+            return bits.readSigned(14);
+        }
+        if (bits.read(1) == 0) {
+            return bits.readSigned(24);
+        }
+        return bits.read(1) == 0 ? bits.readSigned(36) : bits.read(64);
+    }
+
+    private static void writePriceDelta(BitWriter bits, long delta) {
+        if (delta == 0) {
+            bits.write(0, 1);
+        } else if (fits(delta, 20)) {
+            bits.write(0b10, 2);
+            bits.write(delta, 20);
+        } else if (fits(delta, 36)) {
+            bits.write(0b110, 3);
+            bits.write(delta, 36);
+        } else {
+            bits.write(0b1110, 4);
+            bits.write(delta, 64);
+        }
+    }
+
+    private static Long readPriceDelta(BitReader bits) {
+        if (bits.read(1) == 0) {
+            return 0L;
+        }
+        if (bits.read(1) == 0) {
+            return bits.readSigned(20);
+        }
+        if (bits.read(1) == 0) {
+            return bits.readSigned(36);
+        }
+        return bits.read(1) == 0 ? bits.read(64) : null;
+    }
+
+    private static void writeLag(BitWriter bits, long delta) {
+        if (delta == 0) {
+            bits.write(0, 1);
+        } else if (fits(delta, 28)) {
+            bits.write(0b10, 2);
+            bits.write(delta, 28);
+        } else {
+            bits.write(0b110, 3);
+            bits.write(delta, 64);
+        }
+    }
+
+    private static Long readLag(BitReader bits) {
+        if (bits.read(1) == 0) {
+            return 0L;
+        }
+        if (bits.read(1) == 0) {
+            return bits.readSigned(28);
+        }
+        return bits.read(1) == 0 ? bits.read(64) : null;
+    }
+
+    private static void writeString(BitWriter bits, String value) {
+        if (value == null) {
+            bits.write(NULL_STRING, 16);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULL_STRING) {
+            throw new IllegalArgumentException("string too long for snapshot block");
+        }
+        bits.write(bytes.length, 16);
+        for (byte b : bytes) {
+            bits.write(b, 8);
+        }
+    }
+
+    private static String readString(BitReader bits) {
+        int length = (int) bits.read(16);
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) bits.read(8);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean fits(long value, int width) {
+        long bound = 1L << (width - 1);
+        return value >= -bound && value < bound;
+    }
+
+    private static final class BitWriter {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private int current;
+        private int used;
+
+        void write(long value, int width) {
+            for (int i = width - 1; i >= 0; i--) {
+                current = (current << 1) | (int) ((value >>> i) & 1L);
+                if (++used == 8) {
+                    out.write(current);
+                    current = 0;
+                    used = 0;
+                }
+            }
+        }
+
+        byte[] toByteArray() {
+            if (used > 0) {
+                out.write(current << (8 - used));
+                current = 0;
+                used = 0;
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static final class BitReader {
+
+        private final byte[] data;
+        private long position;
+
+        BitReader(byte[] data, int offsetBytes) {
+            this.data = data;
+            this.position = (long) offsetBytes * 8;
+        }
+
+        long read(int width) {
+            long value = 0;
+            for (int i = 0; i < width; i++) {
+                int index = (int) (position >>> 3);
+                if (index >= data.length) {
+                    throw new IllegalStateException("truncated gold snapshot block");
+                }
+                int bit = (data[index] >>> (7 - (int) (position & 7))) & 1;
+                value = (value << 1) | bit;
+                position++;
+            }
+            return value;
+        }
+
+        long readSigned(int width) {
+            long value = read(width);
+            return (value << (64 - width)) >> (64 - width);
+        }
+    }
+}
@@ -4,19 +4,26 @@ import com.xbleey.goldpricealert.model.GoldThresholdHistory;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 public interface GoldThresholdHistoryStore {
 
     GoldThresholdHistory save(GoldThresholdHistory record);
 
-    int update(GoldThresholdHistory record);
+    Optional<GoldThresholdHistory> findById(Long id);
 
-    Optional<GoldThresholdHistory> findLatest();
+    List<GoldThresholdHistory> findPendingByUsername(String username);
 
-    Optional<GoldThresholdHistory> findLatestPending();
+    long countPendingByUsername(String username);
+
+    // 按 id 升序分页读取全部待触发阈值，用于启动时装填内存索引
+    List<GoldThresholdHistory> findPendingAfterId(long afterId, int limit);
+
+    // updated_at 不早于 since 的记录（含已触发、已清除），用于多副本增量同步
+    List<GoldThresholdHistory> findChangedSince(Instant since);
 
     boolean markTriggered(Long id, Instant triggeredAt, BigDecimal triggeredPrice);
 
-    boolean markCleared(Long id);
+    boolean markCleared(Long id, Instant clearedAt);
 }
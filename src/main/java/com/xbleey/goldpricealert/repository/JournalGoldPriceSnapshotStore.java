@@ -0,0 +1,443 @@
+package com.xbleey.goldpricealert.repository;
+
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+// 单机快照存储：内存映射的定长记录日志文件，只追加；fetchedAt 早于上一条的快照按上一条的时间记录。
+// 记录 32 字节：fetchedAt（epoch 纳秒）、价格（6 位小数缩放的 long）、updatedAt（epoch 纳秒）、CRC32、填充；
+// id 即记录序号 + 1。name/symbol 在文件头中只存一份，updatedAtReadable 不落盘。
+// 写入串行化；读取先读 volatile 的 size 再读映射区（扩容先发布新映射再发布 size），不加锁。稀疏索引每 INDEX_STRIDE 条记一个时间戳，
+// 按时间查找先二分稀疏索引再在映射区内二分，启动时顺序校验 CRC 截掉崩溃留下的残缺尾部
+public class JournalGoldPriceSnapshotStore implements GoldPriceSnapshotStore, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalGoldPriceSnapshotStore.class);
+    private static final int MAGIC = 0x47504A31; // "GPJ1"
+    private static final int VERSION = 1;
+    static final int HEADER_BYTES = 128;
+    static final int RECORD_BYTES = 32;
+    private static final int NAME_OFFSET = 12;
+    private static final int NAME_MAX_BYTES = 48;
+    private static final int SYMBOL_OFFSET = 64;
+    private static final int SYMBOL_MAX_BYTES = 32;
+    private static final int INDEX_STRIDE = 256;
+    private static final long GROW_BYTES = 8L * 1024 * 1024;
+    private static final long MAX_BYTES = Integer.MAX_VALUE - (Integer.MAX_VALUE - HEADER_BYTES) % RECORD_BYTES;
+    private static final long NULL_VALUE = Long.MIN_VALUE;
+    private static final int PRICE_SCALE = 6;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final boolean syncOnWrite;
+    private final Object writeLock = new Object();
+    private volatile MappedByteBuffer buffer;
+    private volatile long[] sparseIndex = new long[64];
+    private volatile int size;
+    private volatile String name;
+    private volatile String symbol;
+
+    public JournalGoldPriceSnapshotStore(Path path, boolean syncOnWrite) {
+        this.path = path;
+        this.syncOnWrite = syncOnWrite;
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            open();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("failed to open snapshot journal " + path, ex);
+        }
+    }
+
+    @Override
+    public GoldPriceSnapshot save(GoldPriceSnapshot snapshot) {
+        synchronized (writeLock) {
+            append(snapshot);
+            if (syncOnWrite) {
+                buffer.force();
+            }
+        }
+        return snapshot;
+    }
+
+    @Override
+    public int saveAll(List<GoldPriceSnapshot> snapshots) {
+        if (snapshots == null || snapshots.isEmpty()) {
+            return 0;
+        }
+        synchronized (writeLock) {
+            snapshots.forEach(this::append);
+            if (syncOnWrite) {
+                buffer.force();
+            }
+        }
+        return snapshots.size();
+    }
+
+    // 只追加日志，不支持原地修改与删除
+    @Override
+    public int update(GoldPriceSnapshot snapshot) {
+        return 0;
+    }
+
+    @Override
+    public int deleteById(Long id) {
+        return 0;
+    }
+
+    @Override
+    public Optional<GoldPriceSnapshot> findSnapshotAtOrBefore(Instant target) {
+        if (target == null) {
+            return Optional.empty();
+        }
+        int count = size;
+        MappedByteBuffer view = buffer;
+        int index = lastIndexAtOrBefore(view, count, toNanos(target));
+        return index < 0 ? Optional.empty() : Optional.of(read(view, index));
+    }
+
+    @Override
+    public Map<Instant, GoldPriceSnapshot> findSnapshotsAtOrBefore(Collection<Instant> targets) {
+        Map<Instant, GoldPriceSnapshot> resolved = new HashMap<>();
+        if (targets == null) {
+            return resolved;
+        }
+        int count = size;
+        MappedByteBuffer view = buffer;
+        for (Instant target : targets) {
+            if (target == null || resolved.containsKey(target)) {
+                continue;
+            }
+            int index = lastIndexAtOrBefore(view, count, toNanos(target));
+            if (index >= 0) {
+                resolved.put(target, read(view, index));
+            }
+        }
+        return resolved;
+    }
+
+    @Override
+    public List<GoldPriceSnapshot> findAllAsc() {
+        List<GoldPriceSnapshot> all = new ArrayList<>(size);
+        streamAsc(null, null, all::add);
+        return List.copyOf(all);
+    }
+
+    @Override
+    public void streamAsc(Instant fromInclusive, Instant toExclusive, Consumer<GoldPriceSnapshot> action) {
+        int count = size;
+        MappedByteBuffer view = buffer;
+        int start = fromInclusive == null ? 0 : lastIndexBefore(view, count, toNanos(fromInclusive)) + 1;
+        long endNanos = toExclusive == null ? Long.MAX_VALUE : toNanos(toExclusive);
+        for (int i = start; i < count && fetchedAtNanos(view, i) < endNanos; i++) {
+            action.accept(read(view, i));
+        }
+    }
+
+    @Override
+    public List<GoldPriceSnapshot> findRecentDesc(int limit) {
+        return findPageDesc(null, null, limit);
+    }
+
+    @Override
+    public List<GoldPriceSnapshot> findPageDesc(Instant beforeTime, Long beforeId, int limit) {
+        int safeLimit = Math.max(0, limit);
+        int count = size;
+        MappedByteBuffer view = buffer;
+        int index = count - 1;
+        if (beforeTime != null) {
+            long beforeNanos = toNanos(beforeTime);
+            index = lastIndexAtOrBefore(view, count, beforeNanos);
+            // 同一时间戳内 id 与序号同序，回退到 id 小于游标的位置
+            while (index >= 0 && fetchedAtNanos(view, index) == beforeNanos && (beforeId == null || index + 1L >= beforeId)) {
+                index--;
+            }
+        }
+        List<GoldPriceSnapshot> page = new ArrayList<>(Math.min(safeLimit, Math.max(0, index + 1)));
+        for (int i = index; i >= 0 && page.size() < safeLimit; i--) {
+            page.add(read(view, i));
+        }
+        return List.copyOf(page);
+    }
+
+    @Override
+    public long count() {
+        return size;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writeLock) {
+            if (channel.isOpen()) {
+                buffer.force();
+                channel.close();
+            }
+        }
+    }
+
+    private void open() throws IOException {
+        long fileSize = channel.size();
+        if (fileSize < HEADER_BYTES) {
+            map(HEADER_BYTES + GROW_BYTES);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, RECORD_BYTES);
+            buffer.force();
+            return;
+        }
+        map(Math.max(fileSize, HEADER_BYTES + GROW_BYTES));
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != RECORD_BYTES) {
+            throw new IllegalStateException("not a gold snapshot journal: " + path);
+        }
+        name = readHeaderString(NAME_OFFSET);
+        symbol = readHeaderString(SYMBOL_OFFSET);
+        recover();
+    }
+
+    private void recover() {
+        int capacity = capacityRecords();
+        int count = 0;
+        long previous = Long.MIN_VALUE;
+        while (count < capacity && isValid(buffer, count) && fetchedAtNanos(buffer, count) >= previous) {
+            previous = fetchedAtNanos(buffer, count);
+            index(count, previous);
+            count++;
+        }
+        // 清零残缺尾部：进程或系统崩溃时最后几条记录可能只写了一部分
+        int torn = 0;
+        for (int i = count; i < capacity && !isZero(buffer, i); i++) {
+            clear(i);
+            torn++;
+        }
+        if (torn > 0) {
+            buffer.force();
+            log.warn("Truncated {} torn records from snapshot journal {}", torn, path);
+        }
+        size = count;
+        log.info("Gold snapshot journal opened: path={}, records={}", path, count);
+    }
+
+    private void append(GoldPriceSnapshot snapshot) {
+        if (snapshot == null || snapshot.getFetchedAt() == null) {
+            throw new IllegalArgumentException("snapshot fetchedAt must not be null");
+        }
+        int index = size;
+        long nanos = toNanos(snapshot.getFetchedAt());
+        // 轮询与推送各自取 fetchedAt，先发起、后返回的轮询会带着更早的 fetchedAt 到达。日志按时间二分查找，
+        // 记录中的 fetchedAt 不早于上一条，只在这里调整，调用方的快照与其他存储不受影响
+        if (index > 0 && nanos < fetchedAtNanos(buffer, index - 1)) {
+            long previous = fetchedAtNanos(buffer, index - 1);
+            log.debug("Clamp out-of-order fetchedAt {} to {} in snapshot journal", snapshot.getFetchedAt(), fromNanos(previous));
+            nanos = previous;
+        }
+        if (index >= capacityRecords()) {
+            grow();
+        }
+        if (name == null && symbol == null) {
+            writeHeaderString(NAME_OFFSET, NAME_MAX_BYTES, snapshot.getName());
+            writeHeaderString(SYMBOL_OFFSET, SYMBOL_MAX_BYTES, snapshot.getSymbol());
+            name = snapshot.getName();
+            symbol = snapshot.getSymbol();
+        }
+        int offset = offset(index);
+        MappedByteBuffer view = buffer;
+        long price = snapshot.getPrice() == null
+                ? NULL_VALUE
+                : snapshot.getPrice().setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        long updatedAt = snapshot.getUpdatedAt() == null ? NULL_VALUE : toNanos(snapshot.getUpdatedAt());
+        view.putLong(offset, nanos);
+        view.putLong(offset + 8, price);
+        view.putLong(offset + 16, updatedAt);
+        view.putInt(offset + 28, 0);
+        view.putInt(offset + 24, checksum(index, nanos, price, updatedAt));
+        index(index, nanos);
+        snapshot.setId(index + 1L);
+        size = index + 1;
+    }
+
+    private void index(int recordIndex, long nanos) {
+        if (recordIndex % INDEX_STRIDE != 0) {
+            return;
+        }
+        int slot = recordIndex / INDEX_STRIDE;
+        long[] current = sparseIndex;
+        if (slot >= current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[slot] = nanos;
+        sparseIndex = current;
+    }
+
+    // 最后一条 fetchedAt <= target 的序号，不存在返回 -1
+    private int lastIndexAtOrBefore(MappedByteBuffer view, int count, long target) {
+        if (count == 0) {
+            return -1;
+        }
+        long[] sparse = sparseIndex;
+        int blocks = (count - 1) / INDEX_STRIDE + 1;
+        int low = 0;
+        int high = blocks - 1;
+        int block = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (sparse[mid] <= target) {
+                block = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (block < 0) {
+            return -1;
+        }
+        low = block * INDEX_STRIDE;
+        high = Math.min(count, (block + 1) * INDEX_STRIDE) - 1;
+        int found = low;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (fetchedAtNanos(view, mid) <= target) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    private int lastIndexBefore(MappedByteBuffer view, int count, long target) {
+        return target == Long.MIN_VALUE ? -1 : lastIndexAtOrBefore(view, count, target - 1);
+    }
+
+    private GoldPriceSnapshot read(MappedByteBuffer view, int index) {
+        int offset = offset(index);
+        long price = view.getLong(offset + 8);
+        long updatedAt = view.getLong(offset + 16);
+        GoldPriceSnapshot snapshot = new GoldPriceSnapshot();
+        snapshot.setId(index + 1L);
+        snapshot.setFetchedAt(fromNanos(view.getLong(offset)));
+        snapshot.setName(name);
+        snapshot.setSymbol(symbol);
+        snapshot.setPrice(price == NULL_VALUE ? null : BigDecimal.valueOf(price, PRICE_SCALE));
+        snapshot.setUpdatedAt(updatedAt == NULL_VALUE ? null : fromNanos(updatedAt));
+        return snapshot;
+    }
+
+    private static long fetchedAtNanos(MappedByteBuffer view, int index) {
+        return view.getLong(offset(index));
+    }
+
+    private static boolean isValid(MappedByteBuffer view, int index) {
+        int offset = offset(index);
+        long nanos = view.getLong(offset);
+        long price = view.getLong(offset + 8);
+        long updatedAt = view.getLong(offset + 16);
+        return view.getInt(offset + 24) == checksum(index, nanos, price, updatedAt);
+    }
+
+    private static boolean isZero(MappedByteBuffer view, int index) {
+        int offset = offset(index);
+        for (int i = 0; i < RECORD_BYTES; i += 8) {
+            if (view.getLong(offset + i) != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void clear(int index) {
+        int offset = offset(index);
+        for (int i = 0; i < RECORD_BYTES; i += 8) {
+            buffer.putLong(offset + i, 0L);
+        }
+    }
+
+    // 校验和包含记录序号，旧文件残留在其他位置的完整记录不会被误认
+    private static int checksum(int index, long nanos, long price, long updatedAt) {
+        CRC32 crc = new CRC32();
+        byte[] bytes = new byte[28];
+        ByteBuffer.wrap(bytes).putInt(index).putLong(nanos).putLong(price).putLong(updatedAt);
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    private void grow() {
+        long current = buffer.capacity();
+        if (current >= MAX_BYTES) {
+            throw new IllegalStateException("snapshot journal is full: " + path);
+        }
+        try {
+            buffer.force();
+            map(Math.min(current + GROW_BYTES, MAX_BYTES));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("failed to grow snapshot journal " + path, ex);
+        }
+    }
+
+    private void map(long bytes) throws IOException {
+        long aligned = Math.min(MAX_BYTES, HEADER_BYTES + (bytes - HEADER_BYTES + RECORD_BYTES - 1) / RECORD_BYTES * RECORD_BYTES);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, aligned);
+    }
+
+    private int capacityRecords() {
+        return (buffer.capacity() - HEADER_BYTES) / RECORD_BYTES;
+    }
+
+    private String readHeaderString(int offset) {
+        int length = Short.toUnsignedInt(buffer.getShort(offset));
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void writeHeaderString(int offset, int maxBytes, String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, maxBytes);
+        buffer.put(offset + 2, bytes, 0, length);
+        buffer.putShort(offset, (short) length);
+    }
+
+    private static int offset(int index) {
+        return HEADER_BYTES + index * RECORD_BYTES;
+    }
+
+    private static long toNanos(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+    }
+
+    private static Instant fromNanos(long nanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L));
+    }
+}
@@ -0,0 +1,55 @@
+package com.xbleey.goldpricealert.repository;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.xbleey.goldpricealert.enums.GoldCandleResolution;
+import com.xbleey.goldpricealert.mapper.GoldPriceCandleMapper;
+import com.xbleey.goldpricealert.model.GoldPriceCandle;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+@Component
+public class MyBatisPlusGoldPriceCandleStore implements GoldPriceCandleStore {
+
+    private final GoldPriceCandleMapper mapper;
+
+    public MyBatisPlusGoldPriceCandleStore(GoldPriceCandleMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    @Override
+    public int mergeAll(List<GoldPriceCandle> candles) {
+        if (candles == null || candles.isEmpty()) {
+            return 0;
+        }
+        return mapper.mergeBatch(candles);
+    }
+
+    @Override
+    public int replaceAll(List<GoldPriceCandle> candles) {
+        if (candles == null || candles.isEmpty()) {
+            return 0;
+        }
+        return mapper.replaceBatch(candles);
+    }
+
+    @Override
+    public List<GoldPriceCandle> findRangeAsc(
+            String symbol,
+            GoldCandleResolution resolution,
+            Instant fromInclusive,
+            Instant toExclusive
+    ) {
+        if (symbol == null || resolution == null) {
+            return List.of();
+        }
+        LambdaQueryWrapper<GoldPriceCandle> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(GoldPriceCandle::getSymbol, symbol)
+                .eq(GoldPriceCandle::getResolution, resolution.getCode())
+                .ge(fromInclusive != null, GoldPriceCandle::getBucketStart, fromInclusive)
+                .lt(toExclusive != null, GoldPriceCandle::getBucketStart, toExclusive)
+                .orderByAsc(GoldPriceCandle::getBucketStart);
+        return List.copyOf(mapper.selectList(wrapper));
+    }
+}
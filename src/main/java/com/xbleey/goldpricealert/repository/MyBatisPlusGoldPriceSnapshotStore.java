@@ -3,30 +3,56 @@ package com.xbleey.goldpricealert.repository;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.xbleey.goldpricealert.mapper.GoldPriceSnapshotMapper;
 import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
-import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
-@Component
+// 每个实例只读写一个品种：所有查询都带 symbol 条件，走 (symbol, fetched_at) 联合索引
 public class MyBatisPlusGoldPriceSnapshotStore implements GoldPriceSnapshotStore {
 
     private final GoldPriceSnapshotMapper mapper;
+    private final String symbol;
 
-    public MyBatisPlusGoldPriceSnapshotStore(GoldPriceSnapshotMapper mapper) {
+    public MyBatisPlusGoldPriceSnapshotStore(GoldPriceSnapshotMapper mapper, String symbol) {
         this.mapper = mapper;
+        this.symbol = Objects.requireNonNull(symbol, "symbol");
+    }
+
+    public String symbol() {
+        return symbol;
     }
 
     @Override
     public GoldPriceSnapshot save(GoldPriceSnapshot snapshot) {
+        snapshot.setSymbol(symbol);
         mapper.insert(snapshot);
         return snapshot;
     }
 
+    @Override
+    public int saveAll(List<GoldPriceSnapshot> snapshots) {
+        if (snapshots == null || snapshots.isEmpty()) {
+            return 0;
+        }
+        snapshots.forEach(snapshot -> snapshot.setSymbol(symbol));
+        return mapper.insertBatch(snapshots);
+    }
+
     @Override
     public int update(GoldPriceSnapshot snapshot) {
-        return mapper.updateById(snapshot);
+        if (snapshot == null || snapshot.getId() == null) {
+            return 0;
+        }
+        snapshot.setSymbol(symbol);
+        LambdaQueryWrapper<GoldPriceSnapshot> wrapper = scoped();
+        wrapper.eq(GoldPriceSnapshot::getId, snapshot.getId());
+        return mapper.update(snapshot, wrapper);
     }
 
     @Override
@@ -34,7 +60,9 @@ public class MyBatisPlusGoldPriceSnapshotStore implements GoldPriceSnapshotStore
         if (id == null) {
             return 0;
         }
-        return mapper.deleteById(id);
+        LambdaQueryWrapper<GoldPriceSnapshot> wrapper = scoped();
+        wrapper.eq(GoldPriceSnapshot::getId, id);
+        return mapper.delete(wrapper);
     }
 
     @Override
@@ -42,29 +70,115 @@ public class MyBatisPlusGoldPriceSnapshotStore implements GoldPriceSnapshotStore
         if (target == null) {
             return Optional.empty();
         }
-        LambdaQueryWrapper<GoldPriceSnapshot> wrapper = new LambdaQueryWrapper<>();
+        LambdaQueryWrapper<GoldPriceSnapshot> wrapper = scoped();
         wrapper.le(GoldPriceSnapshot::getFetchedAt, target)
                 .orderByDesc(GoldPriceSnapshot::getFetchedAt)
                 .last("limit 1");
         return Optional.ofNullable(mapper.selectOne(wrapper));
     }
 
+    @Override
+    public Map<Instant, GoldPriceSnapshot> findSnapshotsAtOrBefore(Collection<Instant> targets) {
+        Map<Instant, GoldPriceSnapshot> resolved = new HashMap<>();
+        if (targets == null) {
+            return resolved;
+        }
+        List<Instant> sorted = targets.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+        if (sorted.isEmpty()) {
+            return resolved;
+        }
+        Instant earliest = sorted.getFirst();
+        Instant latest = sorted.getLast();
+        // 一次区间扫描：下界取最早目标时间点之前最近的一条，上界为最晚目标时间点
+        LambdaQueryWrapper<GoldPriceSnapshot> wrapper = scoped();
+        wrapper.apply(
+                        "fetched_at >= coalesce((select max(s.fetched_at) from gold_price_snapshot s where s.symbol = {1} and s.fetched_at <= {0}), {0})",
+                        earliest,
+                        symbol
+                )
+                .le(GoldPriceSnapshot::getFetchedAt, latest)
+                .orderByAsc(GoldPriceSnapshot::getFetchedAt);
+        List<GoldPriceSnapshot> range = mapper.selectList(wrapper);
+        int index = -1;
+        for (Instant target : sorted) {
+            while (index + 1 < range.size() && !range.get(index + 1).getFetchedAt().isAfter(target)) {
+                index++;
+            }
+            if (index >= 0) {
+                resolved.put(target, range.get(index));
+            }
+        }
+        return resolved;
+    }
+
     @Override
     public List<GoldPriceSnapshot> findAllAsc() {
-        LambdaQueryWrapper<GoldPriceSnapshot> wrapper = new LambdaQueryWrapper<>();
+        LambdaQueryWrapper<GoldPriceSnapshot> wrapper = scoped();
         wrapper.orderByAsc(GoldPriceSnapshot::getFetchedAt);
         return List.copyOf(mapper.selectList(wrapper));
     }
 
+    @Override
+    public void streamAsc(Instant fromInclusive, Instant toExclusive, Consumer<GoldPriceSnapshot> action) {
+        LambdaQueryWrapper<GoldPriceSnapshot> wrapper = scoped();
+        wrapper.ge(fromInclusive != null, GoldPriceSnapshot::getFetchedAt, fromInclusive)
+                .lt(toExclusive != null, GoldPriceSnapshot::getFetchedAt, toExclusive)
+                .orderByAsc(GoldPriceSnapshot::getFetchedAt);
+        mapper.streamByWrapper(wrapper, context -> action.accept(context.getResultObject()));
+    }
+
     @Override
     public List<GoldPriceSnapshot> findRecentDesc(int limit) {
         int safeLimit = Math.max(0, limit);
         if (safeLimit == 0) {
             return List.of();
         }
-        LambdaQueryWrapper<GoldPriceSnapshot> wrapper = new LambdaQueryWrapper<>();
+        LambdaQueryWrapper<GoldPriceSnapshot> wrapper = scoped();
         wrapper.orderByDesc(GoldPriceSnapshot::getFetchedAt)
                 .last("limit " + safeLimit);
         return List.copyOf(mapper.selectList(wrapper));
     }
+
+    @Override
+    public List<GoldPriceSnapshot> findPageDesc(Instant beforeTime, Long beforeId, int limit) {
+        int safeLimit = Math.max(0, limit);
+        if (safeLimit == 0) {
+            return List.of();
+        }
+        LambdaQueryWrapper<GoldPriceSnapshot> wrapper = scoped();
+        if (beforeTime != null) {
+            // 行构造比较 (fetched_at, id) < (?, ?) 展开为 OR 形式，(symbol, fetched_at) 索引隐含主键，可直接按索引定位
+            wrapper.and(seek -> seek.lt(GoldPriceSnapshot::getFetchedAt, beforeTime)
+                    .or(tie -> tie.eq(GoldPriceSnapshot::getFetchedAt, beforeTime)
+                            .lt(GoldPriceSnapshot::getId, beforeId == null ? Long.MIN_VALUE : beforeId)));
+        }
+        wrapper.orderByDesc(GoldPriceSnapshot::getFetchedAt)
+                .orderByDesc(GoldPriceSnapshot::getId)
+                .last("limit " + safeLimit);
+        return List.copyOf(mapper.selectList(wrapper));
+    }
+
+    public int deleteBefore(Instant toExclusive) {
+        if (toExclusive == null) {
+            return 0;
+        }
+        LambdaQueryWrapper<GoldPriceSnapshot> wrapper = scoped();
+        wrapper.lt(GoldPriceSnapshot::getFetchedAt, toExclusive);
+        return mapper.delete(wrapper);
+    }
+
+    @Override
+    public long count() {
+        return mapper.selectCount(scoped());
+    }
+
+    private LambdaQueryWrapper<GoldPriceSnapshot> scoped() {
+        LambdaQueryWrapper<GoldPriceSnapshot> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(GoldPriceSnapshot::getSymbol, symbol);
+        return wrapper;
+    }
 }
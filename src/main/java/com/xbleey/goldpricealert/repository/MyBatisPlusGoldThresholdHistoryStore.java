@@ -8,6 +8,7 @@ import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 @Component
@@ -26,25 +27,47 @@ public class MyBatisPlusGoldThresholdHistoryStore implements GoldThresholdHistor
     }
 
     @Override
-    public int update(GoldThresholdHistory record) {
-        return mapper.updateById(record);
+    public Optional<GoldThresholdHistory> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(mapper.selectById(id));
     }
 
     @Override
-    public Optional<GoldThresholdHistory> findLatest() {
+    public List<GoldThresholdHistory> findPendingByUsername(String username) {
         LambdaQueryWrapper<GoldThresholdHistory> wrapper = new LambdaQueryWrapper<>();
-        wrapper.orderByDesc(GoldThresholdHistory::getSetAt)
-                .last("limit 1");
-        return Optional.ofNullable(mapper.selectOne(wrapper));
+        wrapper.eq(GoldThresholdHistory::getUsername, username)
+                .eq(GoldThresholdHistory::getStatus, GoldThresholdHistory.STATUS_PENDING)
+                .orderByAsc(GoldThresholdHistory::getThreshold)
+                .orderByAsc(GoldThresholdHistory::getId);
+        return mapper.selectList(wrapper);
     }
 
     @Override
-    public Optional<GoldThresholdHistory> findLatestPending() {
+    public long countPendingByUsername(String username) {
+        LambdaQueryWrapper<GoldThresholdHistory> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(GoldThresholdHistory::getUsername, username)
+                .eq(GoldThresholdHistory::getStatus, GoldThresholdHistory.STATUS_PENDING);
+        return mapper.selectCount(wrapper);
+    }
+
+    @Override
+    public List<GoldThresholdHistory> findPendingAfterId(long afterId, int limit) {
         LambdaQueryWrapper<GoldThresholdHistory> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(GoldThresholdHistory::getStatus, GoldThresholdHistory.STATUS_PENDING)
-                .orderByDesc(GoldThresholdHistory::getSetAt)
-                .last("limit 1");
-        return Optional.ofNullable(mapper.selectOne(wrapper));
+                .gt(GoldThresholdHistory::getId, afterId)
+                .orderByAsc(GoldThresholdHistory::getId)
+                .last("limit " + limit);
+        return mapper.selectList(wrapper);
+    }
+
+    @Override
+    public List<GoldThresholdHistory> findChangedSince(Instant since) {
+        LambdaQueryWrapper<GoldThresholdHistory> wrapper = new LambdaQueryWrapper<>();
+        wrapper.ge(GoldThresholdHistory::getUpdatedAt, since)
+                .orderByAsc(GoldThresholdHistory::getUpdatedAt);
+        return mapper.selectList(wrapper);
     }
 
     @Override
@@ -57,19 +80,21 @@ public class MyBatisPlusGoldThresholdHistoryStore implements GoldThresholdHistor
                 .eq(GoldThresholdHistory::getStatus, GoldThresholdHistory.STATUS_PENDING)
                 .set(GoldThresholdHistory::getStatus, GoldThresholdHistory.STATUS_TRIGGERED)
                 .set(GoldThresholdHistory::getTriggeredAt, triggeredAt)
-                .set(GoldThresholdHistory::getTriggeredPrice, triggeredPrice);
+                .set(GoldThresholdHistory::getTriggeredPrice, triggeredPrice)
+                .set(GoldThresholdHistory::getUpdatedAt, triggeredAt);
         return mapper.update(null, wrapper) > 0;
     }
 
     @Override
-    public boolean markCleared(Long id) {
+    public boolean markCleared(Long id, Instant clearedAt) {
         if (id == null) {
             return false;
         }
         LambdaUpdateWrapper<GoldThresholdHistory> wrapper = new LambdaUpdateWrapper<>();
         wrapper.eq(GoldThresholdHistory::getId, id)
                 .eq(GoldThresholdHistory::getStatus, GoldThresholdHistory.STATUS_PENDING)
-                .set(GoldThresholdHistory::getStatus, GoldThresholdHistory.STATUS_CLEARED);
+                .set(GoldThresholdHistory::getStatus, GoldThresholdHistory.STATUS_CLEARED)
+                .set(GoldThresholdHistory::getUpdatedAt, clearedAt);
         return mapper.update(null, wrapper) > 0;
     }
 }
@@ -0,0 +1,151 @@
+package com.xbleey.goldpricealert.repository;
+
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+// 冷热分层读取：水位线之前只读归档，之后只读热存储（即使归档任务中途失败、热表残留旧行也不会重复）；写入只进热存储
+public class TieredGoldPriceSnapshotStore implements GoldPriceSnapshotStore {
+
+    private final GoldPriceSnapshotStore hot;
+    private final GoldSnapshotArchive archive;
+
+    public TieredGoldPriceSnapshotStore(GoldPriceSnapshotStore hot, GoldSnapshotArchive archive) {
+        this.hot = hot;
+        this.archive = archive;
+    }
+
+    @Override
+    public GoldPriceSnapshot save(GoldPriceSnapshot snapshot) {
+        return hot.save(snapshot);
+    }
+
+    @Override
+    public int saveAll(List<GoldPriceSnapshot> snapshots) {
+        return hot.saveAll(snapshots);
+    }
+
+    @Override
+    public int update(GoldPriceSnapshot snapshot) {
+        return hot.update(snapshot);
+    }
+
+    @Override
+    public int deleteById(Long id) {
+        return hot.deleteById(id);
+    }
+
+    @Override
+    public Optional<GoldPriceSnapshot> findSnapshotAtOrBefore(Instant target) {
+        if (target == null) {
+            return Optional.empty();
+        }
+        Instant watermark = archive.watermark();
+        Optional<GoldPriceSnapshot> fromHot = hot.findSnapshotAtOrBefore(target);
+        if (watermark == null || fromHot.filter(snapshot -> isHot(snapshot, watermark)).isPresent()) {
+            return fromHot;
+        }
+        return archive.findSnapshotAtOrBefore(capBelow(target, watermark));
+    }
+
+    @Override
+    public Map<Instant, GoldPriceSnapshot> findSnapshotsAtOrBefore(Collection<Instant> targets) {
+        Map<Instant, GoldPriceSnapshot> resolved = hot.findSnapshotsAtOrBefore(targets);
+        Instant watermark = archive.watermark();
+        if (watermark == null || targets == null) {
+            return resolved;
+        }
+        for (Instant target : targets) {
+            if (target == null) {
+                continue;
+            }
+            GoldPriceSnapshot current = resolved.get(target);
+            if (current == null || !isHot(current, watermark)) {
+                archive.findSnapshotAtOrBefore(capBelow(target, watermark))
+                        .ifPresentOrElse(snapshot -> resolved.put(target, snapshot), () -> resolved.remove(target));
+            }
+        }
+        return resolved;
+    }
+
+    @Override
+    public List<GoldPriceSnapshot> findAllAsc() {
+        List<GoldPriceSnapshot> all = new ArrayList<>();
+        streamAsc(null, null, all::add);
+        return List.copyOf(all);
+    }
+
+    @Override
+    public void streamAsc(Instant fromInclusive, Instant toExclusive, Consumer<GoldPriceSnapshot> action) {
+        Instant watermark = archive.watermark();
+        if (watermark == null) {
+            hot.streamAsc(fromInclusive, toExclusive, action);
+            return;
+        }
+        if (fromInclusive == null || fromInclusive.isBefore(watermark)) {
+            archive.streamAsc(fromInclusive, earlier(toExclusive, watermark), action);
+        }
+        if (toExclusive == null || toExclusive.isAfter(watermark)) {
+            hot.streamAsc(later(fromInclusive, watermark), toExclusive, action);
+        }
+    }
+
+    @Override
+    public List<GoldPriceSnapshot> findRecentDesc(int limit) {
+        return findPageDesc(null, null, limit);
+    }
+
+    @Override
+    public List<GoldPriceSnapshot> findPageDesc(Instant beforeTime, Long beforeId, int limit) {
+        int safeLimit = Math.max(0, limit);
+        if (safeLimit == 0) {
+            return List.of();
+        }
+        Instant watermark = archive.watermark();
+        if (watermark == null) {
+            return hot.findPageDesc(beforeTime, beforeId, safeLimit);
+        }
+        List<GoldPriceSnapshot> page = new ArrayList<>(safeLimit);
+        if (beforeTime == null || !beforeTime.isBefore(watermark)) {
+            hot.findPageDesc(beforeTime, beforeId, safeLimit).stream()
+                    .filter(snapshot -> isHot(snapshot, watermark))
+                    .forEach(page::add);
+        }
+        if (page.size() < safeLimit) {
+            boolean seekInArchive = beforeTime != null && beforeTime.isBefore(watermark);
+            page.addAll(archive.findPageDesc(
+                    seekInArchive ? beforeTime : watermark,
+                    seekInArchive ? beforeId : null,
+                    safeLimit - page.size()
+            ));
+        }
+        return List.copyOf(page);
+    }
+
+    @Override
+    public long count() {
+        return hot.count() + archive.count();
+    }
+
+    private static boolean isHot(GoldPriceSnapshot snapshot, Instant watermark) {
+        return !snapshot.getFetchedAt().isBefore(watermark);
+    }
+
+    private static Instant capBelow(Instant target, Instant watermark) {
+        return target.isBefore(watermark) ? target : watermark.minusNanos(1);
+    }
+
+    private static Instant earlier(Instant bound, Instant watermark) {
+        return bound == null || bound.isAfter(watermark) ? watermark : bound;
+    }
+
+    private static Instant later(Instant bound, Instant watermark) {
+        return bound == null || bound.isBefore(watermark) ? watermark : bound;
+    }
+}
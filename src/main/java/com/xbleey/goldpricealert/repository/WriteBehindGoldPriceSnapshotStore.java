@@ -0,0 +1,309 @@
+package com.xbleey.goldpricealert.repository;
+
+import com.xbleey.goldpricealert.config.GoldSnapshotStoreProperties;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// 由 GoldSnapshotStoreConfig 在 gold.snapshot-store.write-behind.enabled=true 时装配
+public class WriteBehindGoldPriceSnapshotStore implements GoldPriceSnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindGoldPriceSnapshotStore.class);
+
+    private final GoldPriceSnapshotStore delegate;
+    private final GoldSnapshotStoreProperties.WriteBehind settings;
+    private final Object queueLock = new Object();
+    private final Object flushLock = new Object();
+    private final Deque<GoldPriceSnapshot> pending = new ArrayDeque<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private volatile List<GoldPriceSnapshot> inFlight = List.of();
+    private ScheduledExecutorService flushExecutor;
+
+    public WriteBehindGoldPriceSnapshotStore(
+            GoldPriceSnapshotStore delegate,
+            GoldSnapshotStoreProperties properties
+    ) {
+        this.delegate = delegate;
+        this.settings = properties.getWriteBehind();
+    }
+
+    @PostConstruct
+    public void start() {
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gold-snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = settings.getFlushInterval().toMillis();
+        flushExecutor.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+            try {
+                flushExecutor.awaitTermination(settings.getFlushInterval().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!flush()) {
+            log.warn("Dropped {} unflushed gold price snapshots on shutdown", pendingCount());
+        }
+    }
+
+    @Override
+    public GoldPriceSnapshot save(GoldPriceSnapshot snapshot) {
+        if (snapshot == null) {
+            return null;
+        }
+        if (!offer(snapshot)) {
+            // 队列已满说明后台刷写跟不上或数据库不可用，调用方同步刷写一次作为背压
+            flush();
+            if (!offer(snapshot)) {
+                throw new IllegalStateException("gold price snapshot write-behind queue is full");
+            }
+        }
+        return snapshot;
+    }
+
+    @Override
+    public int saveAll(List<GoldPriceSnapshot> snapshots) {
+        if (snapshots == null) {
+            return 0;
+        }
+        snapshots.forEach(this::save);
+        return snapshots.size();
+    }
+
+    @Override
+    public int update(GoldPriceSnapshot snapshot) {
+        flush();
+        return delegate.update(snapshot);
+    }
+
+    @Override
+    public int deleteById(Long id) {
+        flush();
+        return delegate.deleteById(id);
+    }
+
+    @Override
+    public Optional<GoldPriceSnapshot> findSnapshotAtOrBefore(Instant target) {
+        if (target == null) {
+            return Optional.empty();
+        }
+        Optional<GoldPriceSnapshot> unflushed = unflushed().stream()
+                .filter(snapshot -> !snapshot.getFetchedAt().isAfter(target))
+                .max(Comparator.comparing(GoldPriceSnapshot::getFetchedAt));
+        if (unflushed.isPresent()) {
+            return unflushed;
+        }
+        return delegate.findSnapshotAtOrBefore(target);
+    }
+
+    @Override
+    public Map<Instant, GoldPriceSnapshot> findSnapshotsAtOrBefore(Collection<Instant> targets) {
+        // 先取未落库快照再查库：两次读取之间完成的刷写最多让同一条出现两次，不会两边都看不到
+        List<GoldPriceSnapshot> unflushed = unflushed();
+        Map<Instant, GoldPriceSnapshot> resolved = delegate.findSnapshotsAtOrBefore(targets);
+        if (unflushed.isEmpty() || targets == null) {
+            return resolved;
+        }
+        for (Instant target : targets) {
+            if (target == null) {
+                continue;
+            }
+            unflushed.stream()
+                    .filter(snapshot -> !snapshot.getFetchedAt().isAfter(target))
+                    .max(Comparator.comparing(GoldPriceSnapshot::getFetchedAt))
+                    .filter(candidate -> {
+                        GoldPriceSnapshot current = resolved.get(target);
+                        return current == null || candidate.getFetchedAt().isAfter(current.getFetchedAt());
+                    })
+                    .ifPresent(candidate -> resolved.put(target, candidate));
+        }
+        return resolved;
+    }
+
+    @Override
+    public List<GoldPriceSnapshot> findAllAsc() {
+        List<GoldPriceSnapshot> unflushed = unflushed();
+        List<GoldPriceSnapshot> flushed = delegate.findAllAsc();
+        return Stream.concat(flushed.stream(), notIn(unflushed, flushed))
+                .sorted(Comparator.comparing(GoldPriceSnapshot::getFetchedAt))
+                .toList();
+    }
+
+    @Override
+    public void streamAsc(Instant fromInclusive, Instant toExclusive, Consumer<GoldPriceSnapshot> action) {
+        // 先取未落库快照，再流式读取库中早于它们的数据，避免流式读取期间刚好刷写导致重复
+        List<GoldPriceSnapshot> unflushed = unflushed().stream()
+                .sorted(Comparator.comparing(GoldPriceSnapshot::getFetchedAt))
+                .toList();
+        Instant delegateUpperBound = toExclusive;
+        if (!unflushed.isEmpty()) {
+            Instant oldestUnflushed = unflushed.getFirst().getFetchedAt();
+            if (delegateUpperBound == null || oldestUnflushed.isBefore(delegateUpperBound)) {
+                delegateUpperBound = oldestUnflushed;
+            }
+        }
+        delegate.streamAsc(fromInclusive, delegateUpperBound, action);
+        for (GoldPriceSnapshot snapshot : unflushed) {
+            if (GoldPriceSnapshotStore.isInRange(snapshot.getFetchedAt(), fromInclusive, toExclusive)) {
+                action.accept(snapshot);
+            }
+        }
+    }
+
+    @Override
+    public List<GoldPriceSnapshot> findRecentDesc(int limit) {
+        int safeLimit = Math.max(0, limit);
+        if (safeLimit == 0) {
+            return List.of();
+        }
+        List<GoldPriceSnapshot> unflushed = unflushed();
+        List<GoldPriceSnapshot> flushed = delegate.findRecentDesc(safeLimit);
+        return Stream.concat(flushed.stream(), notIn(unflushed, flushed))
+                .sorted(Comparator.comparing(GoldPriceSnapshot::getFetchedAt).reversed())
+                .limit(safeLimit)
+                .toList();
+    }
+
+    @Override
+    public List<GoldPriceSnapshot> findPageDesc(Instant beforeTime, Long beforeId, int limit) {
+        // 未落库的快照还没有 id，无法参与 (fetchedAt, id) 键集排序；分页浏览只返回已落库数据，延迟不超过一个刷写周期
+        return delegate.findPageDesc(beforeTime, beforeId, limit);
+    }
+
+    @Override
+    public long count() {
+        return delegate.count() + pendingCount();
+    }
+
+    public int pendingCount() {
+        synchronized (queueLock) {
+            return pending.size() + inFlight.size();
+        }
+    }
+
+    public boolean flush() {
+        synchronized (flushLock) {
+            while (true) {
+                List<GoldPriceSnapshot> batch = drainBatch();
+                if (batch.isEmpty()) {
+                    return true;
+                }
+                try {
+                    delegate.saveAll(batch);
+                } catch (Exception ex) {
+                    requeue(batch);
+                    log.warn("Failed to flush {} gold price snapshots, will retry", batch.size(), ex);
+                    return false;
+                }
+                synchronized (queueLock) {
+                    inFlight = List.of();
+                }
+            }
+        }
+    }
+
+    private boolean offer(GoldPriceSnapshot snapshot) {
+        int size;
+        synchronized (queueLock) {
+            if (pending.size() + inFlight.size() >= settings.getQueueCapacity()) {
+                return false;
+            }
+            pending.addLast(snapshot);
+            size = pending.size();
+        }
+        if (size >= settings.getBatchSize()) {
+            scheduleFlush();
+        }
+        return true;
+    }
+
+    private void scheduleFlush() {
+        if (flushExecutor == null || flushExecutor.isShutdown() || !flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        flushExecutor.execute(() -> {
+            flushScheduled.set(false);
+            flushQuietly();
+        });
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception ex) {
+            log.warn("Unexpected failure while flushing gold price snapshots", ex);
+        }
+    }
+
+    private List<GoldPriceSnapshot> drainBatch() {
+        synchronized (queueLock) {
+            int count = Math.min(settings.getBatchSize(), pending.size());
+            List<GoldPriceSnapshot> batch = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                batch.add(pending.pollFirst());
+            }
+            inFlight = List.copyOf(batch);
+            return batch;
+        }
+    }
+
+    private void requeue(List<GoldPriceSnapshot> batch) {
+        synchronized (queueLock) {
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                pending.addFirst(batch.get(i));
+            }
+            inFlight = List.of();
+        }
+    }
+
+    // 读取期间刚好刷写完成的快照已带上库中 id，按 id 去掉与库中结果重复的那份
+    private static Stream<GoldPriceSnapshot> notIn(List<GoldPriceSnapshot> unflushed, List<GoldPriceSnapshot> flushed) {
+        if (unflushed.isEmpty()) {
+            return Stream.empty();
+        }
+        Set<Long> flushedIds = flushed.stream()
+                .map(GoldPriceSnapshot::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return unflushed.stream().filter(snapshot -> snapshot.getId() == null || !flushedIds.contains(snapshot.getId()));
+    }
+
+    private List<GoldPriceSnapshot> unflushed() {
+        synchronized (queueLock) {
+            if (pending.isEmpty() && inFlight.isEmpty()) {
+                return List.of();
+            }
+            List<GoldPriceSnapshot> copy = new ArrayList<>(inFlight);
+            copy.addAll(pending);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.config.TradingCalendarDefinition;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 按 UTC 年预计算交易时段位图：每分钟一位，另按 64 分钟一个字记录"该字起第一个开市分钟"。
+// isOpen 读一位，nextOpen 先查当前字剩余的位、否则直接取下一个字的索引，都是 O(1)；
+// 每年位图约 64KB + 32KB，首次用到某年时构建（节假日规则、时区与夏令时换算只在这里执行一次）
+public final class BitmapTradingCalendar implements TradingCalendar {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final DateTimeFormatter MONTH_DAY = DateTimeFormatter.ofPattern("MM-dd");
+    // 向后查找下一次开市的年份上限，日历没有任何交易时段时据此停止
+    private static final int MAX_LOOKAHEAD_YEARS = 2;
+
+    private final String name;
+    private final ZoneId zone;
+    // 按 DayOfWeek.getValue() - 1 索引，每项为当地时间的 [open, close) 分钟
+    private final List<List<int[]>> sessionsByDay;
+    private final List<TradingCalendarDefinition.Holiday> holidays;
+    private final Map<Integer, YearMap> years = new ConcurrentHashMap<>();
+
+    public BitmapTradingCalendar(String name, TradingCalendarDefinition definition) {
+        definition.validate(name);
+        this.name = name;
+        this.zone = definition.getZone();
+        this.holidays = List.copyOf(definition.getHolidays());
+        List<List<int[]>> byDay = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            byDay.add(new ArrayList<>());
+        }
+        for (TradingCalendarDefinition.Session session : definition.getSessions()) {
+            for (DayOfWeek day : session.getDays()) {
+                byDay.get(day.getValue() - 1).add(new int[]{session.openMinute(), session.closeMinute()});
+            }
+        }
+        this.sessionsByDay = byDay;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public boolean isOpen(Instant instant) {
+        YearMap map = year(utcYear(instant));
+        return map.isOpen(map.minuteOf(instant));
+    }
+
+    @Override
+    public Optional<Instant> nextOpen(Instant instant) {
+        int year = utcYear(instant);
+        YearMap map = year(year);
+        int minute = map.minuteOf(instant);
+        if (map.isOpen(minute)) {
+            return Optional.of(instant);
+        }
+        int next = map.nextOpen(minute + 1);
+        for (int ahead = 1; next < 0 && ahead <= MAX_LOOKAHEAD_YEARS; ahead++) {
+            map = year(year + ahead);
+            next = map.nextOpen(0);
+        }
+        return next < 0 ? Optional.empty() : Optional.of(map.start().plus(next, ChronoUnit.MINUTES));
+    }
+
+    // 启动时预先构建当前与下一年，避免首次判断落在拉取路径上
+    public BitmapTradingCalendar precompute(Instant now) {
+        int year = utcYear(now);
+        year(year);
+        year(year + 1);
+        return this;
+    }
+
+    private YearMap year(int year) {
+        return years.computeIfAbsent(year, this::build);
+    }
+
+    private YearMap build(int year) {
+        Instant start = LocalDate.of(year, 1, 1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant end = LocalDate.of(year + 1, 1, 1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        int minutes = (int) minutesBetween(start, end);
+        long[] words = new long[(minutes + 63) >>> 6];
+        Set<LocalDate> closed = new HashSet<>();
+        for (int localYear = year - 1; localYear <= year + 1; localYear++) {
+            closed.addAll(holidayDates(localYear));
+        }
+        // 当地日期比 UTC 日期最多差一天，前后各多算一天覆盖跨年的时段
+        LocalDate last = LocalDate.of(year + 1, 1, 1);
+        for (LocalDate date = LocalDate.of(year, 1, 1).minusDays(1); !date.isAfter(last); date = date.plusDays(1)) {
+            if (closed.contains(date)) {
+                continue;
+            }
+            for (int[] session : sessionsByDay.get(date.getDayOfWeek().getValue() - 1)) {
+                Instant open = atLocalMinute(date, session[0]);
+                Instant close = atLocalMinute(date, session[1]);
+                int from = (int) Math.max(0, minutesBetween(start, open));
+                int to = (int) Math.min(minutes, minutesBetween(start, close));
+                for (int m = from; m < to; m++) {
+                    words[m >>> 6] |= 1L << m;
+                }
+            }
+        }
+        int[] nextOpenFromWord = new int[words.length + 1];
+        nextOpenFromWord[words.length] = -1;
+        for (int w = words.length - 1; w >= 0; w--) {
+            nextOpenFromWord[w] = words[w] != 0 ? (w << 6) + Long.numberOfTrailingZeros(words[w]) : nextOpenFromWord[w + 1];
+        }
+        return new YearMap(start, words, nextOpenFromWord);
+    }
+
+    private Instant atLocalMinute(LocalDate date, int minuteOfDay) {
+        if (minuteOfDay == MINUTES_PER_DAY) {
+            return date.plusDays(1).atStartOfDay(zone).toInstant();
+        }
+        // 夏令时切换造成的空档按 ZonedDateTime 的规则顺延
+        return ZonedDateTime.of(date.atTime(minuteOfDay / 60, minuteOfDay % 60), zone).toInstant();
+    }
+
+    private Set<LocalDate> holidayDates(int year) {
+        Set<LocalDate> dates = new HashSet<>();
+        LocalDate easterSunday = easterSunday(year);
+        for (TradingCalendarDefinition.Holiday holiday : holidays) {
+            if (holiday.getFixed() != null) {
+                LocalDate date = MonthDay.parse(holiday.getFixed(), MONTH_DAY).atYear(year);
+                dates.add(date);
+                if (holiday.getObserved() == TradingCalendarDefinition.Observed.NEAREST_WEEKDAY) {
+                    dates.add(nearestWeekday(date));
+                }
+            } else if (holiday.getEaster() != null) {
+                dates.add(easterSunday.plusDays(holiday.getEaster()));
+            } else if (holiday.getNth() != null) {
+                LocalDate first = LocalDate.of(year, holiday.getMonth(), 1);
+                int nth = holiday.getNth();
+                LocalDate date = nth > 0
+                        ? first.with(TemporalAdjusters.dayOfWeekInMonth(nth, holiday.getWeekday()))
+                        : first.with(TemporalAdjusters.lastInMonth(holiday.getWeekday())).plusWeeks(nth + 1);
+                if (date.getMonth() == holiday.getMonth()) {
+                    dates.add(date);
+                }
+            } else if (holiday.getDate() != null && holiday.getDate().getYear() == year) {
+                dates.add(holiday.getDate());
+            }
+        }
+        return dates;
+    }
+
+    private static LocalDate nearestWeekday(LocalDate date) {
+        return switch (date.getDayOfWeek()) {
+            case SATURDAY -> date.minusDays(1);
+            case SUNDAY -> date.plusDays(1);
+            default -> date;
+        };
+    }
+
+    // 格里高利历复活节（Meeus/Jones/Butcher 算法）
+    static LocalDate easterSunday(int year) {
+        int a = year % 19;
+        int b = year / 100;
+        int c = year % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int f = (b + 8) / 25;
+        int g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int i = c / 4;
+        int k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int month = (h + l - 7 * m + 114) / 31;
+        int day = ((h + l - 7 * m + 114) % 31) + 1;
+        return LocalDate.of(year, month, day);
+    }
+
+    private static int utcYear(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC).getYear();
+    }
+
+    private static long minutesBetween(Instant from, Instant to) {
+        return Math.floorDiv(to.getEpochSecond() - from.getEpochSecond(), 60);
+    }
+
+    private record YearMap(Instant start, long[] words, int[] nextOpenFromWord) {
+
+        private int minuteOf(Instant instant) {
+            return (int) minutesBetween(start, instant);
+        }
+
+        private boolean isOpen(int minute) {
+            return (words[minute >>> 6] & (1L << minute)) != 0;
+        }
+
+        // minute 及之后第一个开市分钟，本年内没有时返回 -1
+        private int nextOpen(int minute) {
+            int word = minute >>> 6;
+            if (word >= words.length) {
+                return -1;
+            }
+            long remaining = words[word] & (-1L << minute);
+            if (remaining != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(remaining);
+            }
+            return nextOpenFromWord[word + 1];
+        }
+    }
+}
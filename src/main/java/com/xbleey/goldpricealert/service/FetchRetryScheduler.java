@@ -0,0 +1,19 @@
+package com.xbleey.goldpricealert.service;
+
+import java.time.Duration;
+
+// 在 delay 之后执行一次重试；实现不得阻塞调用线程
+@FunctionalInterface
+public interface FetchRetryScheduler {
+
+    void schedule(Runnable task, Duration delay);
+
+    // 指数退避 + equal jitter：第 n 次失败后等待 [d/2, d]，d = min(base * 2^(n-1), max)，
+    // 多实例同时遇到上游故障时重试不会在同一时刻扎堆
+    static Duration backoff(Duration base, Duration max, int attempt, double jitter) {
+        long exponential = base.toMillis() << Math.clamp(attempt - 1, 0, 16);
+        long capped = Math.min(exponential, max.toMillis());
+        long half = capped / 2;
+        return Duration.ofMillis(half + Math.round(half * Math.clamp(jitter, 0.0, 1.0)));
+    }
+}
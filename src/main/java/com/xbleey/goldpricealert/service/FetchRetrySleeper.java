@@ -1,9 +0,0 @@
-package com.xbleey.goldpricealert.service;
-
-import java.time.Duration;
-
-@FunctionalInterface
-public interface FetchRetrySleeper {
-
-    void pause(Duration duration) throws InterruptedException;
-}
@@ -0,0 +1,414 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.config.GoldAlertMailProperties;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// 告警等级配置回测：把存储中的历史快照按时间回放给线上同一套告警规则（GoldAlertEvaluator.detect）
+// 与邮件冷却规则（GoldAlertCooldown），只统计不入库、不发信。
+// 回放按时间分区用 fork/join 并行：每个分区从最长窗口所需的位置开始重建价格窗口，只评估分区内的行情，结果与整段顺序回放一致；
+// 冷却状态跨越分区，在各分区的触发记录按时间合并后串行计算（触发次数远少于行情条数）
+public class GoldAlertBacktester {
+
+    private static final Logger log = LoggerFactory.getLogger(GoldAlertBacktester.class);
+    public static final int DEFAULT_PARTITION_TICKS = 8_192;
+    static final int MAX_CANDIDATES = 50;
+    static final Duration MAX_RANGE = Duration.ofDays(370);
+
+    private final GoldPriceHistory history;
+    private final GoldAlertMailProperties mailProperties;
+    private final ForkJoinPool pool;
+    private final int partitionTicks;
+    private final Clock clock;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public GoldAlertBacktester(
+            GoldPriceHistory history,
+            GoldAlertMailProperties mailProperties,
+            ForkJoinPool pool,
+            int partitionTicks,
+            Clock clock
+    ) {
+        if (partitionTicks <= 0) {
+            throw new IllegalArgumentException("partitionTicks must be > 0");
+        }
+        this.history = history;
+        this.mailProperties = mailProperties;
+        this.pool = pool;
+        this.partitionTicks = partitionTicks;
+        this.clock = clock;
+    }
+
+    public BacktestResult backtest(Instant fromInclusive, Instant toExclusive, List<Candidate> candidates) {
+        if (fromInclusive == null || toExclusive == null || !fromInclusive.isBefore(toExclusive)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (Duration.between(fromInclusive, toExclusive).compareTo(MAX_RANGE) > 0) {
+            throw new IllegalArgumentException("backtest range must not exceed " + MAX_RANGE.toDays() + " days");
+        }
+        validate(candidates);
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("alert backtest is already running");
+        }
+        try {
+            Instant started = clock.instant();
+            Duration longestWindow = candidates.stream()
+                    .flatMap(candidate -> candidate.levels().stream())
+                    .map(GoldAlertLevelConfig::windowDuration)
+                    .max(Comparator.naturalOrder())
+                    .orElseThrow();
+            GoldPriceSnapshot[] ticks = load(fromInclusive.minus(longestWindow), toExclusive);
+            int first = firstAtOrAfter(ticks, fromInclusive);
+            int minRank = resolveMinRank();
+
+            List<ReplayTask> tasks = new ArrayList<>(candidates.size());
+            for (Candidate candidate : candidates) {
+                tasks.add(new ReplayTask(ticks, candidate.levels(), longestWindow(candidate), first, ticks.length));
+            }
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+
+            List<CandidateResult> results = new ArrayList<>(candidates.size());
+            for (int i = 0; i < candidates.size(); i++) {
+                results.add(summarize(candidates.get(i), tasks.get(i).join(), minRank));
+            }
+            int evaluated = ticks.length - first;
+            int partitions = Math.max(1, (evaluated + partitionTicks - 1) / partitionTicks);
+            long elapsedMillis = Duration.between(started, clock.instant()).toMillis();
+            log.info("Alert backtest finished: from={}, to={}, ticks={}, candidates={}, elapsed={}ms",
+                    fromInclusive, toExclusive, evaluated, candidates.size(), elapsedMillis);
+            return new BacktestResult(fromInclusive, toExclusive, evaluated, partitions, elapsedMillis, results);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // 只保留回放用到的 fetchedAt 与价格，一年的分钟行情常驻内存也只有几十 MB
+    private GoldPriceSnapshot[] load(Instant warmUpFrom, Instant toExclusive) {
+        List<GoldPriceSnapshot> ticks = new ArrayList<>();
+        // 预热区间起点之前最近的一条是最长窗口第一次评估的基准价
+        history.findStoredSnapshotAtOrBefore(warmUpFrom.minusNanos(1)).ifPresent(snapshot -> ticks.add(compact(snapshot)));
+        history.forEachInRange(warmUpFrom, toExclusive, snapshot -> ticks.add(compact(snapshot)));
+        return ticks.toArray(GoldPriceSnapshot[]::new);
+    }
+
+    private int resolveMinRank() {
+        try {
+            return mailProperties.resolveMinLevelRank();
+        } catch (Exception ex) {
+            log.warn("Invalid gold.alert.mail.min-level, fallback to P1", ex);
+            return 1;
+        }
+    }
+
+    // 冷却规则与 GoldAlertEmailService 相同，只是状态保存在内存中且从空状态开始。
+    // 检测延迟从该等级阈值被连续越过的第一条行情算起（上次发信后重新计），到发信的行情为止；
+    // 中途有一条行情未越过阈值则重新计起
+    private static CandidateResult summarize(Candidate candidate, List<Detection> detections, int minRank) {
+        Map<String, LevelStats> stats = new LinkedHashMap<>();
+        candidate.levels().stream()
+                .sorted(Comparator.comparingInt(GoldAlertLevelConfig::levelRank))
+                .forEach(level -> stats.put(level.levelName(), new LevelStats(level)));
+        String lastSentLevel = null;
+        int lastSentRank = 0;
+        Instant lastSentAt = null;
+        Map<String, Instant> lastSentAtByLevel = new HashMap<>();
+        Map<String, Instant> crossedSince = new HashMap<>();
+        Map<String, Integer> lastCrossedTick = new HashMap<>();
+        int emails = 0;
+        for (Detection detection : detections) {
+            for (String crossed : detection.crossedLevels()) {
+                Integer previous = lastCrossedTick.put(crossed, detection.tick());
+                if (previous == null || previous != detection.tick() - 1) {
+                    crossedSince.put(crossed, detection.alertAt());
+                } else {
+                    crossedSince.putIfAbsent(crossed, detection.alertAt());
+                }
+            }
+            GoldAlertLevelConfig level = detection.level();
+            LevelStats levelStats = stats.get(level.levelName());
+            levelStats.alerts++;
+            if (level.levelRank() < minRank) {
+                continue;
+            }
+            boolean send = GoldAlertCooldown.allows(
+                    level.levelRank(),
+                    detection.alertAt(),
+                    lastSentLevel,
+                    lastSentRank,
+                    lastSentAt,
+                    lastSentAtByLevel.get(level.levelName()),
+                    level.cooldownDuration()
+            );
+            if (send) {
+                lastSentLevel = level.levelName();
+                lastSentRank = level.levelRank();
+                lastSentAt = detection.alertAt();
+                lastSentAtByLevel.put(level.levelName(), detection.alertAt());
+                Instant crossedAt = Objects.requireNonNullElse(crossedSince.remove(level.levelName()), detection.alertAt());
+                levelStats.delaysSeconds.add(Duration.between(crossedAt, detection.alertAt()).toSeconds());
+                emails++;
+            }
+        }
+        List<LevelResult> levels = stats.values().stream().map(LevelStats::toResult).toList();
+        return new CandidateResult(candidate.name(), detections.size(), emails, levels);
+    }
+
+    private static void validate(List<Candidate> candidates) {
+        if (candidates == null || candidates.isEmpty()) {
+            throw new IllegalArgumentException("at least one candidate configuration is required");
+        }
+        if (candidates.size() > MAX_CANDIDATES) {
+            throw new IllegalArgumentException("at most " + MAX_CANDIDATES + " candidate configurations are allowed");
+        }
+        Set<String> names = new HashSet<>();
+        for (Candidate candidate : candidates) {
+            if (candidate == null || candidate.name() == null || candidate.name().isBlank()) {
+                throw new IllegalArgumentException("candidate name must not be blank");
+            }
+            if (!names.add(candidate.name())) {
+                throw new IllegalArgumentException("duplicate candidate name: " + candidate.name());
+            }
+            if (candidate.levels() == null || candidate.levels().isEmpty()) {
+                throw new IllegalArgumentException("candidate " + candidate.name() + " has no levels");
+            }
+            Set<String> levelNames = new HashSet<>();
+            for (GoldAlertLevelConfig level : candidate.levels()) {
+                if (!levelNames.add(level.levelName())) {
+                    throw new IllegalArgumentException("duplicate level " + level.levelName() + " in " + candidate.name());
+                }
+                if (level.windowMinutes() <= 0) {
+                    throw new IllegalArgumentException("window of " + level.levelName() + " must be > 0");
+                }
+                if (level.thresholdPercent() == null || level.thresholdPercent().signum() < 0) {
+                    throw new IllegalArgumentException("thresholdPercent of " + level.levelName() + " must be >= 0");
+                }
+            }
+        }
+    }
+
+    private static Duration longestWindow(Candidate candidate) {
+        return candidate.levels().stream()
+                .map(GoldAlertLevelConfig::windowDuration)
+                .max(Comparator.naturalOrder())
+                .orElseThrow();
+    }
+
+    private static GoldPriceSnapshot compact(GoldPriceSnapshot snapshot) {
+        GoldPriceSnapshot compact = new GoldPriceSnapshot();
+        compact.setFetchedAt(snapshot.getFetchedAt());
+        compact.setPrice(snapshot.price());
+        return compact;
+    }
+
+    // 第一个 fetchedAt 晚于 exclusiveFrom 的下标
+    private static int firstAfter(GoldPriceSnapshot[] ticks, Instant exclusiveFrom, int to) {
+        int low = 0;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ticks[mid].getFetchedAt().isAfter(exclusiveFrom)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private static int firstAtOrAfter(GoldPriceSnapshot[] ticks, Instant inclusiveFrom) {
+        return firstAfter(ticks, inclusiveFrom.minusNanos(1), ticks.length);
+    }
+
+    // 回放 [from, to) 内的行情，过长时对半拆分；左右两半的结果按时间顺序拼接
+    private final class ReplayTask extends RecursiveTask<List<Detection>> {
+
+        private final GoldPriceSnapshot[] ticks;
+        private final List<GoldAlertLevelConfig> levels;
+        private final Duration longestWindow;
+        private final int from;
+        private final int to;
+
+        private ReplayTask(GoldPriceSnapshot[] ticks, List<GoldAlertLevelConfig> levels, Duration longestWindow, int from, int to) {
+            this.ticks = ticks;
+            this.levels = levels;
+            this.longestWindow = longestWindow;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Detection> compute() {
+            if (to - from <= partitionTicks) {
+                return replay();
+            }
+            int middle = (from + to) >>> 1;
+            ReplayTask left = new ReplayTask(ticks, levels, longestWindow, from, middle);
+            ReplayTask right = new ReplayTask(ticks, levels, longestWindow, middle, to);
+            left.fork();
+            List<Detection> later = right.compute();
+            List<Detection> merged = new ArrayList<>(left.join());
+            merged.addAll(later);
+            return merged;
+        }
+
+        private List<Detection> replay() {
+            List<Detection> detections = new ArrayList<>();
+            if (from >= to) {
+                return detections;
+            }
+            ReplayCursor cursor = new ReplayCursor(ticks);
+            // 从分区第一条行情最长窗口起点及之前最近的一条开始预热，之后各窗口的基准价与极值都落在已回放的范围内
+            int warmUp = Math.max(0, firstAfter(ticks, ticks[from].getFetchedAt().minus(longestWindow), from) - 1);
+            for (int i = warmUp; i < from; i++) {
+                cursor.advance(i);
+            }
+            for (int i = from; i < to; i++) {
+                cursor.advance(i);
+                GoldPriceSnapshot latest = ticks[i];
+                Optional<GoldAlertEvaluator.AlertCandidate> detected = GoldAlertEvaluator.detect(latest, levels, cursor);
+                if (detected.isPresent()) {
+                    GoldAlertEvaluator.AlertCandidate candidate = detected.get();
+                    detections.add(new Detection(
+                            candidate.config(),
+                            i,
+                            latest.fetchedAt(),
+                            crossedLevels(latest, cursor),
+                            candidate.changePercent()
+                    ));
+                }
+            }
+            return detections;
+        }
+
+        // 只选出一个等级的那条行情上，各等级各自是否越过阈值；只在已触发的行情上逐级复查
+        private Set<String> crossedLevels(GoldPriceSnapshot latest, ReplayCursor cursor) {
+            Set<String> crossed = new HashSet<>();
+            for (GoldAlertLevelConfig level : levels) {
+                if (GoldAlertEvaluator.detect(latest, List.of(level), cursor).isPresent()) {
+                    crossed.add(level.levelName());
+                }
+            }
+            return crossed;
+        }
+    }
+
+    // 回放游标：只能看到已推进到的行情；基准价二分查找，窗口极值与线上一样用单调队列增量维护
+    private static final class ReplayCursor implements GoldPriceWindowLookup {
+
+        private final GoldPriceSnapshot[] ticks;
+        private final Map<Duration, GoldPriceWindowExtremes> windows = new HashMap<>();
+        private int position = -1;
+
+        private ReplayCursor(GoldPriceSnapshot[] ticks) {
+            this.ticks = ticks;
+        }
+
+        private void advance(int index) {
+            position = index;
+            for (GoldPriceWindowExtremes extremes : windows.values()) {
+                extremes.offer(ticks[index]);
+            }
+        }
+
+        @Override
+        public Map<Instant, GoldPriceSnapshot> findSnapshotsAtOrBefore(Collection<Instant> targets) {
+            Map<Instant, GoldPriceSnapshot> resolved = new HashMap<>();
+            for (Instant target : targets) {
+                int found = firstAfter(ticks, target, position + 1) - 1;
+                if (found >= 0) {
+                    resolved.put(target, ticks[found]);
+                }
+            }
+            return resolved;
+        }
+
+        @Override
+        public Optional<GoldPriceWindowExtremes.Extremes> findWindowExtremes(Duration window, Instant asOf) {
+            GoldPriceWindowExtremes extremes = windows.get(window);
+            if (extremes == null) {
+                extremes = new GoldPriceWindowExtremes(window);
+                extremes.start();
+                for (int i = firstAfter(ticks, asOf.minus(window), position + 1); i <= position; i++) {
+                    extremes.offer(ticks[i]);
+                }
+                windows.put(window, extremes);
+            }
+            return extremes.at(asOf);
+        }
+    }
+
+    private static final class LevelStats {
+
+        private final GoldAlertLevelConfig level;
+        private final List<Long> delaysSeconds = new ArrayList<>();
+        private int alerts;
+
+        private LevelStats(GoldAlertLevelConfig level) {
+            this.level = level;
+        }
+
+        private LevelResult toResult() {
+            List<Long> sorted = delaysSeconds.stream().sorted().toList();
+            Long median = sorted.isEmpty() ? null : sorted.get((sorted.size() - 1) / 2);
+            Long max = sorted.isEmpty() ? null : sorted.getLast();
+            return new LevelResult(level.levelName(), level.levelRank(), alerts, sorted.size(), median, max);
+        }
+    }
+
+    private record Detection(
+            GoldAlertLevelConfig level,
+            int tick,
+            Instant alertAt,
+            Set<String> crossedLevels,
+            BigDecimal changePercent
+    ) {
+    }
+
+    public record Candidate(String name, List<GoldAlertLevelConfig> levels) {
+    }
+
+    public record BacktestResult(
+            Instant from,
+            Instant to,
+            int ticks,
+            int partitions,
+            long elapsedMillis,
+            List<CandidateResult> candidates
+    ) {
+    }
+
+    public record CandidateResult(String name, int alerts, int emails, List<LevelResult> levels) {
+    }
+
+    // 检测延迟：邮件发出时刻与该等级阈值最早被连续越过（且尚未发信）的行情之间的时间差
+    public record LevelResult(
+            String levelName,
+            int levelRank,
+            int alerts,
+            int emails,
+            Long medianDetectionDelaySeconds,
+            Long maxDetectionDelaySeconds
+    ) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.xbleey.goldpricealert.service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// 告警邮件的冷却规则：首次发送或等级高于上次发送的等级时立即发送；否则距该等级上次发送
+// （该等级从未发送过时取任意等级的上次发送）满冷却时间才再次发送。
+// GoldAlertEmailService 以 Redis 中的共享状态调用，回测以内存状态调用
+public final class GoldAlertCooldown {
+
+    private GoldAlertCooldown() {
+    }
+
+    public static boolean allows(
+            int messageRank,
+            Instant now,
+            String lastSentLevelName,
+            int lastSentRank,
+            Instant lastSentAt,
+            Instant lastSentAtForLevel,
+            Duration cooldown
+    ) {
+        boolean isLevelUp = lastSentLevelName == null || messageRank > lastSentRank;
+        if (isLevelUp || lastSentAt == null) {
+            return true;
+        }
+        if (cooldown == null || cooldown.isZero() || cooldown.isNegative()) {
+            return true;
+        }
+        Instant baseline = lastSentAtForLevel == null ? lastSentAt : lastSentAtForLevel;
+        return Duration.between(baseline, now).compareTo(cooldown) >= 0;
+    }
+}
@@ -1,7 +1,6 @@
 package com.xbleey.goldpricealert.service;
 
 import com.xbleey.goldpricealert.config.GoldAlertMailProperties;
-import com.xbleey.goldpricealert.model.GoldApiResponse;
 import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
 import jakarta.mail.internet.MimeMessage;
 import org.slf4j.Logger;
@@ -11,7 +10,6 @@ import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.beans.factory.annotation.Autowired;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
@@ -38,7 +36,9 @@ public class GoldAlertEmailService implements GoldAlertNotifier {
     private static final Logger log = LoggerFactory.getLogger(GoldAlertEmailService.class);
     private static final DateTimeFormatter REPORT_TIME_FORMATTER =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    private static final Duration CHART_WINDOW = Duration.ofMinutes(20);
+    private static final int MAX_LISTED_TRIGGERS = 20;
+    private static final String SUSPECT_PRICE_NOTE = "price cross-check: providers disagree beyond the allowed deviation";
+    static final Duration CHART_WINDOW = Duration.ofMinutes(20);
     private static final Duration CHART_EXPECTED_INTERVAL = Duration.ofSeconds(20);
     private static final Duration CHART_GAP_THRESHOLD = CHART_EXPECTED_INTERVAL.multipliedBy(2);
     private static final int CHART_MAX_POINTS = 60;
@@ -51,9 +51,11 @@ public class GoldAlertEmailService implements GoldAlertNotifier {
     private static final int CHART_BOTTOM_PADDING = 36;
     private static final int CHART_AXIS_LABEL_HEIGHT = 60;
     private static final int CHART_Y_TICK_COUNT = 4;
-    private static final String MAIL_LAST_SENT_AT_KEY = "gold:alert:mail:lastSentAt";
-    private static final String MAIL_LAST_SENT_LEVEL_KEY = "gold:alert:mail:lastSentLevel";
-    private static final String MAIL_LAST_SENT_AT_LEVEL_PREFIX = "gold:alert:mail:lastSentAt:level:";
+    // 主品种沿用原有键，其他品种在前缀后插入 "<symbol>:"，各品种冷却互不影响
+    private static final String MAIL_KEY_PREFIX = "gold:alert:mail:";
+    private static final String MAIL_LAST_SENT_AT_KEY = "lastSentAt";
+    private static final String MAIL_LAST_SENT_LEVEL_KEY = "lastSentLevel";
+    private static final String MAIL_LAST_SENT_AT_LEVEL_PREFIX = "lastSentAt:level:";
 
     private final JavaMailSender mailSender;
     private final GoldAlertMailProperties properties;
@@ -62,11 +64,8 @@ public class GoldAlertEmailService implements GoldAlertNotifier {
     private final GoldAlertLevelConfigStore configStore;
     private final GoldMailRecipientService mailRecipientService;
     private final Object sendLock = new Object();
-    private final Map<String, Instant> lastSentAtByLevel = new HashMap<>();
-    private Instant lastSentAt;
-    private String lastSentLevelName;
+    private final Map<String, CooldownState> cooldownStates = new HashMap<>();
 
-    @Autowired
     public GoldAlertEmailService(
             JavaMailSender mailSender,
             GoldAlertMailProperties properties,
@@ -83,15 +82,6 @@ public class GoldAlertEmailService implements GoldAlertNotifier {
         this.mailRecipientService = mailRecipientService;
     }
 
-    public GoldAlertEmailService(
-            JavaMailSender mailSender,
-            GoldAlertMailProperties properties,
-            Clock clock,
-            GoldMailRecipientService mailRecipientService
-    ) {
-        this(mailSender, properties, clock, null, null, mailRecipientService);
-    }
-
     @Override
     public void notifyAlert(GoldAlertMessage message) {
         if (message == null) {
@@ -164,29 +154,24 @@ public class GoldAlertEmailService implements GoldAlertNotifier {
 
     private boolean canSendWithCooldown(GoldAlertMessage message) {
         Instant now = message.alertTime() == null ? Instant.now(clock) : message.alertTime();
+        String symbol = message.symbol();
         synchronized (sendLock) {
+            CooldownState state = cooldownStates.computeIfAbsent(symbol == null ? "" : symbol, ignored -> new CooldownState());
             int messageRank = message.levelRank() > 0 ? message.levelRank() : resolveLevelRank(message.levelName());
-            String currentLastLevel = resolveLastSentLevelName();
-            Instant currentLastAt = resolveLastSentAt();
-            int currentLastRank = resolveLevelRank(currentLastLevel);
-            boolean isLevelUp = currentLastLevel == null || messageRank > currentLastRank;
-            if (isLevelUp || currentLastAt == null) {
-                recordSent(message.levelName(), now);
-                return true;
+            String currentLastLevel = resolveLastSentLevelName(symbol, state);
+            boolean allowed = GoldAlertCooldown.allows(
+                    messageRank,
+                    now,
+                    currentLastLevel,
+                    resolveLevelRank(currentLastLevel),
+                    resolveLastSentAt(symbol, state),
+                    resolveLastSentAtForLevel(symbol, state, message.levelName()),
+                    resolveCooldown(message)
+            );
+            if (allowed) {
+                recordSent(symbol, state, message.levelName(), now);
             }
-            Duration cooldown = resolveCooldown(message);
-            if (cooldown == null || cooldown.isZero() || cooldown.isNegative()) {
-                recordSent(message.levelName(), now);
-                return true;
-            }
-            Instant lastAtForLevel = resolveLastSentAtForLevel(message.levelName());
-            Instant baseline = lastAtForLevel == null ? currentLastAt : lastAtForLevel;
-            Duration elapsed = Duration.between(baseline, now);
-            if (elapsed.compareTo(cooldown) >= 0) {
-                recordSent(message.levelName(), now);
-                return true;
-            }
-            return false;
+            return allowed;
         }
     }
 
@@ -215,11 +200,11 @@ public class GoldAlertEmailService implements GoldAlertNotifier {
         }
     }
 
-    private void recordSent(String levelName, Instant now) {
-        lastSentAt = now;
-        lastSentLevelName = levelName;
+    private void recordSent(String symbol, CooldownState state, String levelName, Instant now) {
+        state.lastSentAt = now;
+        state.lastSentLevelName = levelName;
         if (levelName != null) {
-            lastSentAtByLevel.put(levelName, now);
+            state.lastSentAtByLevel.put(levelName, now);
         }
         // 写入 Redis，确保多实例共享冷却状态
         if (redisTemplate == null || now == null) {
@@ -227,48 +212,52 @@ public class GoldAlertEmailService implements GoldAlertNotifier {
         }
         try {
             String epochMillis = String.valueOf(now.toEpochMilli());
-            redisTemplate.opsForValue().set(MAIL_LAST_SENT_AT_KEY, epochMillis);
+            redisTemplate.opsForValue().set(mailKey(symbol, MAIL_LAST_SENT_AT_KEY), epochMillis);
             if (levelName != null) {
-                redisTemplate.opsForValue().set(MAIL_LAST_SENT_LEVEL_KEY, levelName);
-                redisTemplate.opsForValue().set(MAIL_LAST_SENT_AT_LEVEL_PREFIX + levelName, epochMillis);
+                redisTemplate.opsForValue().set(mailKey(symbol, MAIL_LAST_SENT_LEVEL_KEY), levelName);
+                redisTemplate.opsForValue().set(mailKey(symbol, MAIL_LAST_SENT_AT_LEVEL_PREFIX + levelName), epochMillis);
             }
         } catch (Exception ex) {
             log.warn("Failed to persist mail cooldown state to redis", ex);
         }
     }
 
-    private Instant resolveLastSentAt() {
+    private Instant resolveLastSentAt(String symbol, CooldownState state) {
         if (redisTemplate == null) {
-            return lastSentAt;
+            return state.lastSentAt;
         }
-        Instant cached = readInstantFromRedis(MAIL_LAST_SENT_AT_KEY);
-        return cached != null ? cached : lastSentAt;
+        Instant cached = readInstantFromRedis(mailKey(symbol, MAIL_LAST_SENT_AT_KEY));
+        return cached != null ? cached : state.lastSentAt;
     }
 
-    private String resolveLastSentLevelName() {
+    private String resolveLastSentLevelName(String symbol, CooldownState state) {
         if (redisTemplate == null) {
-            return lastSentLevelName;
+            return state.lastSentLevelName;
         }
         try {
-            String cached = redisTemplate.opsForValue().get(MAIL_LAST_SENT_LEVEL_KEY);
+            String cached = redisTemplate.opsForValue().get(mailKey(symbol, MAIL_LAST_SENT_LEVEL_KEY));
             if (cached != null && !cached.isBlank()) {
                 return cached.trim();
             }
         } catch (Exception ex) {
             log.warn("Failed to read mail cooldown level from redis", ex);
         }
-        return lastSentLevelName;
+        return state.lastSentLevelName;
     }
 
-    private Instant resolveLastSentAtForLevel(String levelName) {
+    private Instant resolveLastSentAtForLevel(String symbol, CooldownState state, String levelName) {
         if (levelName == null || levelName.isBlank()) {
             return null;
         }
         if (redisTemplate == null) {
-            return lastSentAtByLevel.get(levelName);
+            return state.lastSentAtByLevel.get(levelName);
         }
-        Instant cached = readInstantFromRedis(MAIL_LAST_SENT_AT_LEVEL_PREFIX + levelName);
-        return cached != null ? cached : lastSentAtByLevel.get(levelName);
+        Instant cached = readInstantFromRedis(mailKey(symbol, MAIL_LAST_SENT_AT_LEVEL_PREFIX + levelName));
+        return cached != null ? cached : state.lastSentAtByLevel.get(levelName);
+    }
+
+    private static String mailKey(String symbol, String key) {
+        return symbol == null ? MAIL_KEY_PREFIX + key : MAIL_KEY_PREFIX + symbol + ":" + key;
     }
 
     private Instant readInstantFromRedis(String key) {
@@ -335,14 +324,21 @@ public class GoldAlertEmailService implements GoldAlertNotifier {
     }
 
     private String buildSubject(GoldAlertMessage message) {
-        return "Price Alert " + resolveDirectionTag(message)
+        return symbolTag(message.symbol()) + (message.priceSuspect() ? "[SUSPECT PRICE] " : "")
+                + "Price Alert " + resolveDirectionTag(message)
                 + " - " + message.levelName()
                 + " - " + formatPrice(message == null ? null : message.latestPrice());
     }
 
     private String buildThresholdSubject(GoldThresholdAlertMessage message) {
         String direction = resolveThresholdDirection(message);
-        return "Gold Price Alert " + direction + " " + formatPrice(message == null ? null : message.threshold());
+        String symbol = message == null ? null : message.symbol();
+        return symbolTag(symbol) + "Gold Price Alert " + direction + " " + formatPrice(message == null ? null : message.threshold());
+    }
+
+    // 主品种 symbol 为空，主题保持原样
+    private String symbolTag(String symbol) {
+        return symbol == null ? "" : "[" + symbol + "] ";
     }
 
     private String buildApiErrorSubject() {
@@ -379,6 +375,9 @@ public class GoldAlertEmailService implements GoldAlertNotifier {
         ZoneId zone = clock.getZone();
         ZoneId updatedAtZone = ZoneId.of("UTC+08:00");
         builder.append("level: ").append(message.levelName()).append('\n');
+        if (message.priceSuspect()) {
+            builder.append(SUSPECT_PRICE_NOTE).append('\n');
+        }
         builder.append("window=").append(formatDuration(message.window())).append('\n');
         builder.append("threshold=").append(formatPercent(message.thresholdPercent())).append("%").append('\n');
         builder.append("change=").append(formatPercent(message.changePercent())).append("%").append('\n');
@@ -409,6 +408,7 @@ public class GoldAlertEmailService implements GoldAlertNotifier {
         builder.append("Gold Price Threshold Alert").append('\n');
         builder.append("direction=").append(formatThresholdDirection(message)).append('\n');
         builder.append("price=").append(formatPrice(message == null ? null : message.price())).append('\n');
+        builder.append("thresholds=").append(formatThresholdTriggers(message)).append('\n');
         builder.append("time=").append(formatInstant(message == null ? null : message.alertTime(), zone)).append('\n');
         builder.append("time (UTC+8)=")
                 .append(formatInstant(message == null ? null : message.alertTime(), ZoneId.of("UTC+08:00")))
@@ -453,6 +453,9 @@ public class GoldAlertEmailService implements GoldAlertNotifier {
         builder.append("<h3><span style=\"color:#d32f2f;font-weight:bold;\">level: ")
                 .append(escapeHtml(message.levelName()))
                 .append("</span></h3>");
+        if (message.priceSuspect()) {
+            builder.append("<h3>").append(escapeHtml(SUSPECT_PRICE_NOTE)).append("</h3>");
+        }
         builder.append("<h3>window=").append(escapeHtml(formatDuration(message.window()))).append("</h3>");
         builder.append("<h3>threshold=").append(escapeHtml(formatPercent(message.thresholdPercent())))
                 .append("%</h3>");
@@ -493,6 +496,9 @@ public class GoldAlertEmailService implements GoldAlertNotifier {
         builder.append("<h3>price=")
                 .append(escapeHtml(formatPrice(message == null ? null : message.price())))
                 .append("</h3>");
+        builder.append("<h3>thresholds=")
+                .append(escapeHtml(formatThresholdTriggers(message)))
+                .append("</h3>");
         builder.append("<h3>time=")
                 .append(escapeHtml(formatInstant(message == null ? null : message.alertTime(), zone)))
                 .append("</h3>");
@@ -558,13 +564,12 @@ public class GoldAlertEmailService implements GoldAlertNotifier {
         if (recentSnapshots != null) {
             int index = 1;
             for (GoldPriceSnapshot snapshot : recentSnapshots) {
-                GoldApiResponse response = snapshot == null ? null : snapshot.response();
                 builder.append(index).append(" | ")
                         .append(formatPrice(snapshot)).append(" | ")
-                        .append(formatInstant(response == null ? null : response.updatedAt(), updatedAtZone)).append(" | ")
+                        .append(formatInstant(snapshot == null ? null : snapshot.getUpdatedAt(), updatedAtZone)).append(" | ")
                         .append(formatInstant(snapshot == null ? null : snapshot.fetchedAt(), zone)).append(" | ")
-                        .append(safeValue(response == null ? null : response.symbol())).append(" | ")
-                        .append(safeValue(response == null ? null : response.name()))
+                        .append(safeValue(snapshot == null ? null : snapshot.getSymbol())).append(" | ")
+                        .append(safeValue(snapshot == null ? null : snapshot.getName()))
                         .append('\n');
                 index++;
             }
@@ -592,23 +597,22 @@ public class GoldAlertEmailService implements GoldAlertNotifier {
             int index = 1;
             for (GoldPriceSnapshot snapshot : recentSnapshots) {
                 String rowColor = (index % 2 == 0) ? "#f5f5f5" : "#ffffff";
-                GoldApiResponse response = snapshot == null ? null : snapshot.response();
                 builder.append("<tr style=\"background-color:").append(rowColor).append(";\">")
                         .append("<td style=\"border:1px solid #ddd;padding:8px;\">").append(index).append("</td>")
                         .append("<td style=\"border:1px solid #ddd;padding:8px;\">")
                         .append(escapeHtml(formatPrice(snapshot)))
                         .append("</td>")
                         .append("<td style=\"border:1px solid #ddd;padding:8px;\">")
-                        .append(escapeHtml(formatInstant(response == null ? null : response.updatedAt(), updatedAtZone)))
+                        .append(escapeHtml(formatInstant(snapshot == null ? null : snapshot.getUpdatedAt(), updatedAtZone)))
                         .append("</td>")
                         .append("<td style=\"border:1px solid #ddd;padding:8px;\">")
                         .append(escapeHtml(formatInstant(snapshot == null ? null : snapshot.fetchedAt(), zone)))
                         .append("</td>")
                         .append("<td style=\"border:1px solid #ddd;padding:8px;\">")
-                        .append(escapeHtml(safeValue(response == null ? null : response.symbol())))
+                        .append(escapeHtml(safeValue(snapshot == null ? null : snapshot.getSymbol())))
                         .append("</td>")
                         .append("<td style=\"border:1px solid #ddd;padding:8px;\">")
-                        .append(escapeHtml(safeValue(response == null ? null : response.name())))
+                        .append(escapeHtml(safeValue(snapshot == null ? null : snapshot.getName())))
                         .append("</td>")
                         .append("</tr>");
                 index++;
@@ -914,6 +918,27 @@ public class GoldAlertEmailService implements GoldAlertNotifier {
         return direction + " " + formatPrice(message.threshold());
     }
 
+    // 同一条行情可能穿越大量用户阈值，正文只列出前 MAX_LISTED_TRIGGERS 条
+    private String formatThresholdTriggers(GoldThresholdAlertMessage message) {
+        if (message == null || message.triggers() == null || message.triggers().isEmpty()) {
+            return "-";
+        }
+        StringBuilder builder = new StringBuilder();
+        List<GoldThresholdAlertMessage.Trigger> triggers = message.triggers();
+        int listed = Math.min(triggers.size(), MAX_LISTED_TRIGGERS);
+        for (int i = 0; i < listed; i++) {
+            GoldThresholdAlertMessage.Trigger trigger = triggers.get(i);
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(formatPrice(trigger.threshold())).append(" (").append(safeValue(trigger.username())).append(')');
+        }
+        if (triggers.size() > listed) {
+            builder.append(" ... +").append(triggers.size() - listed);
+        }
+        return builder.toString();
+    }
+
     private String safeValue(String value) {
         return value == null || value.isBlank() ? "-" : value;
     }
@@ -958,6 +983,12 @@ public class GoldAlertEmailService implements GoldAlertNotifier {
                 .toList();
     }
 
+    private static final class CooldownState {
+        private final Map<String, Instant> lastSentAtByLevel = new HashMap<>();
+        private Instant lastSentAt;
+        private String lastSentLevelName;
+    }
+
     private record EmailTargets(String sender, List<String> recipients) {
     }
 
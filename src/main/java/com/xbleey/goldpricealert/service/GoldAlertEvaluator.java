@@ -5,10 +5,8 @@ import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
 import com.xbleey.goldpricealert.repository.GoldAlertHistoryStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.MathContext;
 import java.math.RoundingMode;
 import java.time.Clock;
 import java.time.Duration;
@@ -16,14 +14,16 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
-@Service
 public class GoldAlertEvaluator {
 
     private static final Logger log = LoggerFactory.getLogger(GoldAlertEvaluator.class);
-    private static final MathContext MATH_CONTEXT = new MathContext(12, RoundingMode.HALF_UP);
-    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
     private static final BigDecimal ZERO = BigDecimal.ZERO;
 
     private final GoldPriceHistory history;
@@ -31,79 +31,189 @@ public class GoldAlertEvaluator {
     private final GoldAlertNotifier alertNotifier;
     private final GoldAlertLevelConfigStore configStore;
     private final GoldAlertHistoryStore alertHistoryStore;
+    private final String symbol;
 
+    // symbol 非空时告警文案带品种前缀，用于主品种之外的品种；为空表示主品种
     public GoldAlertEvaluator(
             GoldPriceHistory history,
             Clock clock,
             GoldAlertNotifier alertNotifier,
             GoldAlertLevelConfigStore configStore,
-            GoldAlertHistoryStore alertHistoryStore
+            GoldAlertHistoryStore alertHistoryStore,
+            String symbol
     ) {
         this.history = history;
         this.clock = clock;
         this.alertNotifier = alertNotifier == null ? GoldAlertNotifier.noop() : alertNotifier;
         this.configStore = configStore;
         this.alertHistoryStore = alertHistoryStore == null ? GoldAlertHistoryStore.noop() : alertHistoryStore;
+        this.symbol = symbol;
     }
 
     public boolean evaluate(GoldPriceSnapshot latest) {
+        Optional<AlertCandidate> detected = detect(latest, configStore.listLevels(), history);
+        if (detected.isEmpty()) {
+            return false;
+        }
+        AlertCandidate bestCandidate = detected.get();
+        String alertTime = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+                .withZone(clock.getZone())
+                .format(latest.fetchedAt());
+        String alertMessage = formatAlertMessage(bestCandidate, latest, alertTime);
+        if (log.isWarnEnabled()) {
+            log.warn(alertMessage);
+        }
+        GoldAlertMessage message = new GoldAlertMessage(
+                bestCandidate.config().levelName(),
+                bestCandidate.config().levelRank(),
+                alertMessage,
+                latest.fetchedAt(),
+                bestCandidate.window(),
+                bestCandidate.config().thresholdPercent(),
+                bestCandidate.changePercent(),
+                bestCandidate.baselinePrice(),
+                latest.price(),
+                history.getRecent(60),
+                symbol,
+                latest.isPriceSuspect()
+        );
+        persistAlertHistory(message);
+        alertNotifier.notifyAlert(message);
+        return true;
+    }
+
+    // 告警规则本身：只读 prices，不记录、不通知，回测直接调用
+    static Optional<AlertCandidate> detect(
+            GoldPriceSnapshot latest,
+            List<GoldAlertLevelConfig> levels,
+            GoldPriceWindowLookup prices
+    ) {
+        // 同窗口的等级共享基准价，所有窗口的基准价一次性解析
+        Set<Instant> targets = new LinkedHashSet<>();
+        for (GoldAlertLevelConfig config : levels) {
+            targets.add(latest.fetchedAt().minus(config.windowDuration()));
+        }
+        Map<Instant, GoldPriceSnapshot> baselines = prices.findSnapshotsAtOrBefore(targets);
+        Map<Duration, List<GoldPriceSnapshot>> references = new HashMap<>();
+        for (GoldAlertLevelConfig config : levels) {
+            Duration window = config.windowDuration();
+            references.computeIfAbsent(
+                    window,
+                    ignored -> references(latest, baselines.get(latest.fetchedAt().minus(window)), window, prices)
+            );
+        }
+        // 绝大多数行情不触发任何等级：先用定点整数比较排除，可能触发（或定点无法精确判定）时才按 BigDecimal 计算并选级
+        if (!mayTrigger(latest.price(), levels, references)) {
+            return Optional.empty();
+        }
         AlertCandidate bestCandidate = null;
-        for (GoldAlertLevelConfig config : configStore.listLevels()) {
+        Map<Duration, Optional<PriceMove>> moves = new HashMap<>();
+        for (GoldAlertLevelConfig config : levels) {
             Duration window = config.windowDuration();
-            Instant target = latest.fetchedAt().minus(window);
-            Optional<GoldPriceSnapshot> baseline = history.findSnapshotAtOrBefore(target);
-            if (baseline.isPresent()) {
-                BigDecimal baselinePrice = baseline.get().price();
-                if (baselinePrice.compareTo(ZERO) <= 0) {
-                    continue;
-                }
-                BigDecimal latestPrice = latest.price();
-                BigDecimal changePercent = latestPrice
-                        .subtract(baselinePrice, MATH_CONTEXT)
-                        .divide(baselinePrice, MATH_CONTEXT)
-                        .multiply(ONE_HUNDRED, MATH_CONTEXT);
-                BigDecimal absChange = changePercent.abs();
-                BigDecimal threshold = config.thresholdPercent();
-                if (absChange.compareTo(threshold) >= 0) {
-                    if (bestCandidate == null) {
-                        bestCandidate = new AlertCandidate(config, window, baselinePrice, changePercent, absChange);
-                    } else {
-                        int absCompare = absChange.compareTo(bestCandidate.absChangePercent());
-                        if (absCompare > 0
-                                || (absCompare == 0 && config.levelRank() > bestCandidate.config().levelRank())) {
-                            bestCandidate = new AlertCandidate(config, window, baselinePrice, changePercent, absChange);
-                        }
+            Optional<PriceMove> move = moves.computeIfAbsent(
+                    window,
+                    ignored -> largestMove(latest.price(), references.get(window))
+            );
+            if (move.isEmpty()) {
+                continue;
+            }
+            PriceMove largest = move.get();
+            BigDecimal threshold = config.thresholdPercent();
+            if (largest.absChangePercent().compareTo(threshold) >= 0) {
+                if (bestCandidate == null) {
+                    bestCandidate = new AlertCandidate(
+                            config, window, largest.reference(), largest.changePercent(), largest.absChangePercent());
+                } else {
+                    int absCompare = largest.absChangePercent().compareTo(bestCandidate.absChangePercent());
+                    if (absCompare > 0
+                            || (absCompare == 0 && config.levelRank() > bestCandidate.config().levelRank())) {
+                        bestCandidate = new AlertCandidate(
+                                config, window, largest.reference(), largest.changePercent(), largest.absChangePercent());
                     }
                 }
             }
         }
-        if (bestCandidate != null) {
-            String alertTime = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
-                    .withZone(clock.getZone())
-                    .format(latest.fetchedAt());
-            String alertMessage = formatAlertMessage(bestCandidate, latest, alertTime);
-            if (log.isWarnEnabled()) {
-                log.warn(alertMessage);
-            }
-            GoldAlertMessage message = new GoldAlertMessage(
-                    bestCandidate.config().levelName(),
-                    bestCandidate.config().levelRank(),
-                    alertMessage,
-                    latest.fetchedAt(),
-                    bestCandidate.window(),
-                    bestCandidate.config().thresholdPercent(),
-                    bestCandidate.changePercent(),
-                    bestCandidate.baselinePrice(),
-                    latest.price(),
-                    history.getRecent(60)
-            );
-            persistAlertHistory(message);
-            alertNotifier.notifyAlert(message);
+        return Optional.ofNullable(bestCandidate);
+    }
+
+    // 窗口起点的基准价在前，其后是窗口内最高价、最低价。历史不足一个窗口（没有基准价）时不评估
+    private static List<GoldPriceSnapshot> references(
+            GoldPriceSnapshot latest,
+            GoldPriceSnapshot baseline,
+            Duration window,
+            GoldPriceWindowLookup prices
+    ) {
+        if (baseline == null) {
+            return List.of();
+        }
+        Optional<GoldPriceWindowExtremes.Extremes> extremes = prices.findWindowExtremes(window, latest.fetchedAt());
+        if (extremes.isEmpty()) {
+            return List.of(baseline);
+        }
+        return List.of(baseline, extremes.get().high(), extremes.get().low());
+    }
+
+    // 每个窗口只需与该窗口最低的阈值比较；任一价格或阈值无法用定点精确表示时保守地返回 true
+    private static boolean mayTrigger(
+            BigDecimal latestPrice,
+            List<GoldAlertLevelConfig> levels,
+            Map<Duration, List<GoldPriceSnapshot>> references
+    ) {
+        long latest = GoldPriceChangeMath.scalePrice(latestPrice);
+        if (latest == GoldPriceChangeMath.NOT_REPRESENTABLE) {
             return true;
         }
+        Map<Duration, Long> lowestThresholds = new HashMap<>();
+        for (GoldAlertLevelConfig config : levels) {
+            long threshold = GoldPriceChangeMath.basisPoints(config.thresholdPercent());
+            if (threshold == GoldPriceChangeMath.NOT_REPRESENTABLE) {
+                return true;
+            }
+            lowestThresholds.merge(config.windowDuration(), threshold, Math::min);
+        }
+        for (Map.Entry<Duration, Long> entry : lowestThresholds.entrySet()) {
+            for (GoldPriceSnapshot snapshot : references.get(entry.getKey())) {
+                long reference = GoldPriceChangeMath.scalePrice(snapshot.price());
+                if (reference == GoldPriceChangeMath.NOT_REPRESENTABLE
+                        || GoldPriceChangeMath.compare(latest, reference, entry.getValue())
+                        != GoldPriceChangeMath.Comparison.BELOW) {
+                    return true;
+                }
+            }
+        }
         return false;
     }
 
+    // 最新价分别与窗口起点的基准价、窗口内最高价和最低价比较，取幅度最大的一项：
+    // 窗口中途冲高或探底后又回到起点附近的行情同样能触发
+    private static Optional<PriceMove> largestMove(BigDecimal latestPrice, List<GoldPriceSnapshot> references) {
+        PriceMove largest = null;
+        for (GoldPriceSnapshot reference : references) {
+            largest = larger(largest, move(reference, latestPrice));
+        }
+        return Optional.ofNullable(largest);
+    }
+
+    private static PriceMove move(GoldPriceSnapshot reference, BigDecimal latestPrice) {
+        BigDecimal referencePrice = reference.price();
+        if (latestPrice == null || referencePrice.compareTo(ZERO) <= 0) {
+            return null;
+        }
+        BigDecimal changePercent = GoldPriceChangeMath.changePercent(referencePrice, latestPrice);
+        return new PriceMove(reference, changePercent, changePercent.abs());
+    }
+
+    // 幅度相同时保留先比较的一项，即优先沿用窗口起点的基准价
+    private static PriceMove larger(PriceMove current, PriceMove candidate) {
+        if (current == null) {
+            return candidate;
+        }
+        if (candidate == null || candidate.absChangePercent().compareTo(current.absChangePercent()) <= 0) {
+            return current;
+        }
+        return candidate;
+    }
+
     private void persistAlertHistory(GoldAlertMessage message) {
         if (message == null) {
             return;
@@ -117,6 +227,8 @@ public class GoldAlertEvaluator {
         record.setChangePercent(message.changePercent());
         record.setBaselinePrice(message.baselinePrice());
         record.setLatestPrice(message.latestPrice());
+        record.setSymbol(message.symbol());
+        record.setPriceSuspect(message.priceSuspect());
         try {
             alertHistoryStore.save(record);
         } catch (Exception ex) {
@@ -129,7 +241,8 @@ public class GoldAlertEvaluator {
     }
 
     private String formatAlertMessage(AlertCandidate candidate, GoldPriceSnapshot latest, String alertTime) {
-        return "WARNING!!WARNING!!WARNING!! level: " + candidate.config().levelName()
+        String prefix = (symbol == null ? "" : "[" + symbol + "] ") + (latest.isPriceSuspect() ? "[SUSPECT PRICE] " : "");
+        return prefix + "WARNING!!WARNING!!WARNING!! level: " + candidate.config().levelName()
                 + " | window=" + candidate.window()
                 + " threshold=" + formatPercent(candidate.config().thresholdPercent()) + "%, change="
                 + formatPercent(candidate.changePercent()) + "%, price "
@@ -137,12 +250,20 @@ public class GoldAlertEvaluator {
                 + " time=" + alertTime;
     }
 
-    private record AlertCandidate(
+    private record PriceMove(GoldPriceSnapshot reference, BigDecimal changePercent, BigDecimal absChangePercent) {
+    }
+
+    // reference 为涨跌幅的比较对象：窗口起点的基准快照，或窗口内最高/最低价所在的快照
+    record AlertCandidate(
             GoldAlertLevelConfig config,
             Duration window,
-            BigDecimal baselinePrice,
+            GoldPriceSnapshot reference,
             BigDecimal changePercent,
             BigDecimal absChangePercent
     ) {
+
+        BigDecimal baselinePrice() {
+            return reference.price();
+        }
     }
 }
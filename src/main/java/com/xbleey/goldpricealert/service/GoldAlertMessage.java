@@ -8,6 +8,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 
+// symbol 为空表示主品种，邮件主题与冷却状态沿用原有格式和键；priceSuspect 表示触发告警的行情在交叉校验中与其他来源偏差超限
 @Accessors(fluent = true)
 public record GoldAlertMessage(
         String levelName,
@@ -19,6 +20,8 @@ public record GoldAlertMessage(
         BigDecimal changePercent,
         BigDecimal baselinePrice,
         BigDecimal latestPrice,
-        List<GoldPriceSnapshot> recentSnapshots
+        List<GoldPriceSnapshot> recentSnapshots,
+        String symbol,
+        boolean priceSuspect
 ) {
 }
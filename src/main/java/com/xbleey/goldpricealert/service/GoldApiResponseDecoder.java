@@ -0,0 +1,158 @@
+package com.xbleey.goldpricealert.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+// gold-api.com 响应的流式解码：逐个 token 读取五个字段，直接写入 GoldPriceSnapshot，
+// 不经过 databind 的反射、creator 参数缓冲与 JavaTimeModule 反序列化器，也不再先构造 GoldApiResponse 再拷贝。
+// 结果与 ObjectMapper.readValue 一致（未知字段忽略）
+public final class GoldApiResponseDecoder {
+
+    private final JsonFactory jsonFactory;
+
+    public GoldApiResponseDecoder(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    // snapshot 应为新建对象：响应中缺失的字段保持原值；解码失败时 snapshot 可能只写入了部分字段，调用方应丢弃
+    public void decodeInto(GoldPriceSnapshot snapshot, InputStream input) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(input)) {
+            read(parser, snapshot);
+        }
+    }
+
+    public void decodeInto(GoldPriceSnapshot snapshot, String payload) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(payload)) {
+            read(parser, snapshot);
+        }
+    }
+
+    private static void read(JsonParser parser, GoldPriceSnapshot snapshot) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Expected JSON object in gold price payload");
+        }
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "name" -> snapshot.setName(text(parser, value));
+                case "price" -> snapshot.setPrice(decimal(parser, value));
+                case "symbol" -> snapshot.setSymbol(text(parser, value));
+                case "updatedAt" -> snapshot.setUpdatedAt(instant(parser, value));
+                case "updatedAtReadable" -> snapshot.setUpdatedAtReadable(text(parser, value));
+                default -> parser.skipChildren();
+            }
+        }
+        if (parser.currentToken() != JsonToken.END_OBJECT) {
+            throw new IOException("Malformed gold price payload");
+        }
+    }
+
+    private static String text(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value.isStructStart()) {
+            throw new IOException("Unexpected " + value + " for field " + parser.currentName());
+        }
+        return parser.getText();
+    }
+
+    private static BigDecimal decimal(JsonParser parser, JsonToken value) throws IOException {
+        return switch (value) {
+            case VALUE_NULL -> null;
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getDecimalValue();
+            case VALUE_STRING -> {
+                String text = parser.getText().trim();
+                try {
+                    yield text.isEmpty() ? null : new BigDecimal(text);
+                } catch (NumberFormatException ex) {
+                    throw new IOException("Invalid price: " + text, ex);
+                }
+            }
+            default -> throw new IOException("Unexpected " + value + " for field price");
+        };
+    }
+
+    // 与 JavaTimeModule 的默认行为一致：ISO-8601 字符串，或以秒为单位的数字时间戳（小数部分为纳秒）
+    private static Instant instant(JsonParser parser, JsonToken value) throws IOException {
+        return switch (value) {
+            case VALUE_NULL -> null;
+            case VALUE_NUMBER_INT -> Instant.ofEpochSecond(parser.getLongValue());
+            case VALUE_NUMBER_FLOAT -> {
+                BigDecimal seconds = parser.getDecimalValue();
+                long whole = seconds.longValue();
+                int nanos = seconds.subtract(BigDecimal.valueOf(whole)).movePointRight(9).intValue();
+                yield Instant.ofEpochSecond(whole, nanos);
+            }
+            case VALUE_STRING -> parseInstant(parser.getText().trim());
+            default -> throw new IOException("Unexpected " + value + " for field updatedAt");
+        };
+    }
+
+    private static Instant parseInstant(String text) throws IOException {
+        if (text.isEmpty()) {
+            return null;
+        }
+        Instant utc = parseUtcSeconds(text);
+        if (utc != null) {
+            return utc;
+        }
+        try {
+            return Instant.parse(text);
+        } catch (DateTimeParseException ignored) {
+            // 带时区偏移的写法
+        }
+        try {
+            return OffsetDateTime.parse(text).toInstant();
+        } catch (DateTimeParseException ex) {
+            throw new IOException("Invalid updatedAt: " + text, ex);
+        }
+    }
+
+    // 上游常见的 yyyy-MM-ddTHH:mm:ssZ 写法按位直接计算；Instant.parse 每次约分配 1.4KB，其他写法仍交给它
+    private static Instant parseUtcSeconds(String text) {
+        if (text.length() != 20 || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T'
+                || text.charAt(13) != ':' || text.charAt(16) != ':' || text.charAt(19) != 'Z') {
+            return null;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 7);
+        int day = digits(text, 8, 10);
+        int hour = digits(text, 11, 13);
+        int minute = digits(text, 14, 16);
+        int second = digits(text, 17, 19);
+        if ((year | month | day | hour | minute | second) < 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second).toInstant(ZoneOffset.UTC);
+        } catch (DateTimeException ex) {
+            return null;
+        }
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -1,27 +1,27 @@
 package com.xbleey.goldpricealert.service;
 
-import com.xbleey.goldpricealert.config.GoldProperties;
-import org.springframework.stereotype.Service;
-
+import java.net.URI;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 
-@Service
 public class GoldApiStatusMonitor {
 
     private static final Duration ERROR_NOTIFY_INTERVAL = Duration.ofMinutes(10);
 
     private final GoldAlertEmailService emailService;
-    private final GoldProperties properties;
+    private final GoldPipelineStages stages;
+    private final URI apiUrl;
     private final Clock clock;
     private final Object lock = new Object();
     private Instant firstFailureAt;
     private Instant lastNotificationAt;
 
-    public GoldApiStatusMonitor(GoldAlertEmailService emailService, GoldProperties properties, Clock clock) {
+    // 每个品种的上游地址各自统计故障与恢复，互不重置；邮件经通知阶段发送，不占用拉取线程
+    public GoldApiStatusMonitor(GoldAlertEmailService emailService, GoldPipelineStages stages, URI apiUrl, Clock clock) {
         this.emailService = emailService;
-        this.properties = properties;
+        this.stages = stages;
+        this.apiUrl = apiUrl;
         this.clock = clock;
     }
 
@@ -36,7 +36,7 @@ public class GoldApiStatusMonitor {
                 Duration downtime = Duration.between(firstFailureAt, now);
                 message = new GoldApiErrorMessage(
                         now,
-                        properties.getApiUrl() == null ? null : properties.getApiUrl().toString(),
+                        apiUrl == null ? null : apiUrl.toString(),
                         errorDetail,
                         downtime
                 );
@@ -44,7 +44,8 @@ public class GoldApiStatusMonitor {
             }
         }
         if (message != null) {
-            emailService.notifyApiError(message);
+            GoldApiErrorMessage error = message;
+            stages.submitNotification("api error " + apiUrl, () -> emailService.notifyApiError(error));
         }
     }
 
@@ -60,13 +61,14 @@ public class GoldApiStatusMonitor {
                     now,
                     firstFailureAt,
                     downtime,
-                    properties.getApiUrl() == null ? null : properties.getApiUrl().toString()
+                    apiUrl == null ? null : apiUrl.toString()
             );
             firstFailureAt = null;
             lastNotificationAt = null;
         }
         if (message != null) {
-            emailService.notifyApiResume(message);
+            GoldApiResumeMessage resume = message;
+            stages.submitNotification("api resume " + apiUrl, () -> emailService.notifyApiResume(resume));
         }
     }
 
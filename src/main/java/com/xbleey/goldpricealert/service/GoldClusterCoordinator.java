@@ -0,0 +1,229 @@
+package com.xbleey.goldpricealert.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xbleey.goldpricealert.config.GoldProperties;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import jakarta.annotation.PreDestroy;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+// 多副本协调。gold.cluster.enabled 为 false 时单机运行，本实例始终是 leader。
+// 开启后每个实例每隔 renew-interval 获取或续期租约：持有租约的 leader 负责拉取、评估与归档，并把入库的行情广播出去；
+// follower 不拉取也不评估，只把收到的行情放入本地历史缓冲供查询接口读取
+@Component
+public class GoldClusterCoordinator implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(GoldClusterCoordinator.class);
+
+    private final GoldProperties.Cluster settings;
+    private final GoldLeaderLease lease;
+    private final GoldTickChannel channel;
+    private final GoldInstrumentPipelines pipelines;
+    private final ObjectMapper objectMapper;
+    private final TaskScheduler taskScheduler;
+    private final Clock clock;
+    private final String instanceId;
+    private volatile boolean leader;
+    // 最近一次成功获取或续期时本地记录的到期时间；Redis 不可达时最多沿用到这里，避免与接管者同时拉取
+    private volatile Instant leaseValidUntil = Instant.MIN;
+    private volatile boolean closed;
+    private ScheduledFuture<?> heartbeat;
+
+    public GoldClusterCoordinator(
+            GoldProperties properties,
+            @Nullable GoldLeaderLease lease,
+            @Nullable GoldTickChannel channel,
+            GoldInstrumentPipelines pipelines,
+            ObjectMapper objectMapper,
+            TaskScheduler taskScheduler,
+            Clock clock
+    ) {
+        this.settings = properties.getCluster();
+        this.lease = lease;
+        this.channel = channel;
+        this.pipelines = pipelines;
+        this.objectMapper = objectMapper;
+        this.taskScheduler = taskScheduler;
+        this.clock = clock;
+        this.instanceId = settings.getInstanceId() == null || settings.getInstanceId().isBlank()
+                ? defaultInstanceId()
+                : settings.getInstanceId();
+    }
+
+    public static GoldClusterCoordinator standalone() {
+        return new GoldClusterCoordinator(new GoldProperties(), null, null, null, null, null, Clock.systemUTC());
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        channel.subscribe(this::onTick);
+        heartbeat();
+        heartbeat = taskScheduler.scheduleWithFixedDelay(this::heartbeat, settings.getRenewInterval());
+    }
+
+    public boolean isLeader() {
+        return !settings.isEnabled() || (leader && clock.instant().isBefore(leaseValidUntil));
+    }
+
+    public String instanceId() {
+        return instanceId;
+    }
+
+    // follower 检查自己是否已接管的间隔
+    public Duration renewInterval() {
+        return settings.getRenewInterval();
+    }
+
+    synchronized void heartbeat() {
+        if (closed) {
+            return;
+        }
+        Instant started = clock.instant();
+        try {
+            boolean held = leader && lease.renew(instanceId, settings.getLeaseTtl());
+            if (!held) {
+                if (leader) {
+                    log.warn("Instance {} lost gold price leadership", instanceId);
+                    leader = false;
+                }
+                held = lease.tryAcquire(instanceId, settings.getLeaseTtl());
+            }
+            if (held) {
+                // 以发起请求前的时间为起点，本地认定的到期时间不晚于 Redis 中的实际到期时间
+                leaseValidUntil = started.plus(settings.getLeaseTtl());
+                if (!leader) {
+                    log.info("Instance {} became gold price leader", instanceId);
+                    leader = true;
+                }
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Failed to refresh gold price leader lease for {}", instanceId, ex);
+            if (leader && !started.isBefore(leaseValidUntil)) {
+                log.warn("Instance {} gives up gold price leadership: lease could not be renewed before expiry", instanceId);
+                leader = false;
+            }
+        }
+    }
+
+    // leader 入库新行情后调用；广播失败只影响 follower 的本地缓冲，不影响入库与告警
+    public void publish(GoldPriceSnapshot snapshot) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        try {
+            channel.publish(objectMapper.writeValueAsString(ReplicatedTick.of(instanceId, snapshot)));
+        } catch (Exception ex) {
+            log.warn("Failed to broadcast {} tick", snapshot.getSymbol(), ex);
+        }
+    }
+
+    void onTick(String message) {
+        ReplicatedTick tick;
+        try {
+            tick = objectMapper.readValue(message, ReplicatedTick.class);
+        } catch (IOException ex) {
+            log.debug("Ignore unparsable cluster tick: {}", message);
+            return;
+        }
+        // leader 自己已入库；刚接管的实例也可能收到前任最后几条广播，同样交给自己的拉取
+        if (instanceId.equals(tick.origin()) || isLeader() || tick.price() == null) {
+            return;
+        }
+        Optional<GoldInstrumentPipeline> pipeline = pipelines.find(tick.symbol());
+        if (pipeline.isEmpty()) {
+            log.debug("Ignore cluster tick for unconfigured symbol {}", tick.symbol());
+            return;
+        }
+        try {
+            pipeline.get().history().addReplicated(tick.toSnapshot());
+        } catch (RuntimeException ex) {
+            log.warn("Failed to apply replicated {} tick", pipeline.get().symbol(), ex);
+        }
+    }
+
+    // 主动交出租约，其他实例在下一次心跳即可接管，不必等租约过期
+    @PreDestroy
+    public synchronized void close() {
+        closed = true;
+        if (heartbeat != null) {
+            heartbeat.cancel(false);
+        }
+        if (leader) {
+            leader = false;
+            try {
+                lease.release(instanceId);
+                log.info("Instance {} released gold price leadership", instanceId);
+            } catch (RuntimeException ex) {
+                log.warn("Failed to release gold price leader lease for {}", instanceId, ex);
+            }
+        }
+    }
+
+    private static String defaultInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (IOException ex) {
+            host = "gold";
+        }
+        return host + "-" + HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextInt());
+    }
+
+    // 广播消息直接展开快照字段，不经过 GoldApiResponse；旧格式（嵌套 response）的消息缺少 price，按无效消息忽略。
+    // priceSuspect 不入库，只能随广播带给 follower，否则 follower 接管后基于同一行情的告警会丢失可疑标记
+    record ReplicatedTick(
+            String origin,
+            Instant fetchedAt,
+            String name,
+            BigDecimal price,
+            String symbol,
+            Instant updatedAt,
+            String updatedAtReadable,
+            boolean priceSuspect
+    ) {
+
+        static ReplicatedTick of(String origin, GoldPriceSnapshot snapshot) {
+            return new ReplicatedTick(
+                    origin,
+                    snapshot.getFetchedAt(),
+                    snapshot.getName(),
+                    snapshot.getPrice(),
+                    snapshot.getSymbol(),
+                    snapshot.getUpdatedAt(),
+                    snapshot.getUpdatedAtReadable(),
+                    snapshot.isPriceSuspect()
+            );
+        }
+
+        GoldPriceSnapshot toSnapshot() {
+            GoldPriceSnapshot snapshot = new GoldPriceSnapshot();
+            snapshot.setFetchedAt(fetchedAt);
+            snapshot.setName(name);
+            snapshot.setPrice(price);
+            snapshot.setSymbol(symbol);
+            snapshot.setUpdatedAt(updatedAt);
+            snapshot.setUpdatedAtReadable(updatedAtReadable);
+            snapshot.setPriceSuspect(priceSuspect);
+            return snapshot;
+        }
+    }
+}
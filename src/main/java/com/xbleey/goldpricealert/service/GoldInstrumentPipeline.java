@@ -0,0 +1,51 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+
+import java.util.List;
+
+// 单个品种的处理链：按优先级排列的报价来源（首个为主来源），拉取结果依次进入该品种自己的历史缓冲、波动评估与阈值提醒（thresholdEvaluator 可为空）
+public record GoldInstrumentPipeline(
+        String symbol,
+        List<GoldPriceProvider> providers,
+        GoldPriceHistory history,
+        GoldAlertEvaluator evaluator,
+        GoldThresholdAlertEvaluator thresholdEvaluator,
+        GoldApiStatusMonitor apiStatusMonitor
+) {
+
+    // 轮询结果与推送行情可能同时到达，同一品种的入库与评估串行执行，避免同一波动被重复评估
+    public synchronized Ingested ingest(GoldPriceSnapshot snapshot) {
+        if (!history.addIfNewTick(snapshot)) {
+            return Ingested.NOT_NEWER;
+        }
+        return evaluateRules(snapshot) ? Ingested.ALERTED : Ingested.STORED;
+    }
+
+    // 分阶段处理：入库阶段只判重入库，由 GoldPipelineStages 的单个入库消费者按到达顺序调用
+    public boolean store(GoldPriceSnapshot snapshot) {
+        return history.persistIfNewTick(snapshot);
+    }
+
+    // 分阶段处理：评估阶段先把行情发布到缓冲再评估，由单个评估消费者按入库顺序调用
+    public Ingested evaluate(GoldPriceSnapshot snapshot) {
+        if (!history.publishTick(snapshot)) {
+            return Ingested.NOT_NEWER;
+        }
+        return evaluateRules(snapshot) ? Ingested.ALERTED : Ingested.STORED;
+    }
+
+    private boolean evaluateRules(GoldPriceSnapshot snapshot) {
+        boolean alerted = evaluator.evaluate(snapshot);
+        if (thresholdEvaluator != null) {
+            thresholdEvaluator.evaluate(snapshot);
+        }
+        return alerted;
+    }
+
+    public enum Ingested {
+        NOT_NEWER,
+        STORED,
+        ALERTED
+    }
+}
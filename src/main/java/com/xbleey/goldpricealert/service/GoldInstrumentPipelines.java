@@ -0,0 +1,113 @@
+package com.xbleey.goldpricealert.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xbleey.goldpricealert.config.GoldProperties;
+import com.xbleey.goldpricealert.repository.GoldAlertHistoryStore;
+import com.xbleey.goldpricealert.repository.GoldPriceSnapshotStores;
+import okhttp3.OkHttpClient;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// 主品种沿用容器中的 GoldPriceHistory / K 线；告警评估、阈值提醒和上游故障监控每个品种各建一份（主品种的 symbol 为空）；
+// 其余品种各自拥有独立的存储、历史缓冲与 K 线，波动告警与阈值提醒共用同一通知链路与告警历史表，按 symbol 区分
+public class GoldInstrumentPipelines {
+
+    private final Map<String, GoldInstrumentPipeline> pipelines = new LinkedHashMap<>();
+    private final String primarySymbol;
+
+    public GoldInstrumentPipelines(List<GoldInstrumentPipeline> pipelines) {
+        if (pipelines == null || pipelines.isEmpty()) {
+            throw new IllegalArgumentException("at least one instrument pipeline is required");
+        }
+        for (GoldInstrumentPipeline pipeline : pipelines) {
+            if (this.pipelines.putIfAbsent(pipeline.symbol(), pipeline) != null) {
+                throw new IllegalArgumentException("duplicate instrument symbol: " + pipeline.symbol());
+            }
+        }
+        this.primarySymbol = pipelines.getFirst().symbol();
+    }
+
+    public GoldInstrumentPipeline primary() {
+        return pipelines.get(primarySymbol);
+    }
+
+    public Collection<GoldInstrumentPipeline> all() {
+        return pipelines.values();
+    }
+
+    // symbol 为空时返回主品种
+    public Optional<GoldInstrumentPipeline> find(String symbol) {
+        if (symbol == null || symbol.isBlank()) {
+            return Optional.of(primary());
+        }
+        return Optional.ofNullable(pipelines.get(symbol));
+    }
+
+    // 按配置装配全部品种，由 GoldAppConfig 注册为容器中的实例
+    public static GoldInstrumentPipelines build(
+            GoldProperties properties,
+            OkHttpClient okHttpClient,
+            ObjectMapper objectMapper,
+            GoldPriceSnapshotStores stores,
+            GoldPriceHistory history,
+            GoldAlertLevelConfigStore configStore,
+            GoldAlertEmailService emailService,
+            GoldPipelineStages stages,
+            GoldAlertNotifier alertNotifier,
+            GoldAlertHistoryStore alertHistoryStore,
+            GoldThresholdStore thresholdStore,
+            GoldThresholdAlertScheduler thresholdScheduler,
+            GoldPriceCandleAggregator candleAggregator,
+            Clock clock
+    ) {
+        List<GoldInstrumentPipeline> built = new ArrayList<>();
+        built.add(new GoldInstrumentPipeline(
+                properties.getSymbol(),
+                providers(properties.allInstruments().getFirst(), okHttpClient, objectMapper),
+                history,
+                new GoldAlertEvaluator(history, clock, alertNotifier, configStore, alertHistoryStore, null),
+                new GoldThresholdAlertEvaluator(history, thresholdStore, thresholdScheduler, null),
+                new GoldApiStatusMonitor(emailService, stages, properties.getApiUrl(), clock)
+        ));
+        for (GoldProperties.Instrument instrument : properties.getInstruments()) {
+            String symbol = instrument.getSymbol();
+            GoldPriceHistory symbolHistory = new GoldPriceHistory(
+                    stores.find(symbol).orElseThrow(() -> new IllegalStateException("no snapshot store for " + symbol)),
+                    configStore,
+                    candleAggregator.forSymbol(symbol)
+            );
+            built.add(new GoldInstrumentPipeline(
+                    symbol,
+                    providers(instrument, okHttpClient, objectMapper),
+                    symbolHistory,
+                    new GoldAlertEvaluator(
+                            symbolHistory,
+                            clock,
+                            alertNotifier,
+                            configStore,
+                            alertHistoryStore,
+                            symbol
+                    ),
+                    new GoldThresholdAlertEvaluator(symbolHistory, thresholdStore, thresholdScheduler, symbol),
+                    new GoldApiStatusMonitor(emailService, stages, instrument.getApiUrl(), clock)
+            ));
+        }
+        return new GoldInstrumentPipelines(built);
+    }
+
+    private static List<GoldPriceProvider> providers(
+            GoldProperties.Instrument instrument,
+            OkHttpClient okHttpClient,
+            ObjectMapper objectMapper
+    ) {
+        return instrument.providerUrls().stream()
+                .<GoldPriceProvider>map(url -> new HttpGoldPriceProvider(okHttpClient, objectMapper, url))
+                .toList();
+    }
+}
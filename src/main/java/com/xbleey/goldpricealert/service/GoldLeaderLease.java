@@ -0,0 +1,13 @@
+package com.xbleey.goldpricealert.service;
+
+import java.time.Duration;
+
+// leader 租约：同一时刻最多一个 owner 持有未过期的租约，续期与释放都只对当前持有者生效
+public interface GoldLeaderLease {
+
+    boolean tryAcquire(String owner, Duration ttl);
+
+    boolean renew(String owner, Duration ttl);
+
+    void release(String owner);
+}
@@ -0,0 +1,169 @@
+package com.xbleey.goldpricealert.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// 分阶段处理中的一个阶段：有界无锁队列 + 单消费者。入队只做一次 CAS 占位，队列满时直接丢弃新元素并计数，生产者从不等待；
+// 同一时刻最多一个排空任务在 executor 上运行，元素按入队顺序逐个交给 handler
+public final class GoldPipelineStage<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(GoldPipelineStage.class);
+
+    private final String name;
+    private final int capacity;
+    private final Executor executor;
+    private final Consumer<T> handler;
+    private final ConcurrentLinkedQueue<Queued<T>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicInteger peakDepth = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean saturated = new AtomicBoolean();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    // 延迟从入队算到 handler 返回，包含排队等待与处理耗时
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private volatile long lastLatencyNanos;
+
+    public GoldPipelineStage(String name, int capacity, Executor executor, Consumer<T> handler) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("stage capacity must be > 0");
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.executor = executor;
+        this.handler = handler;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public boolean offer(T item) {
+        if (!reserve()) {
+            return false;
+        }
+        offerReserved(item);
+        return true;
+    }
+
+    // 预占一个队列位置，之后必须调用 offerReserved 或 release 之一；队列已满时与 offer 一样丢弃计数并返回 false。
+    // 供上一阶段在产生无法撤回的副作用（如入库）之前确认本阶段一定能接收
+    public boolean reserve() {
+        int current;
+        do {
+            current = depth.get();
+            if (current >= capacity) {
+                dropped.incrementAndGet();
+                if (saturated.compareAndSet(false, true)) {
+                    log.warn("Pipeline stage {} is full (capacity {}), dropping new items until it drains", name, capacity);
+                }
+                return false;
+            }
+        } while (!depth.compareAndSet(current, current + 1));
+        peakDepth.accumulateAndGet(current + 1, Math::max);
+        return true;
+    }
+
+    public void offerReserved(T item) {
+        accepted.incrementAndGet();
+        queue.offer(new Queued<>(item, System.nanoTime()));
+        scheduleDrain();
+    }
+
+    public void release() {
+        depth.decrementAndGet();
+    }
+
+    public Stats stats() {
+        long done = completed.get() + failed.get();
+        return new Stats(
+                name,
+                depth.get(),
+                peakDepth.get(),
+                capacity,
+                accepted.get(),
+                completed.get(),
+                failed.get(),
+                dropped.get(),
+                Duration.ofNanos(lastLatencyNanos),
+                Duration.ofNanos(done == 0 ? 0 : totalLatencyNanos.get() / done),
+                Duration.ofNanos(maxLatencyNanos.get())
+        );
+    }
+
+    private void scheduleDrain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException ex) {
+            // 应用停机后 executor 不再接收任务，队列中剩余的元素随之放弃
+            draining.set(false);
+            log.debug("Pipeline stage {} executor rejected drain, {} items left", name, depth.get());
+        }
+    }
+
+    private void drain() {
+        try {
+            Queued<T> next;
+            while ((next = queue.poll()) != null) {
+                depth.decrementAndGet();
+                handle(next);
+            }
+            if (saturated.compareAndSet(true, false)) {
+                log.info("Pipeline stage {} drained, {} items dropped so far", name, dropped.get());
+            }
+        } finally {
+            draining.set(false);
+        }
+        // 释放标记前后入队的元素由这里补一次调度
+        if (!queue.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    private void handle(Queued<T> queued) {
+        try {
+            handler.accept(queued.item());
+            completed.incrementAndGet();
+        } catch (RuntimeException ex) {
+            failed.incrementAndGet();
+            log.warn("Pipeline stage {} failed to handle item", name, ex);
+        }
+        long latency = System.nanoTime() - queued.enqueuedAt();
+        lastLatencyNanos = latency;
+        totalLatencyNanos.addAndGet(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+    }
+
+    private record Queued<T>(T item, long enqueuedAt) {
+    }
+
+    public record Stats(
+            String name,
+            int depth,
+            int peakDepth,
+            int capacity,
+            long accepted,
+            long completed,
+            long failed,
+            long dropped,
+            Duration lastLatency,
+            Duration averageLatency,
+            Duration maxLatency
+    ) {
+    }
+}
@@ -0,0 +1,192 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.config.GoldProperties;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// 拉取（轮询与推送）之后的分阶段处理：入库 -> 评估 -> 通知，阶段之间经 GoldPipelineStage 的有界队列衔接，各阶段在自己的 executor 上运行。
+// 拉取线程只负责入队，慢速的数据库写入、告警评估与 SMTP 发送都不会拖住下一次拉取。
+// 入库与评估各只有一个消费者，同一品种的行情按到达顺序入库、按入库顺序评估
+public class GoldPipelineStages {
+
+    private static final Logger log = LoggerFactory.getLogger(GoldPipelineStages.class);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final GoldPipelineStage<Tick> ingestStage;
+    private final GoldPipelineStage<Tick> evaluateStage;
+    private final GoldPipelineStage<Notification> notifyStage;
+    private final List<ExecutorService> ownedExecutors;
+    private final boolean staged;
+
+    // ownedExecutors 在 close 时关闭；staged 为 false 时不分阶段，提交的行情与通知在调用线程上同步处理
+    private GoldPipelineStages(
+            GoldProperties.Pipeline settings,
+            Executor ingestExecutor,
+            Executor evaluateExecutor,
+            Executor notifyExecutor,
+            List<ExecutorService> ownedExecutors,
+            boolean staged
+    ) {
+        this.ingestStage = new GoldPipelineStage<>("ingest", settings.getIngestCapacity(), ingestExecutor, this::storeTick);
+        this.evaluateStage = new GoldPipelineStage<>("evaluate", settings.getEvaluateCapacity(), evaluateExecutor, this::evaluateTick);
+        this.notifyStage = new GoldPipelineStage<>("notify", settings.getNotifyCapacity(), notifyExecutor, this::sendNotification);
+        this.ownedExecutors = ownedExecutors;
+        this.staged = staged;
+    }
+
+    // 每个阶段各用一个虚拟线程 executor，随 close 一起关闭
+    public static GoldPipelineStages create(GoldProperties.Pipeline settings) {
+        ExecutorService ingestExecutor = stageExecutor("gold-ingest-");
+        ExecutorService evaluateExecutor = stageExecutor("gold-evaluate-");
+        ExecutorService notifyExecutor = stageExecutor("gold-notify-");
+        return new GoldPipelineStages(settings, ingestExecutor, evaluateExecutor, notifyExecutor,
+                List.of(ingestExecutor, evaluateExecutor, notifyExecutor), true);
+    }
+
+    // 三个阶段共用调用方给出的 executor（不随 close 关闭），各阶段仍各自只有一个排空任务
+    public static GoldPipelineStages sharing(GoldProperties.Pipeline settings, Executor executor) {
+        return new GoldPipelineStages(settings, executor, executor, executor, List.of(), true);
+    }
+
+    // 不分阶段：在调用线程上同步入库、评估并发送，供测试与单独构造的组件使用
+    public static GoldPipelineStages direct() {
+        return new GoldPipelineStages(new GoldProperties.Pipeline(), Runnable::run, Runnable::run, Runnable::run, List.of(), false);
+    }
+
+    // 行情进入入库阶段即返回。onStored 在入库成功后于入库阶段调用（如向其他副本广播），
+    // 返回的 future 在这条行情离开处理链时完成：不是新行情、评估结束，或因队列已满被丢弃、处理失败时异常完成
+    public CompletableFuture<GoldInstrumentPipeline.Ingested> submit(
+            GoldInstrumentPipeline pipeline,
+            GoldPriceSnapshot snapshot,
+            Runnable onStored
+    ) {
+        CompletableFuture<GoldInstrumentPipeline.Ingested> done = new CompletableFuture<>();
+        if (!staged) {
+            try {
+                GoldInstrumentPipeline.Ingested ingested = pipeline.ingest(snapshot);
+                if (ingested != GoldInstrumentPipeline.Ingested.NOT_NEWER) {
+                    onStored.run();
+                }
+                done.complete(ingested);
+            } catch (RuntimeException ex) {
+                done.completeExceptionally(ex);
+            }
+            return done;
+        }
+        Tick tick = new Tick(pipeline, snapshot, onStored, done);
+        if (!ingestStage.offer(tick)) {
+            done.completeExceptionally(new RejectedExecutionException("ingest queue is full"));
+        }
+        return done;
+    }
+
+    // 邮件等外部通知交给通知阶段串行发送，调用方不等待发送结果；队列已满时丢弃并返回 false
+    public boolean submitNotification(String description, Runnable send) {
+        if (!staged) {
+            send.run();
+            return true;
+        }
+        if (!notifyStage.offer(new Notification(description, send))) {
+            log.warn("Dropped notification, notify queue is full: {}", description);
+            return false;
+        }
+        return true;
+    }
+
+    // 把告警通知改为经通知阶段异步发送
+    public GoldAlertNotifier notifier(GoldAlertNotifier delegate) {
+        return message -> submitNotification("alert " + message.levelName(), () -> delegate.notifyAlert(message));
+    }
+
+    public List<GoldPipelineStage.Stats> stats() {
+        if (!staged) {
+            return List.of();
+        }
+        return List.of(ingestStage.stats(), evaluateStage.stats(), notifyStage.stats());
+    }
+
+    @PreDestroy
+    public void close() {
+        for (ExecutorService executor : ownedExecutors) {
+            executor.shutdown();
+        }
+        try {
+            for (ExecutorService executor : ownedExecutors) {
+                if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    log.warn("Pipeline stage executor did not finish within {}s", SHUTDOWN_TIMEOUT_SECONDS);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (staged) {
+            stats().stream()
+                    .filter(stats -> stats.depth() > 0)
+                    .forEach(stats -> log.warn("Pipeline stage {} stopped with {} queued items", stats.name(), stats.depth()));
+        }
+    }
+
+    // 先在评估队列中占好位置再入库：评估队列已满时这条行情不入库、不推进判重，之后的拉取仍可重新入库，
+    // 不会出现库中有、缓冲与窗口极值中却永远缺失的行情
+    private void storeTick(Tick tick) {
+        if (!evaluateStage.reserve()) {
+            tick.done().completeExceptionally(new RejectedExecutionException("evaluate queue is full"));
+            return;
+        }
+        try {
+            if (!tick.pipeline().store(tick.snapshot())) {
+                evaluateStage.release();
+                tick.done().complete(GoldInstrumentPipeline.Ingested.NOT_NEWER);
+                return;
+            }
+        } catch (RuntimeException ex) {
+            evaluateStage.release();
+            tick.done().completeExceptionally(ex);
+            throw ex;
+        }
+        evaluateStage.offerReserved(tick);
+        tick.onStored().run();
+    }
+
+    private void evaluateTick(Tick tick) {
+        try {
+            tick.done().complete(tick.pipeline().evaluate(tick.snapshot()));
+        } catch (RuntimeException ex) {
+            tick.done().completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private void sendNotification(Notification notification) {
+        try {
+            notification.send().run();
+        } catch (RuntimeException ex) {
+            throw new IllegalStateException("notification failed: " + notification.description(), ex);
+        }
+    }
+
+    private static ExecutorService stageExecutor(String prefix) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 0).factory());
+    }
+
+    private record Tick(
+            GoldInstrumentPipeline pipeline,
+            GoldPriceSnapshot snapshot,
+            Runnable onStored,
+            CompletableFuture<GoldInstrumentPipeline.Ingested> done
+    ) {
+    }
+
+    private record Notification(String description, Runnable send) {
+    }
+}
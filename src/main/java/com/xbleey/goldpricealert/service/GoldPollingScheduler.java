@@ -0,0 +1,200 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.config.GoldProperties;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+// 定时拉取的触发器：取各品种近期已实现波动率、主品种价格离阈值的距离中最紧迫的一项，
+// 在 min-interval 与 max-interval 之间按几何插值得到下一次间隔；再按滑动一小时窗口内实际发出的上游请求数限制拉取。
+// 休市期间不按间隔醒来，直接等到交易日历的下一次开市
+@Component
+public class GoldPollingScheduler implements SchedulingConfigurer {
+
+    private static final Logger log = LoggerFactory.getLogger(GoldPollingScheduler.class);
+    private static final MathContext MATH_CONTEXT = new MathContext(12, RoundingMode.HALF_UP);
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+    // 波动率取样上限，volatility-window 很长时也只扫描缓冲区中最近的这些快照
+    private static final int MAX_VOLATILITY_SAMPLES = 1_000;
+
+    private final GoldPriceFetcher fetcher;
+    private final GoldClusterCoordinator cluster;
+    private final TradingCalendar calendar;
+    private final GoldInstrumentPipelines pipelines;
+    private final GoldThresholdStore thresholdStore;
+    private final GoldUpstreamCallLog callLog;
+    private final GoldProperties properties;
+    private final Clock clock;
+
+    public GoldPollingScheduler(
+            GoldPriceFetcher fetcher,
+            GoldClusterCoordinator cluster,
+            TradingCalendar calendar,
+            GoldInstrumentPipelines pipelines,
+            GoldThresholdStore thresholdStore,
+            GoldUpstreamCallLog callLog,
+            GoldProperties properties,
+            Clock clock
+    ) {
+        this.fetcher = fetcher;
+        this.cluster = cluster;
+        this.calendar = calendar;
+        this.pipelines = pipelines;
+        this.thresholdStore = thresholdStore;
+        this.callLog = callLog;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        // 与原先的 fixedDelay 一样：启动后立即拉取一次，之后每次在上一轮触发结束后重新计算间隔
+        registrar.addTriggerTask(this::poll, context -> {
+            Instant now = clock.instant();
+            if (context.lastCompletion() == null) {
+                return now;
+            }
+            // follower 按租约续期间隔检查是否已接管，接管后不必等完一个最长轮询间隔才开始拉取
+            return cluster.isLeader() ? nextPoll(now) : now.plus(cluster.renewInterval());
+        });
+    }
+
+    void poll() {
+        Instant now = clock.instant();
+        if (!calendar.isOpen(now)) {
+            log.debug("Skip fetch: {} market closed at {}", calendar.name(), now);
+            return;
+        }
+        fetcher.fetch();
+    }
+
+    Instant nextPoll(Instant now) {
+        if (calendar.isOpen(now)) {
+            return now.plus(nextDelay(now));
+        }
+        Optional<Instant> open = calendar.nextOpen(now);
+        if (open.isEmpty()) {
+            // 日历在可预见的范围内不再开市（配置错误），退回到最长间隔定期检查
+            return now.plus(properties.getPolling().getMaxInterval());
+        }
+        log.info("{} market closed, next fetch at {}", calendar.name(), open.get());
+        return open.get();
+    }
+
+    Duration nextDelay(Instant now) {
+        GoldProperties.Polling polling = properties.getPolling();
+        Duration delay = polling.isAdaptive() ? adaptiveInterval(now, polling) : properties.getFetchInterval();
+        int budget = polling.getHourlyBudget();
+        if (budget <= 0) {
+            return delay;
+        }
+        List<Instant> calls = callLog.within(now);
+        int used = calls.size();
+        // 一轮至少每个品种请求一次；重试、对冲与交叉校验的额外请求在发生后计入窗口
+        int roundCost = Math.max(1, pipelines.all().size());
+        if (used + roundCost > budget) {
+            // 额度不够再拉一轮：等到窗口内最早的若干次请求滑出窗口，腾出一轮的额度
+            // 额度连一轮都不够（启动校验应已拒绝）时窗口为空也无从腾出，按整个窗口退避而不是让调度线程抛异常
+            int toFree = Math.min(used, used + roundCost - budget);
+            Duration untilFreed = toFree == 0
+                    ? GoldUpstreamCallLog.WINDOW
+                    : Duration.between(now, calls.get(toFree - 1).plus(GoldUpstreamCallLog.WINDOW));
+            if (untilFreed.compareTo(delay) > 0) {
+                log.info("Hourly upstream budget {} exhausted ({} calls in window), next fetch in {}s",
+                        budget, used, untilFreed.toSeconds());
+                return untilFreed;
+            }
+            return delay;
+        }
+        // 窗口内已用掉一半额度后不再低于平均间隔，加速期可以先冲刺，但不会把额度一次用光后长时间停拉
+        Duration paced = GoldUpstreamCallLog.WINDOW.multipliedBy(roundCost).dividedBy(budget);
+        if (used * 2 >= budget && delay.compareTo(paced) < 0) {
+            return paced;
+        }
+        return delay;
+    }
+
+    private Duration adaptiveInterval(Instant now, GoldProperties.Polling polling) {
+        Instant from = now.minus(polling.getVolatilityWindow());
+        int samples = (int) Math.min(
+                MAX_VOLATILITY_SAMPLES,
+                polling.getVolatilityWindow().toMillis() / polling.getMinInterval().toMillis() + 1
+        );
+        double urgency = 0;
+        for (GoldInstrumentPipeline pipeline : pipelines.all()) {
+            double volatility = realizedVolatilityPercent(pipeline.history().getRecent(samples), from);
+            urgency = Math.max(urgency, volatility / polling.getHotVolatilityPercent());
+        }
+        urgency = Math.max(urgency, thresholdUrgency(polling));
+        Duration interval = interpolate(polling.getMinInterval(), polling.getMaxInterval(), urgency);
+        log.debug("Adaptive polling urgency={} interval={}ms", urgency, interval.toMillis());
+        return interval;
+    }
+
+    private double thresholdUrgency(GoldProperties.Polling polling) {
+        Optional<GoldPriceSnapshot> latest = pipelines.primary().history().latest();
+        if (latest.isEmpty() || latest.get().price() == null) {
+            return 0;
+        }
+        Optional<BigDecimal> threshold;
+        try {
+            threshold = thresholdStore.nearestThreshold(latest.get().price());
+        } catch (RuntimeException ex) {
+            log.debug("Failed to read threshold for adaptive polling", ex);
+            return 0;
+        }
+        if (threshold.isEmpty() || threshold.get().signum() <= 0) {
+            return 0;
+        }
+        double distance = distancePercent(latest.get().price(), threshold.get());
+        return 1 - distance / polling.getThresholdProximityPercent();
+    }
+
+    // 对数收益平方和开根号（%），只统计 from 之后的快照；输入按时间倒序
+    static double realizedVolatilityPercent(List<GoldPriceSnapshot> newestFirst, Instant from) {
+        double sumOfSquares = 0;
+        BigDecimal newer = null;
+        for (GoldPriceSnapshot snapshot : newestFirst) {
+            if (snapshot.fetchedAt() == null || snapshot.fetchedAt().isBefore(from)) {
+                break;
+            }
+            BigDecimal price = snapshot.price();
+            if (price == null || price.signum() <= 0) {
+                continue;
+            }
+            if (newer != null) {
+                double logReturn = Math.log(newer.doubleValue() / price.doubleValue());
+                sumOfSquares += logReturn * logReturn;
+            }
+            newer = price;
+        }
+        return Math.sqrt(sumOfSquares) * 100;
+    }
+
+    static double distancePercent(BigDecimal price, BigDecimal threshold) {
+        return price.subtract(threshold, MATH_CONTEXT)
+                .abs()
+                .divide(threshold, MATH_CONTEXT)
+                .multiply(ONE_HUNDRED, MATH_CONTEXT)
+                .doubleValue();
+    }
+
+    // 几何插值：紧迫度 0 取 max，1 取 min，中间每增加相同的紧迫度，间隔按相同比例缩短
+    static Duration interpolate(Duration min, Duration max, double urgency) {
+        double clamped = Math.clamp(urgency, 0.0, 1.0);
+        double ratio = (double) min.toMillis() / max.toMillis();
+        return Duration.ofMillis(Math.round(max.toMillis() * Math.pow(ratio, clamped)));
+    }
+}
@@ -0,0 +1,91 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.enums.GoldCandleResolution;
+import com.xbleey.goldpricealert.model.GoldPriceCandle;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import com.xbleey.goldpricealert.repository.GoldPriceCandleStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// 容器中的实例聚合主品种；其余品种通过 forSymbol 取得共用同一存储的实例
+public class GoldPriceCandleAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(GoldPriceCandleAggregator.class);
+
+    private final GoldPriceCandleStore candleStore;
+    private final String symbol;
+
+    public GoldPriceCandleAggregator(GoldPriceCandleStore candleStore, String symbol) {
+        this.candleStore = candleStore;
+        this.symbol = symbol;
+    }
+
+    public GoldPriceCandleAggregator forSymbol(String symbol) {
+        return new GoldPriceCandleAggregator(candleStore, symbol);
+    }
+
+    // 每个新快照只需一条 upsert 语句即可同时更新所有周期的 K 线
+    public void record(GoldPriceSnapshot snapshot) {
+        if (!isValid(snapshot)) {
+            return;
+        }
+        List<GoldPriceCandle> candles = new ArrayList<>(GoldCandleResolution.values().length);
+        for (GoldCandleResolution resolution : GoldCandleResolution.values()) {
+            candles.add(toCandle(symbol, resolution, snapshot));
+        }
+        try {
+            candleStore.mergeAll(candles);
+        } catch (Exception ex) {
+            // K 线是派生数据，写入失败不影响快照入库，可通过回填任务修复
+            log.warn("Failed to update {} price candles for snapshot at {}", symbol, snapshot.getFetchedAt(), ex);
+        }
+    }
+
+    public static final class Rollup {
+
+        private final String symbol;
+        private final Map<String, GoldPriceCandle> candles = new LinkedHashMap<>();
+
+        public Rollup(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public void accept(GoldPriceSnapshot snapshot) {
+            if (!isValid(snapshot)) {
+                return;
+            }
+            for (GoldCandleResolution resolution : GoldCandleResolution.values()) {
+                GoldPriceCandle candle = toCandle(symbol, resolution, snapshot);
+                String key = resolution.getCode() + "@" + candle.getBucketStart().toEpochMilli();
+                candles.merge(key, candle, (current, next) -> {
+                    current.merge(next);
+                    return current;
+                });
+            }
+        }
+
+        public List<GoldPriceCandle> candles() {
+            return candles.values().stream()
+                    .sorted(Comparator.comparing(GoldPriceCandle::getResolution)
+                            .thenComparing(GoldPriceCandle::getBucketStart))
+                    .toList();
+        }
+    }
+
+    // 品种取所属处理链的配置而非快照中上游返回的 symbol，与快照表按品种分区的口径一致
+    private static GoldPriceCandle toCandle(String symbol, GoldCandleResolution resolution, GoldPriceSnapshot snapshot) {
+        Instant fetchedAt = snapshot.getFetchedAt();
+        return GoldPriceCandle.ofTick(symbol, resolution.getCode(), resolution.bucketStart(fetchedAt), fetchedAt, snapshot.getPrice());
+    }
+
+    private static boolean isValid(GoldPriceSnapshot snapshot) {
+        return snapshot != null && snapshot.getFetchedAt() != null && snapshot.getPrice() != null;
+    }
+}
@@ -0,0 +1,115 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.enums.GoldCandleResolution;
+import com.xbleey.goldpricealert.model.GoldPriceCandle;
+import com.xbleey.goldpricealert.repository.GoldPriceCandleStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+public class GoldPriceCandleBackfillService {
+
+    private static final Logger log = LoggerFactory.getLogger(GoldPriceCandleBackfillService.class);
+    private static final Duration CHUNK = GoldCandleResolution.ONE_DAY.getDuration();
+    // 周期结束后仍可能有排在入库阶段里的行情写入，结束不足该时长的周期也视为未收盘
+    private static final Duration SETTLE = Duration.ofMinutes(5);
+
+    private final GoldPriceCandleStore candleStore;
+    private final Executor executor;
+    private final Clock clock;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public GoldPriceCandleBackfillService(
+            GoldPriceCandleStore candleStore,
+            @Qualifier("candleBackfillExecutor") Executor executor,
+            Clock clock
+    ) {
+        this.candleStore = candleStore;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    // 从 history（symbol 品种的历史）重算该品种的 K 线。
+    // 按 UTC 自然日切块并行重算，块边界与所有周期对齐，因此每个块产出的 K 线都是完整的，可直接覆盖写入。
+    // 尚未收盘的周期仍在被实时聚合合并写入，覆盖会丢掉回填期间到达的行情，这些 K 线跳过不写
+    public BackfillResult backfill(String symbol, GoldPriceHistory history, Instant fromInclusive, Instant toExclusive) {
+        if (fromInclusive == null || toExclusive == null || !fromInclusive.isBefore(toExclusive)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("candle backfill is already running");
+        }
+        try {
+            Instant alignedFrom = GoldCandleResolution.ONE_DAY.bucketStart(fromInclusive);
+            Instant closedBefore = clock.instant().minus(SETTLE);
+            List<CompletableFuture<ChunkResult>> chunks = new ArrayList<>();
+            for (Instant start = alignedFrom; start.isBefore(toExclusive); start = start.plus(CHUNK)) {
+                Instant chunkStart = start;
+                chunks.add(CompletableFuture.supplyAsync(
+                        () -> backfillChunk(symbol, history, chunkStart, chunkStart.plus(CHUNK), closedBefore),
+                        executor
+                ));
+            }
+            int candles = 0;
+            int skippedOpen = 0;
+            for (CompletableFuture<ChunkResult> chunk : chunks) {
+                ChunkResult result = chunk.join();
+                candles += result.written();
+                skippedOpen += result.skippedOpen();
+            }
+            log.info("Gold price candle backfill finished: symbol={}, from={}, to={}, chunks={}, candles={}, skippedOpen={}",
+                    symbol, alignedFrom, toExclusive, chunks.size(), candles, skippedOpen);
+            return new BackfillResult(
+                    alignedFrom,
+                    alignedFrom.plus(CHUNK.multipliedBy(chunks.size())),
+                    chunks.size(),
+                    candles,
+                    skippedOpen
+            );
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException runtime ? runtime : ex;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ChunkResult backfillChunk(
+            String symbol,
+            GoldPriceHistory history,
+            Instant fromInclusive,
+            Instant toExclusive,
+            Instant closedBefore
+    ) {
+        GoldPriceCandleAggregator.Rollup rollup = new GoldPriceCandleAggregator.Rollup(symbol);
+        history.forEachInRange(fromInclusive, toExclusive, rollup::accept);
+        List<GoldPriceCandle> all = rollup.candles();
+        List<GoldPriceCandle> closed = all.stream()
+                .filter(candle -> isClosed(candle, closedBefore))
+                .toList();
+        candleStore.replaceAll(closed);
+        return new ChunkResult(closed.size(), all.size() - closed.size());
+    }
+
+    private static boolean isClosed(GoldPriceCandle candle, Instant closedBefore) {
+        Duration duration = GoldCandleResolution.fromCode(candle.getResolution()).getDuration();
+        return !candle.getBucketStart().plus(duration).isAfter(closedBefore);
+    }
+
+    private record ChunkResult(int written, int skippedOpen) {
+    }
+
+    public record BackfillResult(Instant from, Instant to, int chunks, int candles, int skippedOpen) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.xbleey.goldpricealert.service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+// 涨跌幅运算。changePercent 是告警规则的定义（BigDecimal，12 位有效数字），用于告警文案与记录；
+// 评估热路径改用定点整数：价格按 10^-4 缩放为 long，阈值按基点（0.01%）表示为 long，
+// |latest - reference| / reference × 100% ≥ threshold 化为 |L - R| × 10^4 ≥ T × R 的整数比较
+public final class GoldPriceChangeMath {
+
+    private static final MathContext MATH_CONTEXT = new MathContext(12, RoundingMode.HALF_UP);
+    static final int PRICE_SCALE = 4;
+    static final long NOT_REPRESENTABLE = Long.MIN_VALUE;
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+    private static final long BASIS_POINTS_PER_UNIT = 10_000L;
+    // 缩放后不超过 11 位，差值在 12 位有效数字内可精确表示；乘以阈值后仍远小于 Long.MAX_VALUE
+    private static final long MAX_SCALED_PRICE = 99_999_999_999L;
+    private static final long MAX_BASIS_POINTS = 1_000_000L;
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L};
+
+    private GoldPriceChangeMath() {
+    }
+
+    public static BigDecimal changePercent(BigDecimal referencePrice, BigDecimal latestPrice) {
+        return latestPrice
+                .subtract(referencePrice, MATH_CONTEXT)
+                .divide(referencePrice, MATH_CONTEXT)
+                .multiply(ONE_HUNDRED, MATH_CONTEXT);
+    }
+
+    // 小数位超过 4 位或数值过大时返回 NOT_REPRESENTABLE，由调用方回退到 BigDecimal
+    static long scalePrice(BigDecimal price) {
+        if (price == null) {
+            return NOT_REPRESENTABLE;
+        }
+        int scale = price.scale();
+        if (scale < 0 || scale > PRICE_SCALE || price.precision() > 14) {
+            return scaleSlow(price, PRICE_SCALE, MAX_SCALED_PRICE);
+        }
+        long scaled = price.unscaledValue().longValue() * POWERS_OF_TEN[PRICE_SCALE - scale];
+        return Math.abs(scaled) > MAX_SCALED_PRICE ? NOT_REPRESENTABLE : scaled;
+    }
+
+    static long basisPoints(BigDecimal thresholdPercent) {
+        if (thresholdPercent == null || thresholdPercent.signum() < 0) {
+            return NOT_REPRESENTABLE;
+        }
+        return scaleSlow(thresholdPercent, 2, MAX_BASIS_POINTS);
+    }
+
+    // 与 changePercent(reference, latest).abs().compareTo(threshold) >= 0 的结论一致；
+    // BigDecimal 的除法按 12 位有效数字舍入，相对误差不超过 5e-12，两者只可能在 |X - Y| ≤ 5e-12·X 的临界区内分歧，
+    // 该区间（放宽到 2^-36 ≈ 1.46e-11）内返回 UNDECIDED
+    static Comparison compare(long latest, long reference, long thresholdBasisPoints) {
+        if (reference <= 0) {
+            return Comparison.BELOW;
+        }
+        long move = Math.abs(latest - reference) * BASIS_POINTS_PER_UNIT;
+        long bound = thresholdBasisPoints * reference;
+        long gap = move - bound;
+        if (Math.abs(gap) <= (move >> 36)) {
+            return Comparison.UNDECIDED;
+        }
+        return gap > 0 ? Comparison.AT_OR_ABOVE : Comparison.BELOW;
+    }
+
+    private static long scaleSlow(BigDecimal value, int scale, long max) {
+        BigDecimal scaled = value.movePointRight(scale);
+        if (scaled.signum() != 0 && scaled.stripTrailingZeros().scale() > 0) {
+            return NOT_REPRESENTABLE;
+        }
+        if (scaled.abs().compareTo(BigDecimal.valueOf(max)) > 0) {
+            return NOT_REPRESENTABLE;
+        }
+        return scaled.longValue();
+    }
+
+    enum Comparison {
+        BELOW,
+        AT_OR_ABOVE,
+        UNDECIDED
+    }
+}
@@ -0,0 +1,129 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.config.GoldProperties;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+// 单个报价来源的熔断器。CLOSED：统计最近 window 次调用，失败（含超过 slow-call-duration 的慢调用）比例达到阈值后打开；
+// OPEN：open-duration 内直接拒绝；到期后进入 HALF_OPEN，只放行一个探测请求，成功即关闭，失败则重新打开
+public class GoldPriceCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final GoldProperties.CircuitBreaker settings;
+    private final Clock clock;
+    // 环形记录最近的调用结果，true 表示失败或慢调用
+    private final boolean[] outcomes;
+    private int next;
+    private int size;
+    private int failures;
+    private State state = State.CLOSED;
+    private Instant openedAt;
+    private boolean probeInFlight;
+
+    public GoldPriceCircuitBreaker(GoldProperties.CircuitBreaker settings, Clock clock) {
+        this.settings = settings;
+        this.clock = clock;
+        this.outcomes = new boolean[settings.getWindow()];
+    }
+
+    // 返回 true 时调用方必须在请求结束后调用 onSuccess 或 onFailure
+    public synchronized boolean tryAcquire() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> {
+                if (clock.instant().isBefore(retryAt())) {
+                    yield false;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                yield true;
+            }
+            case HALF_OPEN -> {
+                if (probeInFlight) {
+                    yield false;
+                }
+                probeInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    public synchronized void onSuccess(Duration latency) {
+        if (latency.compareTo(settings.getSlowCallDuration()) > 0) {
+            onFailure();
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            close();
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+        record(true);
+    }
+
+    public synchronized Status status() {
+        return new Status(state, size, failureRatePercent(), state == State.CLOSED ? null : retryAt());
+    }
+
+    private void record(boolean failed) {
+        if (size == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            size++;
+        }
+        outcomes[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+        // 达到最少调用数的那一次即使成功也要判断，否则失败率已超阈值的窗口要等下一次失败才打开
+        if (size >= settings.getMinimumCalls() && failureRatePercent() >= settings.getFailureRateThreshold()) {
+            open();
+        }
+    }
+
+    private double failureRatePercent() {
+        return size == 0 ? 0 : failures * 100.0 / size;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.instant();
+        probeInFlight = false;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        openedAt = null;
+        probeInFlight = false;
+        next = 0;
+        size = 0;
+        failures = 0;
+    }
+
+    private Instant retryAt() {
+        return openedAt.plus(settings.getOpenDuration());
+    }
+
+    public record Status(State state, int calls, double failureRatePercent, Instant retryAt) {
+    }
+}
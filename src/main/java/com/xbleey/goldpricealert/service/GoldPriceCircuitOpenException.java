@@ -0,0 +1,11 @@
+package com.xbleey.goldpricealert.service;
+
+import java.io.IOException;
+
+// 所有来源的熔断器都处于打开状态，本次没有发出任何请求；调用方不应重试，等待熔断器放行探测请求
+public class GoldPriceCircuitOpenException extends IOException {
+
+    public GoldPriceCircuitOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,68 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 各品种最近一次多来源交叉校验的结果，展示在 /health/ready。偏差超过 gold.hedge.max-deviation-percent 时计为可疑行情：
+// 定时交叉校验的行情由 GoldPriceFetcher 在入库前打上 priceSuspect 标记，基于它的告警随之带上标记；
+// 对冲或故障转移后晚到的响应在行情入库之后才比较完，只记录在此
+@Component
+public class GoldPriceCrossCheckMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(GoldPriceCrossCheckMonitor.class);
+
+    private final Map<String, Status> statuses = new ConcurrentHashMap<>();
+
+    // 没有其他来源参与比较（checks 为空）时不更新状态
+    public void record(String symbol, GoldPriceSnapshot tick, String provider, List<GoldPriceHedger.CrossCheck> checks) {
+        if (symbol == null || tick == null || checks == null || checks.isEmpty()) {
+            return;
+        }
+        boolean mismatch = checks.stream().anyMatch(GoldPriceHedger.CrossCheck::mismatch);
+        BigDecimal maxDeviation = checks.stream()
+                .map(GoldPriceHedger.CrossCheck::deviationPercent)
+                .max(BigDecimal::compareTo)
+                .orElse(BigDecimal.ZERO);
+        statuses.compute(symbol, (ignored, previous) -> {
+            long suspectTicks = previous == null ? 0 : previous.suspectTicks();
+            Instant lastSuspectAt = previous == null ? null : previous.lastSuspectAt();
+            if (mismatch) {
+                suspectTicks++;
+                lastSuspectAt = tick.fetchedAt();
+            }
+            return new Status(tick.fetchedAt(), provider, tick.price(), maxDeviation, mismatch, List.copyOf(checks),
+                    suspectTicks, lastSuspectAt);
+        });
+        if (mismatch) {
+            log.warn("Marked {} tick at {} from {} ({}) as suspect: providers disagree by up to {}%",
+                    symbol, tick.fetchedAt(), provider, tick.price(), maxDeviation.toPlainString());
+        }
+    }
+
+    // 按品种排序；尚未做过交叉校验的品种不在其中
+    public Map<String, Status> status() {
+        return new TreeMap<>(statuses);
+    }
+
+    // fetchedAt / provider / price 为最近一次被校验的行情及其胜出来源；suspectTicks 为累计被标记为可疑的行情数
+    public record Status(
+            Instant fetchedAt,
+            String provider,
+            BigDecimal price,
+            BigDecimal maxDeviationPercent,
+            boolean mismatch,
+            List<GoldPriceHedger.CrossCheck> checks,
+            long suspectTicks,
+            Instant lastSuspectAt
+    ) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// M4 降采样：把时间范围均分为 maxPoints/4 个桶，每桶只保留首、末、最高、最低四个原始点，
+// 折线的视觉形状（尖峰、区间振幅）不丢失；要求输入按 fetchedAt 升序，单次遍历、内存与桶数成正比
+public class GoldPriceDownsampler {
+
+    public static final int POINTS_PER_BUCKET = 4;
+
+    private final long fromMillis;
+    private final long bucketMillis;
+    private final List<GoldPriceSnapshot> points;
+    private long rawCount;
+    private long currentBucket = -1;
+    private GoldPriceSnapshot first;
+    private GoldPriceSnapshot last;
+    private GoldPriceSnapshot min;
+    private GoldPriceSnapshot max;
+
+    public GoldPriceDownsampler(Instant fromInclusive, Instant toExclusive, int maxPoints) {
+        if (fromInclusive == null || toExclusive == null || !fromInclusive.isBefore(toExclusive)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (maxPoints < POINTS_PER_BUCKET) {
+            throw new IllegalArgumentException("maxPoints must be >= " + POINTS_PER_BUCKET);
+        }
+        int buckets = maxPoints / POINTS_PER_BUCKET;
+        long span = toExclusive.toEpochMilli() - fromInclusive.toEpochMilli();
+        this.fromMillis = fromInclusive.toEpochMilli();
+        this.bucketMillis = Math.max(1L, Math.ceilDiv(span, buckets));
+        this.points = new ArrayList<>(Math.min(maxPoints, 4096));
+    }
+
+    public void accept(GoldPriceSnapshot snapshot) {
+        if (snapshot == null || snapshot.getFetchedAt() == null || snapshot.getPrice() == null) {
+            return;
+        }
+        rawCount++;
+        long bucket = Math.floorDiv(snapshot.getFetchedAt().toEpochMilli() - fromMillis, bucketMillis);
+        if (bucket != currentBucket) {
+            flushBucket();
+            currentBucket = bucket;
+            first = snapshot;
+            min = snapshot;
+            max = snapshot;
+        }
+        last = snapshot;
+        if (snapshot.getPrice().compareTo(min.getPrice()) < 0) {
+            min = snapshot;
+        }
+        if (snapshot.getPrice().compareTo(max.getPrice()) > 0) {
+            max = snapshot;
+        }
+    }
+
+    public List<GoldPriceSnapshot> result() {
+        flushBucket();
+        return List.copyOf(points);
+    }
+
+    public long rawCount() {
+        return rawCount;
+    }
+
+    private void flushBucket() {
+        if (first == null) {
+            return;
+        }
+        // 四个点按时间顺序输出并去重，保证结果仍是升序折线
+        GoldPriceSnapshot[] candidates = {first, min, max, last};
+        Arrays.sort(candidates, Comparator.comparing(GoldPriceSnapshot::getFetchedAt));
+        GoldPriceSnapshot previous = null;
+        for (GoldPriceSnapshot candidate : candidates) {
+            if (candidate != previous) {
+                points.add(candidate);
+                previous = candidate;
+            }
+        }
+        first = null;
+        last = null;
+        min = null;
+        max = null;
+    }
+}
@@ -1,232 +1,276 @@
 package com.xbleey.goldpricealert.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.xbleey.goldpricealert.config.GoldProperties;
-import com.xbleey.goldpricealert.model.GoldApiResponse;
 import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.time.Clock;
-import java.time.DayOfWeek;
 import java.time.Duration;
 import java.time.Instant;
-import java.time.LocalDate;
-import java.time.Month;
-import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class GoldPriceFetcher {
 
     private static final Logger log = LoggerFactory.getLogger(GoldPriceFetcher.class);
     private static final int MAX_FETCH_ATTEMPTS = 4;
-    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
-
-    private final OkHttpClient okHttpClient;
-    private final ObjectMapper objectMapper;
-    private final GoldProperties properties;
-    private final GoldPriceHistory history;
-    private final GoldAlertEvaluator evaluator;
-    private final GoldThresholdAlertEvaluator thresholdEvaluator;
-    private final GoldApiStatusMonitor apiStatusMonitor;
-    private final FetchRetrySleeper retrySleeper;
+    private static final Duration RETRY_BASE_DELAY = Duration.ofSeconds(5);
+    private static final Duration RETRY_MAX_DELAY = Duration.ofSeconds(60);
+
+    private final GoldInstrumentPipelines pipelines;
+    private final GoldPriceHedger hedger;
+    private final GoldClusterCoordinator cluster;
+    private final GoldPipelineStages stages;
+    private final FetchRetryScheduler retryScheduler;
+    private final GoldPriceCrossCheckMonitor crossCheckMonitor;
+    private final Executor fetchExecutor;
     private final Clock clock;
+    private final DateTimeFormatter updatedAtFormatter;
+    private final Map<String, AtomicReference<CompletableFuture<Optional<GoldPriceSnapshot>>>> inFlight = new ConcurrentHashMap<>();
 
     public GoldPriceFetcher(
-            OkHttpClient okHttpClient,
-            ObjectMapper objectMapper,
-            GoldProperties properties,
-            GoldPriceHistory history,
-            GoldAlertEvaluator evaluator,
-            GoldThresholdAlertEvaluator thresholdEvaluator,
-            GoldApiStatusMonitor apiStatusMonitor,
-            FetchRetrySleeper retrySleeper,
+            GoldInstrumentPipelines pipelines,
+            GoldPriceHedger hedger,
+            GoldClusterCoordinator cluster,
+            GoldPipelineStages stages,
+            FetchRetryScheduler retryScheduler,
+            GoldPriceCrossCheckMonitor crossCheckMonitor,
+            @Qualifier("goldFetchExecutor") Executor fetchExecutor,
             Clock clock
     ) {
-        this.okHttpClient = okHttpClient;
-        this.objectMapper = objectMapper;
-        this.properties = properties;
-        this.history = history;
-        this.evaluator = evaluator;
-        this.thresholdEvaluator = thresholdEvaluator;
-        this.apiStatusMonitor = apiStatusMonitor;
-        this.retrySleeper = retrySleeper;
+        this.pipelines = pipelines;
+        this.hedger = hedger;
+        this.cluster = cluster;
+        this.stages = stages;
+        this.retryScheduler = retryScheduler;
+        this.crossCheckMonitor = crossCheckMonitor;
+        this.fetchExecutor = fetchExecutor;
         this.clock = clock;
+        this.updatedAtFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(clock.getZone());
     }
 
-    @Scheduled(fixedDelayString = "#{@goldProperties.fetchInterval.toMillis()}")
-    public void fetch() {
-        if (!shouldFetchNow()) {
-            return;
+    // 由 GoldPollingScheduler 在交易时段内按自适应间隔触发；只发起一轮拉取就返回，重试由 retryScheduler 延迟续接，
+    // 调度线程不会被故障期间的退避等待占住。返回本次是否实际发起了拉取（非 leader 实例跳过）
+    public boolean fetch() {
+        if (!cluster.isLeader()) {
+            log.debug("Skip fetch: instance {} is not the cluster leader", cluster.instanceId());
+            return false;
         }
-        fetchOnce();
+        fetchAllAsync();
+        return true;
     }
 
     public Optional<GoldPriceSnapshot> fetchOnce() {
-        Request request = new Request.Builder()
-                .url(properties.getApiUrl().toString())
-                .get()
-                .build();
-        String lastFailureDetail = null;
-        for (int attempt = 1; attempt <= MAX_FETCH_ATTEMPTS; attempt++) {
-            FetchAttemptResult result = executeFetch(request);
-            if (result.snapshot() != null) {
-                GoldPriceSnapshot snapshot = result.snapshot();
-                apiStatusMonitor.recordSuccess();
-                boolean stored = history.addIfPriceChanged(snapshot);
-                if (!stored) {
-                    log.info("Fetched gold price unchanged: {} time:{}, skip persisting", snapshot.price(), result.updatedAtFormatted());
-                    return Optional.of(snapshot);
-                }
-                boolean alerted = evaluator.evaluate(snapshot);
-                if (thresholdEvaluator != null) {
-                    thresholdEvaluator.evaluate(snapshot);
-                }
-                if (!alerted) {
-                    log.info("Fetched gold price: {} time:{}", snapshot.price(), result.updatedAtFormatted());
-                }
-                return Optional.of(snapshot);
+        return fetchAsync().join();
+    }
+
+    public CompletableFuture<Optional<GoldPriceSnapshot>> fetchAsync() {
+        return fetchAsync(pipelines.primary());
+    }
+
+    // 所有品种并发拉取，整轮耗时取决于最慢的品种；结果按配置顺序以 symbol 为键
+    public CompletableFuture<Map<String, Optional<GoldPriceSnapshot>>> fetchAllAsync() {
+        Map<String, CompletableFuture<Optional<GoldPriceSnapshot>>> futures = new LinkedHashMap<>();
+        for (GoldInstrumentPipeline pipeline : pipelines.all()) {
+            futures.put(pipeline.symbol(), fetchAsync(pipeline));
+        }
+        return CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    Map<String, Optional<GoldPriceSnapshot>> results = new LinkedHashMap<>();
+                    futures.forEach((symbol, future) -> results.put(symbol, future.join()));
+                    return results;
+                });
+    }
+
+    // 同一品种同一时刻只有一轮拉取（含重试）在途，重叠的调用复用同一个 future。
+    // follower 不请求上游，直接返回本地缓冲中由 leader 同步过来的最新行情
+    public CompletableFuture<Optional<GoldPriceSnapshot>> fetchAsync(GoldInstrumentPipeline pipeline) {
+        if (!cluster.isLeader()) {
+            return CompletableFuture.completedFuture(pipeline.history().latest());
+        }
+        AtomicReference<CompletableFuture<Optional<GoldPriceSnapshot>>> slot =
+                inFlight.computeIfAbsent(pipeline.symbol(), ignored -> new AtomicReference<>());
+        CompletableFuture<Optional<GoldPriceSnapshot>> created = new CompletableFuture<>();
+        while (true) {
+            CompletableFuture<Optional<GoldPriceSnapshot>> current = slot.get();
+            if (current != null && !current.isDone()) {
+                log.debug("Gold price fetch already in flight for {}, reuse it", pipeline.symbol());
+                return current;
             }
-            lastFailureDetail = result.failureDetail();
-            if (attempt == MAX_FETCH_ATTEMPTS) {
+            if (slot.compareAndSet(current, created)) {
                 break;
             }
-            log.warn(
-                    "Failed to fetch gold price on attempt {}/{}, retrying in {}s: {}",
-                    attempt,
-                    MAX_FETCH_ATTEMPTS,
-                    RETRY_DELAY.toSeconds(),
-                    lastFailureDetail
-            );
-            if (!pauseBeforeRetry(attempt)) {
-                apiStatusMonitor.recordFailure("Retry interrupted");
-                return Optional.empty();
-            }
         }
-        apiStatusMonitor.recordFailure(lastFailureDetail);
-        return Optional.empty();
+        startAttempt(pipeline, 1, created);
+        return created;
     }
 
-    private boolean shouldFetchNow() {
-        Instant now = Instant.now(clock);
-        LocalDate utcDate = now.atZone(ZoneOffset.UTC).toLocalDate();
-        if (!isTradingDayUtc(utcDate)) {
-            log.debug("Skip fetch: outside trading day (UTC), date={}", utcDate);
-            return false;
+    // 主品种最近一轮拉取，供测试等待定时触发的异步拉取结束
+    CompletableFuture<Optional<GoldPriceSnapshot>> lastFetch() {
+        AtomicReference<CompletableFuture<Optional<GoldPriceSnapshot>>> slot = inFlight.get(pipelines.primary().symbol());
+        return slot == null ? null : slot.get();
+    }
+
+    // 每次尝试在独立的虚拟线程上执行（含多来源对冲），阻塞只挂起虚拟线程；全部来源都失败才算一次失败的尝试
+    private void startAttempt(
+            GoldInstrumentPipeline pipeline,
+            int attempt,
+            CompletableFuture<Optional<GoldPriceSnapshot>> result
+    ) {
+        try {
+            fetchExecutor.execute(() -> onAttemptFinished(pipeline, attempt, executeFetch(pipeline), result));
+        } catch (RuntimeException ex) {
+            log.warn("Gold price fetch for {} could not be started on attempt {}", pipeline.symbol(), attempt, ex);
+            pipeline.apiStatusMonitor().recordFailure("Fetch not started: " + describe(ex));
+            result.complete(Optional.empty());
         }
-        return true;
     }
 
-    private FetchAttemptResult executeFetch(Request request) {
-        try (Response httpResponse = okHttpClient.newCall(request).execute()) {
-            if (!httpResponse.isSuccessful()) {
-                String errorDetail = "HTTP status " + httpResponse.code();
-                log.warn("Gold API returned http status {}", httpResponse.code());
-                return FetchAttemptResult.failure(errorDetail);
+    private void onAttemptFinished(
+            GoldInstrumentPipeline pipeline,
+            int attempt,
+            FetchAttemptResult outcome,
+            CompletableFuture<Optional<GoldPriceSnapshot>> result
+    ) {
+        try {
+            if (outcome.snapshot() != null) {
+                result.complete(Optional.of(handleSuccess(pipeline, outcome)));
+                return;
             }
-            if (httpResponse.body() == null) {
-                log.warn("Gold API returned empty body");
-                return FetchAttemptResult.failure("Empty response body");
+            // 熔断打开时重试只会再次被拒绝，直接结束本轮，由探测请求决定何时恢复
+            if (attempt == MAX_FETCH_ATTEMPTS || outcome.circuitOpen()) {
+                pipeline.apiStatusMonitor().recordFailure(outcome.failureDetail());
+                result.complete(Optional.empty());
+                return;
             }
-            GoldApiResponse response = objectMapper.readValue(
-                    httpResponse.body().byteStream(),
-                    GoldApiResponse.class
+            Duration delay = retryDelay(attempt, ThreadLocalRandom.current().nextDouble());
+            log.warn(
+                    "Failed to fetch {} price on attempt {}/{}, retrying in {}ms: {}",
+                    pipeline.symbol(),
+                    attempt,
+                    MAX_FETCH_ATTEMPTS,
+                    delay.toMillis(),
+                    outcome.failureDetail()
             );
-            Instant fetchedAt = Instant.now(clock);
-            GoldPriceSnapshot snapshot = new GoldPriceSnapshot(fetchedAt, response);
-            String updatedAtFormatted = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
-                    .withZone(clock.getZone())
-                    .format(response.updatedAt());
-            return FetchAttemptResult.success(snapshot, updatedAtFormatted);
-        } catch (Exception ex) {
-            log.warn("Failed to fetch gold price", ex);
-            return FetchAttemptResult.failure(ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage());
+            scheduleRetry(pipeline, attempt, delay, result);
+        } catch (RuntimeException ex) {
+            log.warn("Gold price fetch for {} failed on attempt {}", pipeline.symbol(), attempt, ex);
+            result.completeExceptionally(ex);
         }
     }
 
-    private boolean pauseBeforeRetry(int attempt) {
+    private void scheduleRetry(
+            GoldInstrumentPipeline pipeline,
+            int attempt,
+            Duration delay,
+            CompletableFuture<Optional<GoldPriceSnapshot>> result
+    ) {
         try {
-            retrySleeper.pause(RETRY_DELAY);
-            return true;
-        } catch (InterruptedException ex) {
-            Thread.currentThread().interrupt();
-            log.warn("Gold price fetch retry interrupted on attempt {}", attempt, ex);
-            return false;
+            retryScheduler.schedule(() -> startAttempt(pipeline, attempt + 1, result), delay);
+        } catch (RuntimeException ex) {
+            // 调度器关闭（应用停机）等情况下放弃本轮，等待下一次定时拉取
+            log.warn("Gold price fetch retry for {} could not be scheduled on attempt {}", pipeline.symbol(), attempt, ex);
+            pipeline.apiStatusMonitor().recordFailure("Retry not scheduled: " + describe(ex));
+            result.complete(Optional.empty());
         }
     }
 
-    private static boolean isTradingDayUtc(LocalDate utcDate) {
-        DayOfWeek dayOfWeek = utcDate.getDayOfWeek();
-        if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) {
-            return false;
-        }
-        return !isLondonHoliday(utcDate);
+    // 行情交给 GoldPipelineStages 后本轮拉取即结束，入库、评估与邮件发送不占用拉取线程，也不推迟下一次拉取
+    private GoldPriceSnapshot handleSuccess(GoldInstrumentPipeline pipeline, FetchAttemptResult result) {
+        GoldPriceSnapshot snapshot = result.snapshot();
+        pipeline.apiStatusMonitor().recordSuccess();
+        stages.submit(pipeline, snapshot, () -> cluster.publish(snapshot)).whenComplete((ingested, ex) -> {
+            if (ex != null) {
+                log.warn("Failed to process fetched {} price: {} time:{}",
+                        pipeline.symbol(), snapshot.price(), result.updatedAtFormatted(), ex);
+            } else if (ingested == GoldInstrumentPipeline.Ingested.NOT_NEWER) {
+                log.info("Fetched {} tick not newer than stored: {} time:{}, skip persisting",
+                        pipeline.symbol(), snapshot.price(), result.updatedAtFormatted());
+            } else if (ingested == GoldInstrumentPipeline.Ingested.STORED) {
+                log.info("Fetched {} price: {} time:{}", pipeline.symbol(), snapshot.price(), result.updatedAtFormatted());
+            }
+        });
+        return snapshot;
     }
 
-    private static boolean isLondonHoliday(LocalDate date) {
-        int year = date.getYear();
-        if (isFixedOrObservedHoliday(date, Month.JANUARY, 1)) {
-            return true;
-        }
-        if (date.equals(observedDate(LocalDate.of(year + 1, Month.JANUARY, 1)))) {
-            return true;
-        }
-        if (isFixedOrObservedHoliday(date, Month.DECEMBER, 25)) {
-            return true;
-        }
-        if (isFixedOrObservedHoliday(date, Month.DECEMBER, 26)) {
-            return true;
+    private FetchAttemptResult executeFetch(GoldInstrumentPipeline pipeline) {
+        try {
+            GoldPriceHedger.HedgedResponse hedged = hedger.fetch(pipeline.providers());
+            GoldPriceSnapshot snapshot = hedged.snapshot();
+            if (hedged.hedged()) {
+                log.info("Fetched {} price from hedged provider {}", pipeline.symbol(), hedged.provider());
+            }
+            snapshot.setFetchedAt(Instant.now(clock));
+            // 以配置的品种代码为键（上游返回的 symbol 不区分计价货币）
+            snapshot.setSymbol(pipeline.symbol());
+            if (hedged.crossCheckRound()) {
+                // 定时交叉校验：全部来源同时请求，等齐后再入库（最长到 HTTP 超时），偏差超限的行情标记为可疑，
+                // 基于它触发的告警、邮件与告警历史都会带上标记
+                List<GoldPriceHedger.CrossCheck> checks = hedged.crossChecks().join();
+                snapshot.setPriceSuspect(checks.stream().anyMatch(GoldPriceHedger.CrossCheck::mismatch));
+                crossCheckMonitor.record(pipeline.symbol(), snapshot, hedged.provider(), checks);
+            } else {
+                // 对冲或故障转移后晚到的响应只记录校验结果，等待它会抵消对冲的意义，行情照常入库
+                hedged.crossChecks().thenAccept(checks ->
+                        crossCheckMonitor.record(pipeline.symbol(), snapshot, hedged.provider(), checks));
+            }
+            String updatedAtFormatted = snapshot.getUpdatedAt() == null
+                    ? "-"
+                    : updatedAtFormatter.format(snapshot.getUpdatedAt());
+            return FetchAttemptResult.success(snapshot, updatedAtFormatted);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return FetchAttemptResult.failure("Fetch interrupted");
+        } catch (GoldPriceCircuitOpenException ex) {
+            log.debug("Skip {} fetch: {}", pipeline.symbol(), ex.getMessage());
+            return FetchAttemptResult.rejected(describe(ex));
+        } catch (IOException ex) {
+            // 各来源的失败已由 GoldPriceHedger 逐个记录
+            return FetchAttemptResult.failure(describe(ex));
+        } catch (Exception ex) {
+            log.warn("Failed to fetch {} price", pipeline.symbol(), ex);
+            return FetchAttemptResult.failure(describe(ex));
         }
-        LocalDate easterSunday = easterSunday(year);
-        return date.equals(easterSunday.minusDays(2)) || date.equals(easterSunday.plusDays(1));
-    }
-
-    private static boolean isFixedOrObservedHoliday(LocalDate date, Month month, int dayOfMonth) {
-        LocalDate holiday = LocalDate.of(date.getYear(), month, dayOfMonth);
-        return date.equals(holiday) || date.equals(observedDate(holiday));
     }
 
-    private static LocalDate observedDate(LocalDate date) {
-        return switch (date.getDayOfWeek()) {
-            case SATURDAY -> date.minusDays(1);
-            case SUNDAY -> date.plusDays(1);
-            default -> date;
-        };
+    // 第 n 次失败后等待 [d/2, d]，d = min(5s * 2^(n-1), 60s)
+    static Duration retryDelay(int attempt, double jitter) {
+        return FetchRetryScheduler.backoff(RETRY_BASE_DELAY, RETRY_MAX_DELAY, attempt, jitter);
     }
 
-    private static LocalDate easterSunday(int year) {
-        int a = year % 19;
-        int b = year / 100;
-        int c = year % 100;
-        int d = b / 4;
-        int e = b % 4;
-        int f = (b + 8) / 25;
-        int g = (b - f + 1) / 3;
-        int h = (19 * a + b - d - g + 15) % 30;
-        int i = c / 4;
-        int k = c % 4;
-        int l = (32 + 2 * e + 2 * i - h - k) % 7;
-        int m = (a + 11 * h + 22 * l) / 451;
-        int month = (h + l - 7 * m + 114) / 31;
-        int day = ((h + l - 7 * m + 114) % 31) + 1;
-        return LocalDate.of(year, month, day);
+    private static String describe(Exception ex) {
+        return ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage();
     }
 
-    private record FetchAttemptResult(GoldPriceSnapshot snapshot, String updatedAtFormatted, String failureDetail) {
+    private record FetchAttemptResult(
+            GoldPriceSnapshot snapshot,
+            String updatedAtFormatted,
+            String failureDetail,
+            boolean circuitOpen
+    ) {
 
         private static FetchAttemptResult success(GoldPriceSnapshot snapshot, String updatedAtFormatted) {
-            return new FetchAttemptResult(snapshot, updatedAtFormatted, null);
+            return new FetchAttemptResult(snapshot, updatedAtFormatted, null, false);
         }
 
         private static FetchAttemptResult failure(String failureDetail) {
-            return new FetchAttemptResult(null, null, failureDetail);
+            return new FetchAttemptResult(null, null, failureDetail, false);
+        }
+
+        private static FetchAttemptResult rejected(String failureDetail) {
+            return new FetchAttemptResult(null, null, failureDetail, true);
         }
     }
 }
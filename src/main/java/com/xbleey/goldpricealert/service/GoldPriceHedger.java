@@ -0,0 +1,305 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.config.GoldProperties;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 多来源取价：按优先级启动来源，当前来源超过其近期延迟分位仍未返回时对冲下一个，失败则立即切换，第一个有效响应胜出。
+// 晚到的其他来源响应用于与胜出价格交叉校验，结果由 GoldPriceFetcher 交给 GoldPriceCrossCheckMonitor；
+// 另外每隔 cross-check-interval 同时请求全部来源一次，这一轮的行情等校验完成后才入库
+@Component
+public class GoldPriceHedger {
+
+    private static final Logger log = LoggerFactory.getLogger(GoldPriceHedger.class);
+    private static final MathContext MATH_CONTEXT = new MathContext(12, RoundingMode.HALF_UP);
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+    // 交叉校验等待晚到响应的上限，正常情况下由 HTTP 超时先行结束
+    private static final Duration CROSS_CHECK_WAIT = Duration.ofSeconds(30);
+
+    private final GoldProperties.Hedge settings;
+    private final GoldProperties.CircuitBreaker circuitSettings;
+    private final Executor executor;
+    private final GoldUpstreamCallLog callLog;
+    private final Clock clock;
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> lastCrossCheckNanos = new ConcurrentHashMap<>();
+    private final Map<String, GoldPriceCircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public GoldPriceHedger(
+            GoldProperties properties,
+            @Qualifier("goldFetchExecutor") Executor executor,
+            GoldUpstreamCallLog callLog,
+            Clock clock
+    ) {
+        this.settings = properties.getHedge();
+        this.circuitSettings = properties.getCircuitBreaker();
+        this.executor = executor;
+        this.callLog = callLog;
+        this.clock = clock;
+    }
+
+    // 阻塞直到有来源胜出或全部失败，应在虚拟线程上调用；全部失败时抛出最后一个来源的故障。
+    // 熔断打开的来源直接跳过；所有来源都被熔断时不发出请求，抛出 GoldPriceCircuitOpenException
+    public HedgedResponse fetch(List<GoldPriceProvider> providers) throws IOException, InterruptedException {
+        if (providers == null || providers.isEmpty()) {
+            throw new IOException("No price provider configured");
+        }
+        Launcher launcher = new Launcher(providers);
+        int pending = 0;
+        boolean crossCheckRound = providers.size() > 1 && crossCheckDue(providers.getFirst());
+        if (crossCheckRound) {
+            while (launcher.launchNext() != null) {
+                pending++;
+            }
+        } else if (launcher.launchNext() != null) {
+            pending = 1;
+        }
+        if (pending == 0) {
+            throw new GoldPriceCircuitOpenException("Circuit open for all price providers");
+        }
+        boolean hedged = false;
+        String lastFailure = null;
+        while (pending > 0) {
+            Outcome outcome;
+            if (launcher.hasMore()) {
+                Duration delay = hedgeDelay(launcher.current());
+                outcome = launcher.outcomes.poll(delay.toNanos(), TimeUnit.NANOSECONDS);
+                if (outcome == null) {
+                    GoldPriceProvider slow = launcher.current();
+                    GoldPriceProvider hedge = launcher.launchNext();
+                    if (hedge != null) {
+                        log.info("Price provider {} has not answered within {}ms, hedging with {}",
+                                slow.name(), delay.toMillis(), hedge.name());
+                        pending++;
+                        hedged = true;
+                    }
+                    continue;
+                }
+            } else {
+                outcome = launcher.outcomes.take();
+            }
+            pending--;
+            if (outcome.failure() == null) {
+                return new HedgedResponse(
+                        outcome.provider().name(),
+                        outcome.snapshot(),
+                        hedged,
+                        crossCheckRound,
+                        crossCheck(outcome, launcher.outcomes, pending)
+                );
+            }
+            lastFailure = outcome.failure();
+            log.warn("Price provider {} failed: {}", outcome.provider().name(), lastFailure);
+            if (launcher.launchNext() != null) {
+                pending++;
+            }
+        }
+        throw new IOException(lastFailure);
+    }
+
+    // 各来源熔断器的当前状态，按来源名称排序；尚未请求过的来源不在其中
+    public Map<String, GoldPriceCircuitBreaker.Status> circuitStatus() {
+        Map<String, GoldPriceCircuitBreaker.Status> status = new TreeMap<>();
+        breakers.forEach((name, breaker) -> status.put(name, breaker.status()));
+        return status;
+    }
+
+    GoldPriceCircuitBreaker breaker(GoldPriceProvider provider) {
+        return breakers.computeIfAbsent(provider.name(), ignored -> new GoldPriceCircuitBreaker(circuitSettings, clock));
+    }
+
+    Duration hedgeDelay(GoldPriceProvider provider) {
+        Duration min = settings.getMinDelay();
+        Duration max = settings.getMaxDelay();
+        LatencyWindow window = latencies.get(provider.name());
+        if (window == null || window.size() < settings.getMinSamples()) {
+            return max;
+        }
+        Duration observed = Duration.ofNanos(window.percentile(settings.getPercentile()));
+        if (observed.compareTo(min) < 0) {
+            return min;
+        }
+        return observed.compareTo(max) > 0 ? max : observed;
+    }
+
+    private void launch(GoldPriceProvider provider, GoldPriceCircuitBreaker breaker, BlockingQueue<Outcome> outcomes) {
+        executor.execute(() -> {
+            long started = System.nanoTime();
+            try {
+                GoldPriceSnapshot snapshot = provider.fetch();
+                long elapsed = System.nanoTime() - started;
+                latencies.computeIfAbsent(provider.name(), ignored -> new LatencyWindow(settings.getWindow()))
+                        .record(elapsed);
+                if (snapshot == null || snapshot.getPrice() == null || snapshot.getPrice().signum() <= 0) {
+                    breaker.onFailure();
+                    outcomes.add(new Outcome(provider, null, "Invalid price from " + provider.name()));
+                } else {
+                    breaker.onSuccess(Duration.ofNanos(elapsed));
+                    outcomes.add(new Outcome(provider, snapshot, null));
+                }
+            } catch (Exception ex) {
+                breaker.onFailure();
+                outcomes.add(new Outcome(provider, null, ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage()));
+            }
+        });
+    }
+
+    private boolean crossCheckDue(GoldPriceProvider primary) {
+        Duration interval = settings.getCrossCheckInterval();
+        if (interval.isZero()) {
+            return false;
+        }
+        AtomicLong last = lastCrossCheckNanos.computeIfAbsent(primary.name(), ignored -> new AtomicLong(Long.MIN_VALUE));
+        long now = System.nanoTime();
+        long previous = last.get();
+        boolean due = previous == Long.MIN_VALUE || now - previous >= interval.toNanos();
+        return due && last.compareAndSet(previous, now);
+    }
+
+    private CompletableFuture<List<CrossCheck>> crossCheck(Outcome winner, BlockingQueue<Outcome> outcomes, int pending) {
+        if (pending == 0) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        CompletableFuture<List<CrossCheck>> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            List<CrossCheck> checks = new ArrayList<>();
+            try {
+                for (int i = 0; i < pending; i++) {
+                    Outcome late = outcomes.poll(CROSS_CHECK_WAIT.toMillis(), TimeUnit.MILLISECONDS);
+                    if (late == null) {
+                        break;
+                    }
+                    if (late.failure() == null) {
+                        checks.add(compare(winner, late));
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            result.complete(List.copyOf(checks));
+        });
+        return result;
+    }
+
+    private CrossCheck compare(Outcome winner, Outcome other) {
+        BigDecimal winnerPrice = winner.snapshot().getPrice();
+        BigDecimal otherPrice = other.snapshot().getPrice();
+        BigDecimal deviation = otherPrice.subtract(winnerPrice, MATH_CONTEXT)
+                .abs()
+                .divide(winnerPrice, MATH_CONTEXT)
+                .multiply(ONE_HUNDRED, MATH_CONTEXT);
+        boolean mismatch = deviation.compareTo(settings.getMaxDeviationPercent()) > 0;
+        if (mismatch) {
+            log.warn("Price providers disagree: {}={} vs {}={} (deviation {}%)",
+                    winner.provider().name(), winnerPrice, other.provider().name(), otherPrice,
+                    deviation.setScale(4, RoundingMode.HALF_UP).toPlainString());
+        }
+        return new CrossCheck(other.provider().name(), otherPrice, deviation, mismatch);
+    }
+
+    // crossCheckRound 为 true 表示本次是定时交叉校验，全部来源同时发出，等待校验结果不会抵消对冲
+    public record HedgedResponse(
+            String provider,
+            GoldPriceSnapshot snapshot,
+            boolean hedged,
+            boolean crossCheckRound,
+            CompletableFuture<List<CrossCheck>> crossChecks
+    ) {
+    }
+
+    public record CrossCheck(String provider, BigDecimal price, BigDecimal deviationPercent, boolean mismatch) {
+    }
+
+    private record Outcome(GoldPriceProvider provider, GoldPriceSnapshot snapshot, String failure) {
+    }
+
+    // 按优先级逐个启动来源，跳过熔断器不放行的来源
+    private final class Launcher {
+
+        private final List<GoldPriceProvider> providers;
+        private final BlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<>();
+        private int next;
+        private GoldPriceProvider current;
+
+        private Launcher(List<GoldPriceProvider> providers) {
+            this.providers = providers;
+        }
+
+        private boolean hasMore() {
+            return next < providers.size();
+        }
+
+        private GoldPriceProvider current() {
+            return current;
+        }
+
+        private GoldPriceProvider launchNext() {
+            while (hasMore()) {
+                GoldPriceProvider provider = providers.get(next++);
+                GoldPriceCircuitBreaker breaker = breaker(provider);
+                if (breaker.tryAcquire()) {
+                    callLog.record();
+                    launch(provider, breaker, outcomes);
+                    current = provider;
+                    return provider;
+                }
+                log.debug("Skip price provider {}: circuit open", provider.name());
+            }
+            return null;
+        }
+    }
+
+    // 最近 capacity 次成功请求的耗时（纳秒），环形覆盖
+    static final class LatencyWindow {
+
+        private final long[] samples;
+        private int next;
+        private int size;
+
+        LatencyWindow(int capacity) {
+            this.samples = new long[capacity];
+        }
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            size = Math.min(size + 1, samples.length);
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized long percentile(double percentile) {
+            if (size == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile * size) - 1;
+            return sorted[Math.clamp(rank, 0, size - 1)];
+        }
+    }
+}
@@ -2,58 +2,273 @@ package com.xbleey.goldpricealert.service;
 
 import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
 import com.xbleey.goldpricealert.repository.GoldPriceSnapshotStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 @Component
-public class GoldPriceHistory {
+public class GoldPriceHistory implements ApplicationRunner, GoldPriceWindowLookup {
+
+    private static final Logger log = LoggerFactory.getLogger(GoldPriceHistory.class);
+    private static final Duration DEFAULT_LEVEL_WINDOW = Duration.ofMinutes(60);
+    private static final Duration MAX_RETENTION = Duration.ofDays(7);
+    private static final int MIN_BUFFERED_SNAPSHOTS = 120;
+    private static final int MAX_BUFFERED_SNAPSHOTS = 20_000;
 
     private final GoldPriceSnapshotStore store;
+    private final GoldAlertLevelConfigStore configStore;
+    private final GoldPriceCandleAggregator candleAggregator;
+    // 仅写入路径（预热、检查后插入）需要串行化；读取只访问已发布的不可变视图，不等待写锁
+    private final Object writeLock = new Object();
+    // 分阶段处理时判重入库单独串行化，慢速入库不挡住评估阶段发布缓冲
+    private final Object ingestLock = new Object();
+    private final GoldPriceTickBuffer buffer;
+    private final AtomicReference<Duration> requestedRetention = new AtomicReference<>(Duration.ZERO);
+    private volatile GoldPriceTickBuffer.View view;
+    // 告警窗口的滑动极值，按窗口长度在首次查询时登记，之后随每条入缓冲的行情增量维护
+    private final Map<Duration, GoldPriceWindowExtremes> windowExtremes = new ConcurrentHashMap<>();
+    // 已入库快照中最新的上游 updatedAt 与最新一条快照，只在内存中维护，判重不查库；
+    // 入库与发布分属不同阶段时两边都会推进，只取较新的值
+    private final AtomicReference<Instant> lastSourceUpdatedAt = new AtomicReference<>();
+    private final AtomicReference<GoldPriceSnapshot> lastAccepted = new AtomicReference<>();
 
-    public GoldPriceHistory(GoldPriceSnapshotStore store) {
+    public GoldPriceHistory(
+            GoldPriceSnapshotStore store,
+            GoldAlertLevelConfigStore configStore,
+            GoldPriceCandleAggregator candleAggregator
+    ) {
         this.store = store;
+        this.configStore = configStore;
+        this.candleAggregator = candleAggregator;
+        this.buffer = new GoldPriceTickBuffer(
+                DEFAULT_LEVEL_WINDOW.plus(GoldAlertEmailService.CHART_WINDOW),
+                MIN_BUFFERED_SNAPSHOTS,
+                MAX_BUFFERED_SNAPSHOTS
+        );
     }
 
-    public synchronized void add(GoldPriceSnapshot snapshot) {
-        store.save(snapshot);
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            warmUp();
+        } catch (Exception ex) {
+            // 启动时数据库不可用不阻断启动，首次读写时会再次预热
+            log.warn("Failed to warm up gold price history buffer", ex);
+        }
     }
 
-    public synchronized boolean addIfPriceChanged(GoldPriceSnapshot snapshot) {
-        Optional<GoldPriceSnapshot> latest = latest();
-        if (latest.isPresent() && samePrice(latest.get(), snapshot)) {
-            return false;
+    public void warmUp() {
+        synchronized (writeLock) {
+            buffer.ensureRetention(resolveRetention());
+            int limit = MIN_BUFFERED_SNAPSHOTS;
+            List<GoldPriceSnapshot> ordered;
+            boolean complete;
+            while (true) {
+                List<GoldPriceSnapshot> recent = store.findRecentDesc(limit);
+                ordered = new ArrayList<>(recent);
+                ordered.sort(Comparator.comparing(GoldPriceSnapshot::getFetchedAt).reversed());
+                complete = recent.size() < limit;
+                if (complete || limit >= MAX_BUFFERED_SNAPSHOTS || coversRetention(ordered)) {
+                    break;
+                }
+                limit = Math.min(limit * 4, MAX_BUFFERED_SNAPSHOTS);
+            }
+            buffer.reset(ordered, complete);
+            view = buffer.view();
+            windowExtremes.values().forEach(extremes -> {
+                synchronized (extremes) {
+                    extremes.clear();
+                }
+            });
+            lastSourceUpdatedAt.set(ordered.stream()
+                    .map(GoldPriceSnapshot::getUpdatedAt)
+                    .filter(Objects::nonNull)
+                    .max(Comparator.naturalOrder())
+                    .orElse(null));
+            lastAccepted.set(ordered.isEmpty() ? null : ordered.getFirst());
+            log.info("Gold price history buffer warmed: size={}, retention={}", buffer.size(), buffer.retention());
+        }
+    }
+
+    public void add(GoldPriceSnapshot snapshot) {
+        synchronized (writeLock) {
+            ensureWarmedUp();
+            store.save(snapshot);
+            publish(snapshot);
+        }
+    }
+
+    // 按上游 updatedAt 判重：不晚于已记录值的是重复或过期数据（如备用来源滞后），不入库也不触发评估；
+    // 同价但 updatedAt 更新的行情照常入库。上游未给出 updatedAt 时退回到与最新快照比较价格
+    public boolean addIfNewTick(GoldPriceSnapshot snapshot) {
+        synchronized (writeLock) {
+            if (!persistIfNewTick(snapshot)) {
+                return false;
+            }
+            publish(snapshot);
+            return true;
+        }
+    }
+
+    // 分阶段处理的入库阶段：判重、入库与 K 线，不发布到缓冲。行情由评估阶段在评估前经 publishTick 发布，
+    // 评估阶段落后时看到的缓冲与滑动极值也不会超前于正在评估的行情
+    public boolean persistIfNewTick(GoldPriceSnapshot snapshot) {
+        ensureWarmedUp();
+        synchronized (ingestLock) {
+            if (!isNewTick(snapshot)) {
+                return false;
+            }
+            store.save(snapshot);
+            accept(snapshot);
+            if (candleAggregator != null) {
+                candleAggregator.record(snapshot);
+            }
+            return true;
+        }
+    }
+
+    // 分阶段处理的评估阶段：发布已入库的行情。预热恰好已从库中读入同一条行情时不重复发布，也不再评估
+    public boolean publishTick(GoldPriceSnapshot snapshot) {
+        synchronized (writeLock) {
+            ensureWarmedUp();
+            Optional<GoldPriceSnapshot> buffered = view.findAtOrBefore(snapshot.fetchedAt());
+            if (buffered.isPresent() && sameTick(buffered.get(), snapshot)) {
+                return false;
+            }
+            publish(snapshot);
+            return true;
+        }
+    }
+
+    // follower 收到 leader 广播的行情：只放入本地缓冲，入库与 K 线由 leader 负责
+    public boolean addReplicated(GoldPriceSnapshot snapshot) {
+        synchronized (writeLock) {
+            ensureWarmedUp();
+            if (!isNewTick(snapshot)) {
+                return false;
+            }
+            publish(snapshot);
+            return true;
         }
-        store.save(snapshot);
-        return true;
     }
 
-    public synchronized Optional<GoldPriceSnapshot> findSnapshotAtOrBefore(Instant target) {
+    public Optional<GoldPriceSnapshot> findSnapshotAtOrBefore(Instant target) {
+        GoldPriceTickBuffer.View current = currentView();
+        if (target == null) {
+            return Optional.empty();
+        }
+        if (current.covers(target)) {
+            return current.findAtOrBefore(target);
+        }
+        // 窗口超出缓冲区覆盖范围（如运行期新增了更长窗口的等级），登记所需保留时长后回源一次
+        requestRetention(current, target);
         return store.findSnapshotAtOrBefore(target);
     }
 
-    public synchronized Optional<GoldPriceSnapshot> latest() {
-        List<GoldPriceSnapshot> recent = store.findRecentDesc(1);
-        if (recent.isEmpty()) {
+    // 回测等离线查询直接查库，不为其延长缓冲区保留时长
+    public Optional<GoldPriceSnapshot> findStoredSnapshotAtOrBefore(Instant target) {
+        if (target == null) {
             return Optional.empty();
         }
-        return Optional.of(recent.getFirst());
+        return store.findSnapshotAtOrBefore(target);
+    }
+
+    @Override
+    public Map<Instant, GoldPriceSnapshot> findSnapshotsAtOrBefore(Collection<Instant> targets) {
+        GoldPriceTickBuffer.View current = currentView();
+        Map<Instant, GoldPriceSnapshot> resolved = new HashMap<>();
+        if (targets == null || targets.isEmpty()) {
+            return resolved;
+        }
+        List<Instant> uncovered = new ArrayList<>();
+        for (Instant target : targets) {
+            if (target == null || resolved.containsKey(target) || uncovered.contains(target)) {
+                continue;
+            }
+            if (current.covers(target)) {
+                current.findAtOrBefore(target).ifPresent(snapshot -> resolved.put(target, snapshot));
+            } else {
+                uncovered.add(target);
+            }
+        }
+        if (!uncovered.isEmpty()) {
+            requestRetention(current, uncovered.stream().min(Comparator.naturalOrder()).orElseThrow());
+            resolved.putAll(store.findSnapshotsAtOrBefore(uncovered));
+        }
+        return resolved;
     }
 
-    public synchronized List<GoldPriceSnapshot> getAll() {
+    // 窗口 (asOf - window, asOf] 内缓冲行情的最高价与最低价，不查库
+    @Override
+    public Optional<GoldPriceWindowExtremes.Extremes> findWindowExtremes(Duration window, Instant asOf) {
+        if (window == null || asOf == null) {
+            return Optional.empty();
+        }
+        ensureWarmedUp();
+        GoldPriceWindowExtremes extremes = windowExtremes.computeIfAbsent(window, GoldPriceWindowExtremes::new);
+        if (!extremes.isSeeded()) {
+            // 在写锁内装填，保证装填所用视图与之后的增量行情首尾相接
+            synchronized (writeLock) {
+                synchronized (extremes) {
+                    if (!extremes.isSeeded()) {
+                        extremes.seed(view, asOf);
+                    }
+                }
+            }
+        }
+        synchronized (extremes) {
+            return extremes.at(asOf);
+        }
+    }
+
+    public Optional<GoldPriceSnapshot> latest() {
+        return currentView().latest();
+    }
+
+    public List<GoldPriceSnapshot> getAll() {
         return store.findAllAsc();
     }
 
-    public synchronized List<GoldPriceSnapshot> getRecent(int limit) {
+    public void forEachInRange(Instant fromInclusive, Instant toExclusive, Consumer<GoldPriceSnapshot> action) {
+        if (action == null) {
+            return;
+        }
+        store.streamAsc(fromInclusive, toExclusive, action);
+    }
+
+    public List<GoldPriceSnapshot> findPageDesc(Instant beforeTime, Long beforeId, int limit) {
+        return store.findPageDesc(beforeTime, beforeId, limit);
+    }
+
+    public long count() {
+        return store.count();
+    }
+
+    public List<GoldPriceSnapshot> getRecent(int limit) {
         int safeLimit = Math.max(0, limit);
         if (safeLimit == 0) {
             return List.of();
         }
+        GoldPriceTickBuffer.View current = currentView();
+        if (current.hasRecent(safeLimit)) {
+            return current.recentDesc(safeLimit);
+        }
         List<GoldPriceSnapshot> recent = store.findRecentDesc(safeLimit);
         if (recent.isEmpty()) {
             return List.of();
@@ -63,6 +278,103 @@ public class GoldPriceHistory {
         return List.copyOf(ordered);
     }
 
+    private GoldPriceTickBuffer.View currentView() {
+        GoldPriceTickBuffer.View current = view;
+        if (current != null) {
+            return current;
+        }
+        ensureWarmedUp();
+        return view;
+    }
+
+    private void ensureWarmedUp() {
+        if (view != null) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (view == null) {
+                warmUp();
+            }
+        }
+    }
+
+    private boolean isNewTick(GoldPriceSnapshot snapshot) {
+        Instant updatedAt = snapshot.getUpdatedAt();
+        Instant last = lastSourceUpdatedAt.get();
+        if (updatedAt != null && last != null && !updatedAt.isAfter(last)) {
+            if (updatedAt.isBefore(last)) {
+                log.warn("Ignore stale upstream tick: updatedAt={} is older than {}", updatedAt, last);
+            }
+            return false;
+        }
+        if (updatedAt == null) {
+            GoldPriceSnapshot latest = lastAccepted.get();
+            return latest == null || !samePrice(latest, snapshot);
+        }
+        return true;
+    }
+
+    private void publish(GoldPriceSnapshot snapshot) {
+        buffer.ensureRetention(requestedRetention.get());
+        buffer.append(snapshot);
+        view = buffer.view();
+        for (GoldPriceWindowExtremes extremes : windowExtremes.values()) {
+            synchronized (extremes) {
+                extremes.offer(snapshot);
+            }
+        }
+        accept(snapshot);
+    }
+
+    private void accept(GoldPriceSnapshot snapshot) {
+        Instant updatedAt = snapshot.getUpdatedAt();
+        if (updatedAt != null) {
+            lastSourceUpdatedAt.accumulateAndGet(updatedAt, (left, right) -> left == null || right.isAfter(left) ? right : left);
+        }
+        lastAccepted.accumulateAndGet(snapshot, (left, right) ->
+                left == null || right.fetchedAt().isAfter(left.fetchedAt()) ? right : left);
+    }
+
+    private void requestRetention(GoldPriceTickBuffer.View current, Instant target) {
+        current.latest().ifPresent(newest -> requestedRetention.accumulateAndGet(
+                clampRetention(Duration.between(target, newest.fetchedAt())),
+                (left, right) -> left.compareTo(right) >= 0 ? left : right
+        ));
+    }
+
+    private boolean coversRetention(List<GoldPriceSnapshot> newestFirst) {
+        if (newestFirst.isEmpty()) {
+            return true;
+        }
+        Instant cutoff = newestFirst.getFirst().fetchedAt().minus(buffer.retention());
+        return !newestFirst.getLast().fetchedAt().isAfter(cutoff);
+    }
+
+    private Duration resolveRetention() {
+        Duration longestWindow = DEFAULT_LEVEL_WINDOW;
+        if (configStore != null) {
+            try {
+                longestWindow = configStore.listLevels().stream()
+                        .map(GoldAlertLevelConfig::windowDuration)
+                        .max(Comparator.naturalOrder())
+                        .orElse(DEFAULT_LEVEL_WINDOW);
+            } catch (Exception ex) {
+                log.warn("Failed to resolve alert level windows, fallback to {}", DEFAULT_LEVEL_WINDOW, ex);
+            }
+        }
+        return clampRetention(longestWindow.plus(GoldAlertEmailService.CHART_WINDOW));
+    }
+
+    private static Duration clampRetention(Duration retention) {
+        return retention.compareTo(MAX_RETENTION) > 0 ? MAX_RETENTION : retention;
+    }
+
+    private static boolean sameTick(GoldPriceSnapshot left, GoldPriceSnapshot right) {
+        return left.fetchedAt().equals(right.fetchedAt())
+                && Objects.equals(left.getUpdatedAt(), right.getUpdatedAt())
+                && samePrice(left, right);
+    }
+
     private static boolean samePrice(GoldPriceSnapshot left, GoldPriceSnapshot right) {
         if (left == null || right == null) {
             return false;
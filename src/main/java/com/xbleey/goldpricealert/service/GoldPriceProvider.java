@@ -0,0 +1,15 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+
+import java.io.IOException;
+
+// 报价来源：同一品种可按优先级配置多个，由 GoldPriceHedger 负责对冲请求与故障转移。
+// fetch 为阻塞调用，在虚拟线程上执行；失败时抛出的异常消息会作为故障详情上报。
+// 返回的快照只带上游响应字段，每次调用都是新对象，fetchedAt、品种代码等由 GoldPriceFetcher 写入
+public interface GoldPriceProvider {
+
+    String name();
+
+    GoldPriceSnapshot fetch() throws IOException;
+}
@@ -0,0 +1,301 @@
+package com.xbleey.goldpricealert.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xbleey.goldpricealert.config.GoldProperties;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import jakarta.annotation.PreDestroy;
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// 推送行情接入：与定时轮询并行运行（轮询作为兜底，重复行情由 updatedAt 判重丢弃），收到的行情经 GoldPipelineStages 进入与轮询相同的品种处理链。
+// 每个品种只有一条行情在处理链中：处理（入库、评估）期间到达的突发行情合并为最后一条，处理完立即接着提交，没有固定攒批窗口
+@Service
+@ConditionalOnProperty(prefix = "gold.stream", name = "enabled", havingValue = "true")
+public class GoldPriceStreamIngestor implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(GoldPriceStreamIngestor.class);
+
+    private final GoldProperties.Stream settings;
+    // 推送消息中的 symbol -> 品种处理链，见 gold.stream.symbols
+    private final Map<String, GoldInstrumentPipeline> routes;
+    private final GoldClusterCoordinator cluster;
+    private final GoldPipelineStages stages;
+    private final OkHttpClient client;
+    private final GoldApiResponseDecoder decoder;
+    private final FetchRetryScheduler reconnectScheduler;
+    private final Executor executor;
+    private final Clock clock;
+    private final Map<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicLong generations = new AtomicLong();
+    // 当前连接的代次，0 表示未连接；旧连接的回调不会再触发重连
+    private final AtomicLong current = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong unmapped = new AtomicLong();
+    private volatile Runnable disconnect;
+    private volatile boolean closed;
+
+    public GoldPriceStreamIngestor(
+            GoldProperties properties,
+            GoldInstrumentPipelines pipelines,
+            GoldClusterCoordinator cluster,
+            GoldPipelineStages stages,
+            OkHttpClient okHttpClient,
+            ObjectMapper objectMapper,
+            FetchRetryScheduler reconnectScheduler,
+            @Qualifier("goldFetchExecutor") Executor executor,
+            Clock clock
+    ) {
+        GoldProperties.Stream settings = properties.getStream();
+        this.settings = settings;
+        this.routes = routes(settings, pipelines);
+        this.cluster = cluster;
+        this.stages = stages;
+        // SSE 靠读超时发现静默断开的连接；WebSocket 读超时不生效，改用 ping
+        this.client = okHttpClient.newBuilder()
+                .readTimeout(settings.getIdleTimeout())
+                .pingInterval(settings.isWebSocket() ? settings.getIdleTimeout().dividedBy(2) : Duration.ZERO)
+                .build();
+        this.decoder = new GoldApiResponseDecoder(objectMapper.getFactory());
+        this.reconnectScheduler = reconnectScheduler;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        connect();
+    }
+
+    public void connect() {
+        if (closed) {
+            return;
+        }
+        long generation = generations.incrementAndGet();
+        current.set(generation);
+        Request request = new Request.Builder().url(settings.getUrl().toString()).build();
+        if (settings.isWebSocket()) {
+            WebSocket webSocket = client.newWebSocket(request, new Listener(generation));
+            disconnect = () -> webSocket.close(1001, "shutdown");
+        } else {
+            Call call = client.newCall(request.newBuilder().header("Accept", "text/event-stream").build());
+            disconnect = call::cancel;
+            executor.execute(() -> readEvents(call, generation));
+        }
+    }
+
+    public boolean isConnected() {
+        return current.get() != 0;
+    }
+
+    long coalescedCount() {
+        return coalesced.get();
+    }
+
+    long unmappedCount() {
+        return unmapped.get();
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        current.set(0);
+        Runnable active = disconnect;
+        if (active != null) {
+            active.run();
+        }
+    }
+
+    // 解析单条推送消息；无法解析或价格无效的消息（如心跳）直接忽略。
+    // 每个实例都保持连接，接管后无需等待重连；只有 leader 处理推送行情
+    void accept(String payload) {
+        if (!cluster.isLeader()) {
+            return;
+        }
+        GoldPriceSnapshot snapshot = new GoldPriceSnapshot();
+        try {
+            decoder.decodeInto(snapshot, payload);
+        } catch (IOException ex) {
+            log.debug("Ignore unparsable stream message: {}", payload);
+            return;
+        }
+        if (snapshot.getPrice() == null || snapshot.getPrice().signum() <= 0) {
+            return;
+        }
+        // 上游 symbol 不区分计价货币，只按显式映射路由；无法确定品种的行情宁可丢弃，也不能混进其他品种触发误报
+        GoldInstrumentPipeline pipeline = snapshot.getSymbol() == null ? null : routes.get(snapshot.getSymbol());
+        if (pipeline == null) {
+            unmapped.incrementAndGet();
+            log.debug("Drop stream tick with unmapped symbol {}", snapshot.getSymbol());
+            return;
+        }
+        failures.set(0);
+        snapshot.setFetchedAt(clock.instant());
+        snapshot.setSymbol(pipeline.symbol());
+        mailboxes.computeIfAbsent(pipeline.symbol(), ignored -> new Mailbox(pipeline)).offer(snapshot);
+    }
+
+    private static Map<String, GoldInstrumentPipeline> routes(GoldProperties.Stream settings, GoldInstrumentPipelines pipelines) {
+        Map<String, GoldInstrumentPipeline> routes = new HashMap<>();
+        settings.getSymbols().forEach((streamSymbol, symbol) -> routes.put(
+                streamSymbol,
+                pipelines.all().stream()
+                        .filter(pipeline -> pipeline.symbol().equals(symbol))
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalStateException("gold.stream.symbols maps to unconfigured instrument: " + symbol))
+        ));
+        return Map.copyOf(routes);
+    }
+
+    private void readEvents(Call call, long generation) {
+        String reason;
+        try (Response response = call.execute()) {
+            if (!response.isSuccessful() || response.body() == null) {
+                reason = "HTTP status " + response.code();
+            } else {
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(response.body().byteStream(), StandardCharsets.UTF_8))) {
+                    log.info("Price stream connected: {}", settings.getUrl());
+                    StringBuilder data = new StringBuilder();
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.isEmpty()) {
+                            if (!data.isEmpty()) {
+                                accept(data.toString());
+                                data.setLength(0);
+                            }
+                        } else if (line.startsWith("data:")) {
+                            if (!data.isEmpty()) {
+                                data.append('\n');
+                            }
+                            data.append(line.substring("data:".length()).stripLeading());
+                        }
+                        // 注释行（常用作心跳）与 event / id / retry 字段不影响行情内容
+                    }
+                    reason = "stream ended";
+                }
+            }
+        } catch (IOException ex) {
+            reason = ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage();
+        }
+        connectionLost(generation, reason);
+    }
+
+    private void connectionLost(long generation, String reason) {
+        if (closed || !current.compareAndSet(generation, 0)) {
+            return;
+        }
+        Duration delay = FetchRetryScheduler.backoff(
+                settings.getReconnectMinDelay(),
+                settings.getReconnectMaxDelay(),
+                failures.incrementAndGet(),
+                ThreadLocalRandom.current().nextDouble()
+        );
+        log.warn("Price stream disconnected ({}), reconnecting in {}ms", reason, delay.toMillis());
+        try {
+            reconnectScheduler.schedule(this::connect, delay);
+        } catch (RuntimeException ex) {
+            log.warn("Price stream reconnect could not be scheduled", ex);
+        }
+    }
+
+    private final class Listener extends WebSocketListener {
+
+        private final long generation;
+
+        private Listener(long generation) {
+            this.generation = generation;
+        }
+
+        @Override
+        public void onOpen(WebSocket webSocket, Response response) {
+            log.info("Price stream connected: {}", settings.getUrl());
+        }
+
+        @Override
+        public void onMessage(WebSocket webSocket, String text) {
+            accept(text);
+        }
+
+        @Override
+        public void onClosing(WebSocket webSocket, int code, String reason) {
+            webSocket.close(1000, null);
+            connectionLost(generation, "closed by server: " + code);
+        }
+
+        @Override
+        public void onFailure(WebSocket webSocket, Throwable t, Response response) {
+            connectionLost(generation, t.getMessage() == null ? t.getClass().getSimpleName() : t.getMessage());
+        }
+    }
+
+    private final class Mailbox {
+
+        private final GoldInstrumentPipeline pipeline;
+        private final AtomicReference<GoldPriceSnapshot> latest = new AtomicReference<>();
+        private final AtomicBoolean inFlight = new AtomicBoolean();
+
+        private Mailbox(GoldInstrumentPipeline pipeline) {
+            this.pipeline = pipeline;
+        }
+
+        private void offer(GoldPriceSnapshot snapshot) {
+            if (latest.getAndSet(snapshot) != null) {
+                coalesced.incrementAndGet();
+            }
+            submitNext();
+        }
+
+        // 上一条离开处理链（含不是新行情、失败与被丢弃）后才提交下一条
+        private void submitNext() {
+            if (!inFlight.compareAndSet(false, true)) {
+                return;
+            }
+            GoldPriceSnapshot next = latest.getAndSet(null);
+            if (next == null) {
+                inFlight.set(false);
+                // 释放标记前后到达的行情由这里补一次提交
+                if (latest.get() != null) {
+                    submitNext();
+                }
+                return;
+            }
+            stages.submit(pipeline, next, () -> cluster.publish(next)).whenComplete((ingested, ex) -> {
+                if (ex != null) {
+                    log.warn("Failed to ingest streamed {} tick", pipeline.symbol(), ex);
+                } else if (ingested != GoldInstrumentPipeline.Ingested.NOT_NEWER) {
+                    log.debug("Streamed {} price: {}", pipeline.symbol(), next.price());
+                }
+                inFlight.set(false);
+                submitNext();
+            });
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+// 按 fetchedAt 升序保存最近快照的缓冲区；写入非线程安全，由 GoldPriceHistory 串行化，
+// 读取只访问每次写入后发布的不可变 View。
+// 槽位只追加不回写：淘汰最旧元素只前移 start，新快照写在已发布 View 的范围之外，
+// 所以 view() 直接共享底层数组而无需复制，每条行情 O(1)。
+// 数组写到末尾时整体搬到新数组（容量至少为存活元素的两倍，摊还 O(1)）；
+// 乱序到达需要挪动已发布的槽位，此时也搬到新数组
+class GoldPriceTickBuffer {
+
+    private static final int INITIAL_CAPACITY = 128;
+
+    private final int minEntries;
+    private final int maxEntries;
+    private GoldPriceSnapshot[] slots;
+    private int start;
+    private int size;
+    private Duration retention;
+    // 为 true 时表示存储中不存在比缓冲区最旧元素更早的快照，未命中即可直接判定为空
+    private boolean complete;
+
+    GoldPriceTickBuffer(Duration retention, int minEntries, int maxEntries) {
+        if (minEntries <= 0 || maxEntries < minEntries) {
+            throw new IllegalArgumentException("invalid buffer bounds: min=" + minEntries + ", max=" + maxEntries);
+        }
+        this.retention = retention;
+        this.minEntries = minEntries;
+        this.maxEntries = maxEntries;
+        this.slots = new GoldPriceSnapshot[capacityFor(0)];
+    }
+
+    void reset(List<GoldPriceSnapshot> newestFirst, boolean complete) {
+        slots = new GoldPriceSnapshot[capacityFor(Math.min(newestFirst.size(), maxEntries))];
+        start = 0;
+        size = 0;
+        this.complete = complete;
+        for (int i = newestFirst.size() - 1; i >= 0; i--) {
+            append(newestFirst.get(i));
+        }
+    }
+
+    void append(GoldPriceSnapshot snapshot) {
+        if (snapshot == null || snapshot.getFetchedAt() == null) {
+            return;
+        }
+        if (size == maxEntries) {
+            removeOldest();
+        }
+        if (size > 0 && get(size - 1).getFetchedAt().isAfter(snapshot.getFetchedAt())) {
+            insertOutOfOrder(snapshot);
+        } else {
+            if (start + size == slots.length) {
+                relocate();
+            }
+            slots[start + size] = snapshot;
+            size++;
+        }
+        evictExpired();
+    }
+
+    void ensureRetention(Duration required) {
+        if (required != null && required.compareTo(retention) > 0) {
+            retention = required;
+        }
+    }
+
+    Duration retention() {
+        return retention;
+    }
+
+    int size() {
+        return size;
+    }
+
+    View view() {
+        return new View(slots, start, size, complete);
+    }
+
+    private void evictExpired() {
+        if (size <= minEntries) {
+            return;
+        }
+        Instant cutoff = get(size - 1).getFetchedAt().minus(retention);
+        // 保留 cutoff 之前最近的一条，作为最长窗口的基准价
+        while (size > minEntries && !get(1).getFetchedAt().isAfter(cutoff)) {
+            removeOldest();
+        }
+    }
+
+    // 被淘汰的槽位可能仍在已发布的 View 中，不能清空，下次搬迁时随旧数组一起释放
+    private void removeOldest() {
+        start++;
+        size--;
+        complete = false;
+    }
+
+    private void relocate() {
+        GoldPriceSnapshot[] moved = new GoldPriceSnapshot[capacityFor(size + 1)];
+        System.arraycopy(slots, start, moved, 0, size);
+        slots = moved;
+        start = 0;
+    }
+
+    private void insertOutOfOrder(GoldPriceSnapshot snapshot) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (get(mid).getFetchedAt().isAfter(snapshot.getFetchedAt())) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        GoldPriceSnapshot[] moved = new GoldPriceSnapshot[capacityFor(size + 1)];
+        System.arraycopy(slots, start, moved, 0, low);
+        moved[low] = snapshot;
+        System.arraycopy(slots, start + low, moved, low + 1, size - low);
+        slots = moved;
+        start = 0;
+        size++;
+    }
+
+    private int capacityFor(int entries) {
+        return Math.max(Math.min(INITIAL_CAPACITY, maxEntries << 1), entries << 1);
+    }
+
+    private GoldPriceSnapshot get(int logicalIndex) {
+        return slots[start + logicalIndex];
+    }
+
+    static final class View {
+
+        // 只读取 [offset, offset + length)，这段槽位在写入方不会再被改写
+        private final GoldPriceSnapshot[] slots;
+        private final int offset;
+        private final int length;
+        private final boolean complete;
+
+        private View(GoldPriceSnapshot[] slots, int offset, int length, boolean complete) {
+            this.slots = slots;
+            this.offset = offset;
+            this.length = length;
+            this.complete = complete;
+        }
+
+        Optional<GoldPriceSnapshot> latest() {
+            if (length == 0) {
+                return Optional.empty();
+            }
+            return Optional.of(get(length - 1));
+        }
+
+        boolean covers(Instant target) {
+            return complete || (length > 0 && !get(0).getFetchedAt().isAfter(target));
+        }
+
+        boolean hasRecent(int limit) {
+            return complete || limit <= length;
+        }
+
+        Optional<GoldPriceSnapshot> findAtOrBefore(Instant target) {
+            if (target == null) {
+                return Optional.empty();
+            }
+            int low = 0;
+            int high = length - 1;
+            int found = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (get(mid).getFetchedAt().isAfter(target)) {
+                    high = mid - 1;
+                } else {
+                    found = mid;
+                    low = mid + 1;
+                }
+            }
+            return found < 0 ? Optional.empty() : Optional.of(get(found));
+        }
+
+        // 按时间升序遍历 fetchedAt 晚于 exclusiveFrom 的快照
+        void forEachAfter(Instant exclusiveFrom, Consumer<GoldPriceSnapshot> action) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (get(mid).getFetchedAt().isAfter(exclusiveFrom)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            for (int i = low; i < length; i++) {
+                action.accept(get(i));
+            }
+        }
+
+        List<GoldPriceSnapshot> recentDesc(int limit) {
+            int count = Math.min(limit, length);
+            List<GoldPriceSnapshot> recent = new ArrayList<>(count);
+            for (int i = length - 1; i >= length - count; i--) {
+                recent.add(get(i));
+            }
+            return List.copyOf(recent);
+        }
+
+        private GoldPriceSnapshot get(int index) {
+            return slots[offset + index];
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Optional;
+
+// 单个窗口 (asOf - window, asOf] 内的滑动最高/最低价。两条单调双端队列：最高价队列从头到尾价格递减，
+// 最低价队列递增，队头即窗口极值；每条行情入队、出队各至多一次，均摊 O(1)，与窗口长度和窗口内行情数无关。
+// 非线程安全，由 GoldPriceHistory 加锁访问
+final class GoldPriceWindowExtremes {
+
+    private final Duration window;
+    private final ArrayDeque<GoldPriceSnapshot> highs = new ArrayDeque<>();
+    private final ArrayDeque<GoldPriceSnapshot> lows = new ArrayDeque<>();
+    private Instant newest;
+    // 未从缓冲区装填前不接收增量行情；乱序行情或缓冲区重新预热后回到未装填状态，下次查询时重新装填
+    private volatile boolean seeded;
+
+    GoldPriceWindowExtremes(Duration window) {
+        this.window = window;
+    }
+
+    Duration window() {
+        return window;
+    }
+
+    boolean isSeeded() {
+        return seeded;
+    }
+
+    void seed(GoldPriceTickBuffer.View view, Instant asOf) {
+        start();
+        view.forEachAfter(asOf.minus(window), this::push);
+    }
+
+    // 从空窗口开始接收增量行情，调用方保证此后按时间顺序 offer 窗口内的全部行情
+    void start() {
+        clear();
+        seeded = true;
+    }
+
+    void offer(GoldPriceSnapshot snapshot) {
+        if (!seeded) {
+            return;
+        }
+        if (newest != null && snapshot.fetchedAt().isBefore(newest)) {
+            // 单调队列要求按时间顺序入队，乱序行情很少见，直接整体重建
+            clear();
+            return;
+        }
+        push(snapshot);
+    }
+
+    Optional<Extremes> at(Instant asOf) {
+        Instant cutoff = asOf.minus(window);
+        evict(highs, cutoff);
+        evict(lows, cutoff);
+        if (highs.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new Extremes(highs.peekFirst(), lows.peekFirst()));
+    }
+
+    void clear() {
+        highs.clear();
+        lows.clear();
+        newest = null;
+        seeded = false;
+    }
+
+    private void push(GoldPriceSnapshot snapshot) {
+        if (snapshot.price() == null) {
+            return;
+        }
+        newest = snapshot.fetchedAt();
+        while (!highs.isEmpty() && highs.peekLast().price().compareTo(snapshot.price()) <= 0) {
+            highs.pollLast();
+        }
+        highs.addLast(snapshot);
+        while (!lows.isEmpty() && lows.peekLast().price().compareTo(snapshot.price()) >= 0) {
+            lows.pollLast();
+        }
+        lows.addLast(snapshot);
+    }
+
+    private static void evict(ArrayDeque<GoldPriceSnapshot> deque, Instant cutoff) {
+        while (!deque.isEmpty() && !deque.peekFirst().fetchedAt().isAfter(cutoff)) {
+            deque.pollFirst();
+        }
+    }
+
+    record Extremes(GoldPriceSnapshot high, GoldPriceSnapshot low) {
+    }
+}
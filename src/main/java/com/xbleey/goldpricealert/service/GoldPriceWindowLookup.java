@@ -0,0 +1,18 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+// 告警规则读取的价格：各窗口起点及之前最近的快照，以及窗口内的最高/最低价。
+// 线上由 GoldPriceHistory 提供，回测由按时间推进的回放游标提供
+interface GoldPriceWindowLookup {
+
+    Map<Instant, GoldPriceSnapshot> findSnapshotsAtOrBefore(Collection<Instant> targets);
+
+    Optional<GoldPriceWindowExtremes.Extremes> findWindowExtremes(Duration window, Instant asOf);
+}
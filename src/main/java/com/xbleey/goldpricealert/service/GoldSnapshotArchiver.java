@@ -0,0 +1,116 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.config.GoldSnapshotStoreProperties;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import com.xbleey.goldpricealert.repository.GoldPriceSnapshotStores;
+import com.xbleey.goldpricealert.repository.GoldSnapshotArchive;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@ConditionalOnProperty(prefix = "gold.snapshot-store.archive", name = "enabled", havingValue = "true")
+public class GoldSnapshotArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(GoldSnapshotArchiver.class);
+
+    private final GoldPriceSnapshotStores stores;
+    private final GoldSnapshotStoreProperties properties;
+    private final GoldClusterCoordinator cluster;
+    private final Clock clock;
+
+    public GoldSnapshotArchiver(
+            GoldPriceSnapshotStores stores,
+            GoldSnapshotStoreProperties properties,
+            GoldClusterCoordinator cluster,
+            Clock clock
+    ) {
+        this.stores = stores;
+        this.properties = properties;
+        this.cluster = cluster;
+        this.clock = clock;
+    }
+
+    @Scheduled(
+            initialDelayString = "#{@goldSnapshotStoreProperties.archive.interval.toMillis()}",
+            fixedDelayString = "#{@goldSnapshotStoreProperties.archive.interval.toMillis()}"
+    )
+    public void archiveScheduled() {
+        // 多副本共用热表与归档目录时只由 leader 归档
+        if (!cluster.isLeader()) {
+            return;
+        }
+        try {
+            archiveOnce();
+        } catch (Exception ex) {
+            log.warn("Failed to archive gold price snapshots", ex);
+        }
+    }
+
+    // 顺序：写块文件 -> 推进水位线 -> 删除热表旧行；任一步失败重跑都能收敛，读取侧以水位线为界不会重复或遗漏
+    public synchronized int archiveOnce() {
+        Instant cutoff = LocalDate.ofInstant(clock.instant().minus(properties.getArchive().getMinAge()), ZoneOffset.UTC)
+                .atStartOfDay(ZoneOffset.UTC)
+                .toInstant();
+        int archived = 0;
+        for (GoldPriceSnapshotStores.ArchiveTier tier : stores.archiveTiers()) {
+            archived += archiveTier(tier, cutoff);
+        }
+        return archived;
+    }
+
+    private int archiveTier(GoldPriceSnapshotStores.ArchiveTier tier, Instant cutoff) {
+        GoldSnapshotArchive archive = tier.archive();
+        Instant watermark = archive.watermark();
+        if (watermark != null && !cutoff.isAfter(watermark)) {
+            return 0;
+        }
+        DayBatch batch = new DayBatch(archive);
+        tier.hot().streamAsc(watermark, cutoff, batch::accept);
+        batch.flush();
+        archive.advanceWatermark(cutoff);
+        int deleted = tier.hot().deleteBefore(cutoff);
+        log.info("Gold price snapshots archived: symbol={}, before={}, archived={}, deletedFromHot={}, archiveBytes={}",
+                tier.symbol(), cutoff, batch.archived, deleted, archive.sizeInBytes());
+        return batch.archived;
+    }
+
+    private static final class DayBatch {
+
+        private final GoldSnapshotArchive archive;
+        private final List<GoldPriceSnapshot> pending = new ArrayList<>();
+        private LocalDate day;
+        private int archived;
+
+        DayBatch(GoldSnapshotArchive archive) {
+            this.archive = archive;
+        }
+
+        void accept(GoldPriceSnapshot snapshot) {
+            LocalDate snapshotDay = LocalDate.ofInstant(snapshot.getFetchedAt(), ZoneOffset.UTC);
+            if (!snapshotDay.equals(day)) {
+                flush();
+                day = snapshotDay;
+            }
+            pending.add(snapshot);
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            archive.writeDay(day, pending);
+            archived += pending.size();
+            pending.clear();
+        }
+    }
+}
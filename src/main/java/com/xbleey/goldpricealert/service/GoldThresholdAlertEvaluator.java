@@ -4,13 +4,12 @@ import com.xbleey.goldpricealert.enums.GoldThresholdDirection;
 import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 
-@Service
 public class GoldThresholdAlertEvaluator {
 
     private static final Logger log = LoggerFactory.getLogger(GoldThresholdAlertEvaluator.class);
@@ -18,73 +17,84 @@ public class GoldThresholdAlertEvaluator {
     private final GoldPriceHistory history;
     private final GoldThresholdStore thresholdStore;
     private final GoldThresholdAlertScheduler scheduler;
+    private final String symbol;
+    // 上一条评估过的行情价格；同一品种的评估由 GoldInstrumentPipeline 串行调用
+    private BigDecimal previousPrice;
 
+    // symbol 非空时只评估该品种登记的阈值，提醒邮件主题带品种前缀；为空表示主品种
     public GoldThresholdAlertEvaluator(
             GoldPriceHistory history,
             GoldThresholdStore thresholdStore,
-            GoldThresholdAlertScheduler scheduler
+            GoldThresholdAlertScheduler scheduler,
+            String symbol
     ) {
         this.history = history;
         this.thresholdStore = thresholdStore;
         this.scheduler = scheduler;
+        this.symbol = symbol;
     }
 
     public boolean evaluate(GoldPriceSnapshot latest) {
-        if (latest == null) {
+        if (latest == null || latest.price() == null) {
             return false;
         }
-        Optional<BigDecimal> thresholdOpt = thresholdStore.getThreshold();
-        if (thresholdOpt.isEmpty()) {
+        BigDecimal previous = previousPrice(latest);
+        BigDecimal latestPrice = latest.price();
+        previousPrice = latestPrice;
+        if (previous == null || previous.compareTo(latestPrice) == 0) {
             return false;
         }
-        BigDecimal threshold = thresholdOpt.get();
-        if (threshold.compareTo(BigDecimal.ZERO) <= 0) {
+        List<GoldThresholdIndex.Entry> crossed = thresholdStore.takeCrossed(symbol, previous, latestPrice);
+        if (crossed.isEmpty()) {
             return false;
         }
-        List<GoldPriceSnapshot> recent = history.getRecent(2);
-        if (recent.size() < 2) {
-            return false;
+        List<GoldThresholdAlertMessage.Trigger> triggers = new ArrayList<>(crossed.size());
+        List<GoldThresholdIndex.Entry> failed = new ArrayList<>();
+        for (GoldThresholdIndex.Entry entry : crossed) {
+            try {
+                if (thresholdStore.markTriggered(entry, latest.fetchedAt(), latestPrice)) {
+                    triggers.add(new GoldThresholdAlertMessage.Trigger(entry.id(), entry.username(), entry.threshold()));
+                }
+            } catch (Exception ex) {
+                log.warn("Failed to mark price threshold id={} triggered, keep it pending", entry.id(), ex);
+                failed.add(entry);
+            }
         }
-        GoldPriceSnapshot previous = recent.get(1);
-        GoldThresholdDirection direction = resolveDirection(previous, latest, threshold);
-        if (direction == null) {
+        if (!failed.isEmpty()) {
+            thresholdStore.restore(symbol, failed);
+        }
+        if (triggers.isEmpty()) {
             return false;
         }
-        GoldThresholdAlertMessage message = new GoldThresholdAlertMessage(
+        GoldThresholdDirection direction = latestPrice.compareTo(previous) > 0
+                ? GoldThresholdDirection.UP
+                : GoldThresholdDirection.DOWN;
+        BigDecimal threshold = triggers.getLast().threshold();
+        scheduler.schedule(new GoldThresholdAlertMessage(
                 threshold,
-                latest.price(),
+                latestPrice,
                 direction,
                 latest.fetchedAt(),
-                history.getRecent(60)
-        );
-        boolean triggered = thresholdStore.markTriggered(latest.fetchedAt(), latest.price());
-        if (!triggered) {
-            return false;
-        }
-        scheduler.schedule(message);
+                history.getRecent(60),
+                List.copyOf(triggers),
+                symbol
+        ));
         if (log.isWarnEnabled()) {
-            log.warn("Threshold alert triggered: {} {}", direction, threshold.toPlainString());
+            log.warn("Threshold alert triggered: {}{} {} ({} thresholds)",
+                    symbol == null ? "" : symbol + " ", direction, threshold.toPlainString(), triggers.size());
         }
         return true;
     }
 
-    private GoldThresholdDirection resolveDirection(
-            GoldPriceSnapshot previous,
-            GoldPriceSnapshot latest,
-            BigDecimal threshold
-    ) {
-        if (previous == null || latest == null || threshold == null) {
-            return null;
-        }
-        BigDecimal previousPrice = previous.price();
-        BigDecimal latestPrice = latest.price();
-        int prevCmp = previousPrice.compareTo(threshold);
-        int latestCmp = latestPrice.compareTo(threshold);
-        if (prevCmp >= 0 && latestCmp < 0) {
-            return GoldThresholdDirection.DOWN;
+    // 启动后的第一条行情没有上一次评估的价格，回退到历史中的上一条快照
+    private BigDecimal previousPrice(GoldPriceSnapshot latest) {
+        if (previousPrice != null) {
+            return previousPrice;
         }
-        if (prevCmp < 0 && latestCmp >= 0) {
-            return GoldThresholdDirection.UP;
+        for (GoldPriceSnapshot snapshot : history.getRecent(2)) {
+            if (!Objects.equals(snapshot.fetchedAt(), latest.fetchedAt())) {
+                return snapshot.price();
+            }
         }
         return null;
     }
@@ -7,11 +7,17 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 
+// 一条行情穿越的全部用户阈值合并为一条提醒；threshold 为最后穿越（离最新价最近）的阈值。symbol 为空表示主品种
 public record GoldThresholdAlertMessage(
         BigDecimal threshold,
         BigDecimal price,
         GoldThresholdDirection direction,
         Instant alertTime,
-        List<GoldPriceSnapshot> recentSnapshots
+        List<GoldPriceSnapshot> recentSnapshots,
+        List<Trigger> triggers,
+        String symbol
 ) {
+
+    public record Trigger(Long id, String username, BigDecimal threshold) {
+    }
 }
@@ -24,11 +24,19 @@ public class GoldThresholdAlertScheduler {
 
     private final TaskScheduler taskScheduler;
     private final GoldAlertEmailService emailService;
+    private final GoldPipelineStages stages;
     private final Clock clock;
 
-    public GoldThresholdAlertScheduler(TaskScheduler taskScheduler, GoldAlertEmailService emailService, Clock clock) {
+    // 调度线程到点只把邮件交给通知阶段，SMTP 发送不占用与定时拉取共用的调度线程
+    public GoldThresholdAlertScheduler(
+            TaskScheduler taskScheduler,
+            GoldAlertEmailService emailService,
+            GoldPipelineStages stages,
+            Clock clock
+    ) {
         this.taskScheduler = taskScheduler;
         this.emailService = emailService;
+        this.stages = stages;
         this.clock = clock;
     }
 
@@ -39,7 +47,10 @@ public class GoldThresholdAlertScheduler {
         Instant base = Instant.now(clock);
         for (Duration delay : SEND_DELAYS) {
             Instant sendAt = base.plus(delay);
-            taskScheduler.schedule(() -> emailService.notifyThresholdAlert(message), sendAt);
+            taskScheduler.schedule(
+                    () -> stages.submitNotification("threshold alert " + message.alertTime(), () -> emailService.notifyThresholdAlert(message)),
+                    sendAt
+            );
         }
         if (log.isInfoEnabled()) {
             log.info("Scheduled {} threshold alert emails for {}", SEND_DELAYS.size(), message.alertTime());
@@ -0,0 +1,131 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.enums.GoldThresholdDirection;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+// 全部待触发价格阈值的内存索引，按价格排序：键为按 4 位小数定点化的价格，值为该价位上登记的阈值。
+// 行情从 previous 变为 latest 时穿越的阈值正好落在区间 (min, max] 内，一次区间查询 O(log n + k) 取出，
+// 与登记总数基本无关。非线程安全的 TreeMap 由对象锁保护，写入（用户登记/清除）远少于行情查询
+final class GoldThresholdIndex {
+
+    static final int PRICE_SCALE = 4;
+
+    private final TreeMap<Long, List<Entry>> byPrice = new TreeMap<>();
+    private int size;
+
+    // 按 id 去重，重复装填或同步同一条记录不会重复登记
+    synchronized boolean add(Entry entry) {
+        List<Entry> bucket = byPrice.computeIfAbsent(key(entry.threshold()), ignored -> new ArrayList<>(1));
+        for (Entry existing : bucket) {
+            if (existing.id() == entry.id()) {
+                return false;
+            }
+        }
+        bucket.add(entry);
+        size++;
+        return true;
+    }
+
+    synchronized boolean remove(long id, BigDecimal threshold) {
+        long key = key(threshold);
+        List<Entry> bucket = byPrice.get(key);
+        if (bucket == null || !bucket.removeIf(entry -> entry.id() == id)) {
+            return false;
+        }
+        if (bucket.isEmpty()) {
+            byPrice.remove(key);
+        }
+        size--;
+        return true;
+    }
+
+    // 取出并移除从 previous 变为 latest 时按方向穿越的阈值：上涨时 previous < t <= latest，下跌时 latest < t <= previous，
+    // 按穿越先后排列。行情价格超过 4 位小数时向下取整不改变与阈值的比较结果
+    synchronized List<Entry> removeCrossed(BigDecimal previous, BigDecimal latest) {
+        List<Entry> crossed = new ArrayList<>();
+        if (previous == null || latest == null || previous.compareTo(latest) == 0 || size == 0) {
+            return crossed;
+        }
+        boolean up = latest.compareTo(previous) > 0;
+        GoldThresholdDirection direction = up ? GoldThresholdDirection.UP : GoldThresholdDirection.DOWN;
+        long low = floorKey(up ? previous : latest);
+        long high = floorKey(up ? latest : previous);
+        if (low == high) {
+            return crossed;
+        }
+        NavigableMap<Long, List<Entry>> range = byPrice.subMap(low, false, high, true);
+        if (!up) {
+            range = range.descendingMap();
+        }
+        Iterator<Map.Entry<Long, List<Entry>>> iterator = range.entrySet().iterator();
+        while (iterator.hasNext()) {
+            List<Entry> bucket = iterator.next().getValue();
+            Iterator<Entry> entries = bucket.iterator();
+            while (entries.hasNext()) {
+                Entry entry = entries.next();
+                if (entry.direction() == null || entry.direction() == direction) {
+                    crossed.add(entry);
+                    entries.remove();
+                }
+            }
+            if (bucket.isEmpty()) {
+                iterator.remove();
+            }
+        }
+        size -= crossed.size();
+        return crossed;
+    }
+
+    // 离 price 最近的已登记阈值，供自适应轮询判断是否接近阈值
+    synchronized Optional<BigDecimal> nearest(BigDecimal price) {
+        if (price == null || byPrice.isEmpty()) {
+            return Optional.empty();
+        }
+        long key = floorKey(price);
+        Map.Entry<Long, List<Entry>> below = byPrice.floorEntry(key);
+        Map.Entry<Long, List<Entry>> above = byPrice.higherEntry(key);
+        if (below == null) {
+            return Optional.of(above.getValue().getFirst().threshold());
+        }
+        if (above == null) {
+            return Optional.of(below.getValue().getFirst().threshold());
+        }
+        BigDecimal lower = below.getValue().getFirst().threshold();
+        BigDecimal upper = above.getValue().getFirst().threshold();
+        return Optional.of(price.subtract(lower).compareTo(upper.subtract(price)) <= 0 ? lower : upper);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized void clear() {
+        byPrice.clear();
+        size = 0;
+    }
+
+    // 阈值必须能精确表示为 4 位小数
+    static long key(BigDecimal threshold) {
+        try {
+            return threshold.setScale(PRICE_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("threshold must have at most " + PRICE_SCALE + " decimal places: " + threshold);
+        }
+    }
+
+    static long floorKey(BigDecimal price) {
+        return price.setScale(PRICE_SCALE, RoundingMode.FLOOR).unscaledValue().longValueExact();
+    }
+
+    record Entry(long id, String username, BigDecimal threshold, GoldThresholdDirection direction) {
+    }
+}
@@ -1,116 +1,252 @@
 package com.xbleey.goldpricealert.service;
 
+import com.xbleey.goldpricealert.config.GoldProperties;
+import com.xbleey.goldpricealert.enums.GoldThresholdDirection;
 import com.xbleey.goldpricealert.model.GoldThresholdHistory;
 import com.xbleey.goldpricealert.repository.GoldThresholdHistoryStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.Clock;
 import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
+// 用户价格阈值。每个用户可登记多条待触发阈值，持久化在 gold_threshold_history，触发或清除后不再生效；
+// 全部待触发阈值按品种分别保存在按价格排序的内存索引中，逐条行情的穿越判断只查本品种的索引不查库；
+// 库中 symbol 为空表示主品种，兼容区分品种之前登记的阈值。
+// 启动时分页装填索引；多副本部署时其他实例的登记与清除按 sync-interval 从库中增量同步
 @Service
-public class GoldThresholdStore {
+public class GoldThresholdStore implements ApplicationRunner {
 
     private static final Logger log = LoggerFactory.getLogger(GoldThresholdStore.class);
-    private static final String THRESHOLD_KEY = "gold:alert:threshold";
+    private static final int LOAD_PAGE_SIZE = 5_000;
 
-    private final StringRedisTemplate redisTemplate;
     private final GoldThresholdHistoryStore historyStore;
+    private final GoldProperties.Threshold settings;
+    private final boolean clustered;
+    private final TaskScheduler taskScheduler;
     private final Clock clock;
+    private final String primarySymbol;
+    // 键为配置中的全部品种，启动后不再增减
+    private final Map<String, GoldThresholdIndex> indexes = new LinkedHashMap<>();
+    private volatile Instant syncedAt;
 
-    public GoldThresholdStore(StringRedisTemplate redisTemplate, GoldThresholdHistoryStore historyStore, Clock clock) {
-        this.redisTemplate = redisTemplate;
+    // 配置中的全部品种各有一个索引，主品种在前
+    public GoldThresholdStore(
+            GoldThresholdHistoryStore historyStore,
+            GoldProperties properties,
+            TaskScheduler taskScheduler,
+            Clock clock
+    ) {
         this.historyStore = historyStore;
+        this.settings = properties.getThreshold();
+        for (GoldProperties.Instrument instrument : properties.allInstruments()) {
+            indexes.put(instrument.getSymbol(), new GoldThresholdIndex());
+        }
+        this.primarySymbol = properties.getSymbol();
+        this.clustered = properties.getCluster().isEnabled();
+        this.taskScheduler = taskScheduler;
         this.clock = clock;
     }
 
-    public Optional<BigDecimal> getThreshold() {
-        Optional<BigDecimal> cached = readThresholdFromCache();
-        if (cached.isPresent()) {
-            return cached;
+    @Override
+    public void run(ApplicationArguments args) {
+        load();
+        if (clustered && taskScheduler != null) {
+            taskScheduler.scheduleWithFixedDelay(this::syncQuietly, settings.getSyncInterval());
+        }
+    }
+
+    public void load() {
+        Instant startedAt = clock.instant();
+        indexes.values().forEach(GoldThresholdIndex::clear);
+        long afterId = 0;
+        while (true) {
+            List<GoldThresholdHistory> page = historyStore.findPendingAfterId(afterId, LOAD_PAGE_SIZE);
+            for (GoldThresholdHistory record : page) {
+                index(record);
+            }
+            if (page.size() < LOAD_PAGE_SIZE) {
+                break;
+            }
+            afterId = page.getLast().getId();
+        }
+        syncedAt = startedAt;
+        log.info("Loaded {} pending price thresholds", pendingCount());
+    }
+
+    // 向前多取一个同步间隔，覆盖各实例时钟偏差与读取时尚未提交的事务；按 id 去重，重复读取无副作用
+    public void sync() {
+        Instant startedAt = clock.instant();
+        Instant since = syncedAt == null ? Instant.EPOCH : syncedAt.minus(settings.getSyncInterval());
+        for (GoldThresholdHistory record : historyStore.findChangedSince(since)) {
+            if (record.isPending()) {
+                index(record);
+            } else if (record.getId() != null && record.getThreshold() != null) {
+                findIndex(record.getSymbol()).ifPresent(index -> index.remove(record.getId(), record.getThreshold()));
+            }
         }
-        // Redis 无数据时回源数据库，并回写缓存用于后续读取
-        Optional<GoldThresholdHistory> record = historyStore.findLatestPending();
-        record.ifPresent(history -> cacheThreshold(history.getThreshold()));
-        return record.map(GoldThresholdHistory::getThreshold);
+        syncedAt = startedAt;
+    }
+
+    public List<GoldThresholdHistory> listThresholds(String username) {
+        return historyStore.findPendingByUsername(requireUsername(username));
     }
 
-    public BigDecimal setThreshold(BigDecimal threshold) {
+    public GoldThresholdHistory addThreshold(String username, BigDecimal threshold, GoldThresholdDirection direction) {
+        return addThreshold(username, null, threshold, direction);
+    }
+
+    // symbol 为空时登记到主品种
+    public GoldThresholdHistory addThreshold(
+            String username,
+            String symbol,
+            BigDecimal threshold,
+            GoldThresholdDirection direction
+    ) {
+        String owner = requireUsername(username);
+        String storedSymbol = storedSymbol(symbol);
+        if (findIndex(storedSymbol).isEmpty()) {
+            throw new IllegalArgumentException("unknown symbol: " + symbol);
+        }
         if (threshold == null) {
             throw new IllegalArgumentException("threshold must not be null");
         }
-        if (threshold.compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalArgumentException("threshold must be >= 0");
+        if (threshold.signum() <= 0) {
+            throw new IllegalArgumentException("threshold must be > 0");
+        }
+        GoldThresholdIndex.key(threshold);
+        if (historyStore.countPendingByUsername(owner) >= settings.getMaxPerUser()) {
+            throw new IllegalArgumentException("at most " + settings.getMaxPerUser() + " pending thresholds are allowed per user");
         }
         Instant now = clock.instant();
-        Optional<GoldThresholdHistory> latest = historyStore.findLatest();
-        GoldThresholdHistory record = latest.filter(GoldThresholdHistory::isPending)
-                .orElseGet(GoldThresholdHistory::new);
+        GoldThresholdHistory record = new GoldThresholdHistory();
+        record.setUsername(owner);
+        record.setSymbol(storedSymbol);
         record.setThreshold(threshold);
+        record.setDirection(direction == null ? null : direction.name());
         record.setSetAt(now);
         record.setStatus(GoldThresholdHistory.STATUS_PENDING);
-        record.setTriggeredAt(null);
-        record.setTriggeredPrice(null);
-        if (record.getId() == null) {
-            historyStore.save(record);
-        } else {
-            historyStore.update(record);
-        }
-        cacheThreshold(threshold);
-        return threshold;
+        record.setUpdatedAt(now);
+        historyStore.save(record);
+        index(record);
+        return record;
     }
 
-    public boolean markTriggered(Instant triggeredAt, BigDecimal triggeredPrice) {
-        Optional<GoldThresholdHistory> active = historyStore.findLatestPending();
-        if (active.isEmpty()) {
-            return false;
+    public void clearThreshold(String username, Long id) {
+        String owner = requireUsername(username);
+        GoldThresholdHistory record = historyStore.findById(id)
+                .filter(found -> owner.equals(found.getUsername()) && found.isPending())
+                .orElseThrow(() -> new NoSuchElementException("threshold not found: " + id));
+        clear(record);
+    }
+
+    public int clearThresholds(String username) {
+        int cleared = 0;
+        for (GoldThresholdHistory record : historyStore.findPendingByUsername(requireUsername(username))) {
+            if (clear(record)) {
+                cleared++;
+            }
         }
-        boolean updated = historyStore.markTriggered(active.get().getId(), triggeredAt, triggeredPrice);
-        if (updated) {
-            clearCache();
+        return cleared;
+    }
+
+    // 取出本次行情穿越的该品种阈值并从索引中移除，调用方随后逐条 markTriggered；symbol 为空表示主品种
+    List<GoldThresholdIndex.Entry> takeCrossed(String symbol, BigDecimal previousPrice, BigDecimal latestPrice) {
+        return findIndex(symbol)
+                .map(index -> index.removeCrossed(previousPrice, latestPrice))
+                .orElseGet(List::of);
+    }
+
+    // markTriggered 失败（如数据库不可用）的阈值在库中仍是 PENDING，放回索引等下一次穿越，不必等重启装填
+    void restore(String symbol, List<GoldThresholdIndex.Entry> entries) {
+        findIndex(symbol).ifPresent(index -> entries.forEach(index::add));
+    }
+
+    // 条件更新（仅 PENDING 可触发），同一阈值在多实例之间也只会触发一次
+    boolean markTriggered(GoldThresholdIndex.Entry entry, Instant triggeredAt, BigDecimal triggeredPrice) {
+        return historyStore.markTriggered(entry.id(), triggeredAt, triggeredPrice);
+    }
+
+    public Optional<BigDecimal> nearestThreshold(BigDecimal price) {
+        return nearestThreshold(null, price);
+    }
+
+    public Optional<BigDecimal> nearestThreshold(String symbol, BigDecimal price) {
+        return findIndex(symbol).flatMap(index -> index.nearest(price));
+    }
+
+    public int pendingCount() {
+        return indexes.values().stream().mapToInt(GoldThresholdIndex::size).sum();
+    }
+
+    private boolean clear(GoldThresholdHistory record) {
+        boolean cleared = historyStore.markCleared(record.getId(), clock.instant());
+        findIndex(record.getSymbol()).ifPresent(index -> index.remove(record.getId(), record.getThreshold()));
+        return cleared;
+    }
+
+    // 库中主品种的 symbol 为空，与区分品种之前登记的阈值保持一致
+    private String storedSymbol(String symbol) {
+        if (symbol == null || symbol.isBlank() || symbol.equals(primarySymbol)) {
+            return null;
         }
-        return updated;
+        return symbol;
     }
 
-    public void clearThreshold() {
-        Optional<GoldThresholdHistory> active = historyStore.findLatestPending();
-        active.ifPresent(record -> historyStore.markCleared(record.getId()));
-        clearCache();
+    private Optional<GoldThresholdIndex> findIndex(String symbol) {
+        return Optional.ofNullable(indexes.get(symbol == null || symbol.isBlank() ? primarySymbol : symbol));
     }
 
-    private void cacheThreshold(BigDecimal threshold) {
-        if (threshold == null) {
+    private void index(GoldThresholdHistory record) {
+        if (record.getId() == null || record.getThreshold() == null) {
+            return;
+        }
+        Optional<GoldThresholdIndex> index = findIndex(record.getSymbol());
+        if (index.isEmpty()) {
+            log.warn("Skip price threshold id={} for unconfigured symbol {}", record.getId(), record.getSymbol());
             return;
         }
         try {
-            redisTemplate.opsForValue().set(THRESHOLD_KEY, threshold.toPlainString());
-        } catch (Exception ex) {
-            log.warn("Failed to cache threshold to redis", ex);
+            index.get().add(new GoldThresholdIndex.Entry(
+                    record.getId(),
+                    record.getUsername(),
+                    record.getThreshold(),
+                    parseDirection(record.getDirection())
+            ));
+        } catch (IllegalArgumentException ex) {
+            log.warn("Skip invalid price threshold id={}: {}", record.getId(), ex.getMessage());
         }
     }
 
-    private Optional<BigDecimal> readThresholdFromCache() {
+    private void syncQuietly() {
         try {
-            String cached = redisTemplate.opsForValue().get(THRESHOLD_KEY);
-            if (cached == null || cached.isBlank()) {
-                return Optional.empty();
-            }
-            return Optional.of(new BigDecimal(cached.trim()));
+            sync();
         } catch (Exception ex) {
-            log.warn("Failed to read threshold from redis", ex);
-            return Optional.empty();
+            log.warn("Failed to sync price thresholds", ex);
         }
     }
 
-    private void clearCache() {
-        try {
-            redisTemplate.delete(THRESHOLD_KEY);
-        } catch (Exception ex) {
-            log.warn("Failed to clear threshold from redis", ex);
+    private static GoldThresholdDirection parseDirection(String direction) {
+        if (direction == null || direction.isBlank()) {
+            return null;
+        }
+        return GoldThresholdDirection.valueOf(direction.trim());
+    }
+
+    private static String requireUsername(String username) {
+        if (username == null || username.isBlank()) {
+            throw new IllegalArgumentException("username must not be blank");
         }
+        return username;
     }
 }
@@ -0,0 +1,11 @@
+package com.xbleey.goldpricealert.service;
+
+import java.util.function.Consumer;
+
+// 实例之间广播行情的消息通道；投递尽力而为，丢失的行情由 follower 接管后的下一轮拉取补上
+public interface GoldTickChannel {
+
+    void publish(String message);
+
+    void subscribe(Consumer<String> listener);
+}
@@ -0,0 +1,47 @@
+package com.xbleey.goldpricealert.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+// 滑动一小时内实际发给上游的请求时间：每个品种、每次重试、对冲与交叉校验请求以及 GET /price 手动触发各算一次，
+// 供 GoldPollingScheduler 按 gold.polling.hourly-budget 限制上游额度。熔断打开时跳过的来源不算
+@Component
+public class GoldUpstreamCallLog {
+
+    static final Duration WINDOW = Duration.ofHours(1);
+
+    private final Clock clock;
+    private final Deque<Instant> calls = new ArrayDeque<>();
+
+    public GoldUpstreamCallLog(Clock clock) {
+        this.clock = clock;
+    }
+
+    public void record() {
+        record(clock.instant());
+    }
+
+    synchronized void record(Instant at) {
+        calls.addLast(at);
+        prune(at);
+    }
+
+    // 窗口内的请求时间，按先后排序
+    synchronized List<Instant> within(Instant now) {
+        prune(now);
+        return List.copyOf(calls);
+    }
+
+    private void prune(Instant now) {
+        Instant cutoff = now.minus(WINDOW);
+        while (!calls.isEmpty() && !calls.peekFirst().isAfter(cutoff)) {
+            calls.pollFirst();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.xbleey.goldpricealert.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.net.URI;
+
+// gold-api.com 格式（name/price/symbol/updatedAt/updatedAtReadable）的 HTTP 来源。
+// 上游返回过 ETag / Last-Modified 时，后续请求带上条件请求头，304 复用上次的响应字段（随后按 updatedAt 判重丢弃）
+public class HttpGoldPriceProvider implements GoldPriceProvider {
+
+    private static final int HTTP_NOT_MODIFIED = 304;
+
+    private final OkHttpClient okHttpClient;
+    private final GoldApiResponseDecoder decoder;
+    private final URI apiUrl;
+    private final Request request;
+    private volatile Validated lastValidated;
+
+    public HttpGoldPriceProvider(OkHttpClient okHttpClient, ObjectMapper objectMapper, URI apiUrl) {
+        this.okHttpClient = okHttpClient;
+        this.decoder = new GoldApiResponseDecoder(objectMapper.getFactory());
+        this.apiUrl = apiUrl;
+        this.request = new Request.Builder()
+                .url(apiUrl.toString())
+                .get()
+                .build();
+    }
+
+    @Override
+    public String name() {
+        return apiUrl.toString();
+    }
+
+    @Override
+    public GoldPriceSnapshot fetch() throws IOException {
+        Validated validated = lastValidated;
+        try (Response httpResponse = okHttpClient.newCall(conditional(validated)).execute()) {
+            if (httpResponse.code() == HTTP_NOT_MODIFIED && validated != null) {
+                return validated.copy();
+            }
+            if (!httpResponse.isSuccessful()) {
+                throw new IOException("HTTP status " + httpResponse.code());
+            }
+            if (httpResponse.body() == null) {
+                throw new IOException("Empty response body");
+            }
+            GoldPriceSnapshot snapshot = new GoldPriceSnapshot();
+            decoder.decodeInto(snapshot, httpResponse.body().byteStream());
+            String etag = httpResponse.header("ETag");
+            String lastModified = httpResponse.header("Last-Modified");
+            lastValidated = etag == null && lastModified == null ? null : new Validated(etag, lastModified, snapshot);
+            return snapshot;
+        }
+    }
+
+    private Request conditional(Validated validated) {
+        if (validated == null) {
+            return request;
+        }
+        Request.Builder builder = request.newBuilder();
+        if (validated.etag() != null) {
+            builder.header("If-None-Match", validated.etag());
+        }
+        if (validated.lastModified() != null) {
+            builder.header("If-Modified-Since", validated.lastModified());
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String toString() {
+        return name();
+    }
+
+    // 返回出去的快照会被调用方写入 fetchedAt 等字段，304 时只拷贝上游响应字段，给出新对象
+    private record Validated(String etag, String lastModified, GoldPriceSnapshot snapshot) {
+
+        GoldPriceSnapshot copy() {
+            GoldPriceSnapshot copy = new GoldPriceSnapshot();
+            copy.setName(snapshot.getName());
+            copy.setPrice(snapshot.getPrice());
+            copy.setSymbol(snapshot.getSymbol());
+            copy.setUpdatedAt(snapshot.getUpdatedAt());
+            copy.setUpdatedAtReadable(snapshot.getUpdatedAtReadable());
+            return copy;
+        }
+    }
+}
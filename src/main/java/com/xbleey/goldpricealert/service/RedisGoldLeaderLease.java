@@ -0,0 +1,50 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.config.GoldProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+// SET NX PX 获取租约；续期与释放先比较持有者再操作，用脚本保证原子性，过期后被他人拿走的租约不会被误续或误删
+@Component
+@ConditionalOnProperty(prefix = "gold.cluster", name = "enabled", havingValue = "true")
+public class RedisGoldLeaderLease implements GoldLeaderLease {
+
+    private static final RedisScript<Long> RENEW = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end",
+            Long.class
+    );
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class
+    );
+
+    private final StringRedisTemplate redisTemplate;
+    private final String key;
+
+    public RedisGoldLeaderLease(StringRedisTemplate redisTemplate, GoldProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.key = properties.getCluster().getLeaseKey();
+    }
+
+    @Override
+    public boolean tryAcquire(String owner, Duration ttl) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, owner, ttl));
+    }
+
+    @Override
+    public boolean renew(String owner, Duration ttl) {
+        Long renewed = redisTemplate.execute(RENEW, List.of(key), owner, String.valueOf(ttl.toMillis()));
+        return renewed != null && renewed == 1;
+    }
+
+    @Override
+    public void release(String owner) {
+        redisTemplate.execute(RELEASE, List.of(key), owner);
+    }
+}
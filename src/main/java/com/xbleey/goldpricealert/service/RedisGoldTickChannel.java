@@ -0,0 +1,61 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.config.GoldProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+@Component
+@ConditionalOnProperty(prefix = "gold.cluster", name = "enabled", havingValue = "true")
+public class RedisGoldTickChannel implements GoldTickChannel {
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisConnectionFactory connectionFactory;
+    private final String channel;
+    private RedisMessageListenerContainer container;
+
+    public RedisGoldTickChannel(
+            StringRedisTemplate redisTemplate,
+            RedisConnectionFactory connectionFactory,
+            GoldProperties properties
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.connectionFactory = connectionFactory;
+        this.channel = properties.getCluster().getTickChannel();
+    }
+
+    @Override
+    public void publish(String message) {
+        redisTemplate.convertAndSend(channel, message);
+    }
+
+    // 订阅连接由监听容器维护，断线后自动重连并重新订阅
+    @Override
+    public synchronized void subscribe(Consumer<String> listener) {
+        if (container == null) {
+            container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            container.afterPropertiesSet();
+            container.start();
+        }
+        container.addMessageListener(
+                (message, pattern) -> listener.accept(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(channel)
+        );
+    }
+
+    @PreDestroy
+    public synchronized void close() throws Exception {
+        if (container != null) {
+            container.destroy();
+            container = null;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.xbleey.goldpricealert.service;
+
+import java.time.Instant;
+import java.util.Optional;
+
+// 交易日历：拉取调度据此跳过休市时段，并在休市期间直接等到下一次开市
+public interface TradingCalendar {
+
+    String name();
+
+    boolean isOpen(Instant instant);
+
+    // instant 处于交易时段时返回它本身；日历在可预见的范围内不再开市时为空
+    Optional<Instant> nextOpen(Instant instant);
+}
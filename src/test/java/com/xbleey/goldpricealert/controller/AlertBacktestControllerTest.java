@@ -0,0 +1,79 @@
+package com.xbleey.goldpricealert.controller;
+
+import com.xbleey.goldpricealert.service.GoldAlertBacktester;
+import com.xbleey.goldpricealert.service.GoldAlertLevelConfig;
+import com.xbleey.goldpricealert.service.GoldAlertLevelConfigStore;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AlertBacktestControllerTest {
+
+    private static final Instant FROM = Instant.parse("2026-01-01T00:00:00Z");
+    private static final Instant TO = Instant.parse("2026-02-01T00:00:00Z");
+
+    @Test
+    void backtestsCandidatesAndFallsBackToCurrentLevels() {
+        GoldAlertBacktester backtester = mock(GoldAlertBacktester.class);
+        GoldAlertLevelConfigStore store = mock(GoldAlertLevelConfigStore.class);
+        List<GoldAlertLevelConfig> current = List.of(new GoldAlertLevelConfig("P1", 1, new BigDecimal("0.10"), 1, 30, true));
+        when(store.listLevels()).thenReturn(current);
+        when(backtester.backtest(any(), any(), anyList()))
+                .thenReturn(new GoldAlertBacktester.BacktestResult(FROM, TO, 100, 1, 5, List.of()));
+        AlertBacktestController controller = new AlertBacktestController(backtester, store);
+
+        ResponseEntity<Map<String, Object>> response = controller.backtest(new AlertBacktestController.BacktestRequest(
+                FROM,
+                TO,
+                List.of(
+                        new AlertBacktestController.BacktestConfiguration("current", null),
+                        new AlertBacktestController.BacktestConfiguration("wider", List.of(
+                                new AlertLevelConfigController.AlertLevelUpsertRequest("p1", new BigDecimal("0.20"), 5, null)
+                        ))
+                )
+        ));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsEntry("status", "ok").containsEntry("ticks", 100);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<GoldAlertBacktester.Candidate>> captor = ArgumentCaptor.forClass(List.class);
+        verify(backtester).backtest(any(), any(), captor.capture());
+        assertThat(captor.getValue().get(0).levels()).isEqualTo(current);
+        assertThat(captor.getValue().get(1).levels())
+                .containsExactly(new GoldAlertLevelConfig("P1", 1, new BigDecimal("0.20"), 5, 0, true));
+    }
+
+    @Test
+    void invalidLevelReturnsBadRequestAndRunningJobReturnsConflict() {
+        GoldAlertBacktester backtester = mock(GoldAlertBacktester.class);
+        GoldAlertLevelConfigStore store = mock(GoldAlertLevelConfigStore.class);
+        AlertBacktestController controller = new AlertBacktestController(backtester, store);
+
+        ResponseEntity<Map<String, Object>> invalid = controller.backtest(new AlertBacktestController.BacktestRequest(
+                FROM,
+                TO,
+                List.of(new AlertBacktestController.BacktestConfiguration("x", List.of(
+                        new AlertLevelConfigController.AlertLevelUpsertRequest("high", new BigDecimal("0.20"), 5, 0)
+                )))
+        ));
+        assertThat(invalid.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        when(backtester.backtest(any(), any(), anyList())).thenThrow(new IllegalStateException("alert backtest is already running"));
+        ResponseEntity<Map<String, Object>> conflict = controller.backtest(new AlertBacktestController.BacktestRequest(FROM, TO, null));
+        assertThat(conflict.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(conflict.getBody()).containsEntry("status", "conflict");
+    }
+}
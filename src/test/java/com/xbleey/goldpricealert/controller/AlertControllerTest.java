@@ -5,31 +5,42 @@ import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.xbleey.goldpricealert.mapper.GoldAlertHistoryMapper;
 import com.xbleey.goldpricealert.model.GoldAlertHistory;
+import com.xbleey.goldpricealert.service.GoldInstrumentPipeline;
+import com.xbleey.goldpricealert.service.GoldInstrumentPipelines;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.apache.ibatis.builder.MapperBuilderAssistant;
 import org.apache.ibatis.session.Configuration;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class AlertControllerTest {
 
+    private static final GoldInstrumentPipelines PIPELINES = new GoldInstrumentPipelines(List.of(
+            new GoldInstrumentPipeline("XAU", List.of(), null, null, null, null),
+            new GoldInstrumentPipeline("XAG", List.of(), null, null, null, null)
+    ));
+
     @Test
     void listAppliesUpDirectionFilter() {
         initLambdaCache();
         GoldAlertHistoryMapper mapper = mock(GoldAlertHistoryMapper.class);
         when(mapper.selectPage(any(Page.class), any(LambdaQueryWrapper.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        AlertController controller = new AlertController(mapper);
+        AlertController controller = new AlertController(mapper, PIPELINES);
 
-        Map<String, Object> response = controller.list(1, 20, List.of("P1"), List.of("up"));
+        Map<String, Object> response = controller.list(1, 20, List.of("P1"), List.of("up"), null).getBody();
 
         assertThat(response).containsEntry("current", 1L);
         assertThat(response).containsEntry("pageSize", 20L);
@@ -48,9 +59,9 @@ class AlertControllerTest {
         initLambdaCache();
         GoldAlertHistoryMapper mapper = mock(GoldAlertHistoryMapper.class);
         when(mapper.selectPage(any(Page.class), any(LambdaQueryWrapper.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        AlertController controller = new AlertController(mapper);
+        AlertController controller = new AlertController(mapper, PIPELINES);
 
-        controller.list(1, 20, null, List.of("跌"));
+        controller.list(1, 20, null, List.of("跌"), null);
 
         ArgumentCaptor<LambdaQueryWrapper<GoldAlertHistory>> wrapperCaptor = wrapperCaptor();
         verify(mapper).selectPage(any(Page.class), wrapperCaptor.capture());
@@ -60,6 +71,80 @@ class AlertControllerTest {
         assertThat(wrapperCaptor.getValue().getParamNameValuePairs()).containsValue(BigDecimal.ZERO);
     }
 
+    @Test
+    void scrollSeeksPastCursorAndReturnsNextCursor() {
+        initLambdaCache();
+        GoldAlertHistoryMapper mapper = mock(GoldAlertHistoryMapper.class);
+        Instant time = Instant.parse("2026-01-05T12:00:00Z");
+        when(mapper.selectList(any(LambdaQueryWrapper.class))).thenReturn(List.of(
+                alert(12L, time),
+                alert(11L, time),
+                alert(10L, time.minusSeconds(60))
+        ));
+        AlertController controller = new AlertController(mapper, PIPELINES);
+        String cursor = new KeysetCursor(time.plusSeconds(60), 20L).encode();
+
+        Map<String, Object> response = controller.scroll(2, cursor, false, List.of("P1"), null, "XAG").getBody();
+
+        assertThat(response).containsEntry("hasMore", true);
+        assertThat(response).doesNotContainKey("total");
+        assertThat(response.get("nextCursor")).isEqualTo(new KeysetCursor(time, 11L).encode());
+        assertThat((List<?>) response.get("records")).hasSize(2);
+        ArgumentCaptor<LambdaQueryWrapper<GoldAlertHistory>> wrapperCaptor = wrapperCaptor();
+        verify(mapper).selectList(wrapperCaptor.capture());
+        assertThat(wrapperCaptor.getValue().getSqlSegment())
+                .contains("alert_level")
+                .contains("symbol =")
+                .contains("alert_time_utc <")
+                .contains("id <");
+        assertThat(wrapperCaptor.getValue().getParamNameValuePairs()).containsValue("XAG");
+        verify(mapper, never()).selectCount(any());
+    }
+
+    @Test
+    void listDefaultsToPrimarySymbolStoredAsNull() {
+        initLambdaCache();
+        GoldAlertHistoryMapper mapper = mock(GoldAlertHistoryMapper.class);
+        when(mapper.selectPage(any(Page.class), any(LambdaQueryWrapper.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        AlertController controller = new AlertController(mapper, PIPELINES);
+
+        controller.list(1, 20, null, null, null);
+        controller.list(1, 20, null, null, "XAU");
+        controller.list(1, 20, null, null, "XAG");
+
+        ArgumentCaptor<LambdaQueryWrapper<GoldAlertHistory>> wrapperCaptor = wrapperCaptor();
+        verify(mapper, times(3)).selectPage(any(Page.class), wrapperCaptor.capture());
+        List<LambdaQueryWrapper<GoldAlertHistory>> wrappers = wrapperCaptor.getAllValues();
+        assertThat(wrappers.get(0).getSqlSegment()).contains("symbol IS NULL");
+        assertThat(wrappers.get(1).getSqlSegment()).contains("symbol IS NULL");
+        assertThat(wrappers.get(2).getSqlSegment()).contains("symbol =").doesNotContain("IS NULL");
+        assertThat(wrappers.get(2).getParamNameValuePairs()).containsValue("XAG");
+    }
+
+    @Test
+    void rejectsUnknownSymbol() {
+        GoldAlertHistoryMapper mapper = mock(GoldAlertHistoryMapper.class);
+        AlertController controller = new AlertController(mapper, PIPELINES);
+
+        assertThat(controller.list(1, 20, null, null, "XPT").getStatusCode().value()).isEqualTo(400);
+        assertThat(controller.scroll(20, null, true, null, null, "XPT").getStatusCode().value()).isEqualTo(400);
+        verifyNoInteractions(mapper);
+    }
+
+    @Test
+    void scrollRejectsMalformedCursor() {
+        AlertController controller = new AlertController(mock(GoldAlertHistoryMapper.class), PIPELINES);
+
+        assertThat(controller.scroll(20, "not-a-cursor", false, null, null, null).getStatusCode().value()).isEqualTo(400);
+    }
+
+    private static GoldAlertHistory alert(long id, Instant time) {
+        GoldAlertHistory history = new GoldAlertHistory();
+        history.setId(id);
+        history.setAlertTimeUtc(time);
+        return history;
+    }
+
     private void initLambdaCache() {
         if (TableInfoHelper.getTableInfo(GoldAlertHistory.class) != null) {
             return;
@@ -1,64 +1,90 @@
 package com.xbleey.goldpricealert.controller;
 
+import com.xbleey.goldpricealert.enums.GoldThresholdDirection;
+import com.xbleey.goldpricealert.model.GoldThresholdHistory;
 import com.xbleey.goldpricealert.service.GoldThresholdStore;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.NoSuchElementException;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class GoldThresholdControllerTest {
 
+    private final Authentication alice = UsernamePasswordAuthenticationToken.authenticated("alice", null, List.of());
+
     @Test
-    void getThresholdReturnsNotSetWhenEmpty() {
+    void listThresholdsReturnsNotSetWhenEmpty() {
         GoldThresholdStore store = mock(GoldThresholdStore.class);
-        when(store.getThreshold()).thenReturn(Optional.empty());
+        when(store.listThresholds("alice")).thenReturn(List.of());
         GoldThresholdController controller = new GoldThresholdController(store);
 
-        Map<String, Object> response = controller.getThreshold();
+        ResponseEntity<Map<String, Object>> response = controller.listThresholds(alice);
 
-        assertThat(response).containsEntry("status", "not_set");
-        assertThat(response).containsEntry("threshold", null);
+        assertThat(response.getBody()).containsEntry("status", "not_set").containsEntry("total", 0);
     }
 
     @Test
-    void getThresholdReturnsValueWhenPresent() {
+    void listThresholdsReturnsCurrentUsersRecords() {
         GoldThresholdStore store = mock(GoldThresholdStore.class);
-        when(store.getThreshold()).thenReturn(Optional.of(new BigDecimal("4500")));
+        when(store.listThresholds("alice")).thenReturn(List.of(record(1L, "4500", "UP"), record(2L, "4600", null)));
         GoldThresholdController controller = new GoldThresholdController(store);
 
-        Map<String, Object> response = controller.getThreshold();
+        ResponseEntity<Map<String, Object>> response = controller.listThresholds(alice);
 
-        assertThat(response).containsEntry("status", "ok");
-        assertThat(response).containsEntry("threshold", "4500");
+        assertThat(response.getBody()).containsEntry("status", "ok").containsEntry("total", 2);
+        @SuppressWarnings("unchecked")
+        List<GoldThresholdController.ThresholdResponse> records =
+                (List<GoldThresholdController.ThresholdResponse>) response.getBody().get("records");
+        assertThat(records).extracting(GoldThresholdController.ThresholdResponse::threshold).containsExactly("4500", "4600");
     }
 
     @Test
-    void setThresholdDelegatesToStore() {
+    void addThresholdDelegatesToStoreWithDirection() {
         GoldThresholdStore store = mock(GoldThresholdStore.class);
-        when(store.setThreshold(new BigDecimal("4500"))).thenReturn(new BigDecimal("4500"));
+        when(store.addThreshold("alice", null, new BigDecimal("4500"), GoldThresholdDirection.DOWN))
+                .thenReturn(record(3L, "4500", "DOWN"));
         GoldThresholdController controller = new GoldThresholdController(store);
 
-        Map<String, Object> response = controller.setThreshold(new BigDecimal("4500"));
+        ResponseEntity<Map<String, Object>> response = controller.addThreshold(new BigDecimal("4500"), "down", null, alice);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(response.getBody()).containsEntry("status", "ok");
+        verify(store).addThreshold("alice", null, new BigDecimal("4500"), GoldThresholdDirection.DOWN);
 
-        assertThat(response).containsEntry("status", "ok");
-        assertThat(response).containsEntry("threshold", "4500");
-        verify(store).setThreshold(new BigDecimal("4500"));
+        ResponseEntity<Map<String, Object>> invalid = controller.addThreshold(new BigDecimal("4500"), "sideways", null, alice);
+        assertThat(invalid.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
 
     @Test
-    void clearThresholdDelegatesToStore() {
+    void clearThresholdReturnsNotFoundForOtherUsersRecords() {
         GoldThresholdStore store = mock(GoldThresholdStore.class);
+        doThrow(new NoSuchElementException("threshold not found: 9")).when(store).clearThreshold("alice", 9L);
+        when(store.clearThresholds("alice")).thenReturn(2);
         GoldThresholdController controller = new GoldThresholdController(store);
 
-        Map<String, Object> response = controller.clearThreshold();
+        assertThat(controller.clearThreshold(9L, alice).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(controller.clearThresholds(alice).getBody()).containsEntry("status", "cleared").containsEntry("cleared", 2);
+    }
 
-        assertThat(response).containsEntry("status", "cleared");
-        verify(store).clearThreshold();
+    private static GoldThresholdHistory record(Long id, String threshold, String direction) {
+        GoldThresholdHistory record = new GoldThresholdHistory();
+        record.setId(id);
+        record.setUsername("alice");
+        record.setThreshold(new BigDecimal(threshold));
+        record.setDirection(direction);
+        record.setStatus(GoldThresholdHistory.STATUS_PENDING);
+        return record;
     }
 }
@@ -1,5 +1,12 @@
 package com.xbleey.goldpricealert.controller;
 
+import com.xbleey.goldpricealert.config.GoldProperties;
+import com.xbleey.goldpricealert.model.GoldApiResponse;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import com.xbleey.goldpricealert.service.GoldPipelineStages;
+import com.xbleey.goldpricealert.service.GoldPriceCircuitBreaker;
+import com.xbleey.goldpricealert.service.GoldPriceCrossCheckMonitor;
+import com.xbleey.goldpricealert.service.GoldPriceHedger;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
@@ -7,10 +14,12 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import javax.sql.DataSource;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -23,7 +32,7 @@ class HealthControllerTest {
 
     @Test
     void livenessShouldReturnUp() {
-        HealthController controller = new HealthController(FIXED_CLOCK, null, null);
+        HealthController controller = new HealthController(FIXED_CLOCK, null, null, null, null, null);
 
         Map<String, Object> response = controller.liveness();
 
@@ -33,7 +42,7 @@ class HealthControllerTest {
 
     @Test
     void readinessShouldReturnUpWhenChecksAreSkipped() {
-        HealthController controller = new HealthController(FIXED_CLOCK, null, null);
+        HealthController controller = new HealthController(FIXED_CLOCK, null, null, null, null, null);
 
         ResponseEntity<Map<String, Object>> response = controller.readiness();
 
@@ -51,7 +60,7 @@ class HealthControllerTest {
         when(dataSource.getConnection()).thenReturn(connection);
         when(connection.isValid(2)).thenReturn(false);
 
-        HealthController controller = new HealthController(FIXED_CLOCK, dataSource, null);
+        HealthController controller = new HealthController(FIXED_CLOCK, dataSource, null, null, null, null);
 
         ResponseEntity<Map<String, Object>> response = controller.readiness();
 
@@ -68,7 +77,7 @@ class HealthControllerTest {
         when(redisFactory.getConnection()).thenReturn(redisConnection);
         when(redisConnection.ping()).thenReturn("ERR");
 
-        HealthController controller = new HealthController(FIXED_CLOCK, null, redisFactory);
+        HealthController controller = new HealthController(FIXED_CLOCK, null, redisFactory, null, null, null);
 
         ResponseEntity<Map<String, Object>> response = controller.readiness();
 
@@ -78,6 +87,76 @@ class HealthControllerTest {
         assertThat(asMap(checks.get("redis"))).containsEntry("status", "DOWN");
     }
 
+    @Test
+    void readinessShouldReportGoldApiCircuitStateWithoutFailing() {
+        GoldPriceHedger hedger = mock(GoldPriceHedger.class);
+        Instant retryAt = Instant.parse("2026-02-06T12:00:30Z");
+        when(hedger.circuitStatus()).thenReturn(Map.of(
+                "gold-api", new GoldPriceCircuitBreaker.Status(GoldPriceCircuitBreaker.State.OPEN, 10, 60.0, retryAt)
+        ));
+
+        HealthController controller = new HealthController(FIXED_CLOCK, null, null, hedger, null, null);
+
+        ResponseEntity<Map<String, Object>> response = controller.readiness();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<String, Object> goldApi = asMap(asMap(response.getBody().get("checks")).get("goldApi"));
+        assertThat(goldApi).containsEntry("status", "DOWN");
+        assertThat(asMap(asMap(goldApi.get("providers")).get("gold-api")))
+                .containsEntry("state", "OPEN")
+                .containsEntry("retryAt", "2026-02-06T12:00:30Z");
+    }
+
+    @Test
+    void readinessReportsPipelineStagesWithoutAffectingStatus() {
+        GoldProperties.Pipeline settings = new GoldProperties.Pipeline();
+        settings.setNotifyCapacity(1);
+        GoldPipelineStages stages = GoldPipelineStages.sharing(settings, task -> {
+        });
+        stages.submitNotification("alert", () -> {
+        });
+        stages.submitNotification("alert", () -> {
+        });
+
+        HealthController controller = new HealthController(FIXED_CLOCK, null, null, null, stages, null);
+
+        ResponseEntity<Map<String, Object>> response = controller.readiness();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<String, Object> pipeline = asMap(asMap(response.getBody().get("checks")).get("pipeline"));
+        assertThat(pipeline).containsEntry("status", "DEGRADED");
+        assertThat(asMap(asMap(pipeline.get("stages")).get("notify")))
+                .containsEntry("depth", 1)
+                .containsEntry("capacity", 1)
+                .containsEntry("dropped", 1L);
+        assertThat(asMap(asMap(pipeline.get("stages")).get("ingest"))).containsEntry("depth", 0);
+    }
+
+    @Test
+    void readinessReportsSuspectTicksWithoutAffectingStatus() {
+        GoldPriceCrossCheckMonitor monitor = new GoldPriceCrossCheckMonitor();
+        Instant fetchedAt = Instant.parse("2026-02-06T11:59:30Z");
+        GoldPriceSnapshot tick = new GoldPriceSnapshot(
+                fetchedAt, new GoldApiResponse("gold", new BigDecimal("1934.56"), "XAU", fetchedAt, "-"));
+        monitor.record("XAU", tick, "primary", List.of(
+                new GoldPriceHedger.CrossCheck("secondary", new BigDecimal("1960.00"), new BigDecimal("1.315"), true)
+        ));
+
+        HealthController controller = new HealthController(FIXED_CLOCK, null, null, null, null, monitor);
+
+        ResponseEntity<Map<String, Object>> response = controller.readiness();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<String, Object> consistency = asMap(asMap(response.getBody().get("checks")).get("priceConsistency"));
+        assertThat(consistency).containsEntry("status", "DEGRADED");
+        assertThat(asMap(asMap(consistency.get("symbols")).get("XAU")))
+                .containsEntry("mismatch", true)
+                .containsEntry("provider", "primary")
+                .containsEntry("maxDeviationPercent", "1.3150")
+                .containsEntry("suspectTicks", 1L)
+                .containsEntry("lastSuspectTickAt", "2026-02-06T11:59:30Z");
+    }
+
     @SuppressWarnings("unchecked")
     private Map<String, Object> asMap(Object value) {
         return (Map<String, Object>) value;
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -54,6 +55,39 @@ class GoldPriceSnapshotStoreTest {
         assertThat(recent.get(1).getFetchedAt()).isEqualTo(base.minusSeconds(1));
     }
 
+    @Test
+    void pagesByFetchedAtAndIdKeysetWithoutSkippingTies() {
+        InMemoryGoldPriceSnapshotStore store = new InMemoryGoldPriceSnapshotStore();
+        Instant base = Instant.parse("2026-01-05T12:00:00Z");
+
+        GoldPriceSnapshot oldest = store.save(snapshot(base.minusSeconds(1), "1900.00"));
+        GoldPriceSnapshot tieLow = store.save(snapshot(base, "1901.00"));
+        GoldPriceSnapshot tieHigh = store.save(snapshot(base, "1902.00"));
+
+        List<GoldPriceSnapshot> first = store.findPageDesc(null, null, 2);
+        GoldPriceSnapshot last = first.getLast();
+        List<GoldPriceSnapshot> second = store.findPageDesc(last.getFetchedAt(), last.getId(), 2);
+
+        assertThat(first).containsExactly(tieHigh, tieLow);
+        assertThat(second).containsExactly(oldest);
+        assertThat(store.count()).isEqualTo(3);
+    }
+
+    @Test
+    void streamsSnapshotsInHalfOpenRangeInAscOrder() {
+        InMemoryGoldPriceSnapshotStore store = new InMemoryGoldPriceSnapshotStore();
+        Instant base = Instant.parse("2026-01-05T12:00:00Z");
+        store.save(snapshot(base.plusSeconds(2), "1902.00"));
+        store.save(snapshot(base, "1900.00"));
+        store.save(snapshot(base.plusSeconds(1), "1901.00"));
+        store.save(snapshot(base.plusSeconds(3), "1903.00"));
+
+        List<Instant> streamed = new ArrayList<>();
+        store.streamAsc(base.plusSeconds(1), base.plusSeconds(3), snapshot -> streamed.add(snapshot.getFetchedAt()));
+
+        assertThat(streamed).containsExactly(base.plusSeconds(1), base.plusSeconds(2));
+    }
+
     private static GoldPriceSnapshot snapshot(Instant time, String price) {
         GoldApiResponse response = new GoldApiResponse(
                 "gold",
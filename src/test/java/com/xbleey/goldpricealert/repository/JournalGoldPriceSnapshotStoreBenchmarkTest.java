@@ -0,0 +1,57 @@
+package com.xbleey.goldpricealert.repository;
+
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 粗粒度基准：50 万条（约一个半月 10 秒粒度）记录上的随机时间点查找，预期单次为微秒级。
+// 结果依赖机器负载，打 manual 标签不进默认测试，用 mvn test -Pbenchmark 单独运行
+@Tag("manual")
+class JournalGoldPriceSnapshotStoreBenchmarkTest {
+
+    private static final int RECORDS = 500_000;
+    private static final int LOOKUPS = 200_000;
+
+    @Test
+    void lookupsStayInMicroseconds(@TempDir Path directory) throws IOException {
+        Instant base = Instant.parse("2026-01-05T00:00:00Z");
+        try (JournalGoldPriceSnapshotStore store = new JournalGoldPriceSnapshotStore(directory.resolve("ticks.dat"), false)) {
+            List<GoldPriceSnapshot> batch = new ArrayList<>(10_000);
+            for (int i = 0; i < RECORDS; i++) {
+                batch.add(JournalGoldPriceSnapshotStoreTest.snapshot(base.plusSeconds(i * 10L), "2650.00"));
+                if (batch.size() == 10_000) {
+                    store.saveAll(batch);
+                    batch.clear();
+                }
+            }
+            SplittableRandom random = new SplittableRandom(42);
+            long spanSeconds = RECORDS * 10L;
+            for (int i = 0; i < LOOKUPS; i++) {
+                store.findSnapshotAtOrBefore(base.plusSeconds(random.nextLong(spanSeconds)));
+            }
+
+            long hits = 0;
+            long started = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                if (store.findSnapshotAtOrBefore(base.plusSeconds(random.nextLong(spanSeconds))).isPresent()) {
+                    hits++;
+                }
+            }
+            double averageMicros = (System.nanoTime() - started) / 1_000.0 / LOOKUPS;
+
+            assertThat(hits).isEqualTo(LOOKUPS);
+            assertThat(store.count()).isEqualTo(RECORDS);
+            assertThat(averageMicros).isLessThan(50.0);
+        }
+    }
+}
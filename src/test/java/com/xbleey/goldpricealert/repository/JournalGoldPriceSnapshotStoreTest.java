@@ -0,0 +1,116 @@
+package com.xbleey.goldpricealert.repository;
+
+import com.xbleey.goldpricealert.model.GoldApiResponse;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class JournalGoldPriceSnapshotStoreTest {
+
+    private static final Instant BASE = Instant.parse("2026-01-05T12:00:00Z");
+
+    @Test
+    void appendsAndLooksUpByTime(@TempDir Path directory) throws IOException {
+        try (JournalGoldPriceSnapshotStore store = new JournalGoldPriceSnapshotStore(directory.resolve("ticks.dat"), false)) {
+            for (int i = 0; i < 1000; i++) {
+                store.save(snapshot(BASE.plusSeconds(i * 10L).plusNanos(123), "1900." + (i % 100)));
+            }
+
+            assertThat(store.count()).isEqualTo(1000);
+            GoldPriceSnapshot found = store.findSnapshotAtOrBefore(BASE.plusSeconds(5005)).orElseThrow();
+            assertThat(found.getId()).isEqualTo(501L);
+            assertThat(found.getFetchedAt()).isEqualTo(BASE.plusSeconds(5000).plusNanos(123));
+            assertThat(found.getPrice()).isEqualByComparingTo("1900.0");
+            assertThat(found.getSymbol()).isEqualTo("XAU");
+            assertThat(found.getUpdatedAt()).isEqualTo(BASE.plusSeconds(4998).plusNanos(123));
+            assertThat(store.findSnapshotAtOrBefore(BASE.minusNanos(1))).isEmpty();
+
+            Map<Instant, GoldPriceSnapshot> baselines = store.findSnapshotsAtOrBefore(List.of(BASE, BASE.plusSeconds(99_999)));
+            assertThat(baselines.get(BASE.plusSeconds(99_999)).getId()).isEqualTo(1000L);
+
+            List<Long> streamed = new ArrayList<>();
+            store.streamAsc(BASE.plusSeconds(20), BASE.plusSeconds(60), snapshot -> streamed.add(snapshot.getId()));
+            assertThat(streamed).containsExactly(3L, 4L, 5L, 6L);
+
+            List<GoldPriceSnapshot> page = store.findPageDesc(null, null, 3);
+            GoldPriceSnapshot last = page.getLast();
+            assertThat(page).extracting(GoldPriceSnapshot::getId).containsExactly(1000L, 999L, 998L);
+            assertThat(store.findPageDesc(last.getFetchedAt(), last.getId(), 2))
+                    .extracting(GoldPriceSnapshot::getId)
+                    .containsExactly(997L, 996L);
+        }
+    }
+
+    @Test
+    void clampsOutOfOrderAppendsWithoutTouchingTheSnapshot(@TempDir Path directory) throws IOException {
+        try (JournalGoldPriceSnapshotStore store = new JournalGoldPriceSnapshotStore(directory.resolve("ticks.dat"), false)) {
+            store.save(snapshot(BASE, "1900.00"));
+            GoldPriceSnapshot late = snapshot(BASE.minusSeconds(1), "1901.00");
+
+            store.save(late);
+
+            assertThat(late.getFetchedAt()).isEqualTo(BASE.minusSeconds(1));
+            assertThat(store.findAllAsc())
+                    .extracting(GoldPriceSnapshot::getFetchedAt, GoldPriceSnapshot::getPrice)
+                    .containsExactly(
+                            tuple(BASE, new BigDecimal("1900.000000")),
+                            tuple(BASE, new BigDecimal("1901.000000"))
+                    );
+            assertThat(store.update(snapshot(BASE, "1.00"))).isZero();
+            assertThat(store.deleteById(1L)).isZero();
+        }
+    }
+
+    @Test
+    void reopensAndTruncatesTornTail(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("ticks.dat");
+        try (JournalGoldPriceSnapshotStore store = new JournalGoldPriceSnapshotStore(file, true)) {
+            for (int i = 0; i < 5; i++) {
+                store.save(snapshot(BASE.plusSeconds(i), "1900.00"));
+            }
+        }
+        // 模拟崩溃：第 5 条只写了一半，第 6 个槽位残留部分字节
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            long fifth = JournalGoldPriceSnapshotStore.HEADER_BYTES + 4L * JournalGoldPriceSnapshotStore.RECORD_BYTES;
+            channel.write(ByteBuffer.allocate(8).putLong(0, 42L), fifth + 8);
+            channel.write(ByteBuffer.allocate(8).putLong(0, 7L), fifth + JournalGoldPriceSnapshotStore.RECORD_BYTES);
+        }
+
+        try (JournalGoldPriceSnapshotStore reopened = new JournalGoldPriceSnapshotStore(file, false)) {
+            assertThat(reopened.count()).isEqualTo(4);
+            assertThat(reopened.findRecentDesc(1)).extracting(GoldPriceSnapshot::getFetchedAt).containsExactly(BASE.plusSeconds(3));
+            GoldPriceSnapshot appended = reopened.save(snapshot(BASE.plusSeconds(10), "1910.00"));
+            assertThat(appended.getId()).isEqualTo(5L);
+        }
+        try (JournalGoldPriceSnapshotStore reopened = new JournalGoldPriceSnapshotStore(file, false)) {
+            assertThat(reopened.count()).isEqualTo(5);
+            assertThat(reopened.findSnapshotAtOrBefore(BASE.plusSeconds(10)).orElseThrow().getPrice())
+                    .isEqualByComparingTo("1910.00");
+        }
+    }
+
+    static GoldPriceSnapshot snapshot(Instant time, String price) {
+        GoldApiResponse response = new GoldApiResponse(
+                "Gold",
+                new BigDecimal(price),
+                "XAU",
+                time.minusSeconds(2),
+                null
+        );
+        return new GoldPriceSnapshot(time, response);
+    }
+}
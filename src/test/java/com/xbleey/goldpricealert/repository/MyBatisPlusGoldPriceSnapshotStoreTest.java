@@ -0,0 +1,101 @@
+package com.xbleey.goldpricealert.repository;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.xbleey.goldpricealert.mapper.GoldPriceSnapshotMapper;
+import com.xbleey.goldpricealert.model.GoldApiResponse;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MyBatisPlusGoldPriceSnapshotStoreTest {
+
+    private static final Instant BASE = Instant.parse("2026-01-05T12:00:00Z");
+
+    private final GoldPriceSnapshotMapper mapper = mock(GoldPriceSnapshotMapper.class);
+    private final MyBatisPlusGoldPriceSnapshotStore store = new MyBatisPlusGoldPriceSnapshotStore(mapper, "XAG");
+
+    @BeforeAll
+    static void registerTableInfo() {
+        // Lambda 条件需要实体的表元数据才能解析列名，这里不启动 Spring 直接注册
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), GoldPriceSnapshot.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamAscQueriesHalfOpenRangeScopedToSymbolAndForwardsEachRow() {
+        List<GoldPriceSnapshot> rows = List.of(snapshot(BASE, "30.10"), snapshot(BASE.plusSeconds(1), "30.20"));
+        doAnswer(invocation -> {
+            ResultHandler<GoldPriceSnapshot> handler = invocation.getArgument(1);
+            for (GoldPriceSnapshot row : rows) {
+                ResultContext<GoldPriceSnapshot> context = mock(ResultContext.class);
+                when(context.getResultObject()).thenReturn(row);
+                handler.handleResult(context);
+            }
+            return null;
+        }).when(mapper).streamByWrapper(any(), any());
+
+        List<GoldPriceSnapshot> streamed = new ArrayList<>();
+        store.streamAsc(BASE, BASE.plusSeconds(60), streamed::add);
+
+        ArgumentCaptor<Wrapper<GoldPriceSnapshot>> captor = ArgumentCaptor.forClass(Wrapper.class);
+        verify(mapper).streamByWrapper(captor.capture(), any());
+        LambdaQueryWrapper<GoldPriceSnapshot> wrapper = (LambdaQueryWrapper<GoldPriceSnapshot>) captor.getValue();
+        assertThat(wrapper.getCustomSqlSegment())
+                .contains("symbol =")
+                .contains("fetched_at >=")
+                .contains("fetched_at <")
+                .doesNotContain("fetched_at <=")
+                .endsWith("ORDER BY fetched_at ASC");
+        assertThat(wrapper.getParamNameValuePairs()).containsValues("XAG", BASE, BASE.plusSeconds(60));
+        assertThat(streamed).containsExactlyElementsOf(rows);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamAscWithOpenBoundsOnlyFiltersBySymbol() {
+        store.streamAsc(null, null, snapshot -> {
+        });
+
+        ArgumentCaptor<Wrapper<GoldPriceSnapshot>> captor = ArgumentCaptor.forClass(Wrapper.class);
+        verify(mapper).streamByWrapper(captor.capture(), any());
+        assertThat(captor.getValue().getCustomSqlSegment())
+                .contains("symbol =")
+                .doesNotContain("fetched_at >")
+                .doesNotContain("fetched_at <");
+    }
+
+    @Test
+    void streamByWrapperUsesForwardOnlyCursorWithBoundedFetchSize() throws Exception {
+        Options options = GoldPriceSnapshotMapper.class
+                .getMethod("streamByWrapper", Wrapper.class, ResultHandler.class)
+                .getAnnotation(Options.class);
+
+        assertThat(options.resultSetType()).isEqualTo(ResultSetType.FORWARD_ONLY);
+        assertThat(options.fetchSize()).isPositive().isLessThanOrEqualTo(1000);
+    }
+
+    private static GoldPriceSnapshot snapshot(Instant time, String price) {
+        return new GoldPriceSnapshot(time, new GoldApiResponse("silver", new BigDecimal(price), "XAG", time, time.toString()));
+    }
+}
@@ -0,0 +1,146 @@
+package com.xbleey.goldpricealert.repository;
+
+import com.xbleey.goldpricealert.model.GoldApiResponse;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import com.xbleey.goldpricealert.support.InMemoryGoldPriceSnapshotStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TieredGoldPriceSnapshotStoreTest {
+
+    private static final Instant DAY = Instant.parse("2026-01-05T00:00:00Z");
+
+    @Test
+    void blockRoundTripsAllColumnsAndCompressesTicks() {
+        List<GoldPriceSnapshot> ticks = new ArrayList<>();
+        for (int i = 0; i < 8640; i++) {
+            Instant fetchedAt = DAY.plusSeconds(i * 10L).plusMillis(i % 7 * 3);
+            GoldPriceSnapshot snapshot = snapshot(fetchedAt, new BigDecimal("2650.10").add(BigDecimal.valueOf(i % 13, 2)));
+            snapshot.setId(1000L + i);
+            if (i == 100) {
+                snapshot.setPrice(null);
+                snapshot.setUpdatedAt(null);
+            }
+            ticks.add(snapshot);
+        }
+
+        byte[] block = GoldSnapshotBlockCodec.encode(ticks);
+        List<GoldPriceSnapshot> decoded = GoldSnapshotBlockCodec.decode(block);
+
+        assertThat(decoded).hasSize(ticks.size());
+        for (int i = 0; i < ticks.size(); i++) {
+            GoldPriceSnapshot expected = ticks.get(i);
+            GoldPriceSnapshot actual = decoded.get(i);
+            assertThat(actual.getId()).isEqualTo(expected.getId());
+            assertThat(actual.getFetchedAt()).isEqualTo(expected.getFetchedAt());
+            assertThat(actual.getUpdatedAt()).isEqualTo(expected.getUpdatedAt());
+            assertThat(actual.getName()).isEqualTo(expected.getName());
+            assertThat(actual.getSymbol()).isEqualTo(expected.getSymbol());
+            assertThat(actual.getUpdatedAtReadable()).isEqualTo(expected.getUpdatedAtReadable());
+            if (expected.getPrice() == null) {
+                assertThat(actual.getPrice()).isNull();
+            } else {
+                assertThat(actual.getPrice()).isEqualByComparingTo(expected.getPrice());
+            }
+        }
+        // MySQL 行存储每条约 100 字节以上，块编码应控制在每条 10 字节以内
+        assertThat(block.length).isLessThan(ticks.size() * 10);
+    }
+
+    @Test
+    void rangeReadsSpanArchiveAndHotTierWithoutDuplicates(@TempDir Path directory) {
+        InMemoryGoldPriceSnapshotStore hot = new InMemoryGoldPriceSnapshotStore();
+        for (int i = 0; i < 6; i++) {
+            hot.save(snapshot(DAY.plus(Duration.ofHours(12L * i)), "19" + (10 + i) + ".00"));
+        }
+        Instant watermark = DAY.plus(Duration.ofDays(2));
+        archiveBefore(hot, new GoldSnapshotArchive(directory), watermark);
+        // 模拟归档后删除热表旧行前中断：残留行不应被重复读取
+        GoldSnapshotArchive archive = new GoldSnapshotArchive(directory);
+        TieredGoldPriceSnapshotStore store = new TieredGoldPriceSnapshotStore(hot, archive);
+
+        assertThat(archive.watermark()).isEqualTo(watermark);
+        assertThat(archive.count()).isEqualTo(4);
+        List<Instant> streamed = new ArrayList<>();
+        store.streamAsc(DAY.plus(Duration.ofHours(12)), DAY.plus(Duration.ofDays(3)), snapshot -> streamed.add(snapshot.fetchedAt()));
+        assertThat(streamed).containsExactly(
+                DAY.plus(Duration.ofHours(12)),
+                DAY.plus(Duration.ofHours(24)),
+                DAY.plus(Duration.ofHours(36)),
+                DAY.plus(Duration.ofHours(48)),
+                DAY.plus(Duration.ofHours(60))
+        );
+        assertThat(store.findAllAsc()).hasSize(6);
+        assertThat(store.findSnapshotAtOrBefore(DAY.plus(Duration.ofHours(47))))
+                .get()
+                .extracting(GoldPriceSnapshot::fetchedAt)
+                .isEqualTo(DAY.plus(Duration.ofHours(36)));
+        Map<Instant, GoldPriceSnapshot> baselines = store.findSnapshotsAtOrBefore(List.of(
+                DAY.plus(Duration.ofHours(13)),
+                DAY.plus(Duration.ofHours(50))
+        ));
+        assertThat(baselines.get(DAY.plus(Duration.ofHours(13))).fetchedAt()).isEqualTo(DAY.plus(Duration.ofHours(12)));
+        assertThat(baselines.get(DAY.plus(Duration.ofHours(50))).fetchedAt()).isEqualTo(DAY.plus(Duration.ofHours(48)));
+    }
+
+    @Test
+    void keysetPagesContinueFromHotTierIntoArchive(@TempDir Path directory) {
+        InMemoryGoldPriceSnapshotStore hot = new InMemoryGoldPriceSnapshotStore();
+        for (int i = 0; i < 6; i++) {
+            hot.save(snapshot(DAY.plus(Duration.ofHours(12L * i)), "1900.00"));
+        }
+        GoldSnapshotArchive archive = new GoldSnapshotArchive(directory);
+        archiveBefore(hot, archive, DAY.plus(Duration.ofDays(2)));
+        hot.findAllAsc().stream()
+                .filter(snapshot -> snapshot.fetchedAt().isBefore(DAY.plus(Duration.ofDays(2))))
+                .map(GoldPriceSnapshot::getId)
+                .toList()
+                .forEach(hot::deleteById);
+        TieredGoldPriceSnapshotStore store = new TieredGoldPriceSnapshotStore(hot, archive);
+
+        List<GoldPriceSnapshot> first = store.findPageDesc(null, null, 3);
+        GoldPriceSnapshot last = first.getLast();
+        List<GoldPriceSnapshot> second = store.findPageDesc(last.getFetchedAt(), last.getId(), 3);
+
+        assertThat(first).extracting(GoldPriceSnapshot::getId).containsExactly(6L, 5L, 4L);
+        assertThat(second).extracting(GoldPriceSnapshot::getId).containsExactly(3L, 2L, 1L);
+        assertThat(store.findRecentDesc(10)).hasSize(6);
+        assertThat(store.count()).isEqualTo(6);
+    }
+
+    private static void archiveBefore(InMemoryGoldPriceSnapshotStore hot, GoldSnapshotArchive archive, Instant watermark) {
+        Map<LocalDate, List<GoldPriceSnapshot>> days = new TreeMap<>();
+        hot.streamAsc(null, watermark, snapshot -> days
+                .computeIfAbsent(GoldSnapshotArchive.dayOf(snapshot.fetchedAt()), ignored -> new ArrayList<>())
+                .add(snapshot));
+        days.forEach(archive::writeDay);
+        archive.advanceWatermark(watermark);
+    }
+
+    private static GoldPriceSnapshot snapshot(Instant time, String price) {
+        return snapshot(time, new BigDecimal(price));
+    }
+
+    private static GoldPriceSnapshot snapshot(Instant time, BigDecimal price) {
+        GoldApiResponse response = new GoldApiResponse(
+                "Gold",
+                price,
+                "XAU",
+                time.minusSeconds(2),
+                "a few seconds ago"
+        );
+        return new GoldPriceSnapshot(time, response);
+    }
+}
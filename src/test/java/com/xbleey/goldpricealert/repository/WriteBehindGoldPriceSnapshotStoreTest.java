@@ -0,0 +1,173 @@
+package com.xbleey.goldpricealert.repository;
+
+import com.xbleey.goldpricealert.config.GoldSnapshotStoreProperties;
+import com.xbleey.goldpricealert.model.GoldApiResponse;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import com.xbleey.goldpricealert.support.InMemoryGoldPriceSnapshotStore;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WriteBehindGoldPriceSnapshotStoreTest {
+
+    private static final Instant BASE = Instant.parse("2026-01-05T12:00:00Z");
+
+    @Test
+    void exposesPendingSnapshotsBeforeFlushAndWritesThemInBatches() {
+        BatchRecordingStore delegate = new BatchRecordingStore();
+        WriteBehindGoldPriceSnapshotStore store = new WriteBehindGoldPriceSnapshotStore(delegate, properties(2, 10));
+
+        store.save(snapshot(BASE.minusSeconds(20), "1900.00"));
+        store.save(snapshot(BASE.minusSeconds(10), "1901.00"));
+        store.save(snapshot(BASE, "1902.00"));
+
+        assertThat(delegate.findAllAsc()).isEmpty();
+        assertThat(store.findRecentDesc(1)).extracting(GoldPriceSnapshot::fetchedAt).containsExactly(BASE);
+        assertThat(store.findSnapshotAtOrBefore(BASE.minusSeconds(15)))
+                .get()
+                .extracting(GoldPriceSnapshot::fetchedAt)
+                .isEqualTo(BASE.minusSeconds(20));
+
+        assertThat(store.flush()).isTrue();
+
+        assertThat(delegate.batchSizes).containsExactly(2, 1);
+        assertThat(delegate.findAllAsc()).hasSize(3);
+        assertThat(store.pendingCount()).isZero();
+        assertThat(store.findAllAsc()).hasSize(3);
+    }
+
+    @Test
+    void keepsBatchQueuedWhenFlushFailsAndRetriesLater() {
+        BatchRecordingStore delegate = new BatchRecordingStore();
+        WriteBehindGoldPriceSnapshotStore store = new WriteBehindGoldPriceSnapshotStore(delegate, properties(10, 10));
+        store.save(snapshot(BASE.minusSeconds(10), "1900.00"));
+        store.save(snapshot(BASE, "1901.00"));
+
+        delegate.failing.set(true);
+        assertThat(store.flush()).isFalse();
+        assertThat(store.pendingCount()).isEqualTo(2);
+        assertThat(store.findRecentDesc(5)).hasSize(2);
+
+        delegate.failing.set(false);
+        assertThat(store.flush()).isTrue();
+        assertThat(delegate.findAllAsc()).extracting(GoldPriceSnapshot::fetchedAt)
+                .containsExactly(BASE.minusSeconds(10), BASE);
+    }
+
+    @Test
+    void appliesBackpressureWhenQueueIsFull() {
+        BatchRecordingStore delegate = new BatchRecordingStore();
+        WriteBehindGoldPriceSnapshotStore store = new WriteBehindGoldPriceSnapshotStore(delegate, properties(2, 2));
+        store.save(snapshot(BASE.minusSeconds(20), "1900.00"));
+        store.save(snapshot(BASE.minusSeconds(10), "1901.00"));
+
+        store.save(snapshot(BASE, "1902.00"));
+        assertThat(delegate.findAllAsc()).hasSize(2);
+        assertThat(store.pendingCount()).isEqualTo(1);
+
+        delegate.failing.set(true);
+        store.save(snapshot(BASE.plusSeconds(10), "1903.00"));
+        assertThatThrownBy(() -> store.save(snapshot(BASE.plusSeconds(20), "1904.00")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void flushesPendingSnapshotsOnShutdown() {
+        BatchRecordingStore delegate = new BatchRecordingStore();
+        WriteBehindGoldPriceSnapshotStore store = new WriteBehindGoldPriceSnapshotStore(delegate, properties(100, 1000));
+        store.start();
+        store.save(snapshot(BASE, "1900.00"));
+
+        store.shutdown();
+
+        assertThat(delegate.findAllAsc()).hasSize(1);
+        assertThat(store.pendingCount()).isZero();
+    }
+
+    @Test
+    void streamsFlushedAndPendingSnapshotsOnceInAscOrder() {
+        BatchRecordingStore delegate = new BatchRecordingStore();
+        WriteBehindGoldPriceSnapshotStore store = new WriteBehindGoldPriceSnapshotStore(delegate, properties(10, 10));
+        store.save(snapshot(BASE.minusSeconds(20), "1900.00"));
+        store.flush();
+        store.save(snapshot(BASE.minusSeconds(10), "1901.00"));
+        store.save(snapshot(BASE, "1902.00"));
+
+        List<Instant> streamed = new ArrayList<>();
+        store.streamAsc(null, BASE, snapshot -> {
+            streamed.add(snapshot.getFetchedAt());
+            store.flush();
+        });
+
+        assertThat(streamed).containsExactly(BASE.minusSeconds(20), BASE.minusSeconds(10));
+    }
+
+    @Test
+    void batchLookupSeesSnapshotFlushedWhileTheDelegateIsRead() {
+        BatchRecordingStore delegate = new BatchRecordingStore();
+        WriteBehindGoldPriceSnapshotStore store = new WriteBehindGoldPriceSnapshotStore(delegate, properties(10, 10));
+        store.save(snapshot(BASE, "1900.00"));
+        // 库查询返回之后、读取未落库快照之前刚好刷写完成
+        delegate.afterRead = store::flush;
+
+        Map<Instant, GoldPriceSnapshot> resolved = store.findSnapshotsAtOrBefore(List.of(BASE.plusSeconds(10)));
+        List<GoldPriceSnapshot> all = store.findAllAsc();
+
+        assertThat(resolved.get(BASE.plusSeconds(10))).extracting(GoldPriceSnapshot::fetchedAt).isEqualTo(BASE);
+        assertThat(all).hasSize(1);
+    }
+
+    private static GoldSnapshotStoreProperties properties(int batchSize, int queueCapacity) {
+        GoldSnapshotStoreProperties properties = new GoldSnapshotStoreProperties();
+        properties.getWriteBehind().setEnabled(true);
+        properties.getWriteBehind().setBatchSize(batchSize);
+        properties.getWriteBehind().setQueueCapacity(queueCapacity);
+        properties.getWriteBehind().setFlushInterval(Duration.ofHours(1));
+        return properties;
+    }
+
+    private static GoldPriceSnapshot snapshot(Instant time, String price) {
+        GoldApiResponse response = new GoldApiResponse(
+                "gold",
+                new BigDecimal(price),
+                "XAU",
+                time,
+                time.toString()
+        );
+        return new GoldPriceSnapshot(time, response);
+    }
+
+    private static class BatchRecordingStore extends InMemoryGoldPriceSnapshotStore {
+
+        private final List<Integer> batchSizes = new ArrayList<>();
+        private final AtomicBoolean failing = new AtomicBoolean(false);
+        private Runnable afterRead = () -> {
+        };
+
+        @Override
+        public int saveAll(List<GoldPriceSnapshot> snapshots) {
+            if (failing.get()) {
+                throw new IllegalStateException("database unavailable");
+            }
+            batchSizes.add(snapshots.size());
+            return super.saveAll(snapshots);
+        }
+
+        @Override
+        public Map<Instant, GoldPriceSnapshot> findSnapshotsAtOrBefore(Collection<Instant> targets) {
+            Map<Instant, GoldPriceSnapshot> resolved = super.findSnapshotsAtOrBefore(targets);
+            afterRead.run();
+            return resolved;
+        }
+    }
+}
@@ -134,7 +134,7 @@ class AiChatServiceTest {
         DeepSeekChatClient client = mock(DeepSeekChatClient.class);
         InMemoryGoldPriceSnapshotStore snapshotStore = new InMemoryGoldPriceSnapshotStore();
         snapshotStore.save(snapshot());
-        GoldPriceHistory history = new GoldPriceHistory(snapshotStore);
+        GoldPriceHistory history = new GoldPriceHistory(snapshotStore, null, null);
         AiChatService service = new AiChatService(
                 sessionStore,
                 messageStore,
@@ -0,0 +1,127 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.config.TradingCalendarDefinition;
+import com.xbleey.goldpricealert.support.TestTradingCalendars;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BitmapTradingCalendarTest {
+
+    @Test
+    void lbmaMatchesPreviousHardCodedLondonRules() {
+        BitmapTradingCalendar calendar = TestTradingCalendars.lbma();
+
+        for (LocalDate date = LocalDate.of(2000, 1, 1); date.getYear() < 2100; date = date.plusDays(1)) {
+            boolean expected = LegacyLondonCalendar.isTradingDayUtc(date);
+            Instant midnight = date.atStartOfDay(ZoneOffset.UTC).toInstant();
+            assertThat(calendar.isOpen(midnight)).as("%s 00:00", date).isEqualTo(expected);
+            assertThat(calendar.isOpen(midnight.plusSeconds(12 * 3600))).as("%s 12:00", date).isEqualTo(expected);
+            assertThat(calendar.isOpen(midnight.plusSeconds(86_399))).as("%s 23:59:59", date).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void nextOpenSkipsWeekendsHolidaysAndYearEnd() {
+        BitmapTradingCalendar calendar = TestTradingCalendars.lbma();
+
+        Instant thursday = Instant.parse("2026-12-24T23:59:30Z");
+        assertThat(calendar.nextOpen(thursday)).contains(thursday);
+        // 圣诞节周五、节礼日周六调休到周五，之后是周末
+        assertThat(calendar.nextOpen(Instant.parse("2026-12-25T00:00:00Z"))).contains(Instant.parse("2026-12-28T00:00:00Z"));
+        // 元旦在周日，调休到周一，跨年查找下一年的位图
+        assertThat(calendar.nextOpen(Instant.parse("2022-12-31T10:00:00Z"))).contains(Instant.parse("2023-01-03T00:00:00Z"));
+        assertThat(calendar.nextOpen(Instant.parse("2026-04-03T12:00:00Z"))).contains(Instant.parse("2026-04-07T00:00:00Z"));
+    }
+
+    @Test
+    void comexSessionsFollowNewYorkTimeAcrossDaylightSaving() {
+        BitmapTradingCalendar calendar = TestTradingCalendars.of("COMEX");
+
+        // 冬令时 UTC-5：周五 17:00 收盘，周日 18:00 开盘
+        assertThat(calendar.isOpen(Instant.parse("2026-01-09T21:59:00Z"))).isTrue();
+        assertThat(calendar.isOpen(Instant.parse("2026-01-09T22:00:00Z"))).isFalse();
+        assertThat(calendar.nextOpen(Instant.parse("2026-01-09T22:30:00Z"))).contains(Instant.parse("2026-01-11T23:00:00Z"));
+        // 夏令时 UTC-4：每日 17:00-18:00 休息
+        assertThat(calendar.isOpen(Instant.parse("2026-07-15T21:30:00Z"))).isFalse();
+        assertThat(calendar.nextOpen(Instant.parse("2026-07-15T21:30:00Z"))).contains(Instant.parse("2026-07-15T22:00:00Z"));
+        // 感恩节（11 月第四个周四）整天休市，周五 00:00 纽约时间恢复
+        assertThat(calendar.isOpen(Instant.parse("2026-11-25T23:30:00Z"))).isTrue();
+        assertThat(calendar.nextOpen(Instant.parse("2026-11-26T15:00:00Z"))).contains(Instant.parse("2026-11-27T05:00:00Z"));
+        // 阵亡将士纪念日（5 月最后一个周一）
+        assertThat(calendar.isOpen(Instant.parse("2026-05-25T15:00:00Z"))).isFalse();
+        assertThat(calendar.isOpen(Instant.parse("2026-05-26T15:00:00Z"))).isTrue();
+    }
+
+    @Test
+    void allShippedDefinitionsAreValid() {
+        Instant now = Instant.parse("2026-01-05T12:00:00Z");
+        TestTradingCalendars.definitions().forEach((name, definition) ->
+                assertThat(new BitmapTradingCalendar(name, definition).precompute(now).nextOpen(now)).isPresent());
+    }
+
+    @Test
+    void rejectsSessionsCrossingMidnight() {
+        TradingCalendarDefinition definition = new TradingCalendarDefinition();
+        TradingCalendarDefinition.Session session = new TradingCalendarDefinition.Session();
+        session.setDays(List.of(DayOfWeek.SUNDAY));
+        session.setOpen("18:00");
+        session.setClose("17:00");
+        definition.setSessions(List.of(session));
+
+        assertThatThrownBy(() -> new BitmapTradingCalendar("broken", definition))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("split sessions that cross midnight");
+    }
+
+    // 迁移前 GoldPriceFetcher 中硬编码的伦敦交易日规则，作为对照
+    private static final class LegacyLondonCalendar {
+
+        static boolean isTradingDayUtc(LocalDate utcDate) {
+            DayOfWeek dayOfWeek = utcDate.getDayOfWeek();
+            if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) {
+                return false;
+            }
+            return !isLondonHoliday(utcDate);
+        }
+
+        private static boolean isLondonHoliday(LocalDate date) {
+            int year = date.getYear();
+            if (isFixedOrObservedHoliday(date, Month.JANUARY, 1)) {
+                return true;
+            }
+            if (date.equals(observedDate(LocalDate.of(year + 1, Month.JANUARY, 1)))) {
+                return true;
+            }
+            if (isFixedOrObservedHoliday(date, Month.DECEMBER, 25)) {
+                return true;
+            }
+            if (isFixedOrObservedHoliday(date, Month.DECEMBER, 26)) {
+                return true;
+            }
+            LocalDate easterSunday = BitmapTradingCalendar.easterSunday(year);
+            return date.equals(easterSunday.minusDays(2)) || date.equals(easterSunday.plusDays(1));
+        }
+
+        private static boolean isFixedOrObservedHoliday(LocalDate date, Month month, int dayOfMonth) {
+            LocalDate holiday = LocalDate.of(date.getYear(), month, dayOfMonth);
+            return date.equals(holiday) || date.equals(observedDate(holiday));
+        }
+
+        private static LocalDate observedDate(LocalDate date) {
+            return switch (date.getDayOfWeek()) {
+                case SATURDAY -> date.minusDays(1);
+                case SUNDAY -> date.plusDays(1);
+                default -> date;
+            };
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.config.GoldAlertMailProperties;
+import com.xbleey.goldpricealert.model.GoldApiResponse;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import com.xbleey.goldpricealert.repository.GoldAlertHistoryStore;
+import com.xbleey.goldpricealert.support.InMemoryGoldPriceSnapshotStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GoldAlertBacktesterTest {
+
+    private static final Instant START = Instant.parse("2026-01-05T12:00:00Z");
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void partitionedReplayMatchesLiveEvaluatorPerLevel() {
+        Random random = new Random(11L);
+        List<GoldAlertLevelConfig> levels = List.of(
+                level("P1", "0.05", 1, 0),
+                level("P2", "0.15", 5, 0),
+                level("P3", "0.30", 15, 0),
+                level("P4", "0.60", 60, 0)
+        );
+        InMemoryGoldPriceSnapshotStore store = new InMemoryGoldPriceSnapshotStore();
+        GoldPriceHistory history = new GoldPriceHistory(store, null, null);
+        Map<String, Integer> expected = new HashMap<>();
+        GoldAlertEvaluator evaluator = new GoldAlertEvaluator(
+                history,
+                Clock.fixed(START, ZoneOffset.UTC),
+                message -> expected.merge(message.levelName(), 1, Integer::sum),
+                configStore(levels),
+                GoldAlertHistoryStore.noop(),
+                null
+        );
+        // 回测区间从第 2 小时开始，之前的行情只用于预热窗口
+        Instant from = START.plus(Duration.ofHours(2));
+        Instant time = START;
+        BigDecimal price = new BigDecimal("2650.00");
+        for (int tick = 0; tick < 1_500; tick++) {
+            time = time.plusSeconds(15 + random.nextInt(90));
+            price = price.multiply(BigDecimal.ONE.add(BigDecimal.valueOf(random.nextInt(61) - 30, 4)))
+                    .setScale(2, RoundingMode.HALF_UP);
+            GoldPriceSnapshot snapshot = snapshot(time, price);
+            history.add(snapshot);
+            if (!time.isBefore(from)) {
+                evaluator.evaluate(snapshot);
+            } else {
+                expected.clear();
+            }
+        }
+
+        GoldAlertBacktester.BacktestResult result = backtester(history, 37)
+                .backtest(from, time.plusSeconds(1), List.of(new GoldAlertBacktester.Candidate("current", levels)));
+
+        assertThat(result.partitions()).isGreaterThan(1);
+        GoldAlertBacktester.CandidateResult candidate = result.candidates().getFirst();
+        assertThat(candidate.alerts()).isEqualTo(expected.values().stream().mapToInt(Integer::intValue).sum());
+        for (GoldAlertBacktester.LevelResult level : candidate.levels()) {
+            assertThat(level.alerts()).as(level.levelName()).isEqualTo(expected.getOrDefault(level.levelName(), 0));
+        }
+        assertThat(candidate.alerts()).isPositive();
+    }
+
+    @Test
+    void cooldownCarriesAcrossPartitions() {
+        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
+        for (int minute = 0; minute < 120; minute++) {
+            history.add(snapshot(START.plus(Duration.ofMinutes(minute)), new BigDecimal(minute % 2 == 0 ? "100" : "100.2")));
+        }
+        List<GoldAlertLevelConfig> levels = List.of(level("P1", "0.10", 1, 30));
+
+        GoldAlertBacktester.BacktestResult result = backtester(history, 16)
+                .backtest(START, START.plus(Duration.ofHours(2)), List.of(new GoldAlertBacktester.Candidate("tight", levels)));
+
+        // 每分钟都相对前一分钟涨跌 0.2%，30 分钟冷却内只发一封；
+        // 除第一封外，每封都比上次发信后下一分钟的越线晚 29 分钟
+        GoldAlertBacktester.LevelResult level = result.candidates().getFirst().levels().getFirst();
+        assertThat(result.ticks()).isEqualTo(120);
+        assertThat(level.alerts()).isEqualTo(119);
+        assertThat(level.emails()).isEqualTo(4);
+        assertThat(level.medianDetectionDelaySeconds()).isEqualTo(1_740L);
+        assertThat(level.maxDetectionDelaySeconds()).isEqualTo(1_740L);
+    }
+
+    @Test
+    void detectionDelayRunsFromFirstUninterruptedCrossingToTheEmail() {
+        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
+        String[] prices = {
+                "100.00", "100.00", "100.00", "100.00", "100.00",
+                "100.20", "100.20", "100.20", "100.40", "100.40",
+                "100.60", "100.40", "100.60", "100.40", "100.60", "100.40"
+        };
+        for (int minute = 0; minute < prices.length; minute++) {
+            history.add(snapshot(START.plus(Duration.ofMinutes(minute)), new BigDecimal(prices[minute])));
+        }
+        List<GoldAlertLevelConfig> levels = List.of(level("P1", "0.10", 1, 10));
+
+        GoldAlertBacktester.BacktestResult result = backtester(history, 4)
+                .backtest(START, START.plus(Duration.ofMinutes(prices.length)), List.of(new GoldAlertBacktester.Candidate("p1", levels)));
+
+        // 第 5 分钟越线即发信；第 8 分钟的越线在第 9 分钟中断，第 10 分钟起连续越线，冷却到第 15 分钟才发出
+        GoldAlertBacktester.LevelResult level = result.candidates().getFirst().levels().getFirst();
+        assertThat(level.alerts()).isEqualTo(8);
+        assertThat(level.emails()).isEqualTo(2);
+        assertThat(level.medianDetectionDelaySeconds()).isZero();
+        assertThat(level.maxDetectionDelaySeconds()).isEqualTo(300L);
+    }
+
+    @Test
+    void rejectsInvalidRequests() {
+        GoldAlertBacktester backtester = backtester(new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null), 16);
+        List<GoldAlertBacktester.Candidate> candidates = List.of(
+                new GoldAlertBacktester.Candidate("a", List.of(level("P1", "0.10", 1, 0)))
+        );
+
+        assertThatThrownBy(() -> backtester.backtest(START, START, candidates))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> backtester.backtest(START, START.plus(Duration.ofDays(400)), candidates))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> backtester.backtest(START, START.plusSeconds(60), List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> backtester.backtest(START, START.plusSeconds(60), List.of(candidates.getFirst(), candidates.getFirst())))
+                .hasMessageContaining("duplicate candidate");
+        assertThatThrownBy(() -> backtester.backtest(START, START.plusSeconds(60), List.of(
+                new GoldAlertBacktester.Candidate("b", List.of(level("P1", "0.10", 0, 0)))
+        ))).hasMessageContaining("window");
+    }
+
+    private GoldAlertBacktester backtester(GoldPriceHistory history, int partitionTicks) {
+        GoldAlertMailProperties mailProperties = new GoldAlertMailProperties();
+        mailProperties.setMinLevel("P1");
+        return new GoldAlertBacktester(history, mailProperties, pool, partitionTicks, Clock.systemUTC());
+    }
+
+    private static GoldAlertLevelConfig level(String name, String threshold, int window, int cooldown) {
+        int rank = GoldAlertLevelName.rankOf(name);
+        return new GoldAlertLevelConfig(name, rank, new BigDecimal(threshold), window, cooldown, rank <= 5);
+    }
+
+    private static GoldPriceSnapshot snapshot(Instant time, BigDecimal price) {
+        return new GoldPriceSnapshot(time, new GoldApiResponse("gold", price, "XAU", time, time.toString()));
+    }
+
+    private static GoldAlertLevelConfigStore configStore(List<GoldAlertLevelConfig> levels) {
+        GoldAlertLevelConfigStore store = mock(GoldAlertLevelConfigStore.class);
+        when(store.listLevels()).thenReturn(levels);
+        return store;
+    }
+}
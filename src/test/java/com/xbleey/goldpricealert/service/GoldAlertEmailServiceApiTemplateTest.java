@@ -32,7 +32,7 @@ class GoldAlertEmailServiceApiTemplateTest {
         GoldMailRecipientService recipientService = mock(GoldMailRecipientService.class);
         when(recipientService.listEnabledEmails()).thenReturn(java.util.List.of("receiver@example.com"));
         Clock clock = Clock.fixed(Instant.parse("2026-01-05T12:00:00Z"), ZoneOffset.UTC);
-        GoldAlertEmailService service = new GoldAlertEmailService(mailSender, properties, clock, recipientService);
+        GoldAlertEmailService service = new GoldAlertEmailService(mailSender, properties, clock, null, null, recipientService);
 
         GoldApiErrorMessage message = new GoldApiErrorMessage(
                 Instant.parse("2026-01-05T12:00:00Z"),
@@ -64,7 +64,7 @@ class GoldAlertEmailServiceApiTemplateTest {
         GoldMailRecipientService recipientService = mock(GoldMailRecipientService.class);
         when(recipientService.listEnabledEmails()).thenReturn(java.util.List.of("receiver@example.com"));
         Clock clock = Clock.fixed(Instant.parse("2026-01-05T12:30:00Z"), ZoneOffset.UTC);
-        GoldAlertEmailService service = new GoldAlertEmailService(mailSender, properties, clock, recipientService);
+        GoldAlertEmailService service = new GoldAlertEmailService(mailSender, properties, clock, null, null, recipientService);
 
         GoldApiResumeMessage message = new GoldApiResumeMessage(
                 Instant.parse("2026-01-05T12:30:00Z"),
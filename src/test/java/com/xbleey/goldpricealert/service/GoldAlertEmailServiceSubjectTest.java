@@ -35,7 +35,7 @@ class GoldAlertEmailServiceSubjectTest {
         GoldMailRecipientService recipientService = mock(GoldMailRecipientService.class);
         when(recipientService.listEnabledEmails()).thenReturn(List.of("receiver@example.com"));
         Clock clock = Clock.fixed(Instant.parse("2026-01-05T12:00:00Z"), ZoneOffset.UTC);
-        GoldAlertEmailService service = new GoldAlertEmailService(mailSender, properties, clock, recipientService);
+        GoldAlertEmailService service = new GoldAlertEmailService(mailSender, properties, clock, null, null, recipientService);
 
         GoldAlertMessage message = new GoldAlertMessage(
                 "P2",
@@ -47,7 +47,9 @@ class GoldAlertEmailServiceSubjectTest {
                 new BigDecimal("1.25"),
                 new BigDecimal("650.10"),
                 new BigDecimal("658.88"),
-                List.of()
+                List.of(),
+                null,
+                false
         );
 
         service.notifyAlert(message);
@@ -16,7 +16,12 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class GoldAlertEvaluatorTest {
@@ -25,13 +30,14 @@ class GoldAlertEvaluatorTest {
     void returnsTrueWhenChangeExceedsThreshold() {
         Instant now = Instant.parse("2026-01-05T12:00:00Z");
         Clock clock = Clock.fixed(now, ZoneOffset.UTC);
-        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore());
+        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
         GoldAlertEvaluator evaluator = new GoldAlertEvaluator(
                 history,
                 clock,
                 GoldAlertNotifier.noop(),
                 configStore(),
-                GoldAlertHistoryStore.noop()
+                GoldAlertHistoryStore.noop(),
+                null
         );
 
         history.add(snapshot(now.minus(Duration.ofMinutes(2)), "100.00"));
@@ -45,13 +51,14 @@ class GoldAlertEvaluatorTest {
     void returnsFalseWhenNoBaselineExists() {
         Instant now = Instant.parse("2026-01-05T12:00:00Z");
         Clock clock = Clock.fixed(now, ZoneOffset.UTC);
-        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore());
+        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
         GoldAlertEvaluator evaluator = new GoldAlertEvaluator(
                 history,
                 clock,
                 GoldAlertNotifier.noop(),
                 configStore(),
-                GoldAlertHistoryStore.noop()
+                GoldAlertHistoryStore.noop(),
+                null
         );
 
         GoldPriceSnapshot latest = snapshot(now, "101.00");
@@ -63,14 +70,15 @@ class GoldAlertEvaluatorTest {
     void prefersHigherLevelWhenAbsChangeTies() {
         Instant now = Instant.parse("2026-01-05T12:00:00Z");
         Clock clock = Clock.fixed(now, ZoneOffset.UTC);
-        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore());
+        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
         AtomicReference<GoldAlertMessage> captured = new AtomicReference<>();
         GoldAlertEvaluator evaluator = new GoldAlertEvaluator(
                 history,
                 clock,
                 captured::set,
                 configStore(),
-                GoldAlertHistoryStore.noop()
+                GoldAlertHistoryStore.noop(),
+                null
         );
 
         history.add(snapshot(now.minus(Duration.ofMinutes(60)), "100.00"));
@@ -85,11 +93,43 @@ class GoldAlertEvaluatorTest {
         assertThat(captured.get().levelName()).isEqualTo("P5");
     }
 
+    @Test
+    void alertsOnSwingThatPeakedMidWindowAndReverted() {
+        Instant now = Instant.parse("2026-01-05T12:00:00Z");
+        Clock clock = Clock.fixed(now, ZoneOffset.UTC);
+        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
+        AtomicReference<GoldAlertMessage> captured = new AtomicReference<>();
+        GoldAlertEvaluator evaluator = new GoldAlertEvaluator(
+                history,
+                clock,
+                captured::set,
+                configStore(),
+                GoldAlertHistoryStore.noop(),
+                null
+        );
+
+        history.add(snapshot(now.minus(Duration.ofMinutes(60)), "100.00"));
+        history.add(snapshot(now.minus(Duration.ofMinutes(40)), "101.20"));
+        history.add(snapshot(now.minus(Duration.ofMinutes(20)), "100.10"));
+        history.add(snapshot(now.minus(Duration.ofMinutes(5)), "100.05"));
+
+        // 与 60 分钟前的基准价相比没有变化，但较窗口内高点回落约 1.19%
+        assertThat(evaluator.evaluate(snapshot(now, "100.00"))).isTrue();
+        assertThat(captured.get().levelName()).isEqualTo("P4");
+        assertThat(captured.get().baselinePrice()).isEqualByComparingTo("101.20");
+        assertThat(captured.get().changePercent()).isNegative();
+
+        // 高点滑出窗口（也不再是窗口起点的基准价）后不再触发
+        captured.set(null);
+        assertThat(evaluator.evaluate(snapshot(now.plus(Duration.ofMinutes(41)), "100.00"))).isFalse();
+        assertThat(captured.get()).isNull();
+    }
+
     @Test
     void persistsInfoLevelAlertHistoryForP1() {
         Instant now = Instant.parse("2026-01-05T12:00:00Z");
         Clock clock = Clock.fixed(now, ZoneOffset.UTC);
-        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore());
+        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
         AtomicReference<GoldAlertHistory> persisted = new AtomicReference<>();
         GoldAlertEvaluator evaluator = new GoldAlertEvaluator(
                 history,
@@ -99,7 +139,8 @@ class GoldAlertEvaluatorTest {
                 record -> {
                     persisted.set(record);
                     return record;
-                }
+                },
+                null
         );
 
         history.add(snapshot(now.minus(Duration.ofMinutes(2)), "100.00"));
@@ -117,6 +158,57 @@ class GoldAlertEvaluatorTest {
         assertThat(persisted.get().getAlertTimeBeijing()).isNotNull();
     }
 
+    @Test
+    void labelsAlertTriggeredBySuspectTick() {
+        Instant now = Instant.parse("2026-01-05T12:00:00Z");
+        Clock clock = Clock.fixed(now, ZoneOffset.UTC);
+        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
+        AtomicReference<GoldAlertMessage> captured = new AtomicReference<>();
+        AtomicReference<GoldAlertHistory> persisted = new AtomicReference<>();
+        GoldAlertEvaluator evaluator = new GoldAlertEvaluator(
+                history,
+                clock,
+                captured::set,
+                configStore(),
+                record -> {
+                    persisted.set(record);
+                    return record;
+                },
+                null
+        );
+
+        history.add(snapshot(now.minus(Duration.ofMinutes(2)), "100.00"));
+        GoldPriceSnapshot latest = snapshot(now, "101.00");
+        latest.setPriceSuspect(true);
+
+        assertThat(evaluator.evaluate(latest)).isTrue();
+        assertThat(captured.get().priceSuspect()).isTrue();
+        assertThat(captured.get().message()).startsWith("[SUSPECT PRICE] ");
+        assertThat(persisted.get().isPriceSuspect()).isTrue();
+    }
+
+    @Test
+    void resolvesSharedWindowBaselinesWithSingleBatchLookup() {
+        Instant now = Instant.parse("2026-01-05T12:00:00Z");
+        Clock clock = Clock.fixed(now, ZoneOffset.UTC);
+        GoldPriceHistory history = spy(new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null));
+        GoldAlertEvaluator evaluator = new GoldAlertEvaluator(
+                history,
+                clock,
+                GoldAlertNotifier.noop(),
+                configStore(),
+                GoldAlertHistoryStore.noop(),
+                null
+        );
+
+        history.add(snapshot(now.minus(Duration.ofMinutes(60)), "100.00"));
+
+        evaluator.evaluate(snapshot(now, "100.01"));
+
+        verify(history, times(1)).findSnapshotsAtOrBefore(any());
+        verify(history, never()).findSnapshotAtOrBefore(any());
+    }
+
     private static GoldPriceSnapshot snapshot(Instant time, String price) {
         GoldApiResponse response = new GoldApiResponse(
                 "gold",
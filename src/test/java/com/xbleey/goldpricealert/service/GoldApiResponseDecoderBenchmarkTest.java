@@ -0,0 +1,79 @@
+package com.xbleey.goldpricealert.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xbleey.goldpricealert.model.GoldApiResponse;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 粗粒度基准：databind 解码 + 快照拷贝 与 流式解码直接写入快照 的吞吐与每次分配字节数（HotSpot 线程分配计数）
+@Tag("manual")
+class GoldApiResponseDecoderBenchmarkTest {
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 500_000;
+    private static final byte[] PAYLOAD = """
+            {"name":"Gold","price":2650.37,"symbol":"XAU","updatedAt":"2026-01-05T11:59:58Z","updatedAtReadable":"a few seconds ago"}"""
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final GoldApiResponseDecoder decoder = new GoldApiResponseDecoder(objectMapper.getFactory());
+
+    @Test
+    void streamingDecodeAllocatesLessThanDatabind() throws IOException {
+        Decode databind = (fetchedAt, input) -> new GoldPriceSnapshot(fetchedAt, objectMapper.readValue(input, GoldApiResponse.class));
+        Decode streaming = (fetchedAt, input) -> {
+            GoldPriceSnapshot snapshot = new GoldPriceSnapshot();
+            snapshot.setFetchedAt(fetchedAt);
+            decoder.decodeInto(snapshot, input);
+            return snapshot;
+        };
+
+        Result before = measure(databind);
+        Result after = measure(streaming);
+
+        assertThat(after.bytesPerOp())
+                .as("streaming %d B/op vs databind %d B/op", after.bytesPerOp(), before.bytesPerOp())
+                .isLessThan(before.bytesPerOp());
+        assertThat(after.opsPerSecond())
+                .as("streaming %.0f ops/s vs databind %.0f ops/s", after.opsPerSecond(), before.opsPerSecond())
+                .isGreaterThan(before.opsPerSecond());
+    }
+
+    private Result measure(Decode decode) throws IOException {
+        Instant fetchedAt = Instant.parse("2026-01-05T12:00:00Z");
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += decode.apply(fetchedAt, new ByteArrayInputStream(PAYLOAD)).getPrice().scale();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += decode.apply(fetchedAt, new ByteArrayInputStream(PAYLOAD)).getPrice().scale();
+        }
+        long elapsed = System.nanoTime() - started;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        assertThat(sink).isEqualTo(2L * (WARMUP + ITERATIONS));
+        return new Result(ITERATIONS / (elapsed / 1_000_000_000.0), allocated / ITERATIONS);
+    }
+
+    @FunctionalInterface
+    private interface Decode {
+
+        GoldPriceSnapshot apply(Instant fetchedAt, InputStream input) throws IOException;
+    }
+
+    private record Result(double opsPerSecond, long bytesPerOp) {
+    }
+}
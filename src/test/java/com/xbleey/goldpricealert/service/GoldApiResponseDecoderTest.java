@@ -0,0 +1,57 @@
+package com.xbleey.goldpricealert.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xbleey.goldpricealert.model.GoldApiResponse;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GoldApiResponseDecoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final GoldApiResponseDecoder decoder = new GoldApiResponseDecoder(objectMapper.getFactory());
+
+    @Test
+    void decodesSameValuesAsDatabind() throws IOException {
+        List<String> payloads = List.of(
+                """
+                        {"name":"Gold","price":5095.0,"symbol":"XAU","updatedAt":"2026-01-30T14:41:02Z","updatedAtReadable":"a few seconds ago"}""",
+                """
+                        {"updatedAtReadable":null,"symbol":"XAG","price":"31.275","name":"Silver","updatedAt":"2026-01-30T22:41:02+08:00"}""",
+                """
+                        {"name":"Gold","price":2650,"extra":{"nested":[1,2,{"x":null}]},"tags":["a"],"updatedAt":1767225600}""",
+                """
+                        {"price":1934.5600,"updatedAt":1767225600.250000000,"symbol":null}""",
+                "{}"
+        );
+        for (String payload : payloads) {
+            GoldApiResponse expected = objectMapper.readValue(payload, GoldApiResponse.class);
+            GoldPriceSnapshot fromString = new GoldPriceSnapshot();
+            decoder.decodeInto(fromString, payload);
+            GoldPriceSnapshot fromStream = new GoldPriceSnapshot();
+            decoder.decodeInto(fromStream, new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8)));
+            for (GoldPriceSnapshot actual : List.of(fromString, fromStream)) {
+                assertThat(actual.getName()).as(payload).isEqualTo(expected.name());
+                assertThat(actual.getPrice()).as(payload).isEqualTo(expected.price());
+                assertThat(actual.getSymbol()).as(payload).isEqualTo(expected.symbol());
+                assertThat(actual.getUpdatedAt()).as(payload).isEqualTo(expected.updatedAt());
+                assertThat(actual.getUpdatedAtReadable()).as(payload).isEqualTo(expected.updatedAtReadable());
+            }
+        }
+    }
+
+    @Test
+    void rejectsPayloadsThatAreNotGoldPriceObjects() {
+        assertThatThrownBy(() -> decoder.decodeInto(new GoldPriceSnapshot(), "[1,2]")).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> decoder.decodeInto(new GoldPriceSnapshot(), "{\"price\":\"abc\"}")).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> decoder.decodeInto(new GoldPriceSnapshot(), "{\"price\":1934.5")).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> decoder.decodeInto(new GoldPriceSnapshot(), "heartbeat")).isInstanceOf(IOException.class);
+    }
+}
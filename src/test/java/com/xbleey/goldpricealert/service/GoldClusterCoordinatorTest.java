@@ -0,0 +1,166 @@
+package com.xbleey.goldpricealert.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xbleey.goldpricealert.config.GoldProperties;
+import com.xbleey.goldpricealert.model.GoldApiResponse;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import com.xbleey.goldpricealert.support.InMemoryGoldLeaderLease;
+import com.xbleey.goldpricealert.support.InMemoryGoldPriceSnapshotStore;
+import com.xbleey.goldpricealert.support.InMemoryGoldTickChannel;
+import com.xbleey.goldpricealert.support.MutableClock;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class GoldClusterCoordinatorTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-05T12:00:00Z"));
+    private final InMemoryGoldLeaderLease lease = new InMemoryGoldLeaderLease(clock);
+    private final InMemoryGoldTickChannel channel = new InMemoryGoldTickChannel();
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void onlyOneInstanceLeadsAndFollowerTakesOverOnceLeaseExpires() {
+        GoldClusterCoordinator first = coordinator("a", history());
+        GoldClusterCoordinator second = coordinator("b", history());
+
+        first.heartbeat();
+        second.heartbeat();
+        assertThat(first.isLeader()).isTrue();
+        assertThat(second.isLeader()).isFalse();
+
+        // 续期期间租约一直由 a 持有
+        clock.advance(Duration.ofSeconds(10));
+        first.heartbeat();
+        second.heartbeat();
+        clock.advance(Duration.ofSeconds(10));
+        assertThat(first.isLeader()).isTrue();
+        assertThat(second.isLeader()).isFalse();
+
+        // a 停止续期（进程挂起）：本地到期后自行让出，b 在下一次心跳接管
+        clock.advance(Duration.ofSeconds(6));
+        assertThat(first.isLeader()).isFalse();
+        second.heartbeat();
+        assertThat(second.isLeader()).isTrue();
+        first.heartbeat();
+        assertThat(first.isLeader()).isFalse();
+        assertThat(lease.owner()).isEqualTo("b");
+    }
+
+    @Test
+    void closingLeaderReleasesLeaseForImmediateTakeover() {
+        GoldClusterCoordinator first = coordinator("a", history());
+        GoldClusterCoordinator second = coordinator("b", history());
+        first.heartbeat();
+        second.heartbeat();
+
+        first.close();
+        second.heartbeat();
+
+        assertThat(first.isLeader()).isFalse();
+        assertThat(second.isLeader()).isTrue();
+    }
+
+    @Test
+    void keepsLeadershipThroughRedisErrorsOnlyUntilLocalLeaseExpiry() {
+        GoldClusterCoordinator coordinator = coordinator("a", history());
+        coordinator.heartbeat();
+        lease.failWith(new IllegalStateException("redis down"));
+
+        clock.advance(Duration.ofSeconds(5));
+        coordinator.heartbeat();
+        assertThat(coordinator.isLeader()).isTrue();
+
+        clock.advance(Duration.ofSeconds(10));
+        coordinator.heartbeat();
+        assertThat(coordinator.isLeader()).isFalse();
+
+        lease.failWith(null);
+        coordinator.heartbeat();
+        assertThat(coordinator.isLeader()).isTrue();
+    }
+
+    @Test
+    void followerAppliesBroadcastTicksToLocalHistoryWithoutPersisting() {
+        InMemoryGoldPriceSnapshotStore leaderStore = new InMemoryGoldPriceSnapshotStore();
+        InMemoryGoldPriceSnapshotStore followerStore = new InMemoryGoldPriceSnapshotStore();
+        GoldPriceHistory leaderHistory = new GoldPriceHistory(leaderStore, null, null);
+        GoldPriceHistory followerHistory = new GoldPriceHistory(followerStore, null, null);
+        GoldClusterCoordinator leader = coordinator("a", leaderHistory);
+        GoldClusterCoordinator follower = coordinator("b", followerHistory);
+        leader.run(new DefaultApplicationArguments());
+        follower.run(new DefaultApplicationArguments());
+        assertThat(leader.isLeader()).isTrue();
+
+        GoldPriceSnapshot tick = snapshot("1934.56", "2026-01-05T11:59:58Z");
+        assertThat(leaderHistory.addIfNewTick(tick)).isTrue();
+        leader.publish(tick);
+        // 重复广播按 updatedAt 判重
+        leader.publish(tick);
+
+        assertThat(followerHistory.latest()).get().satisfies(replicated -> {
+            assertThat(replicated.price()).isEqualByComparingTo("1934.56");
+            assertThat(replicated.getSymbol()).isEqualTo("XAU");
+            assertThat(replicated.getUpdatedAt()).isEqualTo(Instant.parse("2026-01-05T11:59:58Z"));
+        });
+        assertThat(followerHistory.getRecent(10)).hasSize(1);
+        assertThat(followerStore.count()).isZero();
+        assertThat(leaderStore.count()).isEqualTo(1);
+    }
+
+    @Test
+    void followerKeepsSuspectFlagOfBroadcastTick() {
+        GoldPriceHistory followerHistory = history();
+        GoldClusterCoordinator leader = coordinator("a", history());
+        leader.run(new DefaultApplicationArguments());
+        coordinator("b", followerHistory).run(new DefaultApplicationArguments());
+
+        GoldPriceSnapshot tick = snapshot("1934.56", "2026-01-05T11:59:58Z");
+        tick.setPriceSuspect(true);
+        leader.publish(tick);
+
+        assertThat(followerHistory.latest()).get().extracting(GoldPriceSnapshot::isPriceSuspect).isEqualTo(true);
+    }
+
+    @Test
+    void standaloneInstanceIsAlwaysLeader() {
+        assertThat(GoldClusterCoordinator.standalone().isLeader()).isTrue();
+    }
+
+    private GoldClusterCoordinator coordinator(String instanceId, GoldPriceHistory history) {
+        GoldProperties properties = new GoldProperties();
+        properties.getCluster().setEnabled(true);
+        properties.getCluster().setInstanceId(instanceId);
+        GoldInstrumentPipeline pipeline = new GoldInstrumentPipeline("XAU", List.of(), history, null, null, null);
+        return new GoldClusterCoordinator(
+                properties,
+                lease,
+                channel,
+                new GoldInstrumentPipelines(List.of(pipeline)),
+                objectMapper,
+                mock(TaskScheduler.class),
+                clock
+        );
+    }
+
+    private static GoldPriceHistory history() {
+        return new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
+    }
+
+    private GoldPriceSnapshot snapshot(String price, String updatedAt) {
+        GoldPriceSnapshot snapshot = new GoldPriceSnapshot(
+                clock.instant(),
+                new GoldApiResponse("gold", new BigDecimal(price), "XAU", Instant.parse(updatedAt), "-")
+        );
+        snapshot.setSymbol("XAU");
+        return snapshot;
+    }
+}
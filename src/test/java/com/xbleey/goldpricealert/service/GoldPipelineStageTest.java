@@ -0,0 +1,113 @@
+package com.xbleey.goldpricealert.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GoldPipelineStageTest {
+
+    private final Deque<Runnable> tasks = new ArrayDeque<>();
+
+    @Test
+    void fullQueueDropsNewItemsWithoutBlockingTheProducer() {
+        List<Integer> handled = new ArrayList<>();
+        GoldPipelineStage<Integer> stage = new GoldPipelineStage<>("test", 3, tasks::add, handled::add);
+
+        assertThat(List.of(1, 2, 3, 4, 5)).map(stage::offer).containsExactly(true, true, true, false, false);
+        assertThat(stage.stats().depth()).isEqualTo(3);
+        assertThat(stage.stats().dropped()).isEqualTo(2);
+        // 排空任务只登记一次
+        assertThat(tasks).hasSize(1);
+
+        runTasks();
+        assertThat(stage.offer(6)).isTrue();
+        runTasks();
+
+        assertThat(handled).containsExactly(1, 2, 3, 6);
+        GoldPipelineStage.Stats stats = stage.stats();
+        assertThat(stats.depth()).isZero();
+        assertThat(stats.peakDepth()).isEqualTo(3);
+        assertThat(stats.accepted()).isEqualTo(4);
+        assertThat(stats.completed()).isEqualTo(4);
+    }
+
+    @Test
+    void failedItemsAreCountedAndLatencyIncludesQueueWait() throws Exception {
+        List<Integer> handled = new ArrayList<>();
+        GoldPipelineStage<Integer> stage = new GoldPipelineStage<>("test", 10, tasks::add, item -> {
+            if (item == 2) {
+                throw new IllegalStateException("smtp timeout");
+            }
+            handled.add(item);
+        });
+
+        stage.offer(1);
+        stage.offer(2);
+        stage.offer(3);
+        Thread.sleep(20);
+        runTasks();
+
+        assertThat(handled).containsExactly(1, 3);
+        GoldPipelineStage.Stats stats = stage.stats();
+        assertThat(stats.completed()).isEqualTo(2);
+        assertThat(stats.failed()).isEqualTo(1);
+        assertThat(stats.maxLatency()).isGreaterThanOrEqualTo(Duration.ofMillis(20));
+        assertThat(stats.averageLatency()).isLessThanOrEqualTo(stats.maxLatency());
+    }
+
+    @Test
+    void concurrentProducersAreConsumedOneAtATimeInPerProducerOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 2_000;
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        int[] lastSeen = new int[producers];
+        Arrays.fill(lastSeen, -1);
+        List<int[]> outOfOrder = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            GoldPipelineStage<int[]> stage = new GoldPipelineStage<>("test", producers * perProducer, executor, item -> {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                if (item[1] <= lastSeen[item[0]]) {
+                    outOfOrder.add(item);
+                }
+                lastSeen[item[0]] = item[1];
+                active.decrementAndGet();
+            });
+            for (int producer = 0; producer < producers; producer++) {
+                int id = producer;
+                executor.execute(() -> {
+                    for (int seq = 0; seq < perProducer; seq++) {
+                        stage.offer(new int[]{id, seq});
+                    }
+                });
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (stage.stats().completed() < producers * perProducer && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+
+            assertThat(stage.stats().completed()).isEqualTo(producers * perProducer);
+            assertThat(stage.stats().dropped()).isZero();
+        }
+        assertThat(maxActive.get()).isEqualTo(1);
+        assertThat(outOfOrder).isEmpty();
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+}
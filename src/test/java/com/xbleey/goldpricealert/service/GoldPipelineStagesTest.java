@@ -0,0 +1,169 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.config.GoldProperties;
+import com.xbleey.goldpricealert.model.GoldApiResponse;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import com.xbleey.goldpricealert.support.InMemoryGoldPriceSnapshotStore;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GoldPipelineStagesTest {
+
+    private static final Instant BASE = Instant.parse("2026-01-05T12:00:00Z");
+
+    private final Deque<Runnable> tasks = new ArrayDeque<>();
+    private final GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
+    private final GoldAlertEvaluator evaluator = mock(GoldAlertEvaluator.class);
+    private final GoldInstrumentPipeline pipeline = new GoldInstrumentPipeline("XAU", List.of(), history, evaluator, null, null);
+
+    @Test
+    void submitReturnsBeforeStorageAndEvaluationSeesHistoryAsOfEachTick() {
+        List<String> seenAtEvaluation = new ArrayList<>();
+        when(evaluator.evaluate(any())).thenAnswer(invocation -> {
+            GoldPriceSnapshot evaluated = invocation.getArgument(0);
+            seenAtEvaluation.add(evaluated.price() + "@" + history.latest().orElseThrow().price());
+            return evaluated.price().compareTo(new BigDecimal("1920")) > 0;
+        });
+        GoldPipelineStages stages = GoldPipelineStages.sharing(new GoldProperties.Pipeline(), tasks::add);
+        AtomicInteger published = new AtomicInteger();
+
+        CompletableFuture<GoldInstrumentPipeline.Ingested> first = stages.submit(pipeline, tick(0, "1900.00"), published::incrementAndGet);
+        CompletableFuture<GoldInstrumentPipeline.Ingested> second = stages.submit(pipeline, tick(30, "1930.00"), published::incrementAndGet);
+        CompletableFuture<GoldInstrumentPipeline.Ingested> duplicate = stages.submit(pipeline, tick(30, "1930.00"), published::incrementAndGet);
+
+        assertThat(first).isNotDone();
+        assertThat(history.getAll()).isEmpty();
+
+        // 入库阶段先把三条都处理完，评估阶段随后逐条评估，评估时缓冲中的最新行情正是被评估的那条
+        tasks.poll().run();
+        assertThat(history.getAll()).hasSize(2);
+        assertThat(duplicate).isCompletedWithValue(GoldInstrumentPipeline.Ingested.NOT_NEWER);
+        assertThat(published).hasValue(2);
+        runTasks();
+
+        assertThat(seenAtEvaluation).containsExactly("1900.00@1900.00", "1930.00@1930.00");
+        assertThat(first).isCompletedWithValue(GoldInstrumentPipeline.Ingested.STORED);
+        assertThat(second).isCompletedWithValue(GoldInstrumentPipeline.Ingested.ALERTED);
+        assertThat(stages.stats())
+                .extracting(GoldPipelineStage.Stats::name, GoldPipelineStage.Stats::completed)
+                .containsExactly(
+                        tuple("ingest", 3L),
+                        tuple("evaluate", 2L),
+                        tuple("notify", 0L)
+                );
+    }
+
+    @Test
+    void notificationsAreQueuedAndDroppedWhenTheNotifyQueueIsFull() {
+        GoldProperties.Pipeline settings = new GoldProperties.Pipeline();
+        settings.setNotifyCapacity(2);
+        GoldPipelineStages stages = GoldPipelineStages.sharing(settings, tasks::add);
+        List<String> sent = new ArrayList<>();
+
+        assertThat(stages.submitNotification("a", () -> sent.add("a"))).isTrue();
+        assertThat(stages.submitNotification("b", () -> {
+            throw new IllegalStateException("smtp down");
+        })).isTrue();
+        assertThat(stages.submitNotification("c", () -> sent.add("c"))).isFalse();
+        assertThat(sent).isEmpty();
+
+        runTasks();
+        assertThat(stages.submitNotification("d", () -> sent.add("d"))).isTrue();
+        runTasks();
+
+        assertThat(sent).containsExactly("a", "d");
+        GoldPipelineStage.Stats notify = stages.stats().getLast();
+        assertThat(notify.name()).isEqualTo("notify");
+        assertThat(notify.completed()).isEqualTo(2);
+        assertThat(notify.failed()).isEqualTo(1);
+        assertThat(notify.dropped()).isEqualTo(1);
+    }
+
+    @Test
+    void fullIngestQueueRejectsTheTick() {
+        GoldProperties.Pipeline settings = new GoldProperties.Pipeline();
+        settings.setIngestCapacity(1);
+        GoldPipelineStages stages = GoldPipelineStages.sharing(settings, tasks::add);
+
+        stages.submit(pipeline, tick(0, "1900.00"), () -> {
+        });
+        CompletableFuture<GoldInstrumentPipeline.Ingested> rejected = stages.submit(pipeline, tick(30, "1901.00"), () -> {
+        });
+
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(rejected.exceptionNow()).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void fullEvaluateQueueRejectsTheTickBeforeStoringIt() {
+        when(evaluator.evaluate(any())).thenReturn(false);
+        GoldProperties.Pipeline settings = new GoldProperties.Pipeline();
+        settings.setEvaluateCapacity(1);
+        GoldPipelineStages stages = GoldPipelineStages.sharing(settings, tasks::add);
+        AtomicInteger published = new AtomicInteger();
+
+        CompletableFuture<GoldInstrumentPipeline.Ingested> first = stages.submit(pipeline, tick(0, "1900.00"), published::incrementAndGet);
+        CompletableFuture<GoldInstrumentPipeline.Ingested> rejected = stages.submit(pipeline, tick(30, "1901.00"), published::incrementAndGet);
+        tasks.poll().run();
+
+        // 评估队列只容得下第一条：第二条既不入库也不广播，判重状态不推进
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(rejected.exceptionNow()).isInstanceOf(RejectedExecutionException.class);
+        assertThat(history.getAll()).extracting(GoldPriceSnapshot::price).containsExactly(new BigDecimal("1900.00"));
+        assertThat(published).hasValue(1);
+        runTasks();
+        assertThat(first).isCompletedWithValue(GoldInstrumentPipeline.Ingested.STORED);
+
+        // 下一次拉取到同一条行情时照常入库、发布到缓冲并评估
+        CompletableFuture<GoldInstrumentPipeline.Ingested> retried = stages.submit(pipeline, tick(30, "1901.00"), published::incrementAndGet);
+        runTasks();
+
+        assertThat(retried).isCompletedWithValue(GoldInstrumentPipeline.Ingested.STORED);
+        assertThat(history.getAll()).hasSize(2);
+        assertThat(history.latest()).get().extracting(GoldPriceSnapshot::price).isEqualTo(new BigDecimal("1901.00"));
+        assertThat(stages.stats().get(1).dropped()).isEqualTo(1);
+    }
+
+    @Test
+    void directStagesRunOnTheCallingThread() {
+        when(evaluator.evaluate(any())).thenReturn(false);
+        GoldPipelineStages stages = GoldPipelineStages.direct();
+        List<String> sent = new ArrayList<>();
+
+        assertThat(stages.submit(pipeline, tick(0, "1900.00"), () -> sent.add("published")))
+                .isCompletedWithValue(GoldInstrumentPipeline.Ingested.STORED);
+        stages.submitNotification("mail", () -> sent.add("mail"));
+
+        assertThat(sent).containsExactly("published", "mail");
+        assertThat(stages.stats()).isEmpty();
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private static GoldPriceSnapshot tick(int seconds, String price) {
+        Instant at = BASE.plusSeconds(seconds);
+        GoldPriceSnapshot snapshot = new GoldPriceSnapshot(at, new GoldApiResponse("gold", new BigDecimal(price), "XAU", at, "-"));
+        snapshot.setSymbol("XAU");
+        return snapshot;
+    }
+}
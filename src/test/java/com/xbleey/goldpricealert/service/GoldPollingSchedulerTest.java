@@ -0,0 +1,209 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.config.GoldProperties;
+import com.xbleey.goldpricealert.model.GoldApiResponse;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import com.xbleey.goldpricealert.support.InMemoryGoldPriceSnapshotStore;
+import com.xbleey.goldpricealert.support.TestTradingCalendars;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GoldPollingSchedulerTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-05T12:00:00Z");
+
+    private final GoldThresholdStore thresholdStore = mock(GoldThresholdStore.class);
+    private final GoldPriceFetcher fetcher = mock(GoldPriceFetcher.class);
+    private final GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
+    private final GoldProperties properties = new GoldProperties();
+    private final GoldUpstreamCallLog callLog = new GoldUpstreamCallLog(Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void backsOffToCeilingWhenMarketIsQuiet() {
+        when(thresholdStore.nearestThreshold(any())).thenReturn(Optional.empty());
+        addTicks("1900.00", "1900.10", "1900.00", "1900.10");
+
+        assertThat(scheduler().nextDelay(NOW)).isGreaterThan(Duration.ofMinutes(2));
+    }
+
+    @Test
+    void pollsAtFloorWhenRealizedVolatilityIsHigh() {
+        when(thresholdStore.nearestThreshold(any())).thenReturn(Optional.empty());
+        addTicks("1900.00", "1904.00", "1899.00", "1905.00");
+
+        assertThat(scheduler().nextDelay(NOW)).isEqualTo(properties.getPolling().getMinInterval());
+    }
+
+    @Test
+    void speedsUpAsPriceApproachesActiveThreshold() {
+        addTicks("1900.00");
+        GoldPollingScheduler scheduler = scheduler();
+
+        when(thresholdStore.nearestThreshold(any())).thenReturn(Optional.of(new BigDecimal("1950.00")));
+        Duration far = scheduler.nextDelay(NOW);
+        when(thresholdStore.nearestThreshold(any())).thenReturn(Optional.of(new BigDecimal("1902.00")));
+        Duration near = scheduler.nextDelay(NOW);
+        when(thresholdStore.nearestThreshold(any())).thenReturn(Optional.of(new BigDecimal("1900.00")));
+        Duration at = scheduler.nextDelay(NOW);
+
+        assertThat(far).isEqualTo(properties.getPolling().getMaxInterval());
+        assertThat(near).isLessThan(far).isGreaterThan(at);
+        assertThat(at).isEqualTo(properties.getPolling().getMinInterval());
+    }
+
+    @Test
+    void keepsWithinHourlyBudget() {
+        when(thresholdStore.nearestThreshold(any())).thenReturn(Optional.of(new BigDecimal("1900.00")));
+        addTicks("1900.00");
+        properties.getPolling().setHourlyBudget(8);
+        GoldPollingScheduler scheduler = scheduler();
+
+        for (int i = 0; i < 3; i++) {
+            callLog.record(NOW.minus(Duration.ofMinutes(50 - i)));
+        }
+        assertThat(scheduler.nextDelay(NOW)).isEqualTo(Duration.ofSeconds(15));
+        // 已用一半额度：不低于平均间隔 1h / 8
+        callLog.record(NOW.minus(Duration.ofMinutes(10)));
+        assertThat(scheduler.nextDelay(NOW)).isEqualTo(Duration.ofMinutes(7).plusSeconds(30));
+        // 额度用尽：等到最早一轮滑出窗口
+        for (int i = 0; i < 4; i++) {
+            callLog.record(NOW.minus(Duration.ofMinutes(5 - i)));
+        }
+        assertThat(scheduler.nextDelay(NOW)).isEqualTo(Duration.ofMinutes(10));
+    }
+
+    @Test
+    void usesFixedIntervalWhenAdaptivePollingIsDisabled() {
+        properties.setFetchInterval(Duration.ofSeconds(60));
+        properties.getPolling().setAdaptive(false);
+        addTicks("1900.00", "1904.00", "1899.00", "1905.00");
+
+        assertThat(scheduler().nextDelay(NOW)).isEqualTo(Duration.ofSeconds(60));
+        verify(thresholdStore, never()).nearestThreshold(any());
+    }
+
+    @Test
+    void countsEveryUpstreamCallAgainstBudget() {
+        properties.getPolling().setHourlyBudget(4);
+        when(thresholdStore.nearestThreshold(any())).thenReturn(Optional.empty());
+        GoldPollingScheduler scheduler = scheduler(NOW, "XAU", "XAG");
+
+        // 一轮两个品种，其中一个品种重试一次：3 次请求，剩余额度不够再拉一轮两个品种
+        callLog.record(NOW.minus(Duration.ofMinutes(30)));
+        callLog.record(NOW.minus(Duration.ofMinutes(30)));
+        callLog.record(NOW.minus(Duration.ofMinutes(29)));
+        // GET /price 手动触发同样占额度
+        callLog.record(NOW.minus(Duration.ofMinutes(1)));
+
+        assertThat(scheduler.nextDelay(NOW)).isEqualTo(Duration.ofMinutes(30));
+    }
+
+    @Test
+    void backsOffForWholeWindowWhenBudgetIsSmallerThanOneRound() {
+        properties.getPolling().setHourlyBudget(2);
+        when(thresholdStore.nearestThreshold(any())).thenReturn(Optional.empty());
+        GoldPollingScheduler scheduler = scheduler(NOW, "XAU", "XAG", "XPT");
+
+        assertThat(scheduler.nextDelay(NOW)).isEqualTo(Duration.ofHours(1));
+    }
+
+    @Test
+    void rejectsBudgetSmallerThanInstrumentCount() {
+        GoldProperties configured = new GoldProperties();
+        configured.setApiUrl(URI.create("https://api.gold-api.com/price/XAU"));
+        configured.setInstruments(List.of(
+                new GoldProperties.Instrument("XAG", URI.create("https://api.gold-api.com/price/XAG"), List.of()),
+                new GoldProperties.Instrument("XPT", URI.create("https://api.gold-api.com/price/XPT"), List.of())
+        ));
+        configured.getPolling().setHourlyBudget(2);
+
+        assertThatThrownBy(configured::validate)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("hourly-budget");
+        configured.getPolling().setHourlyBudget(3);
+        configured.validate();
+        configured.getPolling().setHourlyBudget(0);
+        configured.validate();
+    }
+
+    @Test
+    void defaultBudgetMatchesFixedOneMinutePolling() {
+        assertThat(properties.getPolling().getHourlyBudget()).isEqualTo(60);
+    }
+
+    @Test
+    void skipsFetchOutsideTradingSessions() {
+        scheduler(Instant.parse("2026-01-04T12:00:00Z")).poll();
+        scheduler(Instant.parse("2026-04-03T12:00:00Z")).poll();
+
+        verify(fetcher, never()).fetch();
+    }
+
+    @Test
+    void sleepsUntilNextOpenWhileMarketIsClosed() {
+        Instant goodFriday = Instant.parse("2026-04-03T12:00:00Z");
+
+        assertThat(scheduler(goodFriday).nextPoll(goodFriday)).isEqualTo(Instant.parse("2026-04-07T00:00:00Z"));
+        assertThat(scheduler().nextPoll(NOW)).isAfter(NOW).isBeforeOrEqualTo(NOW.plus(properties.getPolling().getMaxInterval()));
+        verify(thresholdStore, never()).nearestThreshold(any());
+    }
+
+    @Test
+    void interpolatesGeometricallyBetweenBounds() {
+        Duration min = Duration.ofSeconds(10);
+        Duration max = Duration.ofSeconds(160);
+
+        assertThat(GoldPollingScheduler.interpolate(min, max, 0)).isEqualTo(max);
+        assertThat(GoldPollingScheduler.interpolate(min, max, 0.5)).isEqualTo(Duration.ofSeconds(40));
+        assertThat(GoldPollingScheduler.interpolate(min, max, 3)).isEqualTo(min);
+    }
+
+    private void addTicks(String... prices) {
+        for (int i = 0; i < prices.length; i++) {
+            Instant time = NOW.minus(Duration.ofMinutes(prices.length - i));
+            history.add(new GoldPriceSnapshot(time, new GoldApiResponse("gold", new BigDecimal(prices[i]), "XAU", time, null)));
+        }
+    }
+
+    private GoldPollingScheduler scheduler() {
+        return scheduler(NOW);
+    }
+
+    private GoldPollingScheduler scheduler(Instant now) {
+        return scheduler(now, "XAU");
+    }
+
+    private GoldPollingScheduler scheduler(Instant now, String... symbols) {
+        List<GoldInstrumentPipeline> pipelines = new ArrayList<>();
+        for (String symbol : symbols) {
+            pipelines.add(new GoldInstrumentPipeline(symbol, List.of(), history, null, null, null));
+        }
+        return new GoldPollingScheduler(
+                fetcher,
+                GoldClusterCoordinator.standalone(),
+                TestTradingCalendars.lbma(),
+                new GoldInstrumentPipelines(pipelines),
+                thresholdStore,
+                callLog,
+                properties,
+                Clock.fixed(now, ZoneOffset.UTC)
+        );
+    }
+}
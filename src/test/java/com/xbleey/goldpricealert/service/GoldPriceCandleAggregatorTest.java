@@ -0,0 +1,223 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.enums.GoldCandleResolution;
+import com.xbleey.goldpricealert.model.GoldApiResponse;
+import com.xbleey.goldpricealert.model.GoldPriceCandle;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import com.xbleey.goldpricealert.repository.GoldPriceCandleStore;
+import com.xbleey.goldpricealert.support.InMemoryGoldPriceSnapshotStore;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GoldPriceCandleAggregatorTest {
+
+    @Test
+    void recordsEveryResolutionInSingleMerge() {
+        RecordingCandleStore candleStore = new RecordingCandleStore();
+        GoldPriceHistory history = new GoldPriceHistory(
+                new InMemoryGoldPriceSnapshotStore(),
+                null,
+                new GoldPriceCandleAggregator(candleStore, "XAU")
+        );
+        Instant time = Instant.parse("2026-01-05T12:07:30Z");
+
+        GoldPriceSnapshot first = snapshot(time, "1900.00");
+        GoldPriceSnapshot duplicate = snapshot(time.plusSeconds(5), "1900.0");
+        duplicate.setUpdatedAt(first.getUpdatedAt());
+        assertThat(history.addIfNewTick(first)).isTrue();
+        assertThat(history.addIfNewTick(duplicate)).isFalse();
+
+        assertThat(candleStore.merges).hasSize(1);
+        assertThat(candleStore.merges.getFirst())
+                .extracting(GoldPriceCandle::getResolution, GoldPriceCandle::getBucketStart)
+                .containsExactly(
+                        tuple("1m", Instant.parse("2026-01-05T12:07:00Z")),
+                        tuple("5m", Instant.parse("2026-01-05T12:05:00Z")),
+                        tuple("1h", Instant.parse("2026-01-05T12:00:00Z")),
+                        tuple("1d", Instant.parse("2026-01-05T00:00:00Z"))
+                );
+    }
+
+    @Test
+    void candlesCarryTheSymbolOfTheOwningPipeline() {
+        RecordingCandleStore candleStore = new RecordingCandleStore();
+        GoldPriceCandleAggregator silver = new GoldPriceCandleAggregator(candleStore, "XAU").forSymbol("XAG");
+
+        silver.record(snapshot(Instant.parse("2026-01-05T12:07:30Z"), "31.20"));
+
+        assertThat(candleStore.merges.getFirst())
+                .extracting(GoldPriceCandle::getSymbol)
+                .containsOnly("XAG");
+    }
+
+    @Test
+    void candleFailureDoesNotRejectSnapshot() {
+        GoldPriceCandleStore candleStore = mock(GoldPriceCandleStore.class);
+        when(candleStore.mergeAll(anyList())).thenThrow(new IllegalStateException("db down"));
+        InMemoryGoldPriceSnapshotStore snapshotStore = new InMemoryGoldPriceSnapshotStore();
+        GoldPriceHistory history = new GoldPriceHistory(snapshotStore, null, new GoldPriceCandleAggregator(candleStore, "XAU"));
+
+        assertThat(history.addIfNewTick(snapshot(Instant.parse("2026-01-05T12:00:00Z"), "1900.00"))).isTrue();
+        assertThat(snapshotStore.findAllAsc()).hasSize(1);
+    }
+
+    @Test
+    void rollupMergesOpenHighLowCloseIndependentOfOrder() {
+        GoldPriceCandleAggregator.Rollup rollup = new GoldPriceCandleAggregator.Rollup("XAU");
+        Instant base = Instant.parse("2026-01-05T12:00:00Z");
+
+        rollup.accept(snapshot(base.plusSeconds(40), "1905.00"));
+        rollup.accept(snapshot(base.plusSeconds(10), "1900.00"));
+        rollup.accept(snapshot(base.plusSeconds(20), "1912.00"));
+        rollup.accept(snapshot(base.plusSeconds(30), "1898.00"));
+        rollup.accept(snapshot(base.plusSeconds(70), "1901.00"));
+
+        List<GoldPriceCandle> minutes = rollup.candles().stream()
+                .filter(candle -> candle.getResolution().equals("1m"))
+                .toList();
+        assertThat(minutes).hasSize(2);
+        GoldPriceCandle first = minutes.getFirst();
+        assertThat(first.getOpenPrice()).isEqualByComparingTo("1900.00");
+        assertThat(first.getHighPrice()).isEqualByComparingTo("1912.00");
+        assertThat(first.getLowPrice()).isEqualByComparingTo("1898.00");
+        assertThat(first.getClosePrice()).isEqualByComparingTo("1905.00");
+        assertThat(first.getTickCount()).isEqualTo(4L);
+
+        GoldPriceCandle hour = rollup.candles().stream()
+                .filter(candle -> candle.getResolution().equals("1h"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(hour.getClosePrice()).isEqualByComparingTo("1901.00");
+        assertThat(hour.getTickCount()).isEqualTo(5L);
+    }
+
+    @Test
+    void backfillRebuildsCandlesPerDayChunk() {
+        InMemoryGoldPriceSnapshotStore snapshotStore = new InMemoryGoldPriceSnapshotStore();
+        GoldPriceHistory history = new GoldPriceHistory(snapshotStore, null, null);
+        Instant day = Instant.parse("2026-01-05T00:00:00Z");
+        history.add(snapshot(day.plusSeconds(3600), "1900.00"));
+        history.add(snapshot(day.plusSeconds(7200), "1910.00"));
+        history.add(snapshot(day.plusSeconds(86_400 + 60), "1920.00"));
+        RecordingCandleStore candleStore = new RecordingCandleStore();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            GoldPriceCandleBackfillService service = new GoldPriceCandleBackfillService(
+                    candleStore,
+                    executor,
+                    Clock.fixed(day.plusSeconds(3 * 86_400), ZoneOffset.UTC)
+            );
+
+            GoldPriceCandleBackfillService.BackfillResult result =
+                    service.backfill("XAU", history, day.plusSeconds(60), day.plusSeconds(2 * 86_400));
+
+            assertThat(result.from()).isEqualTo(day);
+            assertThat(result.chunks()).isEqualTo(2);
+            assertThat(result.candles()).isEqualTo(11);
+            List<GoldPriceCandle> daily = candleStore.replacedOf(GoldCandleResolution.ONE_DAY);
+            assertThat(daily).extracting(GoldPriceCandle::getTickCount).containsExactlyInAnyOrder(2L, 1L);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void backfillSkipsBucketsTheLiveAggregatorIsStillMerging() {
+        InMemoryGoldPriceSnapshotStore snapshotStore = new InMemoryGoldPriceSnapshotStore();
+        GoldPriceHistory history = new GoldPriceHistory(snapshotStore, null, null);
+        Instant day = Instant.parse("2026-01-05T00:00:00Z");
+        history.add(snapshot(day.plusSeconds(1800), "1900.00"));
+        history.add(snapshot(day.plusSeconds(7200 + 30), "1910.00"));
+        RecordingCandleStore candleStore = new RecordingCandleStore();
+        // 现在是 02:03，02 时的各周期刚结束不久或尚未结束，当天的日线也未收盘
+        GoldPriceCandleBackfillService service = new GoldPriceCandleBackfillService(
+                candleStore,
+                Runnable::run,
+                Clock.fixed(day.plusSeconds(7200 + 180), ZoneOffset.UTC)
+        );
+
+        GoldPriceCandleBackfillService.BackfillResult result = service.backfill("XAU", history, day, day.plusSeconds(86_400));
+
+        assertThat(result.candles()).isEqualTo(3);
+        assertThat(result.skippedOpen()).isEqualTo(4);
+        assertThat(candleStore.replaced)
+                .extracting(GoldPriceCandle::getResolution, GoldPriceCandle::getBucketStart)
+                .containsExactlyInAnyOrder(
+                        tuple("1m", day.plusSeconds(1800)),
+                        tuple("5m", day.plusSeconds(1800)),
+                        tuple("1h", day)
+                );
+    }
+
+    @Test
+    void backfillRejectsEmptyRange() {
+        GoldPriceCandleBackfillService service = new GoldPriceCandleBackfillService(
+                new RecordingCandleStore(),
+                Runnable::run,
+                Clock.systemUTC()
+        );
+        Instant time = Instant.parse("2026-01-05T00:00:00Z");
+
+        assertThatThrownBy(() -> service.backfill("XAU", new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null), time, time)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static GoldPriceSnapshot snapshot(Instant time, String price) {
+        GoldApiResponse response = new GoldApiResponse(
+                "gold",
+                new BigDecimal(price),
+                "XAU",
+                time,
+                time.toString()
+        );
+        return new GoldPriceSnapshot(time, response);
+    }
+
+    private static final class RecordingCandleStore implements GoldPriceCandleStore {
+
+        private final List<List<GoldPriceCandle>> merges = new ArrayList<>();
+        private final List<GoldPriceCandle> replaced = new ArrayList<>();
+
+        @Override
+        public synchronized int mergeAll(List<GoldPriceCandle> candles) {
+            merges.add(List.copyOf(candles));
+            return candles.size();
+        }
+
+        @Override
+        public synchronized int replaceAll(List<GoldPriceCandle> candles) {
+            replaced.addAll(candles);
+            return candles.size();
+        }
+
+        @Override
+        public List<GoldPriceCandle> findRangeAsc(
+                String symbol,
+                GoldCandleResolution resolution,
+                Instant fromInclusive,
+                Instant toExclusive
+        ) {
+            return List.of();
+        }
+
+        private synchronized List<GoldPriceCandle> replacedOf(GoldCandleResolution resolution) {
+            return replaced.stream()
+                    .filter(candle -> candle.getResolution().equals(resolution.getCode()))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.model.GoldApiResponse;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import com.xbleey.goldpricealert.repository.GoldAlertHistoryStore;
+import com.xbleey.goldpricealert.support.InMemoryGoldPriceSnapshotStore;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GoldPriceChangeMathTest {
+
+    private static final int[] WINDOWS = {1, 5, 15, 60};
+
+    @Test
+    void fixedPointComparisonAgreesWithBigDecimalRuleWheneverDecided() {
+        Random random = new Random(20260105L);
+        int undecided = 0;
+        int cases = 500_000;
+        for (int i = 0; i < cases; i++) {
+            BigDecimal reference = randomPrice(random);
+            BigDecimal threshold = BigDecimal.valueOf(random.nextInt(1_001), 2);
+            // 一半样本取在阈值边界附近（相差几个最小价格单位），其余为 ±15% 内的随机涨跌
+            BigDecimal latest = i % 2 == 0 ? nearBoundary(random, reference, threshold) : randomMove(random, reference);
+
+            GoldPriceChangeMath.Comparison comparison = GoldPriceChangeMath.compare(
+                    GoldPriceChangeMath.scalePrice(latest),
+                    GoldPriceChangeMath.scalePrice(reference),
+                    GoldPriceChangeMath.basisPoints(threshold)
+            );
+            boolean expected = GoldPriceChangeMath.changePercent(reference, latest).abs().compareTo(threshold) >= 0;
+            if (comparison == GoldPriceChangeMath.Comparison.UNDECIDED) {
+                if (i % 2 != 0) {
+                    undecided++;
+                }
+            } else {
+                assertThat(comparison == GoldPriceChangeMath.Comparison.AT_OR_ABOVE)
+                        .as("reference=%s latest=%s threshold=%s", reference, latest, threshold)
+                        .isEqualTo(expected);
+            }
+        }
+        // 边界附近的样本可能需要回退；一般涨跌几乎都能由定点直接判定
+        assertThat(undecided).isLessThan(cases / 2 / 1_000);
+    }
+
+    @Test
+    void evaluatorMatchesBigDecimalRulesOnRandomHistories() {
+        Random random = new Random(7L);
+        Instant start = Instant.parse("2026-01-05T12:00:00Z");
+        for (int scenario = 0; scenario < 300; scenario++) {
+            List<GoldAlertLevelConfig> levels = randomLevels(random);
+            GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
+            AtomicReference<GoldAlertMessage> captured = new AtomicReference<>();
+            GoldAlertEvaluator evaluator = new GoldAlertEvaluator(
+                    history,
+                    Clock.fixed(start, ZoneOffset.UTC),
+                    captured::set,
+                    configStore(levels),
+                    GoldAlertHistoryStore.noop(),
+                    null
+            );
+            List<GoldPriceSnapshot> ticks = new ArrayList<>();
+            Instant time = start;
+            BigDecimal price = randomPrice(random);
+            for (int tick = 0; tick < 120; tick++) {
+                time = time.plusSeconds(15 + random.nextInt(90));
+                price = randomMove(random, price, 40);
+                GoldPriceSnapshot snapshot = snapshot(time, price);
+                history.add(snapshot);
+                ticks.add(snapshot);
+                captured.set(null);
+
+                Expected expected = bigDecimalRule(ticks, levels);
+                assertThat(evaluator.evaluate(snapshot)).isEqualTo(expected != null);
+                if (expected != null) {
+                    assertThat(captured.get().levelName()).isEqualTo(expected.levelName());
+                    assertThat(captured.get().baselinePrice()).isEqualByComparingTo(expected.referencePrice());
+                    assertThat(captured.get().changePercent()).isEqualByComparingTo(expected.changePercent());
+                }
+            }
+        }
+    }
+
+    @Test
+    void fallsBackWhenValuesDoNotFitFixedPoint() {
+        assertThat(GoldPriceChangeMath.scalePrice(new BigDecimal("2650.37"))).isEqualTo(26_503_700L);
+        assertThat(GoldPriceChangeMath.scalePrice(new BigDecimal("2.65037E+3"))).isEqualTo(26_503_700L);
+        assertThat(GoldPriceChangeMath.scalePrice(new BigDecimal("2650.123456"))).isEqualTo(GoldPriceChangeMath.NOT_REPRESENTABLE);
+        assertThat(GoldPriceChangeMath.scalePrice(new BigDecimal("1E+12"))).isEqualTo(GoldPriceChangeMath.NOT_REPRESENTABLE);
+        assertThat(GoldPriceChangeMath.basisPoints(new BigDecimal("1E+1"))).isEqualTo(1_000L);
+        assertThat(GoldPriceChangeMath.basisPoints(new BigDecimal("0.125"))).isEqualTo(GoldPriceChangeMath.NOT_REPRESENTABLE);
+    }
+
+    // 直接按规则定义计算：基准价为窗口起点及之前最近的快照，窗口内最高、最低价逐条扫描
+    private static Expected bigDecimalRule(List<GoldPriceSnapshot> ticks, List<GoldAlertLevelConfig> levels) {
+        GoldPriceSnapshot latest = ticks.getLast();
+        Expected best = null;
+        for (GoldAlertLevelConfig level : levels) {
+            Instant target = latest.fetchedAt().minus(level.windowDuration());
+            GoldPriceSnapshot baseline = null;
+            BigDecimal high = null;
+            BigDecimal low = null;
+            for (GoldPriceSnapshot tick : ticks) {
+                if (!tick.fetchedAt().isAfter(target)) {
+                    baseline = tick;
+                } else {
+                    high = high == null || tick.price().compareTo(high) > 0 ? tick.price() : high;
+                    low = low == null || tick.price().compareTo(low) < 0 ? tick.price() : low;
+                }
+            }
+            if (baseline == null) {
+                continue;
+            }
+            BigDecimal reference = baseline.price();
+            BigDecimal change = GoldPriceChangeMath.changePercent(reference, latest.price());
+            for (BigDecimal extreme : new BigDecimal[]{high, low}) {
+                BigDecimal candidate = GoldPriceChangeMath.changePercent(extreme, latest.price());
+                if (candidate.abs().compareTo(change.abs()) > 0) {
+                    reference = extreme;
+                    change = candidate;
+                }
+            }
+            if (change.abs().compareTo(level.thresholdPercent()) < 0) {
+                continue;
+            }
+            int compare = best == null ? 1 : change.abs().compareTo(best.changePercent().abs());
+            if (compare > 0 || (compare == 0 && level.levelRank() > best.levelRank())) {
+                best = new Expected(level.levelName(), level.levelRank(), reference, change);
+            }
+        }
+        return best;
+    }
+
+    private static List<GoldAlertLevelConfig> randomLevels(Random random) {
+        List<GoldAlertLevelConfig> levels = new ArrayList<>();
+        for (int rank = 1; rank <= 5; rank++) {
+            levels.add(new GoldAlertLevelConfig(
+                    "P" + rank,
+                    rank,
+                    BigDecimal.valueOf(1 + random.nextInt(200), 2),
+                    WINDOWS[random.nextInt(WINDOWS.length)],
+                    0,
+                    true
+            ));
+        }
+        return levels;
+    }
+
+    private static BigDecimal randomPrice(Random random) {
+        return BigDecimal.valueOf(10_000 + random.nextInt(100_000_000), 2 + random.nextInt(3))
+                .setScale(random.nextInt(5), RoundingMode.HALF_UP)
+                .max(BigDecimal.ONE);
+    }
+
+    private static BigDecimal randomMove(Random random, BigDecimal reference) {
+        return randomMove(random, reference, 1_500);
+    }
+
+    private static BigDecimal randomMove(Random random, BigDecimal reference, int maxBasisPoints) {
+        BigDecimal factor = BigDecimal.ONE.add(BigDecimal.valueOf(random.nextInt(2 * maxBasisPoints + 1) - maxBasisPoints, 4));
+        return reference.multiply(factor).setScale(random.nextInt(5), RoundingMode.HALF_UP).max(BigDecimal.ONE);
+    }
+
+    private static BigDecimal nearBoundary(Random random, BigDecimal reference, BigDecimal threshold) {
+        BigDecimal move = reference.multiply(threshold).movePointLeft(2);
+        BigDecimal boundary = random.nextBoolean() ? reference.add(move) : reference.subtract(move);
+        BigDecimal unit = BigDecimal.ONE.movePointLeft(GoldPriceChangeMath.PRICE_SCALE);
+        return boundary.setScale(GoldPriceChangeMath.PRICE_SCALE, RoundingMode.HALF_UP)
+                .add(unit.multiply(BigDecimal.valueOf(random.nextInt(5) - 2)));
+    }
+
+    private static GoldPriceSnapshot snapshot(Instant time, BigDecimal price) {
+        return new GoldPriceSnapshot(time, new GoldApiResponse("gold", price, "XAU", time, time.toString()));
+    }
+
+    private static GoldAlertLevelConfigStore configStore(List<GoldAlertLevelConfig> levels) {
+        GoldAlertLevelConfigStore store = mock(GoldAlertLevelConfigStore.class);
+        when(store.listLevels()).thenReturn(levels);
+        return store;
+    }
+
+    private record Expected(String levelName, int levelRank, BigDecimal referencePrice, BigDecimal changePercent) {
+    }
+}
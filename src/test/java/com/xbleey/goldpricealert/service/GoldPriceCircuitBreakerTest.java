@@ -0,0 +1,118 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.config.GoldProperties;
+import com.xbleey.goldpricealert.support.MutableClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GoldPriceCircuitBreakerTest {
+
+    private static final Duration FAST = Duration.ofMillis(200);
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-05T12:00:00Z"));
+    private final GoldProperties.CircuitBreaker settings = new GoldProperties.CircuitBreaker();
+
+    @Test
+    void opensOnceFailureRateReachesThresholdAfterMinimumCalls() {
+        settings.setWindow(4);
+        settings.setMinimumCalls(4);
+        GoldPriceCircuitBreaker breaker = new GoldPriceCircuitBreaker(settings, clock);
+
+        call(breaker, true);
+        call(breaker, false);
+        call(breaker, true);
+        assertThat(breaker.status().state()).isEqualTo(GoldPriceCircuitBreaker.State.CLOSED);
+
+        call(breaker, false);
+
+        GoldPriceCircuitBreaker.Status status = breaker.status();
+        assertThat(status.state()).isEqualTo(GoldPriceCircuitBreaker.State.OPEN);
+        assertThat(status.failureRatePercent()).isEqualTo(50.0);
+        assertThat(status.retryAt()).isEqualTo(Instant.parse("2026-01-05T12:00:30Z"));
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void countsSlowCallsAsFailures() {
+        settings.setWindow(2);
+        settings.setMinimumCalls(2);
+        GoldPriceCircuitBreaker breaker = new GoldPriceCircuitBreaker(settings, clock);
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onSuccess(Duration.ofSeconds(6));
+        }
+
+        assertThat(breaker.status().state()).isEqualTo(GoldPriceCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void oldOutcomesSlideOutOfTheWindow() {
+        settings.setWindow(4);
+        settings.setMinimumCalls(4);
+        GoldPriceCircuitBreaker breaker = new GoldPriceCircuitBreaker(settings, clock);
+
+        call(breaker, true);
+        for (int i = 0; i < 6; i++) {
+            call(breaker, false);
+        }
+        call(breaker, true);
+
+        assertThat(breaker.status().state()).isEqualTo(GoldPriceCircuitBreaker.State.CLOSED);
+        assertThat(breaker.status().failureRatePercent()).isEqualTo(25.0);
+    }
+
+    @Test
+    void halfOpenAllowsSingleProbeAndReopensOnFailure() {
+        GoldPriceCircuitBreaker breaker = openBreaker();
+
+        clock.advance(Duration.ofSeconds(30));
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.status().state()).isEqualTo(GoldPriceCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onFailure();
+
+        assertThat(breaker.status().state()).isEqualTo(GoldPriceCircuitBreaker.State.OPEN);
+        assertThat(breaker.status().retryAt()).isEqualTo(clock.instant().plusSeconds(30));
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void successfulProbeClosesAndResetsWindow() {
+        GoldPriceCircuitBreaker breaker = openBreaker();
+
+        clock.advance(Duration.ofSeconds(31));
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onSuccess(FAST);
+
+        GoldPriceCircuitBreaker.Status status = breaker.status();
+        assertThat(status.state()).isEqualTo(GoldPriceCircuitBreaker.State.CLOSED);
+        assertThat(status.calls()).isZero();
+        assertThat(status.retryAt()).isNull();
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    private GoldPriceCircuitBreaker openBreaker() {
+        settings.setWindow(2);
+        settings.setMinimumCalls(2);
+        GoldPriceCircuitBreaker breaker = new GoldPriceCircuitBreaker(settings, clock);
+        call(breaker, true);
+        call(breaker, true);
+        assertThat(breaker.status().state()).isEqualTo(GoldPriceCircuitBreaker.State.OPEN);
+        return breaker;
+    }
+
+    private static void call(GoldPriceCircuitBreaker breaker, boolean fail) {
+        assertThat(breaker.tryAcquire()).isTrue();
+        if (fail) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess(FAST);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.model.GoldApiResponse;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import com.xbleey.goldpricealert.support.InMemoryGoldPriceSnapshotStore;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GoldPriceDownsamplerTest {
+
+    @Test
+    void keepsSpikesWhileCappingPointCount() {
+        Instant from = Instant.parse("2026-01-05T00:00:00Z");
+        Instant to = from.plus(Duration.ofDays(1));
+        GoldPriceDownsampler downsampler = new GoldPriceDownsampler(from, to, 40);
+
+        for (int i = 0; i < 8640; i++) {
+            String price = i == 4321 ? "2100.00" : i == 777 ? "1700.00" : "190" + (i % 10) + ".00";
+            downsampler.accept(snapshot(from.plusSeconds(i * 10L), price));
+        }
+        List<GoldPriceSnapshot> points = downsampler.result();
+
+        assertThat(downsampler.rawCount()).isEqualTo(8640);
+        assertThat(points).hasSizeLessThanOrEqualTo(40);
+        assertThat(points).extracting(GoldPriceSnapshot::getPrice)
+                .anySatisfy(price -> assertThat(price).isEqualByComparingTo("2100.00"))
+                .anySatisfy(price -> assertThat(price).isEqualByComparingTo("1700.00"));
+        assertThat(points).isSortedAccordingTo((left, right) -> left.getFetchedAt().compareTo(right.getFetchedAt()));
+        assertThat(points.getFirst().getFetchedAt()).isEqualTo(from);
+        assertThat(points.getLast().getFetchedAt()).isEqualTo(from.plusSeconds(8639 * 10L));
+    }
+
+    @Test
+    void returnsRawRowsWhenSparserThanBuckets() {
+        Instant from = Instant.parse("2026-01-05T00:00:00Z");
+        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
+        GoldPriceSnapshot inside1 = snapshot(from.plusSeconds(60), "1900.00");
+        GoldPriceSnapshot inside2 = snapshot(from.plusSeconds(3600), "1910.00");
+        history.add(snapshot(from.minusSeconds(1), "1890.00"));
+        history.add(inside1);
+        history.add(inside2);
+        GoldPriceDownsampler downsampler = new GoldPriceDownsampler(from, from.plus(Duration.ofDays(1)), 500);
+
+        history.forEachInRange(from, from.plus(Duration.ofDays(1)), downsampler::accept);
+
+        assertThat(downsampler.result()).containsExactly(inside1, inside2);
+    }
+
+    @Test
+    void rejectsInvalidRange() {
+        Instant time = Instant.parse("2026-01-05T00:00:00Z");
+
+        assertThatThrownBy(() -> new GoldPriceDownsampler(time, time, 100)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new GoldPriceDownsampler(time, time.plusSeconds(1), 3)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static GoldPriceSnapshot snapshot(Instant time, String price) {
+        GoldApiResponse response = new GoldApiResponse(
+                "gold",
+                new BigDecimal(price),
+                "XAU",
+                time,
+                time.toString()
+        );
+        return new GoldPriceSnapshot(time, response);
+    }
+}
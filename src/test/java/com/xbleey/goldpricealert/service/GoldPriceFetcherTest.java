@@ -2,23 +2,43 @@ package com.xbleey.goldpricealert.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.xbleey.goldpricealert.config.GoldProperties;
+import com.xbleey.goldpricealert.model.GoldApiResponse;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
 import com.xbleey.goldpricealert.repository.GoldAlertHistoryStore;
+import com.xbleey.goldpricealert.support.InMemoryGoldLeaderLease;
 import com.xbleey.goldpricealert.support.InMemoryGoldPriceSnapshotStore;
+import com.xbleey.goldpricealert.support.InMemoryGoldTickChannel;
 import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -28,20 +48,23 @@ import static org.mockito.Mockito.when;
 class GoldPriceFetcherTest {
 
     private MockWebServer server;
+    private ExecutorService fetchExecutor;
 
     @BeforeEach
     void setUp() throws IOException {
         server = new MockWebServer();
         server.start();
+        fetchExecutor = Executors.newVirtualThreadPerTaskExecutor();
     }
 
     @AfterEach
     void tearDown() throws IOException {
+        fetchExecutor.close();
         server.shutdown();
     }
 
     @Test
-    void fetchesDuringTradingDay() {
+    void fetchesDuringTradingDay() throws Exception {
         Clock clock = Clock.fixed(Instant.parse("2026-01-05T12:00:00Z"), ZoneOffset.UTC);
         FetcherFixture fixture = newFetcher(clock);
         GoldPriceFetcher fetcher = fixture.fetcher;
@@ -53,6 +76,7 @@ class GoldPriceFetcherTest {
                         """));
 
         fetcher.fetch();
+        fetcher.lastFetch().get(5, TimeUnit.SECONDS);
 
         assertThat(server.getRequestCount()).isEqualTo(1);
         assertThat(fixture.history.getAll()).hasSize(1);
@@ -60,7 +84,38 @@ class GoldPriceFetcherTest {
     }
 
     @Test
-    void skipsPersistingWhenPriceMatchesLatestSnapshot() {
+    void skipsPersistingWhenUpstreamTickIsNotNewer() {
+        Clock clock = Clock.fixed(Instant.parse("2026-01-05T12:00:00Z"), ZoneOffset.UTC);
+        FetcherFixture fixture = newFetcher(clock);
+
+        server.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody("""
+                        {"name":"gold","price":1934.56,"symbol":"XAU","updatedAt":"2026-01-05T11:59:00Z","updatedAtReadable":"2026-01-05 11:59:00"}
+                        """));
+        server.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody("""
+                        {"name":"gold","price":1934.56,"symbol":"XAU","updatedAt":"2026-01-05T11:59:00Z","updatedAtReadable":"2026-01-05 11:59:00"}
+                        """));
+        server.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody("""
+                        {"name":"gold","price":1930.00,"symbol":"XAU","updatedAt":"2026-01-05T11:58:00Z","updatedAtReadable":"2026-01-05 11:58:00"}
+                        """));
+
+        fixture.fetcher.fetchOnce();
+        fixture.fetcher.fetchOnce();
+        fixture.fetcher.fetchOnce();
+
+        assertThat(server.getRequestCount()).isEqualTo(3);
+        assertThat(fixture.history.getAll()).singleElement()
+                .extracting(GoldPriceSnapshot::getPrice)
+                .satisfies(price -> assertThat(price).isEqualByComparingTo("1934.56"));
+    }
+
+    @Test
+    void persistsNewUpstreamTickEvenWhenPriceIsUnchanged() {
         Clock clock = Clock.fixed(Instant.parse("2026-01-05T12:00:00Z"), ZoneOffset.UTC);
         FetcherFixture fixture = newFetcher(clock);
 
@@ -78,7 +133,31 @@ class GoldPriceFetcherTest {
         fixture.fetcher.fetchOnce();
         fixture.fetcher.fetchOnce();
 
-        assertThat(server.getRequestCount()).isEqualTo(2);
+        assertThat(fixture.history.getAll()).hasSize(2);
+    }
+
+    @Test
+    void sendsConditionalRequestAndSkipsNotModifiedResponse() throws Exception {
+        Clock clock = Clock.fixed(Instant.parse("2026-01-05T12:00:00Z"), ZoneOffset.UTC);
+        FetcherFixture fixture = newFetcher(clock);
+
+        server.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setHeader("ETag", "\"v1\"")
+                .setHeader("Last-Modified", "Mon, 05 Jan 2026 11:59:00 GMT")
+                .setBody("""
+                        {"name":"gold","price":1934.56,"symbol":"XAU","updatedAt":"2026-01-05T11:59:00Z","updatedAtReadable":"2026-01-05 11:59:00"}
+                        """));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        fixture.fetcher.fetchOnce();
+        Optional<GoldPriceSnapshot> notModified = fixture.fetcher.fetchOnce();
+
+        assertThat(notModified).isPresent();
+        assertThat(server.takeRequest().getHeader("If-None-Match")).isNull();
+        RecordedRequest conditional = server.takeRequest();
+        assertThat(conditional.getHeader("If-None-Match")).isEqualTo("\"v1\"");
+        assertThat(conditional.getHeader("If-Modified-Since")).isEqualTo("Mon, 05 Jan 2026 11:59:00 GMT");
         assertThat(fixture.history.getAll()).hasSize(1);
     }
 
@@ -95,11 +174,128 @@ class GoldPriceFetcherTest {
         assertThat(fixture.fetcher.fetchOnce()).isEmpty();
 
         assertThat(server.getRequestCount()).isEqualTo(4);
-        verify(fixture.retrySleeper, times(3)).pause(Duration.ofSeconds(5));
+        assertBackoffDelays(fixture.retryDelays);
         verify(fixture.apiStatusMonitor).recordFailure("HTTP status 500");
         verify(fixture.apiStatusMonitor, never()).recordSuccess();
     }
 
+    @Test
+    void stopsRetryingOnceCircuitOpens() throws Exception {
+        Clock clock = Clock.fixed(Instant.parse("2026-01-05T12:00:00Z"), ZoneOffset.UTC);
+        GoldProperties.CircuitBreaker circuit = new GoldProperties.CircuitBreaker();
+        circuit.setWindow(2);
+        circuit.setMinimumCalls(2);
+        List<Duration> retryDelays = new CopyOnWriteArrayList<>();
+        FetcherFixture fixture = newFetcher(
+                clock,
+                (task, delay) -> {
+                    retryDelays.add(delay);
+                    task.run();
+                },
+                hedger(circuit, clock)
+        );
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(new MockResponse().setResponseCode(500));
+        }
+
+        assertThat(fixture.fetcher.fetchOnce()).isEmpty();
+        assertThat(fixture.fetcher.fetchOnce()).isEmpty();
+
+        assertThat(server.getRequestCount()).isEqualTo(2);
+        assertThat(retryDelays).hasSize(2);
+        verify(fixture.apiStatusMonitor, times(2)).recordFailure("Circuit open for all price providers");
+    }
+
+    @Test
+    void followerServesReplicatedLatestWithoutRequestingUpstream() {
+        Clock clock = Clock.fixed(Instant.parse("2026-01-05T12:00:00Z"), ZoneOffset.UTC);
+        InMemoryGoldLeaderLease lease = new InMemoryGoldLeaderLease(clock);
+        lease.tryAcquire("leader", Duration.ofMinutes(1));
+        GoldProperties properties = new GoldProperties();
+        properties.getCluster().setEnabled(true);
+        properties.getCluster().setInstanceId("follower");
+        GoldInstrumentPipeline pipeline = pipeline("XAU", clock);
+        GoldInstrumentPipelines pipelines = new GoldInstrumentPipelines(List.of(pipeline));
+        GoldClusterCoordinator cluster = new GoldClusterCoordinator(
+                properties,
+                lease,
+                new InMemoryGoldTickChannel(),
+                pipelines,
+                new ObjectMapper().findAndRegisterModules(),
+                mock(TaskScheduler.class),
+                clock
+        );
+        cluster.heartbeat();
+        GoldPriceFetcher fetcher = new GoldPriceFetcher(
+                pipelines,
+                hedger(new GoldProperties.CircuitBreaker(), clock),
+                cluster,
+                GoldPipelineStages.direct(),
+                (task, delay) -> task.run(),
+                new GoldPriceCrossCheckMonitor(),
+                fetchExecutor,
+                clock
+        );
+        pipeline.history().addReplicated(new GoldPriceSnapshot(
+                clock.instant(),
+                new GoldApiResponse("gold", new BigDecimal("1934.56"), "XAU", Instant.parse("2026-01-05T11:59:58Z"), "-")
+        ));
+
+        assertThat(fetcher.fetch()).isFalse();
+        assertThat(fetcher.fetchOnce()).get().extracting(GoldPriceSnapshot::price).isEqualTo(new BigDecimal("1934.56"));
+        assertThat(server.getRequestCount()).isZero();
+    }
+
+    @Test
+    void fetchCompletesWithoutWaitingForSlowEvaluation() throws Exception {
+        Clock clock = Clock.fixed(Instant.parse("2026-01-05T12:00:00Z"), ZoneOffset.UTC);
+        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
+        GoldAlertEvaluator evaluator = mock(GoldAlertEvaluator.class);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch evaluating = new CountDownLatch(1);
+        when(evaluator.evaluate(any())).thenAnswer(invocation -> {
+            evaluating.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return false;
+        });
+        GoldInstrumentPipeline pipeline = new GoldInstrumentPipeline(
+                "XAU",
+                List.of(new HttpGoldPriceProvider(new OkHttpClient(), new ObjectMapper().findAndRegisterModules(), server.url("/XAU").uri())),
+                history,
+                evaluator,
+                null,
+                mock(GoldApiStatusMonitor.class)
+        );
+        GoldPipelineStages stages = GoldPipelineStages.sharing(new GoldProperties.Pipeline(), fetchExecutor);
+        GoldPriceFetcher fetcher = new GoldPriceFetcher(
+                new GoldInstrumentPipelines(List.of(pipeline)),
+                hedger(new GoldProperties.CircuitBreaker(), clock),
+                GoldClusterCoordinator.standalone(),
+                stages,
+                (task, delay) -> task.run(),
+                new GoldPriceCrossCheckMonitor(),
+                fetchExecutor,
+                clock
+        );
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(200).setBody("""
+                    {"name":"gold","price":193%d.00,"symbol":"XAU","updatedAt":"2026-01-05T11:59:0%dZ","updatedAtReadable":"-"}
+                    """.formatted(i, i)));
+        }
+
+        // 评估被卡住期间后续拉取照常完成并入库，不等待评估与邮件
+        assertThat(fetcher.fetchAsync().get(5, TimeUnit.SECONDS)).isPresent();
+        assertThat(evaluating.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(fetcher.fetchAsync().get(5, TimeUnit.SECONDS)).isPresent();
+        assertThat(fetcher.fetchAsync().get(5, TimeUnit.SECONDS)).isPresent();
+        awaitUntil(() -> history.getAll().size() == 3);
+        assertThat(stages.stats().get(1).depth()).isEqualTo(2);
+
+        release.countDown();
+        awaitUntil(() -> stages.stats().get(1).completed() == 3);
+        assertThat(history.latest()).get().extracting(GoldPriceSnapshot::price).isEqualTo(new BigDecimal("1932.00"));
+    }
+
     @Test
     void succeedsOnFourthAttemptWithoutReportingFailure() throws Exception {
         Clock clock = Clock.fixed(Instant.parse("2026-01-05T12:00:00Z"), ZoneOffset.UTC);
@@ -118,75 +314,230 @@ class GoldPriceFetcherTest {
 
         assertThat(server.getRequestCount()).isEqualTo(4);
         assertThat(fixture.history.getAll()).hasSize(1);
-        verify(fixture.retrySleeper, times(3)).pause(Duration.ofSeconds(5));
+        assertBackoffDelays(fixture.retryDelays);
         verify(fixture.apiStatusMonitor).recordSuccess();
         verify(fixture.apiStatusMonitor, never()).recordFailure("HTTP status 500");
     }
 
     @Test
-    void skipsOnWeekend() {
-        Clock clock = Clock.fixed(Instant.parse("2026-01-04T12:00:00Z"), ZoneOffset.UTC);
-        FetcherFixture fixture = newFetcher(clock);
-        GoldPriceFetcher fetcher = fixture.fetcher;
+    void retryIsScheduledInsteadOfBlockingTheCaller() throws Exception {
+        Clock clock = Clock.fixed(Instant.parse("2026-01-05T12:00:00Z"), ZoneOffset.UTC);
+        BlockingQueue<Runnable> pendingRetries = new LinkedBlockingQueue<>();
+        FetcherFixture fixture = newFetcher(clock, (task, delay) -> pendingRetries.add(task));
 
-        server.enqueue(new MockResponse().setResponseCode(200));
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody("""
+                        {"name":"gold","price":1934.56,"symbol":"XAU","updatedAt":"2026-01-05T11:59:00Z","updatedAtReadable":"2026-01-05 11:59:00"}
+                        """));
 
-        fetcher.fetch();
+        CompletableFuture<Optional<GoldPriceSnapshot>> future = fixture.fetcher.fetchAsync();
+        Runnable retry = pendingRetries.poll(5, TimeUnit.SECONDS);
 
-        assertThat(server.getRequestCount()).isZero();
-        assertThat(fixture.history.getAll()).isEmpty();
+        assertThat(retry).isNotNull();
+        assertThat(future).isNotDone();
+        assertThat(fixture.fetcher.fetchAsync()).isSameAs(future);
+        retry.run();
+        assertThat(future.get(5, TimeUnit.SECONDS)).isPresent();
+        assertThat(server.getRequestCount()).isEqualTo(2);
+        assertThat(fixture.history.getAll()).hasSize(1);
     }
 
     @Test
-    void skipsOnGoodFriday() {
-        Clock clock = Clock.fixed(Instant.parse("2026-04-03T12:00:00Z"), ZoneOffset.UTC);
-        FetcherFixture fixture = newFetcher(clock);
-        GoldPriceFetcher fetcher = fixture.fetcher;
+    void fetchesAllInstrumentsConcurrentlyIntoTheirOwnPipelines() throws Exception {
+        Clock clock = Clock.fixed(Instant.parse("2026-01-05T12:00:00Z"), ZoneOffset.UTC);
+        Map<String, String> prices = Map.of("XAU", "1934.56", "XAG", "31.25", "XPT", "985.10", "XPD", "1012.40");
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String symbol = request.getPath().substring(1);
+                return new MockResponse()
+                        .setHeadersDelay(600, TimeUnit.MILLISECONDS)
+                        .setBody("""
+                                {"name":"metal","price":%s,"symbol":"%s","updatedAt":"2026-01-05T11:59:00Z","updatedAtReadable":"2026-01-05 11:59:00"}
+                                """.formatted(prices.get(symbol), symbol.substring(0, 3)));
+            }
+        });
+        List<GoldInstrumentPipeline> pipelines = List.of("XAU", "XAG", "XPT", "XPD").stream()
+                .map(symbol -> pipeline(symbol, clock))
+                .toList();
+        GoldPriceFetcher fetcher = new GoldPriceFetcher(
+                new GoldInstrumentPipelines(pipelines),
+                hedger(new GoldProperties.CircuitBreaker(), clock),
+                GoldClusterCoordinator.standalone(),
+                GoldPipelineStages.direct(),
+                (task, delay) -> task.run(),
+                new GoldPriceCrossCheckMonitor(),
+                fetchExecutor,
+                clock
+        );
+
+        long started = System.nanoTime();
+        Map<String, Optional<GoldPriceSnapshot>> results = fetcher.fetchAllAsync().get(10, TimeUnit.SECONDS);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        // 串行需要 4 x 600ms，并发时只取决于最慢的一个
+        assertThat(elapsed).isLessThan(Duration.ofMillis(1800));
+        assertThat(results).containsOnlyKeys("XAU", "XAG", "XPT", "XPD");
+        for (GoldInstrumentPipeline pipeline : pipelines) {
+            List<GoldPriceSnapshot> stored = pipeline.history().getAll();
+            assertThat(stored).hasSize(1);
+            assertThat(stored.getFirst().getSymbol()).isEqualTo(pipeline.symbol());
+            assertThat(stored.getFirst().price()).isEqualByComparingTo(prices.get(pipeline.symbol()));
+            verify(pipeline.apiStatusMonitor()).recordSuccess();
+        }
+    }
+
+    @Test
+    void flagsTickSuspectBeforeIngestWhenScheduledCrossCheckDisagrees() throws Exception {
+        Clock clock = Clock.fixed(Instant.parse("2026-01-05T12:00:00Z"), ZoneOffset.UTC);
+        GoldInstrumentPipeline base = pipeline("XAU", clock);
+        GoldInstrumentPipeline pipeline = new GoldInstrumentPipeline(
+                "XAU",
+                List.of(provider("primary", "1934.56", 0), provider("secondary", "1960.00", 200)),
+                base.history(),
+                base.evaluator(),
+                null,
+                base.apiStatusMonitor()
+        );
+        GoldPriceCrossCheckMonitor crossCheckMonitor = new GoldPriceCrossCheckMonitor();
+        GoldPriceFetcher fetcher = new GoldPriceFetcher(
+                new GoldInstrumentPipelines(List.of(pipeline)),
+                hedger(new GoldProperties.CircuitBreaker(), clock),
+                GoldClusterCoordinator.standalone(),
+                GoldPipelineStages.direct(),
+                (task, delay) -> task.run(),
+                crossCheckMonitor,
+                fetchExecutor,
+                clock
+        );
 
-        server.enqueue(new MockResponse().setResponseCode(200));
+        // 首轮到期做交叉校验，两个来源同时请求；等晚到的报价（偏差约 1.3%）比较完才入库，行情被标记为可疑
+        GoldPriceSnapshot fetched = fetcher.fetchOnce().orElseThrow();
+        assertThat(fetched.price()).isEqualTo(new BigDecimal("1934.56"));
+        assertThat(fetched.isPriceSuspect()).isTrue();
+        assertThat(pipeline.history().latest()).get().extracting(GoldPriceSnapshot::isPriceSuspect).isEqualTo(true);
+
+        GoldPriceCrossCheckMonitor.Status status = crossCheckMonitor.status().get("XAU");
+        assertThat(status.mismatch()).isTrue();
+        assertThat(status.provider()).isEqualTo("primary");
+        assertThat(status.fetchedAt()).isEqualTo(clock.instant());
+        assertThat(status.suspectTicks()).isEqualTo(1);
+        assertThat(status.checks()).singleElement()
+                .extracting(GoldPriceHedger.CrossCheck::provider)
+                .isEqualTo("secondary");
+        assertThat(pipeline.history().getAll()).hasSize(1);
+    }
 
-        fetcher.fetch();
+    @Test
+    void retryDelayGrowsExponentiallyWithJitterAndCap() {
+        assertThat(GoldPriceFetcher.retryDelay(1, 0.0)).isEqualTo(Duration.ofMillis(2500));
+        assertThat(GoldPriceFetcher.retryDelay(1, 1.0)).isEqualTo(Duration.ofSeconds(5));
+        assertThat(GoldPriceFetcher.retryDelay(3, 0.5)).isEqualTo(Duration.ofSeconds(15));
+        assertThat(GoldPriceFetcher.retryDelay(10, 1.0)).isEqualTo(Duration.ofSeconds(60));
+        assertThat(GoldPriceFetcher.retryDelay(10, 0.0)).isEqualTo(Duration.ofSeconds(30));
+    }
 
-        assertThat(server.getRequestCount()).isZero();
-        assertThat(fixture.history.getAll()).isEmpty();
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private static void assertBackoffDelays(List<Duration> delays) {
+        assertThat(delays).hasSize(3);
+        assertThat(delays.get(0)).isBetween(Duration.ofMillis(2500), Duration.ofSeconds(5));
+        assertThat(delays.get(1)).isBetween(Duration.ofSeconds(5), Duration.ofSeconds(10));
+        assertThat(delays.get(2)).isBetween(Duration.ofSeconds(10), Duration.ofSeconds(20));
     }
 
     private FetcherFixture newFetcher(Clock clock) {
+        List<Duration> retryDelays = new CopyOnWriteArrayList<>();
+        FetcherFixture fixture = newFetcher(clock, (task, delay) -> {
+            retryDelays.add(delay);
+            task.run();
+        });
+        return new FetcherFixture(fixture.fetcher, fixture.history, fixture.apiStatusMonitor, retryDelays);
+    }
+
+    private FetcherFixture newFetcher(Clock clock, FetchRetryScheduler retryScheduler) {
+        return newFetcher(clock, retryScheduler, hedger(new GoldProperties.CircuitBreaker(), clock));
+    }
+
+    private FetcherFixture newFetcher(Clock clock, FetchRetryScheduler retryScheduler, GoldPriceHedger hedger) {
+        GoldInstrumentPipeline pipeline = pipeline("XAU", clock);
+        GoldPriceFetcher fetcher = new GoldPriceFetcher(
+                new GoldInstrumentPipelines(List.of(pipeline)),
+                hedger,
+                GoldClusterCoordinator.standalone(),
+                GoldPipelineStages.direct(),
+                retryScheduler,
+                new GoldPriceCrossCheckMonitor(),
+                fetchExecutor,
+                clock
+        );
+        return new FetcherFixture(fetcher, pipeline.history(), pipeline.apiStatusMonitor(), List.of());
+    }
+
+    private GoldPriceHedger hedger(GoldProperties.CircuitBreaker circuit, Clock clock) {
         GoldProperties properties = new GoldProperties();
-        properties.setApiUrl(server.url("/").uri());
-        properties.setFetchInterval(Duration.ofSeconds(5));
+        properties.setCircuitBreaker(circuit);
+        return new GoldPriceHedger(properties, fetchExecutor, new GoldUpstreamCallLog(clock), clock);
+    }
 
-        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore());
-        GoldApiStatusMonitor apiStatusMonitor = mock(GoldApiStatusMonitor.class);
-        FetchRetrySleeper retrySleeper = mock(FetchRetrySleeper.class);
+    private GoldInstrumentPipeline pipeline(String symbol, Clock clock) {
+        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
         GoldAlertEvaluator evaluator = new GoldAlertEvaluator(
                 history,
                 clock,
                 GoldAlertNotifier.noop(),
                 configStore(),
-                GoldAlertHistoryStore.noop()
+                GoldAlertHistoryStore.noop(),
+                null
         );
-        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
-
-        GoldPriceFetcher fetcher = new GoldPriceFetcher(
-                new OkHttpClient(),
-                objectMapper,
-                properties,
+        return new GoldInstrumentPipeline(
+                symbol,
+                List.of(new HttpGoldPriceProvider(
+                        new OkHttpClient(),
+                        new ObjectMapper().findAndRegisterModules(),
+                        server.url("/" + symbol).uri()
+                )),
                 history,
                 evaluator,
                 null,
-                apiStatusMonitor,
-                retrySleeper,
-                clock
+                mock(GoldApiStatusMonitor.class)
         );
-        return new FetcherFixture(fetcher, history, apiStatusMonitor, retrySleeper);
+    }
+
+    private static GoldPriceProvider provider(String name, String price, long delayMillis) {
+        return new GoldPriceProvider() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public GoldPriceSnapshot fetch() throws IOException {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("interrupted", ex);
+                }
+                Instant updatedAt = Instant.parse("2026-01-05T11:59:00Z");
+                return new GoldPriceSnapshot(null, new GoldApiResponse("gold", new BigDecimal(price), "XAU", updatedAt, "2026-01-05 11:59:00"));
+            }
+        };
     }
 
     private record FetcherFixture(
             GoldPriceFetcher fetcher,
             GoldPriceHistory history,
             GoldApiStatusMonitor apiStatusMonitor,
-            FetchRetrySleeper retrySleeper
+            List<Duration> retryDelays
     ) {
     }
 
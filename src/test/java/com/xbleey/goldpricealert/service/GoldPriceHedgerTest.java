@@ -0,0 +1,228 @@
+package com.xbleey.goldpricealert.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xbleey.goldpricealert.config.GoldProperties;
+import com.xbleey.goldpricealert.model.GoldApiResponse;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GoldPriceHedgerTest {
+
+    private final OkHttpClient okHttpClient = new OkHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private MockWebServer primary;
+    private MockWebServer secondary;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        primary = new MockWebServer();
+        primary.start();
+        secondary = new MockWebServer();
+        secondary.start();
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        executor.close();
+        primary.shutdown();
+        secondary.shutdown();
+    }
+
+    @Test
+    void hedgesToSecondaryWhenPrimaryIsSlowAndCrossChecksLateAnswer() throws Exception {
+        GoldProperties.Hedge settings = settings(Duration.ofMillis(300), Duration.ZERO);
+        primary.enqueue(price("2000.00").setHeadersDelay(1500, TimeUnit.MILLISECONDS));
+        secondary.enqueue(price("1900.00"));
+        GoldPriceHedger hedger = hedger(settings);
+
+        long started = System.nanoTime();
+        GoldPriceHedger.HedgedResponse response = hedger.fetch(providers());
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        assertThat(elapsed).isLessThan(Duration.ofMillis(1200));
+        assertThat(response.hedged()).isTrue();
+        assertThat(response.provider()).isEqualTo(secondary.url("/").toString());
+        assertThat(response.snapshot().getPrice()).isEqualByComparingTo("1900.00");
+        List<GoldPriceHedger.CrossCheck> checks = response.crossChecks().get(5, TimeUnit.SECONDS);
+        assertThat(checks).singleElement().satisfies(check -> {
+            assertThat(check.provider()).isEqualTo(primary.url("/").toString());
+            assertThat(check.mismatch()).isTrue();
+            assertThat(check.deviationPercent()).isGreaterThan(new BigDecimal("5"));
+        });
+    }
+
+    @Test
+    void failsOverImmediatelyWhenPrimaryErrors() throws Exception {
+        GoldProperties.Hedge settings = settings(Duration.ofSeconds(5), Duration.ZERO);
+        primary.enqueue(new MockResponse().setResponseCode(502));
+        secondary.enqueue(price("1934.56"));
+        GoldPriceHedger hedger = hedger(settings);
+
+        long started = System.nanoTime();
+        GoldPriceHedger.HedgedResponse response = hedger.fetch(providers());
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        assertThat(elapsed).isLessThan(Duration.ofSeconds(2));
+        assertThat(response.hedged()).isFalse();
+        assertThat(response.provider()).isEqualTo(secondary.url("/").toString());
+        assertThat(response.crossChecks().get(1, TimeUnit.SECONDS)).isEmpty();
+    }
+
+    @Test
+    void rejectsNonPositivePriceAsInvalid() throws Exception {
+        GoldProperties.Hedge settings = settings(Duration.ofSeconds(5), Duration.ZERO);
+        primary.enqueue(price("0"));
+        secondary.enqueue(price("1934.56"));
+        GoldPriceHedger hedger = hedger(settings);
+
+        GoldPriceHedger.HedgedResponse response = hedger.fetch(providers());
+
+        assertThat(response.snapshot().getPrice()).isEqualByComparingTo("1934.56");
+    }
+
+    @Test
+    void reportsLastFailureWhenAllProvidersFail() {
+        GoldProperties.Hedge settings = settings(Duration.ofSeconds(5), Duration.ZERO);
+        primary.enqueue(new MockResponse().setResponseCode(500));
+        secondary.enqueue(new MockResponse().setResponseCode(503));
+        GoldPriceHedger hedger = hedger(settings);
+
+        assertThatThrownBy(() -> hedger.fetch(providers()))
+                .isInstanceOf(IOException.class)
+                .hasMessage("HTTP status 503");
+    }
+
+    @Test
+    void skipsProviderWithOpenCircuitAndFailsFastWhenAllAreOpen() throws Exception {
+        GoldProperties.CircuitBreaker circuit = new GoldProperties.CircuitBreaker();
+        circuit.setWindow(1);
+        circuit.setMinimumCalls(1);
+        Clock clock = Clock.fixed(Instant.parse("2026-01-05T12:00:00Z"), ZoneOffset.UTC);
+        GoldUpstreamCallLog callLog = new GoldUpstreamCallLog(clock);
+        GoldPriceHedger hedger = hedger(settings(Duration.ofSeconds(5), Duration.ZERO), circuit, callLog, clock);
+        primary.enqueue(new MockResponse().setResponseCode(500));
+        secondary.enqueue(price("1934.56"));
+        secondary.enqueue(price("1934.60"));
+
+        hedger.fetch(providers());
+        GoldPriceHedger.HedgedResponse response = hedger.fetch(providers());
+
+        assertThat(response.snapshot().getPrice()).isEqualByComparingTo("1934.60");
+        assertThat(primary.getRequestCount()).isEqualTo(1);
+        assertThat(hedger.circuitStatus().get(primary.url("/").toString()).state())
+                .isEqualTo(GoldPriceCircuitBreaker.State.OPEN);
+        assertThat(hedger.circuitStatus().get(secondary.url("/").toString()).state())
+                .isEqualTo(GoldPriceCircuitBreaker.State.CLOSED);
+        assertThatThrownBy(() -> hedger.fetch(providers().subList(0, 1)))
+                .isInstanceOf(GoldPriceCircuitOpenException.class);
+        assertThat(primary.getRequestCount()).isEqualTo(1);
+        // 熔断跳过的来源不占上游额度
+        assertThat(callLog.within(clock.instant())).hasSize(3);
+    }
+
+    @Test
+    void periodicCrossCheckQueriesAllProvidersAtOnce() throws Exception {
+        GoldProperties.Hedge settings = settings(Duration.ofSeconds(5), Duration.ofMinutes(10));
+        primary.enqueue(price("1934.56"));
+        secondary.enqueue(price("1934.60"));
+        GoldPriceHedger hedger = hedger(settings);
+
+        GoldPriceHedger.HedgedResponse response = hedger.fetch(providers());
+
+        assertThat(response.crossChecks().get(5, TimeUnit.SECONDS)).singleElement()
+                .satisfies(check -> assertThat(check.mismatch()).isFalse());
+        assertThat(primary.getRequestCount()).isEqualTo(1);
+        assertThat(secondary.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void hedgeDelayFollowsObservedLatencyPercentileWithinBounds() throws Exception {
+        GoldProperties.Hedge settings = settings(Duration.ofSeconds(2), Duration.ZERO);
+        GoldPriceHedger hedger = hedger(settings);
+        GoldPriceProvider instant = new GoldPriceProvider() {
+            @Override
+            public String name() {
+                return "instant";
+            }
+
+            @Override
+            public GoldPriceSnapshot fetch() {
+                return new GoldPriceSnapshot(null, new GoldApiResponse("Gold", BigDecimal.TEN, "XAU", Instant.EPOCH, null));
+            }
+        };
+
+        assertThat(hedger.hedgeDelay(instant)).isEqualTo(Duration.ofSeconds(2));
+        for (int i = 0; i < settings.getMinSamples(); i++) {
+            hedger.fetch(List.of(instant));
+        }
+        // 样本足够后按分位数等待，下限为 min-delay
+        assertThat(hedger.hedgeDelay(instant)).isEqualTo(settings.getMinDelay());
+
+        GoldPriceHedger.LatencyWindow window = new GoldPriceHedger.LatencyWindow(100);
+        for (int i = 1; i <= 100; i++) {
+            window.record(i);
+        }
+        assertThat(window.percentile(0.95)).isEqualTo(95);
+        assertThat(window.percentile(0.5)).isEqualTo(50);
+    }
+
+    private List<GoldPriceProvider> providers() {
+        return List.of(
+                new HttpGoldPriceProvider(okHttpClient, objectMapper, primary.url("/").uri()),
+                new HttpGoldPriceProvider(okHttpClient, objectMapper, secondary.url("/").uri())
+        );
+    }
+
+    private GoldPriceHedger hedger(GoldProperties.Hedge settings) {
+        return hedger(settings, new GoldProperties.CircuitBreaker(), new GoldUpstreamCallLog(Clock.systemUTC()), Clock.systemUTC());
+    }
+
+    private GoldPriceHedger hedger(
+            GoldProperties.Hedge settings,
+            GoldProperties.CircuitBreaker circuit,
+            GoldUpstreamCallLog callLog,
+            Clock clock
+    ) {
+        GoldProperties properties = new GoldProperties();
+        properties.setHedge(settings);
+        properties.setCircuitBreaker(circuit);
+        return new GoldPriceHedger(properties, executor, callLog, clock);
+    }
+
+    private static GoldProperties.Hedge settings(Duration maxDelay, Duration crossCheckInterval) {
+        GoldProperties.Hedge settings = new GoldProperties.Hedge();
+        settings.setMinDelay(Duration.ofMillis(50));
+        settings.setMaxDelay(maxDelay);
+        settings.setCrossCheckInterval(crossCheckInterval);
+        return settings;
+    }
+
+    private static MockResponse price(String price) {
+        return new MockResponse()
+                .setResponseCode(200)
+                .setBody("""
+                        {"name":"gold","price":%s,"symbol":"XAU","updatedAt":"2026-01-05T11:59:00Z","updatedAtReadable":"2026-01-05 11:59:00"}
+                        """.formatted(price));
+    }
+}
@@ -2,21 +2,40 @@ package com.xbleey.goldpricealert.service;
 
 import com.xbleey.goldpricealert.model.GoldApiResponse;
 import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import com.xbleey.goldpricealert.repository.JournalGoldPriceSnapshotStore;
 import com.xbleey.goldpricealert.support.InMemoryGoldPriceSnapshotStore;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 class GoldPriceHistoryTest {
 
     @Test
     void storesAllSnapshots() {
-        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore());
+        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
         Instant base = Instant.parse("2026-01-05T12:00:00Z");
 
         GoldPriceSnapshot s1 = snapshot(base.minus(Duration.ofMinutes(20)), "1900.00");
@@ -30,21 +49,65 @@ class GoldPriceHistoryTest {
     }
 
     @Test
-    void skipsSnapshotWhenPriceMatchesLatest() {
-        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore());
+    void skipsSnapshotWhenUpstreamTimestampIsNotNewer() {
+        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
         Instant base = Instant.parse("2026-01-05T12:00:00Z");
 
-        GoldPriceSnapshot first = snapshot(base.minusSeconds(10), "1900.00");
-        GoldPriceSnapshot duplicate = snapshot(base, "1900.0");
+        GoldPriceSnapshot first = snapshot(base.minusSeconds(10), "1900.00", base.minusSeconds(10));
+        GoldPriceSnapshot duplicate = snapshot(base, "1901.00", base.minusSeconds(10));
+        GoldPriceSnapshot stale = snapshot(base, "1899.00", base.minusSeconds(30));
 
-        assertThat(history.addIfPriceChanged(first)).isTrue();
-        assertThat(history.addIfPriceChanged(duplicate)).isFalse();
+        assertThat(history.addIfNewTick(first)).isTrue();
+        assertThat(history.addIfNewTick(duplicate)).isFalse();
+        assertThat(history.addIfNewTick(stale)).isFalse();
         assertThat(history.getAll()).containsExactly(first);
     }
 
+    @Test
+    void storesNewUpstreamTickAtSamePrice() {
+        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
+        Instant base = Instant.parse("2026-01-05T12:00:00Z");
+
+        GoldPriceSnapshot first = snapshot(base.minusSeconds(10), "1900.00");
+        GoldPriceSnapshot next = snapshot(base, "1900.0");
+
+        assertThat(history.addIfNewTick(first)).isTrue();
+        assertThat(history.addIfNewTick(next)).isTrue();
+        assertThat(history.getAll()).containsExactly(first, next);
+    }
+
+    @Test
+    void fallsBackToPriceComparisonWithoutUpstreamTimestamp() {
+        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
+        Instant base = Instant.parse("2026-01-05T12:00:00Z");
+
+        GoldPriceSnapshot first = snapshot(base.minusSeconds(10), "1900.00", null);
+        GoldPriceSnapshot samePrice = snapshot(base.minusSeconds(5), "1900.0", null);
+        GoldPriceSnapshot changed = snapshot(base, "1901.00", null);
+
+        assertThat(history.addIfNewTick(first)).isTrue();
+        assertThat(history.addIfNewTick(samePrice)).isFalse();
+        assertThat(history.addIfNewTick(changed)).isTrue();
+        assertThat(history.getAll()).containsExactly(first, changed);
+    }
+
+    @Test
+    void seedsUpstreamTimestampFromWarmUpWithoutQueryingPerTick() {
+        InMemoryGoldPriceSnapshotStore store = spy(new InMemoryGoldPriceSnapshotStore());
+        Instant base = Instant.parse("2026-01-05T12:00:00Z");
+        store.save(snapshot(base.minusSeconds(10), "1900.00"));
+        GoldPriceHistory history = new GoldPriceHistory(store, null, null);
+        history.warmUp();
+
+        assertThat(history.addIfNewTick(snapshot(base, "1900.00", base.minusSeconds(10)))).isFalse();
+        assertThat(history.addIfNewTick(snapshot(base, "1900.00", base))).isTrue();
+        verify(store, times(1)).findRecentDesc(anyInt());
+        verify(store, never()).findSnapshotAtOrBefore(any());
+    }
+
     @Test
     void returnsRecentSnapshotsInChronologicalOrder() {
-        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore());
+        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
         Instant base = Instant.parse("2026-01-05T12:00:00Z");
 
         GoldPriceSnapshot s1 = snapshot(base.minusSeconds(2), "1900.00");
@@ -60,7 +123,7 @@ class GoldPriceHistoryTest {
 
     @Test
     void findsSnapshotAtOrBeforeTarget() {
-        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore());
+        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
         Instant base = Instant.parse("2026-01-05T12:00:00Z");
 
         GoldPriceSnapshot s1 = snapshot(base.minusSeconds(20), "1900.00");
@@ -73,12 +136,219 @@ class GoldPriceHistoryTest {
                 .contains(s1);
     }
 
+    @Test
+    void servesTickReadsFromBufferAfterWarmUp() {
+        InMemoryGoldPriceSnapshotStore store = spy(new InMemoryGoldPriceSnapshotStore());
+        Instant base = Instant.parse("2026-01-05T12:00:00Z");
+        for (int minute = 90; minute >= 1; minute--) {
+            store.save(snapshot(base.minus(Duration.ofMinutes(minute)), "19" + String.format("%02d", minute) + ".00"));
+        }
+        GoldPriceHistory history = new GoldPriceHistory(store, null, null);
+        history.warmUp();
+
+        GoldPriceSnapshot latest = snapshot(base, "1800.00");
+        assertThat(history.addIfNewTick(latest)).isTrue();
+        assertThat(history.findSnapshotAtOrBefore(base.minus(Duration.ofMinutes(60))))
+                .get()
+                .extracting(GoldPriceSnapshot::fetchedAt)
+                .isEqualTo(base.minus(Duration.ofMinutes(60)));
+        assertThat(history.getRecent(2)).extracting(GoldPriceSnapshot::fetchedAt)
+                .containsExactly(base, base.minus(Duration.ofMinutes(1)));
+        assertThat(history.getRecent(60)).hasSize(60);
+
+        verify(store, times(1)).findRecentDesc(anyInt());
+        verify(store, never()).findSnapshotAtOrBefore(any());
+        verify(store, times(91)).save(any());
+    }
+
+    @Test
+    void reportsEmptyBaselineWithoutQueryingStoreWhenHistoryIsComplete() {
+        InMemoryGoldPriceSnapshotStore store = spy(new InMemoryGoldPriceSnapshotStore());
+        Instant base = Instant.parse("2026-01-05T12:00:00Z");
+        GoldPriceHistory history = new GoldPriceHistory(store, null, null);
+
+        history.add(snapshot(base, "1900.00"));
+
+        assertThat(history.findSnapshotAtOrBefore(base.minusSeconds(60))).isEmpty();
+        verify(store, never()).findSnapshotAtOrBefore(any());
+    }
+
+    @Test
+    void fallsBackToStoreWhenTargetIsOlderThanBufferedRange() {
+        InMemoryGoldPriceSnapshotStore store = spy(new InMemoryGoldPriceSnapshotStore());
+        Instant base = Instant.parse("2026-01-05T12:00:00Z");
+        GoldPriceSnapshot old = snapshot(base.minus(Duration.ofDays(2)), "1800.00");
+        store.save(old);
+        for (int minute = 200; minute >= 0; minute--) {
+            store.save(snapshot(base.minus(Duration.ofMinutes(minute)), "1900." + String.format("%03d", minute)));
+        }
+        GoldPriceHistory history = new GoldPriceHistory(store, null, null);
+        history.warmUp();
+
+        assertThat(history.findSnapshotAtOrBefore(base.minus(Duration.ofDays(1)))).contains(old);
+        verify(store).findSnapshotAtOrBefore(base.minus(Duration.ofDays(1)));
+    }
+
+    @Test
+    void resolvesAllWindowBaselinesInOneLookup() {
+        InMemoryGoldPriceSnapshotStore store = spy(new InMemoryGoldPriceSnapshotStore());
+        Instant base = Instant.parse("2026-01-05T12:00:00Z");
+        GoldPriceSnapshot s60 = snapshot(base.minus(Duration.ofMinutes(61)), "1900.00");
+        GoldPriceSnapshot s15 = snapshot(base.minus(Duration.ofMinutes(16)), "1901.00");
+        GoldPriceSnapshot s1 = snapshot(base.minus(Duration.ofMinutes(1)), "1902.00");
+        GoldPriceHistory history = new GoldPriceHistory(store, null, null);
+        history.add(s60);
+        history.add(s15);
+        history.add(s1);
+
+        Instant t1 = base.minus(Duration.ofMinutes(1));
+        Instant t15 = base.minus(Duration.ofMinutes(15));
+        Instant t60 = base.minus(Duration.ofMinutes(60));
+        Instant t120 = base.minus(Duration.ofMinutes(120));
+        Map<Instant, GoldPriceSnapshot> baselines = history.findSnapshotsAtOrBefore(List.of(t1, t15, t60, t60, t120));
+
+        assertThat(baselines)
+                .containsEntry(t1, s1)
+                .containsEntry(t15, s15)
+                .containsEntry(t60, s60)
+                .doesNotContainKey(t120);
+        verify(store, never()).findSnapshotAtOrBefore(any());
+        verify(store, never()).findSnapshotsAtOrBefore(any());
+    }
+
+    @Test
+    void windowExtremesMatchBruteForceScanAsWindowSlides() {
+        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
+        Duration window = Duration.ofMinutes(10);
+        Random random = new Random(42);
+        List<GoldPriceSnapshot> ticks = new ArrayList<>();
+        Instant time = Instant.parse("2026-01-05T12:00:00Z");
+        BigDecimal price = new BigDecimal("1900.00");
+        for (int i = 0; i < 2_000; i++) {
+            time = time.plusSeconds(1 + random.nextInt(60));
+            price = price.add(BigDecimal.valueOf(random.nextInt(201) - 100, 2));
+            GoldPriceSnapshot tick = snapshot(time, price.toPlainString());
+            assertThat(history.addIfNewTick(tick)).isTrue();
+            ticks.add(tick);
+            if (i == 1_000) {
+                // 重新预热后按缓冲区重新装填
+                history.warmUp();
+            }
+
+            Instant cutoff = time.minus(window);
+            List<BigDecimal> inWindow = ticks.stream()
+                    .filter(snapshot -> snapshot.fetchedAt().isAfter(cutoff))
+                    .map(GoldPriceSnapshot::price)
+                    .toList();
+            GoldPriceWindowExtremes.Extremes extremes = history.findWindowExtremes(window, time).orElseThrow();
+            assertThat(extremes.high().price()).isEqualByComparingTo(inWindow.stream().max(BigDecimal::compareTo).orElseThrow());
+            assertThat(extremes.low().price()).isEqualByComparingTo(inWindow.stream().min(BigDecimal::compareTo).orElseThrow());
+        }
+    }
+
+    @Test
+    void historyReadsStayFlatDuringSlowInsert() throws Exception {
+        AtomicBoolean slowInsert = new AtomicBoolean(false);
+        CountDownLatch insertStarted = new CountDownLatch(1);
+        CountDownLatch releaseInsert = new CountDownLatch(1);
+        InMemoryGoldPriceSnapshotStore store = new InMemoryGoldPriceSnapshotStore() {
+            @Override
+            public synchronized GoldPriceSnapshot save(GoldPriceSnapshot snapshot) {
+                if (slowInsert.get()) {
+                    insertStarted.countDown();
+                    try {
+                        releaseInsert.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.save(snapshot);
+            }
+        };
+        Instant base = Instant.parse("2026-01-05T12:00:00Z");
+        GoldPriceHistory history = new GoldPriceHistory(store, null, null);
+        for (int second = 200; second >= 1; second--) {
+            history.add(snapshot(base.minusSeconds(second), "1900." + String.format("%03d", second)));
+        }
+        long baselineNanos = measureReads(history, base);
+
+        slowInsert.set(true);
+        CompletableFuture<Boolean> insert = CompletableFuture.supplyAsync(
+                () -> history.addIfNewTick(snapshot(base, "1950.00"))
+        );
+        try {
+            assertThat(insertStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            long contendedNanos = assertTimeoutPreemptively(Duration.ofSeconds(1), () -> measureReads(history, base));
+            assertThat(insert).isNotDone();
+            assertThat(contendedNanos).isLessThan(Math.max(baselineNanos * 20, TimeUnit.MILLISECONDS.toNanos(200)));
+            assertThat(history.latest()).get().extracting(GoldPriceSnapshot::fetchedAt).isEqualTo(base.minusSeconds(1));
+        } finally {
+            releaseInsert.countDown();
+        }
+
+        assertThat(insert.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(history.getRecent(1)).extracting(GoldPriceSnapshot::fetchedAt).containsExactly(base);
+    }
+
+    @Test
+    void streamsSnapshotsWithinTimeRange() {
+        GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
+        Instant base = Instant.parse("2026-01-05T12:00:00Z");
+        GoldPriceSnapshot s1 = snapshot(base.minusSeconds(30), "1900.00");
+        GoldPriceSnapshot s2 = snapshot(base.minusSeconds(20), "1901.00");
+        GoldPriceSnapshot s3 = snapshot(base.minusSeconds(10), "1902.00");
+        history.add(s1);
+        history.add(s2);
+        history.add(s3);
+
+        List<GoldPriceSnapshot> streamed = new ArrayList<>();
+        history.forEachInRange(base.minusSeconds(20), null, streamed::add);
+
+        assertThat(streamed).containsExactly(s2, s3);
+    }
+
+    @Test
+    void storesNewerTickThatArrivesWithAnOlderFetchedAtInJournalMode(@TempDir Path directory) throws IOException {
+        Instant base = Instant.parse("2026-01-05T12:00:00Z");
+        try (JournalGoldPriceSnapshotStore journal = new JournalGoldPriceSnapshotStore(directory.resolve("ticks.dat"), false)) {
+            GoldPriceHistory history = new GoldPriceHistory(journal, null, null);
+            assertThat(history.addIfNewTick(snapshot(base.plusSeconds(10), "1900.00", base))).isTrue();
+
+            // 轮询先发起后返回：上游报价更新，但 fetchedAt 早于推送刚入库的那条
+            GoldPriceSnapshot slowPoll = snapshot(base.plusSeconds(5), "1901.00", base.plusSeconds(1));
+            assertThat(history.addIfNewTick(slowPoll)).isTrue();
+
+            // 只有日志文件内部按上一条的时间记录，内存中的快照保持原样
+            assertThat(slowPoll.fetchedAt()).isEqualTo(base.plusSeconds(5));
+            assertThat(journal.findAllAsc())
+                    .extracting(GoldPriceSnapshot::getFetchedAt, GoldPriceSnapshot::getUpdatedAt)
+                    .containsExactly(
+                            tuple(base.plusSeconds(10), base),
+                            tuple(base.plusSeconds(10), base.plusSeconds(1))
+                    );
+            assertThat(history.getRecent(2)).contains(slowPoll);
+        }
+    }
+
+    private static long measureReads(GoldPriceHistory history, Instant base) {
+        long start = System.nanoTime();
+        for (int i = 0; i < 200; i++) {
+            assertThat(history.getRecent(100)).hasSize(100);
+            assertThat(history.findSnapshotAtOrBefore(base.minusSeconds(150))).isPresent();
+        }
+        return System.nanoTime() - start;
+    }
+
     private static GoldPriceSnapshot snapshot(Instant time, String price) {
+        return snapshot(time, price, time);
+    }
+
+    private static GoldPriceSnapshot snapshot(Instant time, String price, Instant updatedAt) {
         GoldApiResponse response = new GoldApiResponse(
                 "gold",
                 new BigDecimal(price),
                 "XAU",
-                time,
+                updatedAt,
                 time.toString()
         );
         return new GoldPriceSnapshot(time, response);
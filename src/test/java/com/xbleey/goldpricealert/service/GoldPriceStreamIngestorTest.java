@@ -0,0 +1,217 @@
+package com.xbleey.goldpricealert.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xbleey.goldpricealert.config.GoldProperties;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import com.xbleey.goldpricealert.support.InMemoryGoldPriceSnapshotStore;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GoldPriceStreamIngestorTest {
+
+    private final Clock clock = Clock.fixed(Instant.parse("2026-01-05T12:00:00Z"), ZoneOffset.UTC);
+    private final GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
+    private final GoldAlertEvaluator evaluator = mock(GoldAlertEvaluator.class);
+    private final List<Duration> reconnectDelays = new CopyOnWriteArrayList<>();
+    private MockWebServer server;
+    private ExecutorService executor;
+    private GoldPriceStreamIngestor ingestor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (ingestor != null) {
+            ingestor.close();
+        }
+        server.shutdown();
+        executor.close();
+    }
+
+    @Test
+    void consumesServerSentEventsAndReconnectsAfterStreamEnds() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "text/event-stream")
+                .setBody(": heartbeat\n\n"
+                        + event("1900.00", "2026-01-05T11:59:58Z", "XAU")
+                        + event("25.10", "2026-01-05T11:59:58Z", "XAG")
+                        + "data: not-json\n\n"));
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "text/event-stream")
+                .setBody(event("1905.00", "2026-01-05T11:59:59Z", "XAU")));
+        ingestor = ingestor(server.url("/stream").uri());
+
+        ingestor.connect();
+
+        awaitLatestPrice("1905.00");
+        assertThat(reconnectDelays).isNotEmpty();
+        assertThat(reconnectDelays.getFirst()).isBetween(Duration.ofMillis(500), Duration.ofSeconds(1));
+        assertThat(server.takeRequest().getHeader("Accept")).isEqualTo("text/event-stream");
+        assertThat(history.getAll()).extracting(GoldPriceSnapshot::getSymbol).containsOnly("XAU");
+        verify(evaluator, timeout(2_000).times(2)).evaluate(any());
+    }
+
+    @Test
+    void webSocketTickReachesEvaluatorWithinMilliseconds() throws Exception {
+        CompletableFuture<WebSocket> serverSocket = new CompletableFuture<>();
+        server.enqueue(new MockResponse().withWebSocketUpgrade(new WebSocketListener() {
+            @Override
+            public void onOpen(WebSocket webSocket, Response response) {
+                serverSocket.complete(webSocket);
+            }
+
+            @Override
+            public void onClosing(WebSocket webSocket, int code, String reason) {
+                webSocket.close(1000, null);
+            }
+        }));
+        CompletableFuture<Long> evaluatedAt = new CompletableFuture<>();
+        when(evaluator.evaluate(any())).thenAnswer(invocation -> {
+            evaluatedAt.complete(System.nanoTime());
+            return false;
+        });
+        ingestor = ingestor(URI.create("ws://" + server.getHostName() + ":" + server.getPort() + "/stream"));
+
+        ingestor.connect();
+        WebSocket socket = serverSocket.get(5, TimeUnit.SECONDS);
+        long sentAt = System.nanoTime();
+        socket.send(json("1934.56", "2026-01-05T11:59:59Z", "XAU"));
+
+        Duration latency = Duration.ofNanos(evaluatedAt.get(5, TimeUnit.SECONDS) - sentAt);
+        assertThat(latency).isLessThan(Duration.ofMillis(500));
+        assertThat(history.latest()).get().extracting(GoldPriceSnapshot::price).isEqualTo(new BigDecimal("1934.56"));
+        assertThat(ingestor.isConnected()).isTrue();
+    }
+
+    @Test
+    void coalescesBurstWhilePreviousTickIsBeingEvaluated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch evaluating = new CountDownLatch(1);
+        when(evaluator.evaluate(any())).thenAnswer(invocation -> {
+            evaluating.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return false;
+        });
+        ingestor = ingestor(URI.create("http://localhost/stream"));
+        Instant base = Instant.parse("2026-01-05T11:00:00Z");
+
+        ingestor.accept(json("1900.00", base.toString(), "XAU"));
+        assertThat(evaluating.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i <= 100; i++) {
+            ingestor.accept(json("19" + String.format("%02d", i % 100) + ".50", base.plusSeconds(i).toString(), "XAU"));
+        }
+        release.countDown();
+
+        awaitLatestPrice("1900.50");
+        assertThat(ingestor.coalescedCount()).isEqualTo(99);
+        assertThat(history.getAll()).hasSize(2);
+    }
+
+    @Test
+    void routesOnlyExplicitlyMappedSymbolsAndDropsTheRest() throws Exception {
+        GoldPriceHistory eurHistory = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
+        GoldInstrumentPipelines pipelines = new GoldInstrumentPipelines(List.of(
+                new GoldInstrumentPipeline("XAU", List.of(), history, evaluator, null, null),
+                new GoldInstrumentPipeline("XAU_EUR", List.of(), eurHistory, mock(GoldAlertEvaluator.class), null, null)
+        ));
+        // 订阅的是欧元计价的推送，消息里的 symbol 仍是 XAU
+        ingestor = ingestor(URI.create("http://localhost/stream"), pipelines, Map.of("XAU", "XAU_EUR"));
+
+        ingestor.accept(json("1780.00", "2026-01-05T11:59:58Z", "XAU"));
+        ingestor.accept("""
+                {"name":"gold","price":1900.00,"updatedAt":"2026-01-05T11:59:59Z"}""");
+        ingestor.accept(json("25.10", "2026-01-05T11:59:59Z", "XAG"));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (eurHistory.latest().isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(eurHistory.latest()).get().satisfies(snapshot -> {
+            assertThat(snapshot.getSymbol()).isEqualTo("XAU_EUR");
+            assertThat(snapshot.price()).isEqualByComparingTo("1780.00");
+        });
+        assertThat(history.getAll()).isEmpty();
+        assertThat(ingestor.unmappedCount()).isEqualTo(2);
+    }
+
+    private void awaitLatestPrice(String price) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            if (history.latest().filter(snapshot -> snapshot.price().compareTo(new BigDecimal(price)) == 0).isPresent()) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        assertThat(history.latest()).get().extracting(GoldPriceSnapshot::price).isEqualTo(new BigDecimal(price));
+    }
+
+    private GoldPriceStreamIngestor ingestor(URI url) {
+        GoldInstrumentPipeline pipeline = new GoldInstrumentPipeline("XAU", List.of(), history, evaluator, null, null);
+        return ingestor(url, new GoldInstrumentPipelines(List.of(pipeline)), Map.of("XAU", "XAU"));
+    }
+
+    private GoldPriceStreamIngestor ingestor(URI url, GoldInstrumentPipelines pipelines, Map<String, String> symbols) {
+        GoldProperties properties = new GoldProperties();
+        properties.getStream().setEnabled(true);
+        properties.getStream().setUrl(url);
+        properties.getStream().setSymbols(symbols);
+        return new GoldPriceStreamIngestor(
+                properties,
+                pipelines,
+                GoldClusterCoordinator.standalone(),
+                GoldPipelineStages.sharing(new GoldProperties.Pipeline(), executor),
+                new OkHttpClient(),
+                new ObjectMapper().findAndRegisterModules(),
+                (task, delay) -> {
+                    reconnectDelays.add(delay);
+                    executor.execute(task);
+                },
+                executor,
+                clock
+        );
+    }
+
+    private static String event(String price, String updatedAt, String symbol) {
+        return "event: price\ndata: " + json(price, updatedAt, symbol) + "\n\n";
+    }
+
+    private static String json(String price, String updatedAt, String symbol) {
+        return """
+                {"name":"gold","price":%s,"symbol":"%s","updatedAt":"%s","updatedAtReadable":"-"}""".formatted(price, symbol, updatedAt);
+    }
+}
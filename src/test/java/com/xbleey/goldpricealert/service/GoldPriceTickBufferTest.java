@@ -0,0 +1,76 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.model.GoldApiResponse;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GoldPriceTickBufferTest {
+
+    private static final Instant BASE = Instant.parse("2026-01-05T12:00:00Z");
+
+    @Test
+    void publishedViewsStayUnchangedWhileTheBufferKeepsGrowingAndEvicting() {
+        GoldPriceTickBuffer buffer = new GoldPriceTickBuffer(Duration.ofHours(1), 1, 4);
+        List<GoldPriceTickBuffer.View> views = new ArrayList<>();
+        List<List<Integer>> expected = new ArrayList<>();
+        List<Integer> live = new ArrayList<>();
+
+        // 上限 4 条，写满后每条都淘汰最旧的一条，期间多次搬迁底层数组
+        for (int i = 0; i < 20; i++) {
+            buffer.append(tick(i));
+            live.add(i);
+            if (live.size() > 4) {
+                live.removeFirst();
+            }
+            views.add(buffer.view());
+            expected.add(List.copyOf(live));
+        }
+        // 乱序到达的行情插在中间
+        buffer.append(tick(17, 30));
+        GoldPriceTickBuffer.View afterInsert = buffer.view();
+
+        for (int i = 0; i < views.size(); i++) {
+            assertThat(seconds(views.get(i))).as("view %d", i).isEqualTo(expected.get(i));
+        }
+        assertThat(seconds(afterInsert)).containsExactly(17, 17, 18, 19);
+        assertThat(afterInsert.findAtOrBefore(BASE.plusSeconds(17).plusMillis(500)))
+                .get().extracting(snapshot -> snapshot.price().intValue()).isEqualTo(30);
+    }
+
+    @Test
+    void evictsExpiredTicksButKeepsTheBaselineBeforeTheCutoff() {
+        GoldPriceTickBuffer buffer = new GoldPriceTickBuffer(Duration.ofSeconds(10), 1, 100);
+
+        for (int i = 0; i <= 30; i += 5) {
+            buffer.append(tick(i));
+        }
+
+        assertThat(seconds(buffer.view())).containsExactly(20, 25, 30);
+        assertThat(buffer.view().covers(BASE.plusSeconds(20))).isTrue();
+        assertThat(buffer.view().covers(BASE.plusSeconds(19))).isFalse();
+    }
+
+    private static List<Integer> seconds(GoldPriceTickBuffer.View view) {
+        List<Integer> seconds = new ArrayList<>();
+        view.forEachAfter(Instant.MIN, snapshot -> seconds.add((int) Duration.between(BASE, snapshot.getFetchedAt()).toSeconds()));
+        return seconds;
+    }
+
+    private static GoldPriceSnapshot tick(int seconds) {
+        return tick(seconds, seconds);
+    }
+
+    // 乱序行情放在同一秒的后半段，便于按秒断言
+    private static GoldPriceSnapshot tick(int seconds, int price) {
+        Instant at = BASE.plusSeconds(seconds).plusMillis(price == seconds ? 0 : 500);
+        return new GoldPriceSnapshot(at, new GoldApiResponse("gold", BigDecimal.valueOf(price), "XAU", at, "-"));
+    }
+}
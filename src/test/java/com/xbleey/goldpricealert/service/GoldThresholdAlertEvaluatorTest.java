@@ -0,0 +1,141 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.config.GoldProperties;
+import com.xbleey.goldpricealert.enums.GoldThresholdDirection;
+import com.xbleey.goldpricealert.model.GoldApiResponse;
+import com.xbleey.goldpricealert.model.GoldPriceSnapshot;
+import com.xbleey.goldpricealert.model.GoldThresholdHistory;
+import com.xbleey.goldpricealert.support.InMemoryGoldPriceSnapshotStore;
+import com.xbleey.goldpricealert.support.InMemoryGoldThresholdHistoryStore;
+import com.xbleey.goldpricealert.support.MutableClock;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class GoldThresholdAlertEvaluatorTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-05T12:00:00Z"));
+    private final InMemoryGoldThresholdHistoryStore historyStore = new InMemoryGoldThresholdHistoryStore();
+    private final GoldThresholdStore thresholdStore = new GoldThresholdStore(historyStore, new GoldProperties(), null, clock);
+    private final GoldPriceHistory history = new GoldPriceHistory(new InMemoryGoldPriceSnapshotStore(), null, null);
+    private final GoldThresholdAlertScheduler scheduler = mock(GoldThresholdAlertScheduler.class);
+    private final GoldThresholdAlertEvaluator evaluator = new GoldThresholdAlertEvaluator(history, thresholdStore, scheduler, null);
+
+    @Test
+    void triggersEveryUserThresholdCrossedByOneTickInOneMessage() {
+        GoldThresholdHistory alice = thresholdStore.addThreshold("alice", new BigDecimal("1910"), null);
+        GoldThresholdHistory bob = thresholdStore.addThreshold("bob", new BigDecimal("1912.5"), GoldThresholdDirection.UP);
+        GoldThresholdHistory carol = thresholdStore.addThreshold("carol", new BigDecimal("1905"), GoldThresholdDirection.DOWN);
+        thresholdStore.addThreshold("dave", new BigDecimal("1920"), null);
+
+        assertThat(tick("1900.00")).isFalse();
+        assertThat(tick("1915.00")).isTrue();
+
+        ArgumentCaptor<GoldThresholdAlertMessage> captor = ArgumentCaptor.forClass(GoldThresholdAlertMessage.class);
+        verify(scheduler).schedule(captor.capture());
+        GoldThresholdAlertMessage message = captor.getValue();
+        assertThat(message.direction()).isEqualTo(GoldThresholdDirection.UP);
+        assertThat(message.threshold()).isEqualByComparingTo("1912.5");
+        assertThat(message.price()).isEqualByComparingTo("1915.00");
+        assertThat(message.triggers())
+                .extracting(GoldThresholdAlertMessage.Trigger::username)
+                .containsExactly("alice", "bob");
+        assertThat(status(alice)).isEqualTo(GoldThresholdHistory.STATUS_TRIGGERED);
+        assertThat(status(bob)).isEqualTo(GoldThresholdHistory.STATUS_TRIGGERED);
+        assertThat(status(carol)).isEqualTo(GoldThresholdHistory.STATUS_PENDING);
+
+        // 回落穿越 1910 与 1905：alice 已触发不再提醒，carol 只在下跌时触发
+        assertThat(tick("1904.99")).isTrue();
+        verify(scheduler, times(2)).schedule(captor.capture());
+        assertThat(captor.getValue().direction()).isEqualTo(GoldThresholdDirection.DOWN);
+        assertThat(captor.getValue().triggers())
+                .extracting(GoldThresholdAlertMessage.Trigger::username)
+                .containsExactly("carol");
+        assertThat(thresholdStore.pendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsThresholdPendingInIndexWhenMarkingItTriggeredFails() {
+        InMemoryGoldThresholdHistoryStore failingStore = spy(new InMemoryGoldThresholdHistoryStore());
+        GoldThresholdStore store = new GoldThresholdStore(failingStore, new GoldProperties(), null, clock);
+        GoldThresholdAlertEvaluator failingEvaluator = new GoldThresholdAlertEvaluator(history, store, scheduler, null);
+        GoldThresholdHistory alice = store.addThreshold("alice", new BigDecimal("1910"), null);
+        GoldThresholdHistory bob = store.addThreshold("bob", new BigDecimal("1912"), null);
+        doThrow(new IllegalStateException("db down")).when(failingStore).markTriggered(eq(alice.getId()), any(), any());
+
+        history.add(snapshot("1900.00"));
+        clock.advance(Duration.ofSeconds(30));
+        GoldPriceSnapshot up = snapshot("1915.00");
+        history.add(up);
+        assertThat(failingEvaluator.evaluate(up)).isTrue();
+
+        // bob 照常提醒；alice 写库失败，仍留在索引里，下一次穿越时再提醒
+        ArgumentCaptor<GoldThresholdAlertMessage> captor = ArgumentCaptor.forClass(GoldThresholdAlertMessage.class);
+        verify(scheduler).schedule(captor.capture());
+        assertThat(captor.getValue().triggers()).extracting(GoldThresholdAlertMessage.Trigger::username).containsExactly("bob");
+        assertThat(failingStore.findById(bob.getId()).orElseThrow().getStatus()).isEqualTo(GoldThresholdHistory.STATUS_TRIGGERED);
+        assertThat(failingStore.findById(alice.getId()).orElseThrow().getStatus()).isEqualTo(GoldThresholdHistory.STATUS_PENDING);
+        assertThat(store.pendingCount()).isEqualTo(1);
+
+        doCallRealMethod().when(failingStore).markTriggered(eq(alice.getId()), any(), any());
+        clock.advance(Duration.ofSeconds(30));
+        GoldPriceSnapshot down = snapshot("1905.00");
+        history.add(down);
+        assertThat(failingEvaluator.evaluate(down)).isTrue();
+        verify(scheduler, times(2)).schedule(captor.capture());
+        assertThat(captor.getValue().triggers()).extracting(GoldThresholdAlertMessage.Trigger::username).containsExactly("alice");
+        assertThat(failingStore.findById(alice.getId()).orElseThrow().getStatus()).isEqualTo(GoldThresholdHistory.STATUS_TRIGGERED);
+        assertThat(store.pendingCount()).isZero();
+    }
+
+    @Test
+    void firstTickAfterRestartComparesWithPreviousStoredSnapshot() {
+        history.add(snapshot("1900.00"));
+        clock.advance(Duration.ofSeconds(30));
+        thresholdStore.addThreshold("alice", new BigDecimal("1900.00"), null);
+
+        assertThat(tick("1899.99")).isTrue();
+    }
+
+    @Test
+    void ignoresTicksThatDoNotCrossAnyThreshold() {
+        thresholdStore.addThreshold("alice", new BigDecimal("1950"), null);
+
+        tick("1900.00");
+        tick("1940.00");
+        tick("1949.9999");
+
+        verifyNoInteractions(scheduler);
+        assertThat(thresholdStore.pendingCount()).isEqualTo(1);
+    }
+
+    private boolean tick(String price) {
+        clock.advance(Duration.ofSeconds(30));
+        GoldPriceSnapshot snapshot = snapshot(price);
+        history.add(snapshot);
+        return evaluator.evaluate(snapshot);
+    }
+
+    private GoldPriceSnapshot snapshot(String price) {
+        Instant now = clock.instant();
+        return new GoldPriceSnapshot(now, new GoldApiResponse("gold", new BigDecimal(price), "XAU", now, now.toString()));
+    }
+
+    private String status(GoldThresholdHistory record) {
+        return historyStore.findById(record.getId()).orElseThrow().getStatus();
+    }
+}
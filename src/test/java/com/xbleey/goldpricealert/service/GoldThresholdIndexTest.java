@@ -0,0 +1,114 @@
+package com.xbleey.goldpricealert.service;
+
+import com.xbleey.goldpricealert.enums.GoldThresholdDirection;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GoldThresholdIndexTest {
+
+    private static final GoldThresholdDirection[] DIRECTIONS = {null, GoldThresholdDirection.UP, GoldThresholdDirection.DOWN};
+
+    @Test
+    void removesExactlyTheThresholdsCrossedInTravelOrder() {
+        Random random = new Random(24L);
+        GoldThresholdIndex index = new GoldThresholdIndex();
+        List<GoldThresholdIndex.Entry> pending = new ArrayList<>();
+        for (long id = 1; id <= 3_000; id++) {
+            GoldThresholdIndex.Entry entry = new GoldThresholdIndex.Entry(
+                    id,
+                    "user" + random.nextInt(50),
+                    BigDecimal.valueOf(190_000 + random.nextInt(2_000), 2),
+                    DIRECTIONS[random.nextInt(DIRECTIONS.length)]
+            );
+            index.add(entry);
+            pending.add(entry);
+        }
+        BigDecimal price = new BigDecimal("1910.00");
+        for (int tick = 0; tick < 3_000; tick++) {
+            // 行情价格可能有 5 位小数，也可能正好落在阈值上
+            BigDecimal next = price.add(BigDecimal.valueOf(random.nextInt(40_001) - 20_000, 5))
+                    .max(new BigDecimal("1890")).min(new BigDecimal("1930"));
+            if (tick % 7 == 0) {
+                next = pending.isEmpty() ? next : pending.get(random.nextInt(pending.size())).threshold();
+            }
+            List<GoldThresholdIndex.Entry> expected = bruteForce(pending, price, next);
+            List<GoldThresholdIndex.Entry> crossed = index.removeCrossed(price, next);
+
+            assertThat(crossed).as("%s -> %s", price, next).isEqualTo(expected);
+            pending.removeAll(expected);
+            assertThat(index.size()).isEqualTo(pending.size());
+            price = next;
+        }
+    }
+
+    @Test
+    void handlesAMillionRegisteredThresholds() {
+        Random random = new Random(1_000_000L);
+        GoldThresholdIndex index = new GoldThresholdIndex();
+        BigDecimal[] prices = new BigDecimal[4_000];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = BigDecimal.valueOf(180_000 + i * 10L, 2);
+        }
+        for (long id = 1; id <= 1_000_000; id++) {
+            index.add(new GoldThresholdIndex.Entry(id, "user" + (id % 10_000), prices[random.nextInt(prices.length)], null));
+        }
+
+        // 每条行情只访问被穿越的价位，不随登记总数增长；这里只检查结果规模与计数一致
+        BigDecimal price = new BigDecimal("2000.005");
+        int removed = 0;
+        for (int tick = 0; tick < 10_000; tick++) {
+            BigDecimal next = price.add(BigDecimal.valueOf(random.nextInt(201) - 100, 3));
+            for (GoldThresholdIndex.Entry entry : index.removeCrossed(price, next)) {
+                assertThat(entry.threshold()).isBetween(price.min(next), price.max(next));
+                removed++;
+            }
+            price = next;
+        }
+        assertThat(index.size()).isEqualTo(1_000_000 - removed);
+    }
+
+    @Test
+    void addIsIdempotentAndRejectsUnrepresentableThresholds() {
+        GoldThresholdIndex index = new GoldThresholdIndex();
+        GoldThresholdIndex.Entry entry = new GoldThresholdIndex.Entry(1, "alice", new BigDecimal("1900.5"), null);
+
+        assertThat(index.add(entry)).isTrue();
+        assertThat(index.add(entry)).isFalse();
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.remove(1, new BigDecimal("1900.50"))).isTrue();
+        assertThat(index.remove(1, new BigDecimal("1900.50"))).isFalse();
+        assertThatThrownBy(() -> index.add(new GoldThresholdIndex.Entry(2, "alice", new BigDecimal("1900.00001"), null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(index.nearest(new BigDecimal("1900"))).isEmpty();
+    }
+
+    // 逐条按定义判断：上涨时 previous < t <= latest，下跌时 latest < t <= previous，方向为空时双向
+    private static List<GoldThresholdIndex.Entry> bruteForce(
+            List<GoldThresholdIndex.Entry> pending,
+            BigDecimal previous,
+            BigDecimal latest
+    ) {
+        int compare = latest.compareTo(previous);
+        if (compare == 0) {
+            return List.of();
+        }
+        boolean up = compare > 0;
+        Comparator<GoldThresholdIndex.Entry> byPrice = Comparator.comparing(GoldThresholdIndex.Entry::threshold);
+        return pending.stream()
+                .filter(entry -> up
+                        ? previous.compareTo(entry.threshold()) < 0 && entry.threshold().compareTo(latest) <= 0
+                        : latest.compareTo(entry.threshold()) < 0 && entry.threshold().compareTo(previous) <= 0)
+                .filter(entry -> entry.direction() == null
+                        || entry.direction() == (up ? GoldThresholdDirection.UP : GoldThresholdDirection.DOWN))
+                .sorted(up ? byPrice : byPrice.reversed())
+                .toList();
+    }
+}
@@ -1,178 +1,156 @@
 package com.xbleey.goldpricealert.service;
 
+import com.xbleey.goldpricealert.config.GoldProperties;
+import com.xbleey.goldpricealert.enums.GoldThresholdDirection;
 import com.xbleey.goldpricealert.model.GoldThresholdHistory;
-import com.xbleey.goldpricealert.repository.GoldThresholdHistoryStore;
+import com.xbleey.goldpricealert.support.InMemoryGoldThresholdHistoryStore;
+import com.xbleey.goldpricealert.support.MutableClock;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentCaptor;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
 
 import java.math.BigDecimal;
-import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.ZoneOffset;
-import java.util.Optional;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.verifyNoInteractions;
-import static org.mockito.Mockito.verifyNoMoreInteractions;
-import static org.mockito.Mockito.when;
 
 class GoldThresholdStoreTest {
 
     private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
 
-    @Test
-    void getThresholdReturnsEmptyWhenNoPendingRecord() {
-        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
-        ValueOperations<String, String> ops = mock(ValueOperations.class);
-        GoldThresholdHistoryStore historyStore = mock(GoldThresholdHistoryStore.class);
-        Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
-        when(historyStore.findLatestPending()).thenReturn(Optional.empty());
-        when(redisTemplate.opsForValue()).thenReturn(ops);
-        when(ops.get("gold:alert:threshold")).thenReturn(null);
-
-        GoldThresholdStore store = new GoldThresholdStore(redisTemplate, historyStore, clock);
-
-        assertThat(store.getThreshold()).isEmpty();
-        verify(historyStore).findLatestPending();
-    }
+    private final MutableClock clock = new MutableClock(NOW);
+    private final InMemoryGoldThresholdHistoryStore historyStore = new InMemoryGoldThresholdHistoryStore();
 
     @Test
-    void setThresholdCreatesNewWhenNoLatestRecord() {
-        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
-        ValueOperations<String, String> ops = mock(ValueOperations.class);
-        GoldThresholdHistoryStore historyStore = mock(GoldThresholdHistoryStore.class);
-        Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
-        when(historyStore.findLatest()).thenReturn(Optional.empty());
-        when(redisTemplate.opsForValue()).thenReturn(ops);
-
-        GoldThresholdStore store = new GoldThresholdStore(redisTemplate, historyStore, clock);
-
-        store.setThreshold(new BigDecimal("4500"));
-
-        ArgumentCaptor<GoldThresholdHistory> captor = ArgumentCaptor.forClass(GoldThresholdHistory.class);
-        verify(historyStore).save(captor.capture());
-        GoldThresholdHistory saved = captor.getValue();
-        assertThat(saved.getThreshold()).isEqualByComparingTo("4500");
-        assertThat(saved.getSetAt()).isEqualTo(NOW);
-        assertThat(saved.getStatus()).isEqualTo(GoldThresholdHistory.STATUS_PENDING);
-        verify(ops).set("gold:alert:threshold", "4500");
-    }
+    void addThresholdPersistsPendingRecordAndIndexesIt() {
+        GoldThresholdStore store = new GoldThresholdStore(historyStore, new GoldProperties(), null, clock);
 
-    @Test
-    void setThresholdUpdatesPendingRecord() {
-        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
-        ValueOperations<String, String> ops = mock(ValueOperations.class);
-        GoldThresholdHistoryStore historyStore = mock(GoldThresholdHistoryStore.class);
-        Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
-        GoldThresholdHistory existing = new GoldThresholdHistory();
-        existing.setId(1L);
-        existing.setStatus(GoldThresholdHistory.STATUS_PENDING);
-        when(historyStore.findLatest()).thenReturn(Optional.of(existing));
-        when(redisTemplate.opsForValue()).thenReturn(ops);
-
-        GoldThresholdStore store = new GoldThresholdStore(redisTemplate, historyStore, clock);
-
-        store.setThreshold(new BigDecimal("4600"));
-
-        ArgumentCaptor<GoldThresholdHistory> captor = ArgumentCaptor.forClass(GoldThresholdHistory.class);
-        verify(historyStore).update(captor.capture());
-        GoldThresholdHistory updated = captor.getValue();
-        assertThat(updated.getId()).isEqualTo(1L);
-        assertThat(updated.getThreshold()).isEqualByComparingTo("4600");
-        assertThat(updated.getSetAt()).isEqualTo(NOW);
-        assertThat(updated.getStatus()).isEqualTo(GoldThresholdHistory.STATUS_PENDING);
-        verify(ops).set("gold:alert:threshold", "4600");
-    }
+        GoldThresholdHistory saved = store.addThreshold("alice", new BigDecimal("4500"), GoldThresholdDirection.UP);
+        store.addThreshold("alice", new BigDecimal("4400.25"), null);
+        store.addThreshold("bob", new BigDecimal("4600"), null);
 
-    @Test
-    void setThresholdCreatesNewWhenLatestTriggered() {
-        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
-        ValueOperations<String, String> ops = mock(ValueOperations.class);
-        GoldThresholdHistoryStore historyStore = mock(GoldThresholdHistoryStore.class);
-        Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
-        GoldThresholdHistory existing = new GoldThresholdHistory();
-        existing.setId(1L);
-        existing.setStatus(GoldThresholdHistory.STATUS_TRIGGERED);
-        when(historyStore.findLatest()).thenReturn(Optional.of(existing));
-        when(redisTemplate.opsForValue()).thenReturn(ops);
-
-        GoldThresholdStore store = new GoldThresholdStore(redisTemplate, historyStore, clock);
-
-        store.setThreshold(new BigDecimal("4700"));
-
-        ArgumentCaptor<GoldThresholdHistory> captor = ArgumentCaptor.forClass(GoldThresholdHistory.class);
-        verify(historyStore).save(captor.capture());
-        GoldThresholdHistory saved = captor.getValue();
-        assertThat(saved.getId()).isNull();
-        assertThat(saved.getThreshold()).isEqualByComparingTo("4700");
+        assertThat(saved.getId()).isNotNull();
+        assertThat(saved.getSetAt()).isEqualTo(NOW);
         assertThat(saved.getStatus()).isEqualTo(GoldThresholdHistory.STATUS_PENDING);
-        verify(ops).set("gold:alert:threshold", "4700");
+        assertThat(saved.getDirection()).isEqualTo("UP");
+        assertThat(store.listThresholds("alice"))
+                .extracting(GoldThresholdHistory::getThreshold)
+                .containsExactly(new BigDecimal("4400.25"), new BigDecimal("4500"));
+        assertThat(store.pendingCount()).isEqualTo(3);
+        assertThat(store.nearestThreshold(new BigDecimal("4540"))).contains(new BigDecimal("4500"));
+        assertThat(store.nearestThreshold(new BigDecimal("4560"))).contains(new BigDecimal("4600"));
     }
 
     @Test
-    void setThresholdRejectsNegativeValue() {
-        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
-        GoldThresholdHistoryStore historyStore = mock(GoldThresholdHistoryStore.class);
-        Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
-        GoldThresholdStore store = new GoldThresholdStore(redisTemplate, historyStore, clock);
+    void addThresholdRejectsInvalidValuesAndEnforcesPerUserLimit() {
+        GoldProperties properties = new GoldProperties();
+        properties.getThreshold().setMaxPerUser(2);
+        GoldThresholdStore store = new GoldThresholdStore(historyStore, properties, null, clock);
 
-        assertThatThrownBy(() -> store.setThreshold(new BigDecimal("-1")))
+        assertThatThrownBy(() -> store.addThreshold("alice", new BigDecimal("-1"), null))
                 .isInstanceOf(IllegalArgumentException.class)
-                .hasMessageContaining(">= 0");
+                .hasMessageContaining("> 0");
+        assertThatThrownBy(() -> store.addThreshold("alice", new BigDecimal("4500.12345"), null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("decimal places");
+        assertThatThrownBy(() -> store.addThreshold(" ", new BigDecimal("4500"), null))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        store.addThreshold("alice", new BigDecimal("4500"), null);
+        store.addThreshold("alice", new BigDecimal("4600"), null);
+        assertThatThrownBy(() -> store.addThreshold("alice", new BigDecimal("4700"), null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("at most 2");
+        store.addThreshold("bob", new BigDecimal("4700"), null);
+        assertThat(store.pendingCount()).isEqualTo(3);
     }
 
     @Test
-    void markTriggeredReturnsFalseWhenNoPending() {
-        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
-        GoldThresholdHistoryStore historyStore = mock(GoldThresholdHistoryStore.class);
-        Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
-        when(historyStore.findLatestPending()).thenReturn(Optional.empty());
-
-        GoldThresholdStore store = new GoldThresholdStore(redisTemplate, historyStore, clock);
-
-        assertThat(store.markTriggered(NOW, new BigDecimal("4800"))).isFalse();
-        verify(historyStore).findLatestPending();
-        verifyNoMoreInteractions(historyStore);
-        verifyNoInteractions(redisTemplate);
+    void usersCanOnlyClearTheirOwnThresholds() {
+        GoldThresholdStore store = new GoldThresholdStore(historyStore, new GoldProperties(), null, clock);
+        GoldThresholdHistory alice = store.addThreshold("alice", new BigDecimal("4500"), null);
+        store.addThreshold("bob", new BigDecimal("4600"), null);
+        store.addThreshold("bob", new BigDecimal("4700"), null);
+
+        assertThatThrownBy(() -> store.clearThreshold("bob", alice.getId())).isInstanceOf(NoSuchElementException.class);
+        store.clearThreshold("alice", alice.getId());
+        assertThatThrownBy(() -> store.clearThreshold("alice", alice.getId())).isInstanceOf(NoSuchElementException.class);
+
+        assertThat(store.clearThresholds("bob")).isEqualTo(2);
+        assertThat(store.pendingCount()).isZero();
+        assertThat(historyStore.findById(alice.getId())).get()
+                .extracting(GoldThresholdHistory::getStatus)
+                .isEqualTo(GoldThresholdHistory.STATUS_CLEARED);
     }
 
     @Test
-    void markTriggeredClearsCacheWhenUpdated() {
-        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
-        GoldThresholdHistoryStore historyStore = mock(GoldThresholdHistoryStore.class);
-        Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
-        GoldThresholdHistory active = new GoldThresholdHistory();
-        active.setId(5L);
-        active.setStatus(GoldThresholdHistory.STATUS_PENDING);
-        when(historyStore.findLatestPending()).thenReturn(Optional.of(active));
-        when(historyStore.markTriggered(5L, NOW, new BigDecimal("4800"))).thenReturn(true);
-
-        GoldThresholdStore store = new GoldThresholdStore(redisTemplate, historyStore, clock);
-
-        assertThat(store.markTriggered(NOW, new BigDecimal("4800"))).isTrue();
-        verify(redisTemplate).delete("gold:alert:threshold");
+    void loadRebuildsIndexFromPendingRecordsOnly() {
+        GoldThresholdStore first = new GoldThresholdStore(historyStore, new GoldProperties(), null, clock);
+        for (int i = 0; i < 12_000; i++) {
+            first.addThreshold("user" + (i % 200), BigDecimal.valueOf(400_000 + i, 2), null);
+        }
+        GoldThresholdIndex.Entry triggered = first.takeCrossed(null, new BigDecimal("4000.00"), new BigDecimal("4000.01")).getFirst();
+        first.markTriggered(triggered, NOW, new BigDecimal("4000.01"));
+
+        GoldThresholdStore restarted = new GoldThresholdStore(historyStore, new GoldProperties(), null, clock);
+        restarted.load();
+
+        assertThat(restarted.pendingCount()).isEqualTo(11_999);
+        assertThat(restarted.nearestThreshold(new BigDecimal("4000.011"))).contains(new BigDecimal("4000.02"));
     }
 
     @Test
-    void clearThresholdMarksCleared() {
-        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
-        GoldThresholdHistoryStore historyStore = mock(GoldThresholdHistoryStore.class);
-        Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
-        GoldThresholdHistory active = new GoldThresholdHistory();
-        active.setId(7L);
-        active.setStatus(GoldThresholdHistory.STATUS_PENDING);
-        when(historyStore.findLatestPending()).thenReturn(Optional.of(active));
-
-        GoldThresholdStore store = new GoldThresholdStore(redisTemplate, historyStore, clock);
+    void syncAppliesChangesMadeByOtherReplicas() {
+        GoldThresholdStore leader = new GoldThresholdStore(historyStore, new GoldProperties(), null, clock);
+        GoldThresholdStore replica = new GoldThresholdStore(historyStore, new GoldProperties(), null, clock);
+        leader.load();
+        GoldThresholdHistory cleared = replica.addThreshold("alice", new BigDecimal("4500"), null);
+
+        clock.advance(Duration.ofSeconds(3));
+        replica.addThreshold("bob", new BigDecimal("4600"), GoldThresholdDirection.DOWN);
+        replica.clearThreshold("alice", cleared.getId());
+        leader.sync();
+        // 重复同步同一批记录不会重复登记
+        leader.sync();
+
+        assertThat(leader.pendingCount()).isEqualTo(1);
+        assertThat(leader.takeCrossed(null, new BigDecimal("4700"), new BigDecimal("4550")))
+                .extracting(GoldThresholdIndex.Entry::username)
+                .containsExactly("bob");
+    }
 
-        store.clearThreshold();
+    @Test
+    void thresholdsAreIndexedPerSymbol() {
+        GoldThresholdStore store = new GoldThresholdStore(historyStore, withSilver(), null, clock);
+        GoldThresholdHistory gold = store.addThreshold("alice", "XAU", new BigDecimal("31.00"), null);
+        GoldThresholdHistory silver = store.addThreshold("alice", "XAG", new BigDecimal("31.00"), null);
+
+        assertThat(gold.getSymbol()).isNull();
+        assertThat(silver.getSymbol()).isEqualTo("XAG");
+        assertThatThrownBy(() -> store.addThreshold("alice", "XPT", new BigDecimal("900"), null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("unknown symbol");
+        assertThat(store.takeCrossed("XAG", new BigDecimal("30.90"), new BigDecimal("31.10")))
+                .extracting(GoldThresholdIndex.Entry::id)
+                .containsExactly(silver.getId());
+        assertThat(store.nearestThreshold("XAG", new BigDecimal("31.10"))).isEmpty();
+        assertThat(store.nearestThreshold(new BigDecimal("31.10"))).contains(new BigDecimal("31.00"));
+
+        GoldThresholdStore restarted = new GoldThresholdStore(historyStore, withSilver(), null, clock);
+        restarted.load();
+        assertThat(restarted.takeCrossed(null, new BigDecimal("30.90"), new BigDecimal("31.10")))
+                .extracting(GoldThresholdIndex.Entry::id)
+                .containsExactly(gold.getId());
+        assertThat(restarted.takeCrossed("XAG", new BigDecimal("30.90"), new BigDecimal("31.10")))
+                .extracting(GoldThresholdIndex.Entry::id)
+                .containsExactly(silver.getId());
+    }
 
-        verify(historyStore).markCleared(7L);
-        verify(redisTemplate).delete("gold:alert:threshold");
+    private static GoldProperties withSilver() {
+        GoldProperties properties = new GoldProperties();
+        properties.setInstruments(List.of(new GoldProperties.Instrument("XAG", null, List.of())));
+        return properties;
     }
 }
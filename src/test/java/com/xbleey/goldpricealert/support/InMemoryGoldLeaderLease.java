@@ -0,0 +1,68 @@
+package com.xbleey.goldpricealert.support;
+
+import com.xbleey.goldpricealert.service.GoldLeaderLease;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+// 代替 Redis 的租约：按注入的时钟判断过期，语义与 SET NX PX + 比较持有者后续期/删除一致
+public class InMemoryGoldLeaderLease implements GoldLeaderLease {
+
+    private final Clock clock;
+    private String owner;
+    private Instant expiresAt;
+    private RuntimeException failure;
+
+    public InMemoryGoldLeaderLease(Clock clock) {
+        this.clock = clock;
+    }
+
+    // 模拟 Redis 不可达：之后的每次调用都抛出该异常，传入 null 恢复
+    public synchronized void failWith(RuntimeException failure) {
+        this.failure = failure;
+    }
+
+    public synchronized String owner() {
+        return held() ? owner : null;
+    }
+
+    @Override
+    public synchronized boolean tryAcquire(String owner, Duration ttl) {
+        check();
+        if (held()) {
+            return false;
+        }
+        this.owner = owner;
+        this.expiresAt = clock.instant().plus(ttl);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean renew(String owner, Duration ttl) {
+        check();
+        if (!held() || !this.owner.equals(owner)) {
+            return false;
+        }
+        this.expiresAt = clock.instant().plus(ttl);
+        return true;
+    }
+
+    @Override
+    public synchronized void release(String owner) {
+        check();
+        if (held() && this.owner.equals(owner)) {
+            this.owner = null;
+        }
+    }
+
+    private boolean held() {
+        return owner != null && clock.instant().isBefore(expiresAt);
+    }
+
+    private void check() {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class InMemoryGoldPriceSnapshotStore implements GoldPriceSnapshotStore {
 
@@ -71,4 +72,27 @@ public class InMemoryGoldPriceSnapshotStore implements GoldPriceSnapshotStore {
                 .limit(safeLimit)
                 .toList();
     }
+
+    @Override
+    public List<GoldPriceSnapshot> findPageDesc(Instant beforeTime, Long beforeId, int limit) {
+        return snapshots.stream()
+                .filter(snapshot -> GoldPriceSnapshotStore.isBeforeKey(snapshot, beforeTime, beforeId))
+                .sorted(Comparator.comparing(GoldPriceSnapshot::getFetchedAt)
+                        .thenComparing(GoldPriceSnapshot::getId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .reversed())
+                .limit(Math.max(0, limit))
+                .toList();
+    }
+
+    @Override
+    public long count() {
+        return snapshots.size();
+    }
+
+    @Override
+    public void streamAsc(Instant fromInclusive, Instant toExclusive, Consumer<GoldPriceSnapshot> action) {
+        findAllAsc().stream()
+                .filter(snapshot -> GoldPriceSnapshotStore.isInRange(snapshot.getFetchedAt(), fromInclusive, toExclusive))
+                .forEach(action);
+    }
 }
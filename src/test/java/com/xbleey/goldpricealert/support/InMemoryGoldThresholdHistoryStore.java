@@ -0,0 +1,104 @@
+package com.xbleey.goldpricealert.support;
+
+import com.xbleey.goldpricealert.model.GoldThresholdHistory;
+import com.xbleey.goldpricealert.repository.GoldThresholdHistoryStore;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+
+// 代替 MySQL 的阈值记录表：自增 id，条件更新语义与 MyBatisPlusGoldThresholdHistoryStore 一致。
+// 多个 GoldThresholdStore 共用同一实例即可模拟多副本共享一张表
+public class InMemoryGoldThresholdHistoryStore implements GoldThresholdHistoryStore {
+
+    private final TreeMap<Long, GoldThresholdHistory> records = new TreeMap<>();
+    private long nextId = 1;
+
+    @Override
+    public synchronized GoldThresholdHistory save(GoldThresholdHistory record) {
+        record.setId(nextId++);
+        records.put(record.getId(), copy(record));
+        return record;
+    }
+
+    @Override
+    public synchronized Optional<GoldThresholdHistory> findById(Long id) {
+        return Optional.ofNullable(records.get(id)).map(InMemoryGoldThresholdHistoryStore::copy);
+    }
+
+    @Override
+    public synchronized List<GoldThresholdHistory> findPendingByUsername(String username) {
+        return records.values().stream()
+                .filter(record -> record.isPending() && username.equals(record.getUsername()))
+                .sorted(Comparator.comparing(GoldThresholdHistory::getThreshold).thenComparing(GoldThresholdHistory::getId))
+                .map(InMemoryGoldThresholdHistoryStore::copy)
+                .toList();
+    }
+
+    @Override
+    public synchronized long countPendingByUsername(String username) {
+        return records.values().stream()
+                .filter(record -> record.isPending() && username.equals(record.getUsername()))
+                .count();
+    }
+
+    @Override
+    public synchronized List<GoldThresholdHistory> findPendingAfterId(long afterId, int limit) {
+        return records.tailMap(afterId, false).values().stream()
+                .filter(GoldThresholdHistory::isPending)
+                .limit(limit)
+                .map(InMemoryGoldThresholdHistoryStore::copy)
+                .toList();
+    }
+
+    @Override
+    public synchronized List<GoldThresholdHistory> findChangedSince(Instant since) {
+        return records.values().stream()
+                .filter(record -> !record.getUpdatedAt().isBefore(since))
+                .sorted(Comparator.comparing(GoldThresholdHistory::getUpdatedAt))
+                .map(InMemoryGoldThresholdHistoryStore::copy)
+                .toList();
+    }
+
+    @Override
+    public synchronized boolean markTriggered(Long id, Instant triggeredAt, BigDecimal triggeredPrice) {
+        GoldThresholdHistory record = records.get(id);
+        if (record == null || !record.isPending()) {
+            return false;
+        }
+        record.setStatus(GoldThresholdHistory.STATUS_TRIGGERED);
+        record.setTriggeredAt(triggeredAt);
+        record.setTriggeredPrice(triggeredPrice);
+        record.setUpdatedAt(triggeredAt);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean markCleared(Long id, Instant clearedAt) {
+        GoldThresholdHistory record = records.get(id);
+        if (record == null || !record.isPending()) {
+            return false;
+        }
+        record.setStatus(GoldThresholdHistory.STATUS_CLEARED);
+        record.setUpdatedAt(clearedAt);
+        return true;
+    }
+
+    private static GoldThresholdHistory copy(GoldThresholdHistory source) {
+        GoldThresholdHistory copy = new GoldThresholdHistory();
+        copy.setId(source.getId());
+        copy.setUsername(source.getUsername());
+        copy.setSymbol(source.getSymbol());
+        copy.setThreshold(source.getThreshold());
+        copy.setDirection(source.getDirection());
+        copy.setSetAt(source.getSetAt());
+        copy.setTriggeredAt(source.getTriggeredAt());
+        copy.setTriggeredPrice(source.getTriggeredPrice());
+        copy.setStatus(source.getStatus());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        return copy;
+    }
+}
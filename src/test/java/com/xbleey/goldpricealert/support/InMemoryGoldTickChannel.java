@@ -0,0 +1,23 @@
+package com.xbleey.goldpricealert.support;
+
+import com.xbleey.goldpricealert.service.GoldTickChannel;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// 代替 Redis pub/sub：同步投递给所有订阅者（包括发布者自己，与 Redis 一致）
+public class InMemoryGoldTickChannel implements GoldTickChannel {
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String message) {
+        listeners.forEach(listener -> listener.accept(message));
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,30 @@
+package com.xbleey.goldpricealert.support;
+
+import com.xbleey.goldpricealert.config.TradingCalendarConfig;
+import com.xbleey.goldpricealert.config.TradingCalendarDefinition;
+import com.xbleey.goldpricealert.service.BitmapTradingCalendar;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.Map;
+
+// 直接读取随应用发布的 trading-calendars.yml，测试与线上使用同一份定义
+public final class TestTradingCalendars {
+
+    private static final Map<String, TradingCalendarDefinition> DEFINITIONS =
+            TradingCalendarConfig.loadDefinitions(new ClassPathResource("trading-calendars.yml"));
+
+    private TestTradingCalendars() {
+    }
+
+    public static Map<String, TradingCalendarDefinition> definitions() {
+        return DEFINITIONS;
+    }
+
+    public static BitmapTradingCalendar of(String name) {
+        return new BitmapTradingCalendar(name, DEFINITIONS.get(name));
+    }
+
+    public static BitmapTradingCalendar lbma() {
+        return of("LBMA");
+    }
+}